@@ -0,0 +1,502 @@
+package br.com.Igor.caixaeletronico.carga;
+
+import br.com.Igor.caixaeletronico.CaixaEletronicoApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Carga HTTP em processo, sem ferramentas externas: mvn -Pcarga verify
+ * 
+ * Sobe a aplicação numa porta aleatória, cria as contas pela API v3 em lote e dispara
+ * clientes concorrentes com um mix de criação, depósito, saque, consulta de saldo e da conta
+ * nas APIs v1, v2 e v3 (e na v4 reativa com carga.versoes=...,v4, que liga o servidor dela numa
+ * porta livre). As latências de cada endpoint vão para um HdrHistogram (fora do
+ * aquecimento), com os bytes de corpo recebidos. No fim, a soma dos saldos no banco precisa ser igual aos fundos iniciais
+ * mais os depósitos e criações aceitos menos os saques aceitos: uma atualização perdida
+ * aparece como diferença. O saldo de cada conta pela API também é comparado com o banco,
+ * o que pega um cache de saldos desatualizado.
+ * 
+ * Configuração por propriedades (--carga.clientes=64); as demais vão para a aplicação
+ * (--caixaeletronico.concorrencia.estrategia=otimista). O relatório é um arquivo texto com
+ * o resumo por endpoint e as distribuições de percentis, para comparar entre builds.
+ * 
+ * Os clientes são de laço fechado (a próxima requisição espera a resposta da anterior),
+ * então as latências não incluem o tempo que uma requisição teria esperado para ser enviada.
+ * Com carga.clientes-virtuais=true cada cliente é uma thread virtual, para chegar a milhares
+ * de clientes sem uma thread de plataforma por cliente no processo da carga.
+ * 
+ * Com carga.condicional=true cada cliente se comporta como um terminal que atualiza a tela:
+ * guarda o ETag de cada conta e saldo que leu e o manda em If-None-Match na leitura seguinte
+ * (só a v3 publica ETag); as respostas 304 aparecem numa coluna própria.
+ * 
+ * Com carga.cenario=lote, em vez do mix, compara os endpoints de lote da v3 com requisições
+ * individuais (CargaLote).
+ */
+public class CargaHttp {
+    
+    private static final int FAIXA_VERSAO = 10_000_000;
+    private static final int DESLOCAMENTO_CRIACOES = 50_000_000;
+    
+    private enum Operacao { CRIAR, DEPOSITAR, SACAR, SALDO, CONTA }
+    
+    private final Environment env;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String urlBase;
+    private final String urlBaseReativa;
+    private final HttpClient http;
+    
+    private final List<VersaoApi> versoes = new ArrayList<>();
+    private final Map<Operacao, Integer> mix = new EnumMap<>(Operacao.class);
+    private final int clientes;
+    private final int duracaoSegundos;
+    private final int aquecimentoSegundos;
+    private final int contasPorVersao;
+    private final long saldoInicial;
+    private final long valorMaximo;
+    private final int numeroInicial;
+    private final boolean condicional;
+    private final boolean clientesVirtuais;
+    
+    private final AtomicInteger sequenciaCriacoes = new AtomicInteger();
+    private final LongAdder creditado = new LongAdder();
+    private final LongAdder debitado = new LongAdder();
+    private final LongAdder indeterminadas = new LongAdder();
+    
+    CargaHttp(ConfigurableApplicationContext contexto) {
+        this.env = contexto.getEnvironment();
+        this.jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        this.objectMapper = contexto.getBean(ObjectMapper.class);
+        this.urlBase = "http://localhost:" + ((WebServerApplicationContext) contexto).getWebServer().getPort();
+        this.urlBaseReativa = "http://localhost:" + env.getProperty("caixaeletronico.v4.porta");
+        this.clientesVirtuais = env.getProperty("carga.clientes-virtuais", Boolean.class, false);
+        HttpClient.Builder cliente = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10));
+        if (clientesVirtuais) {
+            // O trabalho assíncrono interno do cliente HTTP também em threads virtuais, em vez de um pool sem limite
+            cliente.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        this.http = cliente.build();
+        
+        for (String versao : env.getProperty("carga.versoes", "v1,v2,v3").split(",")) {
+            versoes.add(VersaoApi.of(versao));
+        }
+        for (String parte : env.getProperty("carga.mix", "criar:5,depositar:40,sacar:35,saldo:20").split(",")) {
+            String[] chaveValor = parte.split(":");
+            mix.put(Operacao.valueOf(chaveValor[0].trim().toUpperCase()), Integer.parseInt(chaveValor[1].trim()));
+        }
+        this.clientes = env.getProperty("carga.clientes", Integer.class, 32);
+        this.duracaoSegundos = env.getProperty("carga.duracao-s", Integer.class, 30);
+        this.aquecimentoSegundos = env.getProperty("carga.aquecimento-s", Integer.class, 5);
+        this.contasPorVersao = env.getProperty("carga.contas", Integer.class, 100);
+        this.saldoInicial = centavos(env.getProperty("carga.saldo-inicial", "1000.00"));
+        this.valorMaximo = centavos(env.getProperty("carga.valor-maximo", "100.00"));
+        this.numeroInicial = env.getProperty("carga.numero-inicial", Integer.class, 800_000_000);
+        this.condicional = env.getProperty("carga.condicional", Boolean.class, false);
+    }
+    
+    public static void main(String[] args) throws Exception {
+        // Devtools fica no classpath do exec: sem reinício em outro class loader nem propriedades de desenvolvimento
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        System.setProperty("spring.devtools.add-properties", "false");
+        
+        // Padrões passados como argumentos, para valerem sobre o application.properties (que liga o SQL e o
+        // log DEBUG da web: a carga mediria o console); os da linha de comando têm prioridade
+        List<String> argumentos = new ArrayList<>(List.of(args));
+        boolean v4 = argumentos.stream().anyMatch(argumento -> argumento.startsWith("--carga.versoes=")
+            && argumento.toLowerCase().contains("v4"));
+        List<String> padroes = new ArrayList<>(List.of("server.port=0", "spring.jpa.show-sql=false",
+            "logging.level.org.springframework.web=INFO", "logging.level.br.com.Igor.caixaeletronico=INFO"));
+        padroes.addAll(v4
+            ? List.of("caixaeletronico.v4.habilitado=true", "caixaeletronico.v4.porta=" + portaLivre())
+            : List.of("caixaeletronico.v4.habilitado=false"));
+        for (String padrao : padroes) {
+            String chave = "--" + padrao.substring(0, padrao.indexOf('=') + 1);
+            if (argumentos.stream().noneMatch(argumento -> argumento.startsWith(chave))) {
+                argumentos.add("--" + padrao);
+            }
+        }
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(CaixaEletronicoApplication.class)
+            .run(argumentos.toArray(String[]::new));
+        int codigo;
+        try {
+            codigo = "lote".equals(contexto.getEnvironment().getProperty("carga.cenario"))
+                ? new CargaLote(contexto).executar()
+                : new CargaHttp(contexto).executar();
+        } finally {
+            contexto.close();
+        }
+        System.exit(codigo);
+    }
+    
+    /**
+     * Executa a carga e grava o relatório; retorna 1 se a conferência dos saldos falhar
+     */
+    int executar() throws Exception {
+        criarContasIniciais();
+        long fundosIniciais = saldoInicial * contasPorVersao * versoes.size();
+        
+        long inicioMedicao = System.nanoTime() + Duration.ofSeconds(aquecimentoSegundos).toNanos();
+        long fim = inicioMedicao + Duration.ofSeconds(duracaoSegundos).toNanos();
+        ExecutorService executor = clientesVirtuais
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : Executors.newFixedThreadPool(clientes);
+        List<Future<Map<String, EstatisticaEndpoint>>> tarefas = new ArrayList<>();
+        for (int i = 0; i < clientes; i++) {
+            tarefas.add(executor.submit(() -> executarCliente(inicioMedicao, fim)));
+        }
+        Map<String, EstatisticaEndpoint> estatisticas = new TreeMap<>();
+        for (Future<Map<String, EstatisticaEndpoint>> tarefa : tarefas) {
+            tarefa.get().forEach((endpoint, estatistica) ->
+                estatisticas.computeIfAbsent(endpoint, e -> new EstatisticaEndpoint()).somar(estatistica));
+        }
+        executor.shutdown();
+        
+        Conferencia conferencia = conferir(fundosIniciais);
+        Path relatorio = gravarRelatorio(estatisticas, conferencia);
+        System.out.println(Files.readString(relatorio).lines()
+            .takeWhile(linha -> !linha.startsWith("## Distribuições"))
+            .reduce("", (a, b) -> a + b + System.lineSeparator()));
+        System.out.println("Relatório: " + relatorio.toAbsolutePath());
+        return conferencia.resultado().equals("FALHOU") ? 1 : 0;
+    }
+    
+    private void criarContasIniciais() throws IOException, InterruptedException {
+        StringBuilder corpo = new StringBuilder("[");
+        for (int v = 0; v < versoes.size(); v++) {
+            for (int i = 0; i < contasPorVersao; i++) {
+                int numero = numeroConta(v, i);
+                corpo.append(corpo.length() > 1 ? "," : "")
+                    .append(VersaoApi.V3.corpoCriacao(numero, cpf(numero), saldoInicial));
+            }
+        }
+        HttpResponse<String> resposta = http.send(requisicao(urlBase, "POST", "/api/v3/contas/lote", corpo.append("]").toString()),
+            HttpResponse.BodyHandlers.ofString());
+        JsonNode dados = objectMapper.readTree(resposta.body()).path("dados");
+        int esperadas = contasPorVersao * versoes.size();
+        if (resposta.statusCode() != 200 || dados.path("aceitos").asInt() != esperadas) {
+            throw new IllegalStateException("Falha ao criar as " + esperadas + " contas iniciais: " + resposta.body());
+        }
+    }
+    
+    private Map<String, EstatisticaEndpoint> executarCliente(long inicioMedicao, long fim) throws InterruptedException {
+        Map<String, EstatisticaEndpoint> estatisticas = new HashMap<>();
+        // ETag por caminho lido (conta ou saldo), como o cache de um terminal
+        Map<String, String> etags = new HashMap<>();
+        int pesoTotal = mix.values().stream().mapToInt(Integer::intValue).sum();
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        
+        long agora;
+        while ((agora = System.nanoTime()) < fim) {
+            int indiceVersao = aleatorio.nextInt(versoes.size());
+            VersaoApi versao = versoes.get(indiceVersao);
+            Operacao operacao = sortear(aleatorio.nextInt(pesoTotal));
+            int numero = numeroConta(indiceVersao, aleatorio.nextInt(contasPorVersao));
+            long valor = 1 + aleatorio.nextLong(valorMaximo);
+            
+            String url = versao.reativa() ? urlBaseReativa : urlBase;
+            HttpRequest requisicao = switch (operacao) {
+                case CRIAR -> {
+                    numero = numeroInicial + DESLOCAMENTO_CRIACOES + sequenciaCriacoes.incrementAndGet();
+                    yield requisicao(url, "POST", versao.base(), versao.corpoCriacao(numero, cpf(numero), valor));
+                }
+                case DEPOSITAR -> requisicao(url, versao.metodoOperacao(), versao.base() + "/" + numero + "/depositar",
+                    VersaoApi.corpoOperacao(valor));
+                case SACAR -> requisicao(url, versao.metodoOperacao(), versao.base() + "/" + numero + "/sacar",
+                    VersaoApi.corpoOperacao(valor));
+                case SALDO -> requisicao(url, "GET", versao.base() + "/" + numero + "/saldo", null);
+                case CONTA -> requisicao(url, "GET", versao.base() + "/" + numero, null);
+            };
+            String caminho = requisicao.uri().getPath();
+            if (condicional && etags.containsKey(caminho)) {
+                requisicao = HttpRequest.newBuilder(requisicao, (nome, valorCabecalho) -> true)
+                    .header("If-None-Match", etags.get(caminho))
+                    .build();
+            }
+            
+            int status;
+            int bytes = 0;
+            long inicio = System.nanoTime();
+            try {
+                HttpResponse<byte[]> resposta = http.send(requisicao, HttpResponse.BodyHandlers.ofByteArray());
+                status = resposta.statusCode();
+                bytes = resposta.body().length;
+                if (condicional) {
+                    resposta.headers().firstValue("ETag").ifPresent(etag -> etags.put(caminho, etag));
+                }
+            } catch (IOException e) {
+                status = -1;
+            }
+            long micros = (System.nanoTime() - inicio) / 1_000;
+            
+            contabilizar(operacao, versao, valor, status);
+            if (agora >= inicioMedicao) {
+                estatisticas.computeIfAbsent(versao + " " + operacao.name().toLowerCase(), e -> new EstatisticaEndpoint())
+                    .registrar(status, micros, bytes);
+            }
+        }
+        return estatisticas;
+    }
+    
+    private Operacao sortear(int sorteio) {
+        for (Map.Entry<Operacao, Integer> peso : mix.entrySet()) {
+            sorteio -= peso.getValue();
+            if (sorteio < 0) {
+                return peso.getKey();
+            }
+        }
+        throw new IllegalStateException("Mix de operações vazio");
+    }
+    
+    /**
+     * Efeito esperado no total de saldos: 2xx aplicou, 4xx não alterou nada,
+     * 5xx ou falha de conexão numa escrita deixa o efeito desconhecido
+     */
+    private void contabilizar(Operacao operacao, VersaoApi versao, long valor, int status) {
+        if (operacao == Operacao.SALDO || operacao == Operacao.CONTA || (status >= 400 && status < 500)) {
+            return;
+        }
+        if (status < 200 || status >= 300) {
+            indeterminadas.increment();
+            return;
+        }
+        switch (operacao) {
+            case CRIAR -> creditado.add(versao.saldoInicialCreditado(valor));
+            case DEPOSITAR -> creditado.add(valor);
+            case SACAR -> debitado.add(valor);
+            default -> { }
+        }
+    }
+    
+    private Conferencia conferir(long fundosIniciais) throws IOException, InterruptedException {
+        Map<Integer, Long> saldosBanco = new HashMap<>();
+        jdbcTemplate.query("SELECT numero, saldo FROM contas WHERE numero >= ? AND numero < ?",
+            linha -> {
+                saldosBanco.put(linha.getInt("numero"), centavos(linha.getBigDecimal("saldo")));
+            },
+            numeroInicial, numeroInicial + DESLOCAMENTO_CRIACOES + sequenciaCriacoes.get() + 1);
+        long somaBanco = saldosBanco.values().stream().mapToLong(Long::longValue).sum();
+        long esperado = fundosIniciais + creditado.sum() - debitado.sum();
+        
+        // Saldo pela API (cache de saldos) contra o banco, com o sistema parado
+        int divergentes = 0;
+        for (int v = 0; v < versoes.size(); v++) {
+            for (int i = 0; i < contasPorVersao; i++) {
+                int numero = numeroConta(v, i);
+                HttpResponse<String> resposta = http.send(requisicao(urlBase, "GET", "/api/v3/contas/" + numero + "/saldo", null),
+                    HttpResponse.BodyHandlers.ofString());
+                BigDecimal saldo = objectMapper.readTree(resposta.body()).path("dados").decimalValue();
+                if (!saldosBanco.containsKey(numero) || centavos(saldo) != saldosBanco.get(numero)) {
+                    divergentes++;
+                }
+            }
+        }
+        
+        String resultado;
+        if (somaBanco == esperado && divergentes == 0) {
+            resultado = "OK";
+        } else if (somaBanco != esperado && divergentes == 0 && indeterminadas.sum() > 0) {
+            resultado = "INCONCLUSIVO";
+        } else {
+            resultado = "FALHOU";
+        }
+        return new Conferencia(fundosIniciais, esperado, somaBanco, saldosBanco.size(), divergentes,
+            indeterminadas.sum(), resultado);
+    }
+    
+    private Path gravarRelatorio(Map<String, EstatisticaEndpoint> estatisticas, Conferencia conferencia) throws IOException {
+        LocalDateTime agora = LocalDateTime.now();
+        Path arquivo = Path.of(env.getProperty("carga.relatorio",
+            "target/carga/relatorio-" + agora.format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".txt"));
+        if (arquivo.getParent() != null) {
+            Files.createDirectories(arquivo.getParent());
+        }
+        
+        try (PrintStream saida = new PrintStream(Files.newOutputStream(arquivo), false, StandardCharsets.UTF_8)) {
+            saida.println("# Carga HTTP - Caixa Eletrônico");
+            saida.println("data=" + agora.withNano(0));
+            saida.println("java=" + Runtime.version() + " processadores=" + Runtime.getRuntime().availableProcessors());
+            saida.println("versoes=" + versoes + " clientes=" + clientes + " duracao-s=" + duracaoSegundos
+                + " aquecimento-s=" + aquecimentoSegundos + " contas-por-versao=" + contasPorVersao + " mix=" + mix
+                + " condicional=" + condicional + " clientes-virtuais=" + clientesVirtuais);
+            saida.println("concorrencia=" + env.getProperty("caixaeletronico.concorrencia.estrategia")
+                + " threads-virtuais=" + env.getProperty("caixaeletronico.threads-virtuais.habilitado"));
+            saida.println();
+            
+            saida.println("## Endpoints (latências em ms; bytes de corpo recebidos por requisição)");
+            saida.printf("%-16s %9s %8s %8s %8s %6s %6s %9s %9s %8s %8s %8s %8s %8s%n", "endpoint", "total", "req/s",
+                "2xx", "304", "4xx", "5xx", "falhas", "bytes/req", "p50", "p90", "p99", "p99.9", "max");
+            long total = 0;
+            long bytesTotal = 0;
+            for (Map.Entry<String, EstatisticaEndpoint> entrada : estatisticas.entrySet()) {
+                EstatisticaEndpoint e = entrada.getValue();
+                Histogram h = e.latencias;
+                total += h.getTotalCount();
+                bytesTotal += e.bytes;
+                saida.printf("%-16s %9d %8.1f %8d %8d %6d %6d %9d %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f%n", entrada.getKey(),
+                    h.getTotalCount(), (double) h.getTotalCount() / duracaoSegundos, e.sucesso, e.naoModificadas,
+                    e.recusadas, e.errosServidor, e.falhas, (double) e.bytes / Math.max(h.getTotalCount(), 1),
+                    ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)),
+                    ms(h.getValueAtPercentile(99)), ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()));
+            }
+            saida.printf("%-16s %9d %8.1f %51.1f%n", "total", total, (double) total / duracaoSegundos,
+                (double) bytesTotal / Math.max(total, 1));
+            saida.println();
+            
+            saida.println("## Conferência dos saldos (centavos)");
+            saida.println("fundos-iniciais=" + conferencia.fundosIniciais());
+            saida.println("creditado=" + creditado.sum() + " debitado=" + debitado.sum());
+            saida.println("esperado=" + conferencia.esperado() + " banco=" + conferencia.banco()
+                + " diferenca=" + (conferencia.banco() - conferencia.esperado()) + " contas=" + conferencia.contas());
+            saida.println("escritas-indeterminadas=" + conferencia.indeterminadas()
+                + " saldos-api-divergentes=" + conferencia.divergentes());
+            saida.println("resultado=" + conferencia.resultado());
+            saida.println();
+            
+            saida.println("## Distribuições de percentis (ms)");
+            for (Map.Entry<String, EstatisticaEndpoint> entrada : estatisticas.entrySet()) {
+                saida.println("### " + entrada.getKey());
+                entrada.getValue().latencias.outputPercentileDistribution(saida, 5, 1000.0);
+            }
+        }
+        return arquivo;
+    }
+    
+    private HttpRequest requisicao(String url, String metodo, String caminho, String corpo) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url + caminho))
+            .timeout(Duration.ofSeconds(60));
+        if (corpo == null) {
+            return builder.method(metodo, HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return builder.header("Content-Type", "application/json")
+            .method(metodo, HttpRequest.BodyPublishers.ofString(corpo))
+            .build();
+    }
+    
+    /**
+     * Porta livre para o servidor da v4, que não informa a porta real quando sobe na porta 0
+     */
+    private static int portaLivre() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+    
+    private int numeroConta(int indiceVersao, int indice) {
+        return numeroInicial + indiceVersao * FAIXA_VERSAO + indice;
+    }
+    
+    /**
+     * CPF de 11 dígitos com os nove primeiros tirados do número da conta, então não se repete
+     */
+    static String cpf(int numero) {
+        int[] digitos = new int[11];
+        long base = numero % 1_000_000_000L;
+        for (int i = 8; i >= 0; i--) {
+            digitos[i] = (int) (base % 10);
+            base /= 10;
+        }
+        for (int quantidade = 9; quantidade <= 10; quantidade++) {
+            int soma = 0;
+            for (int i = 0; i < quantidade; i++) {
+                soma += digitos[i] * (quantidade + 1 - i);
+            }
+            int resto = soma % 11;
+            digitos[quantidade] = resto < 2 ? 0 : 11 - resto;
+        }
+        StringBuilder cpf = new StringBuilder(11);
+        for (int digito : digitos) {
+            cpf.append(digito);
+        }
+        return cpf.toString();
+    }
+    
+    private static long centavos(String valor) {
+        return centavos(new BigDecimal(valor));
+    }
+    
+    private static long centavos(BigDecimal valor) {
+        return valor.movePointRight(2).longValueExact();
+    }
+    
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+    
+    /**
+     * Latências e desfechos de um endpoint (versão + operação)
+     */
+    private static class EstatisticaEndpoint {
+        
+        private final Histogram latencias = new Histogram(3);
+        private long sucesso;
+        private long naoModificadas;
+        private long recusadas;
+        private long errosServidor;
+        private long falhas;
+        private long bytes;
+        
+        void registrar(int status, long micros, int bytesCorpo) {
+            latencias.recordValue(micros);
+            bytes += bytesCorpo;
+            if (status < 0) {
+                falhas++;
+            } else if (status >= 500) {
+                errosServidor++;
+            } else if (status >= 400) {
+                recusadas++;
+            } else if (status == 304) {
+                naoModificadas++;
+            } else {
+                sucesso++;
+            }
+        }
+        
+        void somar(EstatisticaEndpoint outra) {
+            latencias.add(outra.latencias);
+            sucesso += outra.sucesso;
+            naoModificadas += outra.naoModificadas;
+            recusadas += outra.recusadas;
+            errosServidor += outra.errosServidor;
+            falhas += outra.falhas;
+            bytes += outra.bytes;
+        }
+    }
+    
+    private record Conferencia(long fundosIniciais, long esperado, long banco, int contas, int divergentes,
+                               long indeterminadas, String resultado) {}
+}
@@ -0,0 +1,323 @@
+package br.com.Igor.caixaeletronico.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cenário de lote da carga HTTP (carga.cenario=lote)
+ * 
+ * Mede, pela API v3 e com os mesmos clientes, itens por segundo com uma requisição por item e
+ * com os endpoints de lote, em requisições de carga.lote.tamanho itens:
+ * - criação: POST /api/v3/contas contra POST /api/v3/contas/lote, carga.lote.contas contas
+ *   numa faixa de números própria para cada forma;
+ * - depósitos e saques alternados de 1,00: POST /api/v3/contas/{numero}/depositar|sacar contra
+ *   POST /api/v3/operacoes/lote, carga.lote.operacoes operações sobre as contas criadas pela
+ *   mesma forma.
+ * Cada forma passa antes por um aquecimento fora da medição (carga.lote.aquecimento itens).
+ * 
+ * A conferência olha o banco: cada faixa precisa ter exatamente as contas aceitas e, depois das
+ * operações, a soma de saldos esperada. Uma requisição recusada ou com falha faz o build falhar.
+ */
+class CargaLote {
+    
+    private static final int FAIXA_FASE = 10_000_000;
+    private static final long SALDO_INICIAL = 10_000L;
+    private static final long VALOR_OPERACAO = 100L;
+    
+    private final Environment env;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String urlBase;
+    private final HttpClient http;
+    
+    private final int clientes;
+    private final int contas;
+    private final int operacoes;
+    private final int aquecimento;
+    private final int tamanhoLote;
+    private final int numeroInicial;
+    
+    private int proximaFaixa;
+    
+    CargaLote(ConfigurableApplicationContext contexto) {
+        this.env = contexto.getEnvironment();
+        this.jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        this.objectMapper = contexto.getBean(ObjectMapper.class);
+        this.urlBase = "http://localhost:" + ((WebServerApplicationContext) contexto).getWebServer().getPort();
+        this.http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        
+        this.clientes = env.getProperty("carga.clientes", Integer.class, 32);
+        this.contas = env.getProperty("carga.lote.contas", Integer.class, 20_000);
+        this.operacoes = env.getProperty("carga.lote.operacoes", Integer.class, 20_000);
+        this.aquecimento = env.getProperty("carga.lote.aquecimento", Integer.class, 5_000);
+        this.tamanhoLote = env.getProperty("carga.lote.tamanho", Integer.class, 1_000);
+        this.numeroInicial = env.getProperty("carga.numero-inicial", Integer.class, 800_000_000);
+    }
+    
+    /**
+     * Executa as fases e grava o relatório; retorna 1 se algum item não foi aceito ou não está no banco
+     */
+    int executar() throws Exception {
+        List<Fase> fases = new ArrayList<>();
+        
+        Fase contasAquecimentoIndividual = criarContas("aquecimento individual", aquecimento, 1);
+        Fase contasAquecimentoLote = criarContas("aquecimento lote", aquecimento, tamanhoLote);
+        Fase individual = criarContas("criar individual", contas, 1);
+        Fase lote = criarContas("criar lote", contas, tamanhoLote);
+        
+        movimentar("aquecimento individual", contasAquecimentoIndividual, aquecimento, 1);
+        movimentar("aquecimento lote", contasAquecimentoLote, aquecimento, tamanhoLote);
+        Fase operacoesIndividuais = movimentar("operar individual", individual, operacoes, 1);
+        Fase operacoesLote = movimentar("operar lote", lote, operacoes, tamanhoLote);
+        
+        fases.addAll(List.of(individual, lote, operacoesIndividuais, operacoesLote));
+        Path relatorio = gravarRelatorio(fases, List.of(new Comparacao("criar", individual, lote),
+            new Comparacao("operar", operacoesIndividuais, operacoesLote)));
+        System.out.println(Files.readString(relatorio));
+        System.out.println("Relatório: " + relatorio.toAbsolutePath());
+        return fases.stream().allMatch(Fase::conferida) ? 0 : 1;
+    }
+    
+    /**
+     * Cria as contas numa faixa nova de números, itensPorRequisicao contas por requisição,
+     * e confere quantas linhas a faixa tem no banco
+     */
+    private Fase criarContas(String nome, int itens, int itensPorRequisicao) throws Exception {
+        int inicioFaixa = numeroInicial + proximaFaixa++ * FAIXA_FASE;
+        Fase fase = medir(nome, itens, itensPorRequisicao, (inicio, quantidade) -> {
+            if (itensPorRequisicao == 1) {
+                int numero = inicioFaixa + inicio;
+                return requisicao("/api/v3/contas", VersaoApi.V3.corpoCriacao(numero, CargaHttp.cpf(numero), SALDO_INICIAL));
+            }
+            StringBuilder corpo = new StringBuilder(quantidade * 110).append('[');
+            for (int i = inicio; i < inicio + quantidade; i++) {
+                int numero = inicioFaixa + i;
+                corpo.append(i > inicio ? "," : "")
+                    .append(VersaoApi.V3.corpoCriacao(numero, CargaHttp.cpf(numero), SALDO_INICIAL));
+            }
+            return requisicao("/api/v3/contas/lote", corpo.append(']').toString());
+        });
+        fase.inicioFaixa = inicioFaixa;
+        Long noBanco = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM contas WHERE numero >= ? AND numero < ?",
+            Long.class, inicioFaixa, inicioFaixa + itens);
+        fase.conferir(noBanco != null && noBanco == fase.aceitos, noBanco + " contas no banco");
+        return fase;
+    }
+    
+    /**
+     * Depósitos (itens pares) e saques (ímpares) de 1,00 sobre as contas criadas pela fase,
+     * em rodízio; confere a soma dos saldos da faixa no banco
+     */
+    private Fase movimentar(String nome, Fase contasDaFase, int itens, int itensPorRequisicao) throws Exception {
+        int inicioFaixa = contasDaFase.inicioFaixa;
+        int quantidadeContas = (int) contasDaFase.itens;
+        Fase fase = medir(nome, itens, itensPorRequisicao, (inicio, quantidade) -> {
+            if (itensPorRequisicao == 1) {
+                return requisicao("/api/v3/contas/" + (inicioFaixa + inicio % quantidadeContas)
+                    + (inicio % 2 == 0 ? "/depositar" : "/sacar"), VersaoApi.corpoOperacao(VALOR_OPERACAO));
+            }
+            StringBuilder corpo = new StringBuilder(quantidade * 60).append('[');
+            for (int i = inicio; i < inicio + quantidade; i++) {
+                corpo.append(i > inicio ? "," : "")
+                    .append("{\"numero\":").append(inicioFaixa + i % quantidadeContas)
+                    .append(",\"tipo\":\"").append(i % 2 == 0 ? "DEPOSITO" : "SAQUE")
+                    .append("\",\"valor\":").append(VersaoApi.decimal(VALOR_OPERACAO)).append('}');
+            }
+            return requisicao("/api/v3/operacoes/lote", corpo.append(']').toString());
+        });
+        // Um depósito a mais que saques quando a quantidade de operações é ímpar
+        long esperado = SALDO_INICIAL * quantidadeContas + (itens % 2) * VALOR_OPERACAO;
+        BigDecimal soma = jdbcTemplate.queryForObject("SELECT SUM(saldo) FROM contas WHERE numero >= ? AND numero < ?",
+            BigDecimal.class, inicioFaixa, inicioFaixa + quantidadeContas);
+        long noBanco = soma != null ? soma.movePointRight(2).longValueExact() : 0L;
+        fase.conferir(noBanco == esperado, "saldos " + noBanco + " de " + esperado + " centavos");
+        return fase;
+    }
+    
+    /**
+     * Divide os itens em requisições e as distribui entre os clientes, cada um em laço fechado;
+     * cada requisição de lote precisa ter todos os itens aceitos
+     */
+    private Fase medir(String nome, int itens, int itensPorRequisicao, Bloco bloco) throws Exception {
+        int requisicoes = (itens + itensPorRequisicao - 1) / itensPorRequisicao;
+        AtomicInteger proxima = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(clientes);
+        
+        long inicio = System.nanoTime();
+        List<Future<Fase>> tarefas = new ArrayList<>();
+        for (int c = 0; c < clientes; c++) {
+            tarefas.add(executor.submit(() -> {
+                Fase parcial = new Fase(nome);
+                int indice;
+                while ((indice = proxima.getAndIncrement()) < requisicoes) {
+                    int primeiro = indice * itensPorRequisicao;
+                    int quantidade = Math.min(itensPorRequisicao, itens - primeiro);
+                    HttpRequest requisicao = bloco.requisicao(primeiro, quantidade);
+                    long envio = System.nanoTime();
+                    int aceitos;
+                    try {
+                        HttpResponse<String> resposta = http.send(requisicao, HttpResponse.BodyHandlers.ofString());
+                        aceitos = itensAceitos(resposta, itensPorRequisicao);
+                    } catch (IOException e) {
+                        aceitos = -1;
+                    }
+                    parcial.registrar(quantidade, aceitos, (System.nanoTime() - envio) / 1_000);
+                }
+                return parcial;
+            }));
+        }
+        Fase fase = new Fase(nome);
+        for (Future<Fase> tarefa : tarefas) {
+            fase.somar(tarefa.get());
+        }
+        fase.nanos = System.nanoTime() - inicio;
+        executor.shutdown();
+        return fase;
+    }
+    
+    /**
+     * Itens aceitos pela resposta: 1 ou 0 numa requisição individual, o campo aceitos do lote
+     */
+    private int itensAceitos(HttpResponse<String> resposta, int itensPorRequisicao) throws IOException {
+        if (resposta.statusCode() < 200 || resposta.statusCode() >= 300) {
+            return 0;
+        }
+        return itensPorRequisicao == 1 ? 1 : objectMapper.readTree(resposta.body()).path("dados").path("aceitos").asInt();
+    }
+    
+    private Path gravarRelatorio(List<Fase> fases, List<Comparacao> comparacoes) throws IOException {
+        LocalDateTime agora = LocalDateTime.now();
+        Path arquivo = Path.of(env.getProperty("carga.relatorio",
+            "target/carga/lote-" + agora.format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".txt"));
+        if (arquivo.getParent() != null) {
+            Files.createDirectories(arquivo.getParent());
+        }
+        
+        try (PrintStream saida = new PrintStream(Files.newOutputStream(arquivo), false, StandardCharsets.UTF_8)) {
+            saida.println("# Carga HTTP, cenário de lote - Caixa Eletrônico");
+            saida.println("data=" + agora.withNano(0));
+            saida.println("java=" + Runtime.version() + " processadores=" + Runtime.getRuntime().availableProcessors());
+            saida.println("clientes=" + clientes + " contas=" + contas + " operacoes=" + operacoes + " aquecimento=" + aquecimento
+                + " tamanho-lote=" + tamanhoLote);
+            saida.println();
+            
+            saida.println("## Fases (latência por requisição em ms)");
+            saida.printf("%-20s %8s %11s %8s %10s %8s %8s %8s %8s%n", "fase", "itens", "requisicoes", "s",
+                "itens/s", "p50", "p99", "max", "banco");
+            for (Fase fase : fases) {
+                Histogram h = fase.latencias;
+                saida.printf("%-20s %8d %11d %8.2f %10.1f %8.2f %8.2f %8.2f %8s%n", fase.nome, fase.itens,
+                    h.getTotalCount(), fase.nanos / 1e9, fase.itensPorSegundo(),
+                    h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(99) / 1000.0, h.getMaxValue() / 1000.0,
+                    fase.conferida() ? "OK" : "FALHOU (" + fase.aceitos + " aceitos, " + fase.banco + ")");
+            }
+            saida.println();
+            
+            saida.println("## Lote contra requisições individuais");
+            for (Comparacao comparacao : comparacoes) {
+                saida.printf("%s: %.1fx (%.1f contra %.1f itens/s)%n", comparacao.operacao(),
+                    comparacao.lote().itensPorSegundo() / comparacao.individual().itensPorSegundo(),
+                    comparacao.lote().itensPorSegundo(), comparacao.individual().itensPorSegundo());
+            }
+        }
+        return arquivo;
+    }
+    
+    private HttpRequest requisicao(String caminho, String corpo) {
+        return HttpRequest.newBuilder(URI.create(urlBase + caminho))
+            .timeout(Duration.ofSeconds(120))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(corpo))
+            .build();
+    }
+    
+    /**
+     * Requisição com os itens [inicio, inicio + quantidade) da fase
+     */
+    @FunctionalInterface
+    private interface Bloco {
+        HttpRequest requisicao(int inicio, int quantidade);
+    }
+    
+    /**
+     * Itens enviados e aceitos, requisições com falha e latências de uma fase
+     */
+    private static class Fase {
+        
+        private final String nome;
+        private final Histogram latencias = new Histogram(3);
+        private long itens;
+        private long aceitos;
+        private long falhas;
+        private long nanos;
+        private int inicioFaixa;
+        private boolean bancoConfere;
+        private String banco = "não conferido";
+        
+        Fase(String nome) {
+            this.nome = nome;
+        }
+        
+        void registrar(int quantidade, int aceitosNaRequisicao, long micros) {
+            latencias.recordValue(micros);
+            itens += quantidade;
+            if (aceitosNaRequisicao < 0) {
+                falhas++;
+            } else {
+                aceitos += aceitosNaRequisicao;
+            }
+        }
+        
+        void somar(Fase outra) {
+            latencias.add(outra.latencias);
+            itens += outra.itens;
+            aceitos += outra.aceitos;
+            falhas += outra.falhas;
+        }
+        
+        void conferir(boolean confere, String descricao) {
+            this.bancoConfere = confere;
+            this.banco = descricao;
+        }
+        
+        /**
+         * Todos os itens aceitos, sem falhas de conexão, e o banco com o efeito dos aceitos
+         */
+        boolean conferida() {
+            return falhas == 0 && aceitos == itens && bancoConfere;
+        }
+        
+        double itensPorSegundo() {
+            return itens / (nanos / 1e9);
+        }
+    }
+    
+    private record Comparacao(String operacao, Fase individual, Fase lote) {}
+}
@@ -0,0 +1,75 @@
+package br.com.Igor.caixaeletronico.carga;
+
+/**
+ * Rotas e corpos de cada versão da API usados pela carga
+ * 
+ * A v1 usa PUT nas operações e faz o depósito do saldo inicial numa segunda transação;
+ * a v2 não aceita saldo inicial na criação; a v4 (reativa) atende na porta própria do Reactor Netty.
+ */
+enum VersaoApi {
+    
+    V1("/api/contas", "PUT", true, false),
+    V2("/api/v2/contas", "POST", false, false),
+    V3("/api/v3/contas", "POST", true, false),
+    V4("/api/v4/contas", "POST", true, true);
+    
+    private final String base;
+    private final String metodoOperacao;
+    private final boolean aceitaSaldoInicial;
+    private final boolean reativa;
+    
+    VersaoApi(String base, String metodoOperacao, boolean aceitaSaldoInicial, boolean reativa) {
+        this.base = base;
+        this.metodoOperacao = metodoOperacao;
+        this.aceitaSaldoInicial = aceitaSaldoInicial;
+        this.reativa = reativa;
+    }
+    
+    static VersaoApi of(String nome) {
+        return valueOf(nome.trim().toUpperCase());
+    }
+    
+    String base() {
+        return base;
+    }
+    
+    String metodoOperacao() {
+        return metodoOperacao;
+    }
+    
+    /**
+     * Servida pelo servidor reativo (caixaeletronico.v4.porta), não pelo Tomcat
+     */
+    boolean reativa() {
+        return reativa;
+    }
+    
+    /**
+     * Saldo inicial efetivamente creditado ao criar a conta por esta versão
+     */
+    long saldoInicialCreditado(long centavos) {
+        return aceitaSaldoInicial ? centavos : 0L;
+    }
+    
+    String corpoCriacao(int numero, String cpf, long saldoInicialCentavos) {
+        String titular = "{\"nome\":\"Cliente Carga " + numero + "\",\"cpf\":\"" + cpf + "\"}";
+        if (!aceitaSaldoInicial) {
+            return "{\"numero\":" + numero + ",\"titular\":" + titular + "}";
+        }
+        return "{\"numero\":" + numero + ",\"titular\":" + titular
+            + ",\"saldoInicial\":" + decimal(saldoInicialCentavos) + "}";
+    }
+    
+    static String corpoOperacao(long centavos) {
+        return "{\"valor\":" + decimal(centavos) + "}";
+    }
+    
+    static String decimal(long centavos) {
+        return centavos / 100 + "." + (centavos % 100 < 10 ? "0" : "") + centavos % 100;
+    }
+    
+    @Override
+    public String toString() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,69 @@
+package br.com.Igor.caixaeletronico.benchmark;
+
+import br.com.Igor.caixaeletronico.dto.ClienteDTO;
+import br.com.Igor.caixaeletronico.dto.ContaRequestDTO;
+import br.com.Igor.caixaeletronico.entity.Cliente;
+import br.com.Igor.caixaeletronico.entity.Conta;
+import br.com.Igor.caixaeletronico.entity.Cpf;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.repository.ContaResumo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dados de exemplo dos benchmarks, com CPFs válidos gerados a partir do número da conta
+ */
+final class Amostras {
+    
+    private static final LocalDateTime CRIACAO = LocalDateTime.of(2024, 1, 15, 10, 30, 45, 123_456_789);
+    
+    private Amostras() {}
+    
+    static Conta conta(int numero) {
+        Conta conta = new Conta(numero, new Cliente(nome(numero), cpf(numero)));
+        conta.setSaldo(Dinheiro.deCentavos(150_000L + numero));
+        conta.setDataCriacao(CRIACAO);
+        return conta;
+    }
+    
+    static ContaResumo resumo(int numero) {
+        return new ContaResumo(numero, nome(numero), cpf(numero), Dinheiro.deCentavos(150_000L + numero), CRIACAO);
+    }
+    
+    static ContaRequestDTO requisicao(int numero) {
+        return new ContaRequestDTO(numero, new ClienteDTO(nome(numero), cpf(numero)), Dinheiro.deCentavos(50_000L));
+    }
+    
+    static String nome(int numero) {
+        return "Titular Exemplo da Silva " + numero;
+    }
+    
+    /**
+     * CPF com os nove primeiros dígitos derivados do número e os verificadores calculados
+     */
+    static Cpf cpf(int numero) {
+        long base = 100_000_000L + numero % 800_000_000L;
+        int[] digitos = new int[11];
+        for (int i = 8; i >= 0; i--) {
+            digitos[i] = (int) (base % 10);
+            base /= 10;
+        }
+        digitos[9] = verificador(digitos, 9);
+        digitos[10] = verificador(digitos, 10);
+        
+        long cpf = 0;
+        for (int digito : digitos) {
+            cpf = cpf * 10 + digito;
+        }
+        return Cpf.deNumero(cpf);
+    }
+    
+    private static int verificador(int[] digitos, int quantidade) {
+        int soma = 0;
+        for (int i = 0; i < quantidade; i++) {
+            soma += digitos[i] * (quantidade + 1 - i);
+        }
+        int resto = soma % 11;
+        return resto < 2 ? 0 : 11 - resto;
+    }
+}
@@ -0,0 +1,40 @@
+package br.com.Igor.caixaeletronico.benchmark;
+
+import br.com.Igor.caixaeletronico.CaixaEletronicoApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+
+/**
+ * Contexto Spring da aplicação para os benchmarks de serviço: sem servidor web, sem a API v4,
+ * sem o SQL e o DEBUG no console. Cada fork do JMH sobe o próprio contexto, com o próprio H2 em memória.
+ */
+final class Aplicacao {
+    
+    private Aplicacao() {}
+    
+    private static final String[] PADRAO = {
+        "--caixaeletronico.v4.habilitado=false",
+        "--spring.jpa.show-sql=false",
+        "--logging.level.root=WARN",
+        "--logging.level.br.com.Igor.caixaeletronico=WARN",
+        "--logging.level.org.springframework.web=WARN"
+    };
+    
+    /**
+     * Sobe o contexto; as propriedades extras ("chave=valor") sobrepõem as do application.properties
+     * (passadas como argumentos de linha de comando, que têm precedência sobre o arquivo)
+     */
+    static ConfigurableApplicationContext iniciar(String... propriedades) {
+        String[] argumentos = Arrays.copyOf(PADRAO, PADRAO.length + propriedades.length);
+        for (int i = 0; i < propriedades.length; i++) {
+            argumentos[PADRAO.length + i] = "--" + propriedades[i];
+        }
+        return new SpringApplicationBuilder(CaixaEletronicoApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(argumentos);
+    }
+}
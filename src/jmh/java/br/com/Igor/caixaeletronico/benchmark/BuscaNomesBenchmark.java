@@ -0,0 +1,90 @@
+package br.com.Igor.caixaeletronico.benchmark;
+
+import br.com.Igor.caixaeletronico.service.busca.IndiceNomes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Primeira página (101 itens) da busca por nome do titular no IndiceNomes, contra a varredura
+ * de todos os nomes que o LIKE '%nome%' fazia, com nomes sintéticos de três palavras
+ * 
+ * consulta: sobrenome comum ("silva", em quase 1 de cada 10 nomes), nome raro com acento
+ * ("Quitéria", 1 em 5 mil) e nome completo ("ana lima carvalho").
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BuscaNomesBenchmark {
+    
+    private static final int PAGINA = 101;
+    
+    private static final String[] NOMES = {
+        "João", "Maria", "José", "Ana", "Antônio", "Francisca", "Carlos", "Conceição", "Paulo", "Adriana",
+        "Pedro", "Juliana", "Lucas", "Márcia", "Luiz", "Fernanda", "Marcos", "Patrícia", "Luís", "Aline"
+    };
+    private static final String[] SOBRENOMES = {
+        "Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves", "Pereira", "Lima", "Gomes",
+        "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes", "Soares", "Fernandes", "Vieira", "Barbosa"
+    };
+    private static final String RARO = "Quitéria";
+    
+    @Param({"100000", "1000000"})
+    public int tamanho;
+    
+    @Param({"silva", "quiteria", "ana lima carvalho"})
+    public String consulta;
+    
+    private IndiceNomes indice;
+    private String[] normalizados;
+    private String consultaNormalizada;
+    
+    @Setup
+    public void preparar() {
+        Random aleatorio = new Random(42);
+        indice = new IndiceNomes();
+        normalizados = new String[tamanho];
+        for (int numero = 0; numero < tamanho; numero++) {
+            String primeiro = aleatorio.nextInt(5_000) == 0 ? RARO : NOMES[aleatorio.nextInt(NOMES.length)];
+            String nome = primeiro + " " + SOBRENOMES[aleatorio.nextInt(SOBRENOMES.length)]
+                    + " " + SOBRENOMES[aleatorio.nextInt(SOBRENOMES.length)];
+            indice.adicionar(numero + 1, nome);
+            normalizados[numero] = IndiceNomes.normalizar(nome);
+        }
+        consultaNormalizada = IndiceNomes.normalizar(consulta);
+    }
+    
+    @Benchmark
+    public int[] indice() {
+        return indice.buscar(consulta, 0, PAGINA);
+    }
+    
+    /**
+     * O que o banco faz no LIKE '%nome%': confere todos os nomes (aqui já normalizados,
+     * sem a ordem de relevância nem a página)
+     */
+    @Benchmark
+    public int varredura() {
+        int encontrados = 0;
+        for (String nome : normalizados) {
+            if (nome.contains(consultaNormalizada)) {
+                encontrados++;
+            }
+        }
+        return encontrados;
+    }
+}
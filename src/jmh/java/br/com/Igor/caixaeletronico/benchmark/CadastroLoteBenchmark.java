@@ -0,0 +1,99 @@
+package br.com.Igor.caixaeletronico.benchmark;
+
+import br.com.Igor.caixaeletronico.dto.ContaRequestDTO;
+import br.com.Igor.caixaeletronico.dto.ResultadoLoteDTO;
+import br.com.Igor.caixaeletronico.service.CadastroContasLote;
+import br.com.Igor.caixaeletronico.service.ContaServiceV2;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contas criadas por segundo: o lote de POST /api/v3/contas/lote (array JSON lido em streaming,
+ * blocos de tamanho-lote numa transação, INSERTs em batch JDBC) contra um laço de criações
+ * individuais pelo ContaServiceV2 (uma transação e um INSERT por conta), com 1000 contas novas
+ * por chamada. Mede só o serviço: sem HTTP, o laço individual ainda fica de fora do custo de
+ * uma requisição por conta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class CadastroLoteBenchmark {
+    
+    private static final int ITENS = 1_000;
+    
+    private ConfigurableApplicationContext contexto;
+    private CadastroContasLote cadastroLote;
+    private ContaServiceV2 servico;
+    private ObjectMapper objectMapper;
+    private int proximoNumero = 1_000;
+    
+    private List<ContaRequestDTO> requisicoes;
+    private byte[] corpo;
+    
+    @Setup
+    public void preparar() {
+        contexto = Aplicacao.iniciar();
+        cadastroLote = contexto.getBean(CadastroContasLote.class);
+        servico = contexto.getBean(ContaServiceV2.class);
+        objectMapper = contexto.getBean(ObjectMapper.class);
+    }
+    
+    /**
+     * Contas ainda não cadastradas para a próxima chamada, como lista e como o corpo JSON do lote
+     */
+    @Setup(Level.Invocation)
+    public void prepararContas() throws Exception {
+        requisicoes = new ArrayList<>(ITENS);
+        for (int i = 0; i < ITENS; i++) {
+            requisicoes.add(Amostras.requisicao(proximoNumero++));
+        }
+        corpo = objectMapper.writeValueAsBytes(requisicoes);
+    }
+    
+    @TearDown
+    public void encerrar() {
+        contexto.close();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(ITENS)
+    public ResultadoLoteDTO lote() throws Exception {
+        ResultadoLoteDTO resultado = cadastroLote.cadastrar(new ByteArrayInputStream(corpo));
+        if (resultado.getAceitos() != ITENS) {
+            throw new IllegalStateException("Lote com " + resultado.getRecusados() + " contas recusadas");
+        }
+        return resultado;
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(ITENS)
+    public int individual() {
+        for (ContaRequestDTO requisicao : requisicoes) {
+            servico.criarConta(requisicao);
+        }
+        return requisicoes.size();
+    }
+}
@@ -0,0 +1,86 @@
+package br.com.Igor.caixaeletronico.benchmark;
+
+import br.com.Igor.caixaeletronico.dto.ContaRequestDTO;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.exception.OperacaoInvalidaException;
+import br.com.Igor.caixaeletronico.service.ContaServiceV2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Disputa pelas mesmas contas nas quatro estratégias de controle de concorrência
+ * (caixaeletronico.concorrencia.estrategia), com depósitos e saques pelo ContaServiceV2:
+ * transação, alteração do saldo, extrato e cache, como numa requisição da API v3.
+ * 
+ * contas é o tamanho do conjunto sorteado a cada operação: 1 (uma conta quente, toda operação
+ * disputa a mesma linha), 16 (disputa média) e 1024 (disputa baixa). Vazão em Throughput;
+ * p99 e p99.9 no SampleTime.
+ * 
+ * Resultados de referência (1 CPU, 8 threads) no README, seção "Benchmarks".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class ConcorrenciaBenchmark {
+    
+    private static final int PRIMEIRA_CONTA = 1_000;
+    
+    @Param({"atomico", "otimista", "pessimista", "lock-local"})
+    public String estrategia;
+    
+    @Param({"1", "16", "1024"})
+    public int contas;
+    
+    private ConfigurableApplicationContext contexto;
+    private ContaServiceV2 servico;
+    
+    @Setup
+    public void preparar() {
+        contexto = Aplicacao.iniciar("caixaeletronico.concorrencia.estrategia=" + estrategia);
+        servico = contexto.getBean(ContaServiceV2.class);
+        for (int numero = PRIMEIRA_CONTA; numero < PRIMEIRA_CONTA + contas; numero++) {
+            ContaRequestDTO requisicao = Amostras.requisicao(numero);
+            // Saldo alto: os saques quase nunca são recusados
+            requisicao.setSaldoInicial(Dinheiro.deCentavos(1_000_000_000L));
+            servico.criarConta(requisicao);
+        }
+    }
+    
+    @TearDown
+    public void encerrar() {
+        contexto.close();
+    }
+    
+    @Benchmark
+    public Object movimentar() {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        int numero = PRIMEIRA_CONTA + aleatorio.nextInt(contas);
+        Dinheiro valor = Dinheiro.deCentavos(1 + aleatorio.nextInt(10_000));
+        try {
+            return aleatorio.nextBoolean() ? servico.depositar(numero, valor) : servico.sacar(numero, valor);
+        } catch (OperacaoInvalidaException | OptimisticLockingFailureException e) {
+            // Saldo insuficiente, ou novas tentativas esgotadas no otimista (409 na API): conta como operação
+            return e;
+        }
+    }
+}
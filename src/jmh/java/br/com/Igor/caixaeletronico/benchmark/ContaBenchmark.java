@@ -0,0 +1,71 @@
+package br.com.Igor.caixaeletronico.benchmark;
+
+import br.com.Igor.caixaeletronico.entity.Conta;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operações da entidade Conta: depósito e saque com Dinheiro e com double,
+ * e o saque recusado por saldo insuficiente
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContaBenchmark {
+    
+    private final Dinheiro valor = Dinheiro.deCentavos(1_050L);
+    
+    private Conta conta;
+    private Conta contaVazia;
+    
+    @Setup(Level.Iteration)
+    public void preparar() {
+        // Saldo grande o bastante para os saques de uma iteração inteira não zerarem a conta
+        conta = Amostras.conta(1);
+        conta.setSaldo(Dinheiro.deCentavos(Long.MAX_VALUE / 2));
+        contaVazia = Amostras.conta(2);
+        contaVazia.setSaldo(Dinheiro.ZERO);
+    }
+    
+    @Benchmark
+    public Dinheiro depositar() {
+        conta.depositar(valor);
+        return conta.getSaldo();
+    }
+    
+    @Benchmark
+    public Dinheiro depositarDouble() {
+        conta.depositar(10.50);
+        return conta.getSaldo();
+    }
+    
+    @Benchmark
+    public boolean sacar() {
+        return conta.sacar(valor);
+    }
+    
+    @Benchmark
+    public boolean sacarDouble() {
+        return conta.sacar(10.50);
+    }
+    
+    @Benchmark
+    public boolean sacarSemSaldo() {
+        return contaVazia.sacar(valor);
+    }
+}
@@ -0,0 +1,50 @@
+package br.com.Igor.caixaeletronico.benchmark;
+
+import br.com.Igor.caixaeletronico.dto.ContaRequestDTO;
+import br.com.Igor.caixaeletronico.dto.ContaResponseDTO;
+import br.com.Igor.caixaeletronico.entity.Conta;
+import br.com.Igor.caixaeletronico.mapper.ContaMapper;
+import br.com.Igor.caixaeletronico.repository.ContaResumo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversões do ContaMapper usadas em toda resposta e em todo cadastro
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContaMapperBenchmark {
+    
+    private final ContaMapper mapper = new ContaMapper();
+    private final Conta conta = Amostras.conta(12345);
+    private final ContaResumo resumo = Amostras.resumo(12345);
+    private final ContaRequestDTO requisicao = Amostras.requisicao(12345);
+    
+    @Benchmark
+    public ContaResponseDTO toContaResponseDTO() {
+        return mapper.toContaResponseDTO(conta);
+    }
+    
+    @Benchmark
+    public ContaResponseDTO toContaResponseDTOResumo() {
+        return mapper.toContaResponseDTO(resumo);
+    }
+    
+    @Benchmark
+    public Conta toConta() {
+        return mapper.toConta(requisicao);
+    }
+}
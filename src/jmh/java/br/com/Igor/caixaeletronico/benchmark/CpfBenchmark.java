@@ -0,0 +1,67 @@
+package br.com.Igor.caixaeletronico.benchmark;
+
+import br.com.Igor.caixaeletronico.entity.Cpf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Validação do CPF de uma requisição: Cpf.converter (formato e dígitos verificadores numa passada,
+ * sem alocar) contra o @Pattern de antes, que só conferia o formato, sobre 1024 CPFs válidos
+ * formatados e só com dígitos
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CpfBenchmark {
+    
+    private static final int CPFS = 1024;
+    
+    // A validação do Cliente antes do Cpf
+    private static final Pattern FORMATO = Pattern.compile("\\d{3}\\.\\d{3}\\.\\d{3}-\\d{2}");
+    
+    private final String[] formatados = new String[CPFS];
+    private final String[] digitos = new String[CPFS];
+    private int indice;
+    
+    @Setup
+    public void preparar() {
+        for (int i = 0; i < CPFS; i++) {
+            formatados[i] = Amostras.cpf(i * 7919).toString();
+            digitos[i] = formatados[i].replace(".", "").replace("-", "");
+        }
+    }
+    
+    @Benchmark
+    public long converterFormatado() {
+        return Cpf.converter(proximo(formatados));
+    }
+    
+    @Benchmark
+    public long converterDigitos() {
+        return Cpf.converter(proximo(digitos));
+    }
+    
+    @Benchmark
+    public boolean regexFormatado() {
+        return FORMATO.matcher(proximo(formatados)).matches();
+    }
+    
+    private String proximo(String[] cpfs) {
+        indice = (indice + 1) & (CPFS - 1);
+        return cpfs[indice];
+    }
+}
@@ -0,0 +1,107 @@
+package br.com.Igor.caixaeletronico.benchmark;
+
+import br.com.Igor.caixaeletronico.entity.Conta;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminho de domínio de um depósito seguido de um saque: validação do valor, atualização do
+ * saldo da Conta, variação do evento e os centavos da estatística. Com Dinheiro e com o
+ * BigDecimal de antes (a mesma lógica que Conta tinha), e a partir de double (depositar(double)).
+ * 
+ * Alocação por operação com o profiler de GC: mvn -Pjmh verify -Djmh.args="DinheiroBenchmark -prof gc"
+ * (gc.alloc.rate.norm, em bytes por operação).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DinheiroBenchmark {
+    
+    private final Dinheiro valor = Dinheiro.deCentavos(1_050L);
+    private final BigDecimal valorDecimal = new BigDecimal("10.50");
+    
+    private Conta conta;
+    private BigDecimal saldoDecimal;
+    
+    // Saldo das estatísticas, acumulado como cada implementação acumulava
+    private long centavos;
+    private BigDecimal totalDecimal;
+    
+    @Setup(Level.Iteration)
+    public void preparar() {
+        conta = Amostras.conta(1);
+        saldoDecimal = conta.getSaldo().toBigDecimal();
+        centavos = 0;
+        totalDecimal = BigDecimal.ZERO;
+    }
+    
+    @Benchmark
+    public Dinheiro dinheiro() {
+        return movimentar(valor);
+    }
+    
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        return movimentarDecimal(valorDecimal);
+    }
+    
+    @Benchmark
+    public Dinheiro dinheiroDeDouble() {
+        return movimentar(Dinheiro.de(10.50));
+    }
+    
+    @Benchmark
+    public BigDecimal bigDecimalDeDouble() {
+        return movimentarDecimal(BigDecimal.valueOf(10.50));
+    }
+    
+    private Dinheiro movimentar(Dinheiro valor) {
+        if (!valor.isPositivo()) {
+            throw new IllegalArgumentException("Valor deve ser maior que zero");
+        }
+        conta.depositar(valor);
+        centavos += valor.getCentavos();
+        if (conta.sacar(valor)) {
+            Dinheiro variacao = valor.negar();
+            centavos += variacao.getCentavos();
+        }
+        return conta.getSaldo();
+    }
+    
+    /**
+     * O mesmo caminho como era com BigDecimal: compareTo(ZERO) nas validações, add/subtract
+     * imutáveis e a escala de duas casas da coluna
+     */
+    private BigDecimal movimentarDecimal(BigDecimal valor) {
+        if (valor.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Valor deve ser maior que zero");
+        }
+        if (valor.compareTo(BigDecimal.ZERO) > 0) {
+            saldoDecimal = saldoDecimal.add(valor);
+        }
+        totalDecimal = totalDecimal.add(valor.setScale(2, RoundingMode.UNNECESSARY));
+        if (valor.compareTo(BigDecimal.ZERO) > 0 && valor.compareTo(saldoDecimal) <= 0) {
+            saldoDecimal = saldoDecimal.subtract(valor);
+            BigDecimal variacao = valor.negate();
+            totalDecimal = totalDecimal.add(variacao.setScale(2, RoundingMode.UNNECESSARY));
+        }
+        return saldoDecimal;
+    }
+}
@@ -0,0 +1,97 @@
+package br.com.Igor.caixaeletronico.benchmark;
+
+import br.com.Igor.caixaeletronico.config.MetricasConfig;
+import br.com.Igor.caixaeletronico.service.diagnostico.EventosRepositorio;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo dos eventos do Flight Recorder por chamada, sem gravação e com a gravação contínua
+ * (configuração "default", em disco): a operação medida (MedicaoOperacoes, com o OperacaoContaEvento)
+ * e uma chamada de repositório com o EventosRepositorio. A diferença entre gravando=false e
+ * gravando=true é o custo de gravar o evento.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventosJfrBenchmark {
+    
+    @Param({"false", "true"})
+    public boolean gravando;
+    
+    private Recording gravacao;
+    private MetricasBenchmark.Operacoes operacoes;
+    private Repositorio repositorio;
+    
+    @Setup
+    public void preparar() throws Exception {
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        beans.registerSingleton("registry", new SimpleMeterRegistry());
+        ProxyFactory fabricaOperacoes = new ProxyFactory(new MetricasBenchmark.Operacoes());
+        fabricaOperacoes.setProxyTargetClass(true);
+        fabricaOperacoes.addAdvisor(MetricasConfig.medicaoOperacoesAdvisor(beans.getBeanProvider(MeterRegistry.class)));
+        operacoes = (MetricasBenchmark.Operacoes) fabricaOperacoes.getProxy();
+        
+        ProxyFactory fabricaRepositorio = new ProxyFactory(new RepositorioMemoria());
+        fabricaRepositorio.addInterface(Repositorio.class);
+        fabricaRepositorio.addAdvice(new EventosRepositorio(Repositorio.class));
+        repositorio = (Repositorio) fabricaRepositorio.getProxy();
+        
+        if (gravando) {
+            gravacao = new Recording(Configuration.getConfiguration("default"));
+            gravacao.setToDisk(true);
+            gravacao.start();
+        }
+    }
+    
+    @TearDown
+    public void encerrar() {
+        if (gravacao != null) {
+            gravacao.close();
+        }
+    }
+    
+    @Benchmark
+    public long operacao() {
+        return operacoes.depositar(1L);
+    }
+    
+    @Benchmark
+    public Optional<Integer> repositorio() {
+        return repositorio.buscar(42);
+    }
+    
+    public interface Repositorio {
+        Optional<Integer> buscar(Integer numero);
+    }
+    
+    static class RepositorioMemoria implements Repositorio {
+        
+        @Override
+        public Optional<Integer> buscar(Integer numero) {
+            return Optional.of(numero);
+        }
+    }
+}
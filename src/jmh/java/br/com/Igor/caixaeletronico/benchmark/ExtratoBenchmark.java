@@ -0,0 +1,97 @@
+package br.com.Igor.caixaeletronico.benchmark;
+
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.entity.Movimentacao;
+import br.com.Igor.caixaeletronico.repository.MovimentacaoRepository;
+import br.com.Igor.caixaeletronico.service.ContaServiceV2;
+import br.com.Igor.caixaeletronico.service.GravadorMovimentacoes;
+import br.com.Igor.caixaeletronico.service.concorrencia.ControleConcorrencia;
+import br.com.Igor.caixaeletronico.service.concorrencia.ResultadoMovimentacao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gravação do extrato num depósito: uma linha por transação (save da Movimentacao na própria
+ * transação, um INSERT e um commit por operação) contra o group commit do GravadorMovimentacoes
+ * (a linha entra na fila e é gravada num batch com as das outras transações, um commit por lote).
+ * 
+ * As duas variantes fazem o mesmo crédito pela estratégia de concorrência ativa, em contas
+ * sorteadas entre 1024 para a disputa pela linha da conta não dominar a medição.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class ExtratoBenchmark {
+    
+    private static final int PRIMEIRA_CONTA = 1_000;
+    private static final int CONTAS = 1024;
+    
+    private ConfigurableApplicationContext contexto;
+    private ControleConcorrencia controleConcorrencia;
+    private MovimentacaoRepository movimentacaoRepository;
+    private GravadorMovimentacoes gravadorMovimentacoes;
+    private TransactionTemplate transacao;
+    
+    @Setup
+    public void preparar() {
+        contexto = Aplicacao.iniciar();
+        controleConcorrencia = contexto.getBean(ControleConcorrencia.class);
+        movimentacaoRepository = contexto.getBean(MovimentacaoRepository.class);
+        gravadorMovimentacoes = contexto.getBean(GravadorMovimentacoes.class);
+        transacao = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+        ContaServiceV2 servico = contexto.getBean(ContaServiceV2.class);
+        for (int numero = PRIMEIRA_CONTA; numero < PRIMEIRA_CONTA + CONTAS; numero++) {
+            servico.criarConta(Amostras.requisicao(numero));
+        }
+    }
+    
+    @TearDown
+    public void encerrar() {
+        contexto.close();
+    }
+    
+    @Benchmark
+    public Movimentacao linhaPorTransacao() {
+        return transacao.execute(status -> {
+            Movimentacao movimentacao = creditar();
+            return movimentacaoRepository.save(movimentacao);
+        });
+    }
+    
+    @Benchmark
+    public Movimentacao groupCommit() {
+        return transacao.execute(status -> {
+            Movimentacao movimentacao = creditar();
+            gravadorMovimentacoes.registrar(movimentacao);
+            return movimentacao;
+        });
+    }
+    
+    private Movimentacao creditar() {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        int numero = PRIMEIRA_CONTA + aleatorio.nextInt(CONTAS);
+        Dinheiro valor = Dinheiro.deCentavos(1 + aleatorio.nextInt(10_000));
+        ResultadoMovimentacao resultado = controleConcorrencia.creditar(numero, valor);
+        return new Movimentacao(numero, Movimentacao.Tipo.DEPOSITO, valor, resultado.getConta().getSaldo());
+    }
+}
@@ -0,0 +1,111 @@
+package br.com.Igor.caixaeletronico.benchmark;
+
+import br.com.Igor.caixaeletronico.dto.ContaRequestDTO;
+import br.com.Igor.caixaeletronico.dto.ContaResponseDTO;
+import br.com.Igor.caixaeletronico.repository.ContaRepository;
+import br.com.Igor.caixaeletronico.service.ContaServiceV2;
+import br.com.Igor.caixaeletronico.service.metricas.ContagemSql;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Criação de conta nova pelo ContaServiceV2: com o FiltroContasExistentes descartando número e CPF
+ * (só o INSERT) contra as consultas de duplicidade que a criação fazia antes (existsById e
+ * existsByTitularCpf na mesma transação, antes do INSERT)
+ * 
+ * Os contadores comandosSql e criacoes (ContagemSql, na thread da criação) dão as idas ao banco
+ * por criação: comandosSql / criacoes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class FiltroContasBenchmark {
+    
+    private final AtomicInteger proximoNumero = new AtomicInteger(1_000);
+    
+    private ConfigurableApplicationContext contexto;
+    private ContaServiceV2 servico;
+    private ContaRepository repository;
+    private TransactionTemplate transacao;
+    
+    /**
+     * Comandos SQL e criações da iteração
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Comandos {
+        
+        public long comandosSql;
+        public long criacoes;
+        
+        @Setup(Level.Iteration)
+        public void zerar() {
+            comandosSql = 0;
+            criacoes = 0;
+        }
+    }
+    
+    @Setup
+    public void preparar() {
+        contexto = Aplicacao.iniciar();
+        servico = contexto.getBean(ContaServiceV2.class);
+        repository = contexto.getBean(ContaRepository.class);
+        transacao = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+    }
+    
+    @TearDown
+    public void encerrar() {
+        contexto.close();
+    }
+    
+    @Benchmark
+    public ContaResponseDTO comFiltro(Comandos comandos) {
+        ContaRequestDTO requisicao = Amostras.requisicao(proximoNumero.getAndIncrement());
+        long inicio = ContagemSql.total();
+        ContaResponseDTO conta = servico.criarConta(requisicao);
+        contar(comandos, inicio);
+        return conta;
+    }
+    
+    @Benchmark
+    public ContaResponseDTO comConsultas(Comandos comandos) {
+        ContaRequestDTO requisicao = Amostras.requisicao(proximoNumero.getAndIncrement());
+        long inicio = ContagemSql.total();
+        ContaResponseDTO conta = transacao.execute(status -> {
+            if (repository.existsById(requisicao.getNumero())
+                    || repository.existsByTitularCpf(requisicao.getTitular().getCpf())) {
+                throw new IllegalStateException("Conta " + requisicao.getNumero() + " já existe");
+            }
+            return servico.criarConta(requisicao);
+        });
+        contar(comandos, inicio);
+        return conta;
+    }
+    
+    private static void contar(Comandos comandos, long inicio) {
+        comandos.comandosSql += ContagemSql.total() - inicio;
+        comandos.criacoes++;
+    }
+}
@@ -0,0 +1,104 @@
+package br.com.Igor.caixaeletronico.benchmark;
+
+import br.com.Igor.caixaeletronico.dto.ApiResponseDTO;
+import br.com.Igor.caixaeletronico.dto.ContaResponseDTO;
+import br.com.Igor.caixaeletronico.dto.PaginaDTO;
+import br.com.Igor.caixaeletronico.mapper.ContaMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON, CBOR e Smile nas respostas da v3: uma conta (GET /{numero}) e uma página padrão de 100 contas
+ * 
+ * "escrever" é o custo no servidor; "ler" é a leitura da resposta de volta nos DTOs, como faria um
+ * terminal em Java. Os mappers têm as mesmas opções do Spring Boot (FormatosBinariosConfig), e o
+ * tamanho de cada corpo sai no log da preparação.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatosBenchmark {
+    
+    @Param({"json", "cbor", "smile"})
+    private String formato;
+    
+    @Param({"conta", "lista"})
+    private String resposta;
+    
+    private final ByteArrayOutputStream saida = new ByteArrayOutputStream(1 << 16);
+    
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private ApiResponseDTO<?> corpo;
+    private byte[] bytes;
+    
+    @Setup
+    public void preparar() throws IOException {
+        Jackson2ObjectMapperBuilder builder = switch (formato) {
+            case "json" -> Jackson2ObjectMapperBuilder.json();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile();
+            default -> throw new IllegalArgumentException(formato);
+        };
+        ObjectMapper mapper = builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        
+        ContaMapper contaMapper = new ContaMapper();
+        JavaType tipo;
+        if (resposta.equals("conta")) {
+            corpo = ApiResponseDTO.sucesso("Conta encontrada", contaMapper.toContaResponseDTO(Amostras.conta(1)));
+            tipo = mapper.getTypeFactory().constructType(new TypeReference<ApiResponseDTO<ContaResponseDTO>>() {});
+        } else {
+            List<ContaResponseDTO> contas = new ArrayList<>(PaginaDTO.LIMITE_PADRAO);
+            for (int i = 1; i <= PaginaDTO.LIMITE_PADRAO; i++) {
+                contas.add(contaMapper.toContaResponseDTO(Amostras.conta(i)));
+            }
+            corpo = ApiResponseDTO.sucessoPaginado("Contas listadas com sucesso",
+                new PaginaDTO<>(contas, PaginaDTO.LIMITE_PADRAO));
+            tipo = mapper.getTypeFactory().constructType(new TypeReference<ApiResponseDTO<List<ContaResponseDTO>>>() {});
+        }
+        // Timestamp fixo, para o tamanho não variar com o relógio
+        corpo.setTimestamp(LocalDateTime.of(2024, 1, 15, 10, 30, 45, 123_000_000));
+        writer = mapper.writerFor(tipo);
+        reader = mapper.readerFor(tipo);
+        bytes = writer.writeValueAsBytes(corpo);
+        System.out.println("Tamanho de " + resposta + " em " + formato + ": " + bytes.length + " bytes");
+    }
+    
+    @Benchmark
+    public int escrever() throws IOException {
+        saida.reset();
+        writer.writeValue(saida, corpo);
+        return saida.size();
+    }
+    
+    @Benchmark
+    public Object ler() throws IOException {
+        return reader.readValue(bytes);
+    }
+}
@@ -0,0 +1,132 @@
+package br.com.Igor.caixaeletronico.benchmark;
+
+import br.com.Igor.caixaeletronico.controller.ContaControllerV3;
+import br.com.Igor.caixaeletronico.dto.ApiResponseDTO;
+import br.com.Igor.caixaeletronico.dto.ContaRequestDTO;
+import br.com.Igor.caixaeletronico.exception.ContaNaoEncontradaException;
+import br.com.Igor.caixaeletronico.exception.GlobalExceptionHandler;
+import br.com.Igor.caixaeletronico.exception.OperacaoInvalidaException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo das respostas de erro: criar e lançar a exceção, capturá-la e montar a resposta
+ * no GlobalExceptionHandler, comparado com a resposta de sucesso equivalente
+ * 
+ * A exceção é lançada "profundidade" quadros abaixo da captura; numa requisição real a pilha
+ * entre o serviço e o DispatcherServlet passa de cem quadros, e preencher o stack trace
+ * custa proporcionalmente.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GlobalExceptionHandlerBenchmark {
+    
+    @Param({"0", "100"})
+    private int profundidade;
+    
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private final Integer numero = 12345;
+    
+    private MethodParameter parametro;
+    
+    @Setup
+    public void preparar() throws NoSuchMethodException {
+        parametro = new MethodParameter(ContaControllerV3.class.getMethod("criarConta", ContaRequestDTO.class), 0);
+    }
+    
+    @Benchmark
+    public ResponseEntity<ApiResponseDTO<Object>> sucesso() {
+        return ResponseEntity.ok(ApiResponseDTO.sucesso("Conta encontrada", lancar(profundidade, false)));
+    }
+    
+    @Benchmark
+    public ResponseEntity<ApiResponseDTO<Object>> contaNaoEncontrada() {
+        try {
+            return ResponseEntity.ok(ApiResponseDTO.sucesso("Conta encontrada", lancar(profundidade, true)));
+        } catch (ContaNaoEncontradaException e) {
+            return handler.handleContaNaoEncontrada(e);
+        }
+    }
+    
+    @Benchmark
+    public ResponseEntity<ApiResponseDTO<Object>> operacaoInvalida() {
+        try {
+            return ResponseEntity.ok(ApiResponseDTO.sucesso("Saque realizado com sucesso", sacar(profundidade)));
+        } catch (OperacaoInvalidaException e) {
+            return handler.handleOperacaoInvalida(e);
+        }
+    }
+    
+    @Benchmark
+    public ResponseEntity<ApiResponseDTO<Map<String, String>>> dadosInvalidos() {
+        try {
+            return ResponseEntity.ok(ApiResponseDTO.erro("Dados válidos", validar(profundidade)));
+        } catch (MethodArgumentNotValidException e) {
+            return handler.handleValidationErrors(e);
+        }
+    }
+    
+    @Benchmark
+    public ResponseEntity<ApiResponseDTO<Object>> erroGenerico() {
+        try {
+            return ResponseEntity.ok(ApiResponseDTO.sucesso("Conta encontrada", falhar(profundidade)));
+        } catch (IllegalStateException e) {
+            return handler.handleGenericException(e);
+        }
+    }
+    
+    private Object lancar(int quadros, boolean falhar) {
+        if (quadros > 0) {
+            return lancar(quadros - 1, falhar);
+        }
+        if (falhar) {
+            throw new ContaNaoEncontradaException(numero);
+        }
+        return numero;
+    }
+    
+    private Object sacar(int quadros) {
+        if (quadros > 0) {
+            return sacar(quadros - 1);
+        }
+        throw new OperacaoInvalidaException("Saldo insuficiente para saque");
+    }
+    
+    private Map<String, String> validar(int quadros) throws MethodArgumentNotValidException {
+        if (quadros > 0) {
+            return validar(quadros - 1);
+        }
+        BeanPropertyBindingResult erros = new BeanPropertyBindingResult(new ContaRequestDTO(), "contaRequestDTO");
+        erros.addError(new FieldError("contaRequestDTO", "numero", "Número da conta é obrigatório"));
+        erros.addError(new FieldError("contaRequestDTO", "titular", "Dados do titular são obrigatórios"));
+        throw new MethodArgumentNotValidException(parametro, erros);
+    }
+    
+    private Object falhar(int quadros) {
+        if (quadros > 0) {
+            return falhar(quadros - 1);
+        }
+        throw new IllegalStateException("Falha inesperada");
+    }
+}
@@ -0,0 +1,91 @@
+package br.com.Igor.caixaeletronico.benchmark;
+
+import br.com.Igor.caixaeletronico.entity.RespostaIdempotente;
+import br.com.Igor.caixaeletronico.repository.RespostaIdempotenteRepository;
+import br.com.Igor.caixaeletronico.service.RegistroIdempotencia;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Custo do RegistroIdempotencia em volta da operação, sem a operação
+ * 
+ * chaveNova: o caminho comum, uma chave que ainda não tem resposta (cache sem a chave, filtro de
+ * Bloom descartando a consulta, single-flight); a resposta é de erro do servidor, que não é
+ * guardada, para medir só a busca. chaveRepetida: a nova tentativa, respondida pelo cache.
+ * consultaNaTabela: a consulta que o filtro evita, uma busca por chave inexistente na tabela.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class IdempotenciaBenchmark {
+    
+    private static final int GUARDADAS = 1024;
+    private static final byte[] CORPO = "{\"sucesso\":true}".getBytes(StandardCharsets.UTF_8);
+    
+    private final AtomicLong sequencia = new AtomicLong();
+    
+    private ConfigurableApplicationContext contexto;
+    private RegistroIdempotencia registro;
+    private RespostaIdempotenteRepository repository;
+    private TransactionTemplate transacaoLeitura;
+    private RespostaIdempotente erroServidor;
+    
+    @Setup
+    public void preparar() throws Exception {
+        contexto = Aplicacao.iniciar();
+        registro = contexto.getBean(RegistroIdempotencia.class);
+        repository = contexto.getBean(RespostaIdempotenteRepository.class);
+        transacaoLeitura = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+        transacaoLeitura.setReadOnly(true);
+        erroServidor = new RespostaIdempotente("erro", "impressao", 503, "application/json", CORPO, registro.expiracao());
+        for (int i = 0; i < GUARDADAS; i++) {
+            String chave = "guardada-" + i;
+            registro.executarUmaVez(chave,
+                    () -> new RespostaIdempotente(chave, "impressao", 200, "application/json", CORPO, registro.expiracao()));
+        }
+    }
+    
+    @TearDown
+    public void encerrar() {
+        contexto.close();
+    }
+    
+    @Benchmark
+    public Optional<RespostaIdempotente> chaveNova() throws Exception {
+        return registro.executarUmaVez("nova-" + sequencia.incrementAndGet(), () -> erroServidor);
+    }
+    
+    @Benchmark
+    public Optional<RespostaIdempotente> chaveRepetida() throws Exception {
+        return registro.executarUmaVez("guardada-" + ThreadLocalRandom.current().nextInt(GUARDADAS), () -> erroServidor);
+    }
+    
+    @Benchmark
+    public Optional<RespostaIdempotente> consultaNaTabela() {
+        String chave = "nova-" + sequencia.incrementAndGet();
+        return transacaoLeitura.execute(status -> repository.findById(chave));
+    }
+}
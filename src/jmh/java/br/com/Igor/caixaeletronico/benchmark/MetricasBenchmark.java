@@ -0,0 +1,108 @@
+package br.com.Igor.caixaeletronico.benchmark;
+
+import br.com.Igor.caixaeletronico.config.MetricasConfig;
+import br.com.Igor.caixaeletronico.service.metricas.OperacaoMedida;
+import br.com.Igor.caixaeletronico.service.metricas.RecusasOperacoes;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo da instrumentação das operações: a mesma chamada por um proxy CGLIB (como o dos
+ * serviços) com um advice que só repassa a chamada e com o advice de MedicaoOperacoes,
+ * registrando num PrometheusMeterRegistry; a diferença entre os dois é o custo da medição.
+ * "recusa" é o incremento do contador de recusas.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricasBenchmark {
+    
+    private Operacoes direto;
+    private Operacoes passagem;
+    private Operacoes medido;
+    private RecusasOperacoes recusas;
+    private Timer timer;
+    
+    @Setup
+    public void preparar() {
+        MeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        beans.registerSingleton("registry", registry);
+        
+        direto = new Operacoes();
+        MethodInterceptor repassa = invocation -> invocation.proceed();
+        passagem = proxy(new DefaultPointcutAdvisor(
+            new AnnotationMatchingPointcut(null, OperacaoMedida.class, true), repassa));
+        medido = proxy(MetricasConfig.medicaoOperacoesAdvisor(beans.getBeanProvider(MeterRegistry.class)));
+        recusas = new RecusasOperacoes(registry);
+        timer = Timer.builder("benchmark").publishPercentileHistogram().register(registry);
+    }
+    
+    private static Operacoes proxy(Advisor advisor) {
+        ProxyFactory fabrica = new ProxyFactory(new Operacoes());
+        fabrica.setProxyTargetClass(true);
+        fabrica.addAdvisor(advisor);
+        return (Operacoes) fabrica.getProxy();
+    }
+    
+    @Benchmark
+    public long direto() {
+        return direto.depositar(1L);
+    }
+    
+    @Benchmark
+    public long proxyPassagem() {
+        return passagem.depositar(1L);
+    }
+    
+    @Benchmark
+    public long proxyComMedicao() {
+        return medido.depositar(1L);
+    }
+    
+    @Benchmark
+    public void registroTimer() {
+        timer.record(150_000L, TimeUnit.NANOSECONDS);
+    }
+    
+    @Benchmark
+    public void recusa() {
+        recusas.registrar(RecusasOperacoes.Motivo.SALDO_INSUFICIENTE);
+    }
+    
+    /**
+     * Alvo mínimo, para o tempo medido ser o do proxy e da instrumentação
+     */
+    public static class Operacoes {
+        
+        private long saldo;
+        
+        @OperacaoMedida("depositar")
+        public long depositar(long valor) {
+            return saldo += valor;
+        }
+    }
+}
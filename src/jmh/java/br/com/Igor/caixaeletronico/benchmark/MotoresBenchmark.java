@@ -0,0 +1,88 @@
+package br.com.Igor.caixaeletronico.benchmark;
+
+import br.com.Igor.caixaeletronico.dto.ContaResponseDTO;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.service.OperacoesContas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operações por segundo de um núcleo (uma thread) nos dois motores da API v3: JPA sobre o H2
+ * (ContaServiceV2) e em memória (ContaServiceMemoria, profile "memoria"), pela mesma interface
+ * OperacoesContas, com 10 mil contas sorteadas a cada operação
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class MotoresBenchmark {
+    
+    private static final int PRIMEIRA_CONTA = 1_000;
+    private static final int CONTAS = 10_000;
+    
+    @Param({"jpa", "memoria"})
+    public String motor;
+    
+    private ConfigurableApplicationContext contexto;
+    private OperacoesContas operacoes;
+    private Path snapshot;
+    
+    @Setup
+    public void preparar() throws Exception {
+        snapshot = Files.createTempFile("motores-benchmark", ".snapshot");
+        Files.delete(snapshot);
+        contexto = Aplicacao.iniciar(
+                "spring.profiles.active=" + ("memoria".equals(motor) ? "memoria" : "default"),
+                "caixaeletronico.memoria.snapshot.arquivo=" + snapshot,
+                "caixaeletronico.memoria.snapshot.intervalo-ms=3600000");
+        operacoes = contexto.getBean(OperacoesContas.class);
+        for (int numero = PRIMEIRA_CONTA; numero < PRIMEIRA_CONTA + CONTAS; numero++) {
+            operacoes.criarConta(Amostras.requisicao(numero));
+        }
+    }
+    
+    @TearDown
+    public void encerrar() throws Exception {
+        contexto.close();
+        Files.deleteIfExists(snapshot);
+    }
+    
+    @Benchmark
+    public ContaResponseDTO depositar() {
+        return operacoes.depositar(sortear(), Dinheiro.deCentavos(1_000L));
+    }
+    
+    @Benchmark
+    public Dinheiro consultarSaldo() {
+        return operacoes.consultarSaldo(sortear());
+    }
+    
+    @Benchmark
+    public ContaResponseDTO buscarConta() {
+        return operacoes.buscarConta(sortear());
+    }
+    
+    private static int sortear() {
+        return PRIMEIRA_CONTA + ThreadLocalRandom.current().nextInt(CONTAS);
+    }
+}
@@ -0,0 +1,115 @@
+package br.com.Igor.caixaeletronico.benchmark;
+
+import br.com.Igor.caixaeletronico.dto.OperacaoLoteDTO;
+import br.com.Igor.caixaeletronico.dto.ResultadoLoteDTO;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.entity.Movimentacao;
+import br.com.Igor.caixaeletronico.exception.OperacaoInvalidaException;
+import br.com.Igor.caixaeletronico.service.ContaServiceV2;
+import br.com.Igor.caixaeletronico.service.MovimentacaoContasLote;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Depósitos e saques por segundo: o lote de POST /api/v3/operacoes/lote (um UPDATE por conta
+ * e bloco, na ordem recebida) contra um laço de chamadas individuais ao ContaServiceV2
+ * (uma transação por operação), com 1000 operações sorteadas entre 2000 contas por chamada.
+ * Mede só o serviço, sem HTTP.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class MovimentacaoLoteBenchmark {
+    
+    private static final int PRIMEIRA_CONTA = 1_000;
+    private static final int CONTAS = 2_000;
+    private static final int OPERACOES = 1_000;
+    
+    private ConfigurableApplicationContext contexto;
+    private MovimentacaoContasLote movimentacaoLote;
+    private ContaServiceV2 servico;
+    private ObjectMapper objectMapper;
+    
+    private List<OperacaoLoteDTO> operacoes;
+    private byte[] corpo;
+    
+    @Setup
+    public void preparar() {
+        contexto = Aplicacao.iniciar();
+        movimentacaoLote = contexto.getBean(MovimentacaoContasLote.class);
+        servico = contexto.getBean(ContaServiceV2.class);
+        objectMapper = contexto.getBean(ObjectMapper.class);
+        for (int numero = PRIMEIRA_CONTA; numero < PRIMEIRA_CONTA + CONTAS; numero++) {
+            servico.criarConta(Amostras.requisicao(numero));
+        }
+    }
+    
+    /**
+     * Operações da próxima chamada, mais depósitos que saques para os saldos não se esgotarem
+     */
+    @Setup(Level.Invocation)
+    public void prepararOperacoes() throws Exception {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        operacoes = new ArrayList<>(OPERACOES);
+        for (int i = 0; i < OPERACOES; i++) {
+            operacoes.add(new OperacaoLoteDTO(PRIMEIRA_CONTA + aleatorio.nextInt(CONTAS),
+                    aleatorio.nextInt(10) < 6 ? Movimentacao.Tipo.DEPOSITO : Movimentacao.Tipo.SAQUE,
+                    Dinheiro.deCentavos(1 + aleatorio.nextInt(1_000))));
+        }
+        corpo = objectMapper.writeValueAsBytes(operacoes);
+    }
+    
+    @TearDown
+    public void encerrar() {
+        contexto.close();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(OPERACOES)
+    public ResultadoLoteDTO lote() throws Exception {
+        return movimentacaoLote.movimentar(new ByteArrayInputStream(corpo));
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(OPERACOES)
+    public int individual() {
+        int aplicadas = 0;
+        for (OperacaoLoteDTO operacao : operacoes) {
+            try {
+                if (operacao.getTipo() == Movimentacao.Tipo.DEPOSITO) {
+                    servico.depositar(operacao.getNumero(), operacao.getValor());
+                } else {
+                    servico.sacar(operacao.getNumero(), operacao.getValor());
+                }
+                aplicadas++;
+            } catch (OperacaoInvalidaException e) {
+                // Saldo insuficiente, como a recusa do item no lote
+            }
+        }
+        return aplicadas;
+    }
+}
@@ -0,0 +1,87 @@
+package br.com.Igor.caixaeletronico.benchmark;
+
+import br.com.Igor.caixaeletronico.dto.ApiResponseDTO;
+import br.com.Igor.caixaeletronico.dto.ContaResponseDTO;
+import br.com.Igor.caixaeletronico.entity.Conta;
+import br.com.Igor.caixaeletronico.mapper.ContaMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização Jackson da resposta de listagem (ApiResponseDTO com uma lista de ContaResponseDTO)
+ * 
+ * O ObjectMapper é montado com o mesmo builder e as mesmas opções que o Spring Boot usa (datas em
+ * texto ISO), então datas e os serializadores de Dinheiro e Cpf saem como na API. "respostaCompleta" inclui o mapeamento
+ * das entidades e o envelope, como no controller.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacaoBenchmark {
+    
+    @Param({"1", "10", "100", "1000"})
+    private int tamanho;
+    
+    private final ContaMapper mapper = new ContaMapper();
+    private final ByteArrayOutputStream saida = new ByteArrayOutputStream(1 << 20);
+    
+    private ObjectWriter writer;
+    private List<Conta> contas;
+    private ApiResponseDTO<List<ContaResponseDTO>> resposta;
+    
+    @Setup
+    public void preparar() {
+        writer = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build()
+                .writerFor(new TypeReference<ApiResponseDTO<List<ContaResponseDTO>>>() {});
+        contas = new ArrayList<>(tamanho);
+        List<ContaResponseDTO> dtos = new ArrayList<>(tamanho);
+        for (int i = 1; i <= tamanho; i++) {
+            Conta conta = Amostras.conta(i);
+            contas.add(conta);
+            dtos.add(mapper.toContaResponseDTO(conta));
+        }
+        resposta = ApiResponseDTO.sucesso("Contas listadas com sucesso", dtos);
+    }
+    
+    @Benchmark
+    public int serializar() throws IOException {
+        saida.reset();
+        writer.writeValue(saida, resposta);
+        return saida.size();
+    }
+    
+    @Benchmark
+    public int respostaCompleta() throws IOException {
+        List<ContaResponseDTO> dtos = new ArrayList<>(contas.size());
+        for (Conta conta : contas) {
+            dtos.add(mapper.toContaResponseDTO(conta));
+        }
+        saida.reset();
+        writer.writeValue(saida, ApiResponseDTO.sucesso("Contas listadas com sucesso", dtos));
+        return saida.size();
+    }
+}
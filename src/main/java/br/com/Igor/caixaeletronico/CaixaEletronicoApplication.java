@@ -2,6 +2,8 @@ package br.com.Igor.caixaeletronico;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 /**
@@ -12,10 +14,15 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
  * - @EnableAutoConfiguration: Habilita a configuração automática do Spring Boot
  * - @ComponentScan: Escaneia componentes no pacote atual e subpacotes
  * 
+ * O ConnectionFactory automático do R2DBC fica desligado: com ele o Spring Boot não cria o
+ * DataSource do JPA. A API v4 monta o próprio pool R2DBC (ContaServiceReativo).
+ * 
  * @EnableTransactionManagement: Habilita o gerenciamento de transações
+ * @EnableScheduling: Habilita tarefas agendadas (ex.: verificação das estatísticas)
  */
-@SpringBootApplication
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 @EnableTransactionManagement
+@EnableScheduling
 public class CaixaEletronicoApplication {
 
     public static void main(String[] args) {
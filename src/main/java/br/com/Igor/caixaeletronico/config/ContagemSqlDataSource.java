@@ -0,0 +1,65 @@
+package br.com.Igor.caixaeletronico.config;
+
+import br.com.Igor.caixaeletronico.service.metricas.ContagemSql;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource que conta, na thread que executa, cada comando enviado ao banco (ContagemSql)
+ * 
+ * Conta as chamadas execute* dos Statements criados pelas conexões: um executeBatch é um comando
+ * só, por mais linhas que leve. Os demais métodos passam direto para a conexão e o Statement reais.
+ */
+class ContagemSqlDataSource extends DelegatingDataSource {
+    
+    ContagemSqlDataSource(DataSource dataSource) {
+        super(dataSource);
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return contando(super.getConnection());
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return contando(super.getConnection(username, password));
+    }
+    
+    private static Connection contando(Connection conexao) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, metodo, argumentos) -> {
+                    Object retorno = repassar(conexao, metodo, argumentos);
+                    // createStatement, prepareStatement e prepareCall: o proxy tem a interface declarada no método
+                    if (retorno instanceof Statement comando) {
+                        return contando(comando, metodo.getReturnType());
+                    }
+                    return retorno;
+                });
+    }
+    
+    private static Object contando(Statement comando, Class<?> tipo) {
+        return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] {tipo},
+                (proxy, metodo, argumentos) -> {
+                    if (metodo.getName().startsWith("execute")) {
+                        ContagemSql.registrar();
+                    }
+                    return repassar(comando, metodo, argumentos);
+                });
+    }
+    
+    private static Object repassar(Object alvo, Method metodo, Object[] argumentos) throws Throwable {
+        try {
+            return metodo.invoke(alvo, argumentos);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
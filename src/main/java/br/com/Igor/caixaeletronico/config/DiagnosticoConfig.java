@@ -0,0 +1,51 @@
+package br.com.Igor.caixaeletronico.config;
+
+import br.com.Igor.caixaeletronico.service.diagnostico.ConversorJsonComEventos;
+import br.com.Igor.caixaeletronico.service.diagnostico.EventosRepositorio;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/**
+ * Pontos de emissão dos eventos do Flight Recorder (service.diagnostico)
+ * 
+ * - OperacaoConta: operações @OperacaoMedida, pelo MedicaoOperacoes (MetricasConfig)
+ * - ChamadaRepositorio: métodos dos repositórios do Spring Data
+ * - SerializacaoResposta: escrita dos corpos JSON das APIs MVC
+ * - FlushJpa: flushes do Hibernate (hibernate.session.events.auto, em application.properties)
+ * 
+ * Ficam sempre instalados, para servirem também a gravações iniciadas de fora (jcmd JFR.start);
+ * sem gravação, cada ponto custa poucos nanossegundos. A gravação contínua é a GravacaoContinuaJfr.
+ */
+@Configuration
+public class DiagnosticoConfig {
+    
+    /**
+     * Acrescenta o EventosRepositorio ao proxy de cada repositório, antes de o Spring Data criá-lo
+     */
+    @Bean
+    public static BeanPostProcessor eventosRepositorios() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> fabrica) {
+                    fabrica.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                        (proxyFactory, informacao) -> proxyFactory.addAdvice(0,
+                            new EventosRepositorio(informacao.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+    
+    /**
+     * Substitui o conversor JSON do Spring Boot (mesmo ObjectMapper) pelo que emite os eventos de serialização
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new ConversorJsonComEventos(objectMapper);
+    }
+}
@@ -0,0 +1,32 @@
+package br.com.Igor.caixaeletronico.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * CBOR (application/cbor) e Smile (application/x-jackson-smile) nas APIs MVC, escolhidos por Accept e Content-Type
+ * 
+ * Os ObjectMappers saem do mesmo builder do Spring Boot que monta o JSON, só trocando a fábrica:
+ * mesmas opções (datas em texto ISO), mesmos serializadores e, portanto, o mesmo esquema do JSON.
+ * Os conversores substituem os que o Spring MVC registraria sozinho com o builder padrão e ficam
+ * depois do JSON, que continua sendo a resposta para Accept ausente ou curinga.
+ * Os endpoints de lote, lidos em streaming, continuam aceitando só JSON.
+ */
+@Configuration
+public class FormatosBinariosConfig {
+    
+    @Bean
+    public MappingJackson2CborHttpMessageConverter conversorCbor(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+    
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter conversorSmile(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
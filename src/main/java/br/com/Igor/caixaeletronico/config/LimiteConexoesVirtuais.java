@@ -0,0 +1,90 @@
+package br.com.Igor.caixaeletronico.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fila justa de espera por conexão, na frente do pool, para o modo de threads virtuais
+ * 
+ * Com uma thread virtual por requisição, milhares de requisições podem pedir conexão ao mesmo
+ * tempo a um pool de poucas conexões. Esperando dentro do Hikari, todas disputam cada conexão
+ * devolvida e o atendimento desaba; aqui só chegam ao pool tantas threads quantas são as
+ * conexões, e as demais esperam em ordem de chegada num Semaphore, estacionadas sem ocupar
+ * thread do sistema.
+ * 
+ * Limita também as threads virtuais presas (pinned) à thread do sistema dentro do H2, cuja
+ * espera por lock de linha é um Object.wait dentro de synchronized: no máximo uma por conexão.
+ */
+class LimiteConexoesVirtuais extends DelegatingDataSource {
+    
+    private final Semaphore vagas;
+    private final long timeoutMs;
+    
+    LimiteConexoesVirtuais(DataSource dataSource, int conexoes, long timeoutMs) {
+        super(dataSource);
+        this.vagas = new Semaphore(conexoes, true);
+        this.timeoutMs = timeoutMs;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        reservarVaga();
+        try {
+            return liberandoAoFechar(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            vagas.release();
+            throw e;
+        }
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        reservarVaga();
+        try {
+            return liberandoAoFechar(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            vagas.release();
+            throw e;
+        }
+    }
+    
+    private void reservarVaga() throws SQLException {
+        try {
+            if (!vagas.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Nenhuma conexão disponível após " + timeoutMs + " ms (" + vagas.getQueueLength() + " na fila)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrompido aguardando conexão", e);
+        }
+    }
+    
+    /**
+     * Conexão que devolve a vaga ao ser fechada (uma única vez, mesmo com close repetido)
+     */
+    private Connection liberandoAoFechar(Connection conexao) {
+        AtomicBoolean fechada = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, metodo, argumentos) -> {
+                    try {
+                        return metodo.invoke(conexao, argumentos);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        if (metodo.getName().equals("close") && fechada.compareAndSet(false, true)) {
+                            vagas.release();
+                        }
+                    }
+                });
+    }
+}
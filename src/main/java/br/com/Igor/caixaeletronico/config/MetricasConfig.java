@@ -0,0 +1,98 @@
+package br.com.Igor.caixaeletronico.config;
+
+import br.com.Igor.caixaeletronico.service.metricas.MedicaoOperacoes;
+import br.com.Igor.caixaeletronico.service.metricas.OperacaoMedida;
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+import javax.sql.DataSource;
+
+/**
+ * Métricas da aplicação (Micrometer), expostas em /actuator/prometheus
+ * 
+ * - caixaeletronico.operacoes: duração das operações dos serviços (MedicaoOperacoes)
+ * - caixaeletronico.operacoes.recusadas: recusas de negócio (RecusasOperacoes)
+ * - http.server.requests: requisições, com a tag "versao" da API (v1 a v4)
+ * - hikaricp.*: pool de conexões JDBC, registrado pelo próprio Spring Boot
+ * - caixaeletronico.operacoes.sql: comandos SQL por chamada de serviço (ContagemSqlDataSource)
+ * - cache.*: acertos, faltas e remoções do cache de saldos (tag cache=saldos, CacheSaldos)
+ */
+@Configuration
+public class MetricasConfig {
+    
+    /**
+     * Mede os métodos @OperacaoMedida por fora de todos os outros advices, inclusive o da transação
+     * Estático e com ObjectProvider: o advisor é criado junto com a infraestrutura de AOP, antes do registry
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor medicaoOperacoesAdvisor(ObjectProvider<MeterRegistry> registry) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+            new AnnotationMatchingPointcut(null, OperacaoMedida.class, true),
+            new MedicaoOperacoes(registry));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+    
+    /**
+     * Conta os comandos SQL de cada thread (ContagemSql), para as medições por requisição e por método
+     * Desligável com caixaeletronico.sql.contagem.habilitado=false (as medições passam a registrar zero)
+     */
+    @Bean
+    @ConditionalOnProperty(name = "caixaeletronico.sql.contagem.habilitado", havingValue = "true", matchIfMissing = true)
+    public static BeanPostProcessor contagemSqlDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ContagemSqlDataSource)) {
+                    return new ContagemSqlDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+    
+    /**
+     * Tags padrão de http.server.requests no Tomcat, mais a versão da API pelo caminho
+     */
+    @Bean
+    public DefaultServerRequestObservationConvention convencaoRequisicoes() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                return super.getLowCardinalityKeyValues(context)
+                    .and(KeyValue.of("versao", versaoApi(context.getCarrier().getRequestURI())));
+            }
+        };
+    }
+    
+    /**
+     * Versão da API pelo prefixo do caminho; fora das APIs (Swagger, actuator, H2) é "nenhuma"
+     */
+    static String versaoApi(String caminho) {
+        if (caminho == null || !caminho.startsWith("/api/")) {
+            return "nenhuma";
+        }
+        if (caminho.startsWith("/api/contas")) {
+            return "v1";
+        }
+        if (caminho.length() > 7 && caminho.charAt(5) == 'v' && caminho.charAt(7) == '/') {
+            return caminho.substring(5, 7);
+        }
+        return "nenhuma";
+    }
+}
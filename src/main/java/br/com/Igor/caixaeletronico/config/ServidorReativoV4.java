@@ -0,0 +1,144 @@
+package br.com.Igor.caixaeletronico.config;
+
+import br.com.Igor.caixaeletronico.controller.ContaControllerV4;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.http.server.reactive.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.reactive.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.filter.reactive.ServerHttpObservationFilter;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+
+/**
+ * Servidor HTTP da API reativa v4 (Reactor Netty), numa porta própria ao lado do Tomcat
+ * 
+ * Todas as conexões da v4 são atendidas por caixaeletronico.v4.threads-event-loop threads,
+ * que não podem ficar bloqueadas: cada requisição em espera é só um objeto no heap, sem thread
+ * própria. Sobe com o contexto pronto, como o Tomcat, e para antes de os beans serem destruídos.
+ * As requisições entram em http.server.requests com versao=v4, como as do Tomcat.
+ */
+@Component
+@Profile("!memoria")
+@ConditionalOnProperty(name = "caixaeletronico.v4.habilitado", havingValue = "true", matchIfMissing = true)
+public class ServidorReativoV4 implements SmartLifecycle {
+    
+    private static final Logger log = LoggerFactory.getLogger(ServidorReativoV4.class);
+    
+    private final ContaControllerV4 controller;
+    private final ObjectMapper objectMapper;
+    private final ObservationRegistry observationRegistry;
+    private final int porta;
+    private final int threads;
+    
+    private volatile LoopResources eventLoop;
+    private volatile DisposableServer servidor;
+    
+    public ServidorReativoV4(
+            ContaControllerV4 controller,
+            ObjectMapper objectMapper,
+            ObservationRegistry observationRegistry,
+            @Value("${caixaeletronico.v4.porta:8081}") int porta,
+            @Value("${caixaeletronico.v4.threads-event-loop:2}") int threads) {
+        this.controller = controller;
+        this.objectMapper = objectMapper;
+        this.observationRegistry = observationRegistry;
+        this.porta = porta;
+        this.threads = threads;
+    }
+    
+    @Override
+    public void start() {
+        // Mesmo ObjectMapper da v3, com os serializadores de Dinheiro e Cpf
+        HandlerStrategies estrategias = HandlerStrategies.builder()
+            .codecs(codecs -> {
+                codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+            })
+            .build();
+        
+        // Equivalente ao @CrossOrigin(origins = "*") da v3
+        CorsConfiguration cors = new CorsConfiguration().applyPermitDefaultValues();
+        cors.addAllowedMethod(HttpMethod.PUT);
+        cors.addAllowedMethod(HttpMethod.DELETE);
+        UrlBasedCorsConfigurationSource origens = new UrlBasedCorsConfigurationSource();
+        origens.registerCorsConfiguration("/api/v4/**", cors);
+        
+        ReactorHttpHandlerAdapter adaptador = new ReactorHttpHandlerAdapter(
+            WebHttpHandlerBuilder.webHandler(RouterFunctions.toWebHandler(controller.rotas(), estrategias))
+                .filter(new ServerHttpObservationFilter(observationRegistry, new ConvencaoRequisicoesV4()),
+                    new CorsWebFilter(origens))
+                .build());
+        
+        eventLoop = LoopResources.create("v4-http", 1, threads, true);
+        servidor = HttpServer.create()
+            .port(porta)
+            .runOn(eventLoop)
+            .handle(adaptador)
+            .bindNow();
+        log.info("API v4 (reativa) em http://localhost:{}/api/v4/contas com {} threads de event loop", porta, threads);
+    }
+    
+    @Override
+    public void stop() {
+        if (servidor != null) {
+            servidor.disposeNow(Duration.ofSeconds(10));
+            servidor = null;
+        }
+        if (eventLoop != null) {
+            eventLoop.disposeLater().block(Duration.ofSeconds(10));
+            eventLoop = null;
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return servidor != null;
+    }
+    
+    /**
+     * Tags de http.server.requests da v4
+     * Fora do DispatcherHandler ninguém preenche o padrão da rota no contexto da observação:
+     * ele é lido do atributo que o RouterFunction deixa na troca.
+     */
+    private static class ConvencaoRequisicoesV4 extends DefaultServerRequestObservationConvention {
+        
+        private static final KeyValue VERSAO = KeyValue.of("versao", "v4");
+        
+        @Override
+        public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+            return super.getLowCardinalityKeyValues(context).and(VERSAO);
+        }
+        
+        @Override
+        protected KeyValue uri(ServerRequestObservationContext context) {
+            if (context.getPathPattern() == null
+                    && context.getAttributes().get(RouterFunctions.MATCHING_PATTERN_ATTRIBUTE) instanceof PathPattern padrao) {
+                return KeyValue.of("uri", padrao.getPatternString());
+            }
+            return super.uri(context);
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package br.com.Igor.caixaeletronico.config;
 
+import br.com.Igor.caixaeletronico.controller.FiltroIdempotencia;
+import br.com.Igor.caixaeletronico.entity.Cpf;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Contact;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.info.License;
+import io.swagger.v3.oas.models.media.StringSchema;
+import io.swagger.v3.oas.models.parameters.HeaderParameter;
 import io.swagger.v3.oas.models.servers.Server;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springdoc.core.customizers.OpenApiCustomizer;
+import org.springdoc.core.utils.SpringDocUtils;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 /**
@@ -19,6 +27,13 @@ import java.util.List;
 @Configuration
 public class SwaggerConfig {
 
+    static {
+        // Dinheiro é serializado como número decimal; documenta-se como tal
+        SpringDocUtils.getConfig().replaceWithClass(Dinheiro.class, BigDecimal.class);
+        // CPF é serializado como texto formatado (XXX.XXX.XXX-XX)
+        SpringDocUtils.getConfig().replaceWithClass(Cpf.class, String.class);
+    }
+
     @Bean
     public OpenAPI customOpenAPI() {
         return new OpenAPI()
@@ -68,4 +83,26 @@ public class SwaggerConfig {
                                 .url("https://api.caixaeletronico.com")
                                 .description("Servidor de Produção (Exemplo)")));
     }
+
+    /**
+     * Documenta o cabeçalho Idempotency-Key nas operações atendidas pelo FiltroIdempotencia
+     */
+    @Bean
+    public OpenApiCustomizer cabecalhoIdempotencia() {
+        return openApi -> openApi.getPaths().forEach((caminho, item) -> {
+            if (FiltroIdempotencia.CAMINHOS.stream().noneMatch(caminho::startsWith)) {
+                return;
+            }
+            item.readOperationsMap().forEach((metodo, operacao) -> {
+                if (FiltroIdempotencia.METODOS.contains(metodo.name())) {
+                    operacao.addParametersItem(new HeaderParameter()
+                            .name(FiltroIdempotencia.CABECALHO)
+                            .required(false)
+                            .schema(new StringSchema().maxLength(FiltroIdempotencia.TAMANHO_MAXIMO_CHAVE))
+                            .description("Chave única da operação: uma nova tentativa com a mesma chave "
+                                    + "recebe a resposta original, sem executar a operação de novo"));
+                }
+            });
+        });
+    }
 }
@@ -0,0 +1,69 @@
+package br.com.Igor.caixaeletronico.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Modo de threads virtuais (opcional, caixaeletronico.threads-virtuais.habilitado=true)
+ * 
+ * Cada requisição do Tomcat roda numa thread virtual própria, e com ela a transação do
+ * serviço que a atende: a thread bloqueada esperando o pool de conexões, o banco ou o
+ * group commit do extrato libera a thread do sistema para outra requisição, em vez de
+ * ocupar uma das threads fixas do Tomcat (server.tomcat.threads.max deixa de valer).
+ * As requisições assíncronas (exportação em streaming) também passam a usar threads virtuais.
+ * 
+ * O gargalo passa a ser o pool de conexões: ver LimiteConexoesVirtuais. E todas as conexões
+ * aceitas pelo Tomcat (server.tomcat.max-connections) ficam em atendimento ao mesmo tempo,
+ * cada uma com os buffers da requisição no heap.
+ */
+@Configuration
+@ConditionalOnProperty(name = "caixaeletronico.threads-virtuais.habilitado", havingValue = "true")
+public class ThreadsVirtuaisConfig {
+    
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> executorVirtualTomcat() {
+        return protocolHandler -> protocolHandler.setExecutor(executorVirtual("http-virtual-"));
+    }
+    
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(executorVirtual("tarefa-virtual-"));
+    }
+    
+    /**
+     * Fila de espera por conexão fora do Hikari (LimiteConexoesVirtuais), com o tamanho e o timeout do pool
+     */
+    @Bean
+    public static BeanPostProcessor limiteConexoesVirtuais() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // O DataSource pode já ter sido envolvido pela contagem de comandos SQL (MetricasConfig)
+                HikariDataSource pool = bean instanceof DataSource dataSource
+                        ? DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class) : null;
+                if (pool != null) {
+                    // Sem maximum-pool-size configurado o Hikari só assume o padrão (10) ao abrir o pool
+                    int conexoes = pool.getMaximumPoolSize() > 0 ? pool.getMaximumPoolSize() : 10;
+                    return new LimiteConexoesVirtuais((DataSource) bean, conexoes, pool.getConnectionTimeout());
+                }
+                return bean;
+            }
+        };
+    }
+    
+    private static ExecutorService executorVirtual(String prefixo) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefixo, 0).factory());
+    }
+}
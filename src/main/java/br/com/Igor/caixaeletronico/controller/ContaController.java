@@ -1,11 +1,15 @@
 package br.com.Igor.caixaeletronico.controller;
 
 import br.com.Igor.caixaeletronico.dto.ContaRequestDTO;
+import br.com.Igor.caixaeletronico.dto.ContaResponseDTO;
 import br.com.Igor.caixaeletronico.dto.OperacaoRequestDTO;
+import br.com.Igor.caixaeletronico.dto.PaginaDTO;
 import br.com.Igor.caixaeletronico.dto.SaldoResponseDTO;
 import br.com.Igor.caixaeletronico.entity.Conta;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
 import br.com.Igor.caixaeletronico.service.ContaService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,38 +23,51 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import jakarta.validation.Valid;
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * 🏦 API REST v1 - OPERAÇÕES BANCÁRIAS BÁSICAS
  * Controller REST para operações bancárias básicas
+ * Desligado no profile memoria: opera sobre o armazenamento JPA.
  */
 @RestController
+@Profile("!memoria")
 @RequestMapping("/api/contas")
 @CrossOrigin(origins = "*")
 @Tag(name = "Contas Bancárias (v1)", description = "API básica para operações CRUD de contas bancárias")
 public class ContaController {
 
+    private static final String CABECALHO_PROXIMO_CURSOR = "X-Proximo-Cursor";
+
     @Autowired
     private ContaService contaService;
 
     /**
-     * GET /api/contas - Lista todas as contas
+     * GET /api/contas?after=&limit= - Lista uma página de contas
+     * O cursor da próxima página vem no header X-Proximo-Cursor (ausente na última página)
      */
     @Operation(
-        summary = "📋 Listar todas as contas",
-        description = "Retorna uma lista com todas as contas bancárias cadastradas no sistema"
+        summary = "📋 Listar contas",
+        description = "Retorna uma página de contas em ordem de número; o header X-Proximo-Cursor traz o valor de 'after' da página seguinte"
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Lista de contas retornada com sucesso",
-                    content = @Content(schema = @Schema(implementation = Conta.class)))
+                    content = @Content(schema = @Schema(implementation = ContaResponseDTO.class)))
     })
     @GetMapping
-    public ResponseEntity<List<Conta>> listarTodas() {
-        List<Conta> contas = contaService.listarTodasContas();
-        return ResponseEntity.ok(contas);
+    public ResponseEntity<List<ContaResponseDTO>> listarTodas(
+            @Parameter(description = "Cursor: número da última conta da página anterior")
+            @RequestParam(required = false) Integer after,
+            @Parameter(description = "Tamanho da página (máximo " + PaginaDTO.LIMITE_MAXIMO + ")")
+            @RequestParam(defaultValue = "" + PaginaDTO.LIMITE_PADRAO) int limit) {
+        PaginaDTO<ContaResponseDTO> pagina = contaService.listarContas(after, limit);
+
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok();
+        if (pagina.getProximoCursor() != null) {
+            resposta.header(CABECALHO_PROXIMO_CURSOR, pagina.getProximoCursor().toString());
+        }
+        return resposta.body(pagina.getItens());
     }
 
     /**
@@ -87,21 +104,16 @@ public class ContaController {
     @PostMapping
     public ResponseEntity<Conta> criarConta(@Valid @RequestBody ContaRequestDTO request) {
         try {
+            // Saldo inicial, se informado, entra na própria criação (uma transação, um INSERT)
             Conta contaCriada = contaService.criarConta(
                 request.getNumero(), 
                 new br.com.Igor.caixaeletronico.entity.Cliente(
                     request.getTitular().getNome(),
                     request.getTitular().getCpf()
-                )
+                ),
+                request.getSaldoInicial() != null ? request.getSaldoInicial() : Dinheiro.ZERO
             );
             
-            // Se foi especificado um saldo inicial, fazer depósito
-            if (request.getSaldoInicial() != null && request.getSaldoInicial().compareTo(BigDecimal.ZERO) > 0) {
-                contaService.depositar(request.getNumero(), request.getSaldoInicial());
-                // Buscar conta atualizada
-                contaCriada = contaService.buscarConta(request.getNumero()).orElse(contaCriada);
-            }
-            
             return ResponseEntity.status(HttpStatus.CREATED).body(contaCriada);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -144,14 +156,10 @@ public class ContaController {
     @GetMapping("/{numero}/saldo")
     public ResponseEntity<SaldoResponseDTO> consultarSaldo(@PathVariable Integer numero) {
         try {
-            Optional<Conta> conta = contaService.buscarConta(numero);
-            if (conta.isPresent()) {
-                SaldoResponseDTO response = new SaldoResponseDTO(
-                    conta.get().getNumero(),
-                    conta.get().getSaldo()
-                );
-                return ResponseEntity.ok(response);
-            }
+            Dinheiro saldo = contaService.consultarSaldo(numero);
+            return ResponseEntity.ok(new SaldoResponseDTO(numero, saldo));
+        } catch (IllegalArgumentException e) {
+            // Conta não encontrada
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
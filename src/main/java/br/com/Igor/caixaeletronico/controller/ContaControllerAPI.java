@@ -1,13 +1,20 @@
 package br.com.Igor.caixaeletronico.controller;
 
+import br.com.Igor.caixaeletronico.dto.ContaResponseDTO;
+import br.com.Igor.caixaeletronico.dto.PaginaDTO;
 import br.com.Igor.caixaeletronico.entity.Conta;
 import br.com.Igor.caixaeletronico.entity.Cliente;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.repository.TotaisContas;
 import br.com.Igor.caixaeletronico.service.ContaService;
+import br.com.Igor.caixaeletronico.service.EstatisticasContas;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,7 +23,6 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import jakarta.validation.Valid;
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,8 +35,11 @@ import java.util.Optional;
  * - Tratamento de erros
  * - Respostas padronizadas
  * - Documentação Swagger completa
+ * 
+ * Desligado no profile memoria, junto com as estatísticas: opera sobre o armazenamento JPA.
  */
 @RestController
+@Profile("!memoria")
 @RequestMapping("/api/v2/contas")
 @CrossOrigin(origins = "*")
 @Tag(name = "Contas Bancárias (v2)", description = "🚀 API avançada com respostas estruturadas e tratamento completo de erros")
@@ -39,14 +48,17 @@ public class ContaControllerAPI {
     @Autowired
     private ContaService contaService;
 
+    @Autowired
+    private EstatisticasContas estatisticasContas;
+
     // ==================== OPERAÇÕES CRUD ====================
 
     /**
-     * 📋 GET /api/v2/contas - LISTAR TODAS AS CONTAS
+     * 📋 GET /api/v2/contas?after=&limit= - LISTAR CONTAS (PAGINADO)
      */
     @Operation(
-        summary = "📋 Listar todas as contas (v2)",
-        description = "Retorna uma lista estruturada com todas as contas bancárias, incluindo tratamento de erros"
+        summary = "📋 Listar contas (v2)",
+        description = "Retorna uma página de contas em ordem de número; use proximoCursor em 'after' para a página seguinte"
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Lista retornada com sucesso",
@@ -60,20 +72,25 @@ public class ContaControllerAPI {
                               "saldo": 1000.50,
                               "titular": {
                                 "nome": "João Silva",
-                                "cpf": "12345678901"
+                                "cpf": "123.456.789-09"
                               }
                             }
-                          ]
+                          ],
+                          "proximoCursor": 12345
                         }
                         """))),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Conta>>> listarTodas() {
+    public ResponseEntity<ApiResponse<List<ContaResponseDTO>>> listarTodas(
+            @Parameter(description = "Cursor: número da última conta da página anterior")
+            @RequestParam(required = false) Integer after,
+            @Parameter(description = "Tamanho da página (máximo " + PaginaDTO.LIMITE_MAXIMO + ")")
+            @RequestParam(defaultValue = "" + PaginaDTO.LIMITE_PADRAO) int limit) {
         try {
-            List<Conta> contas = contaService.listarTodasContas();
+            PaginaDTO<ContaResponseDTO> pagina = contaService.listarContas(after, limit);
             return ResponseEntity.ok(
-                new ApiResponse<>(true, "Contas listadas com sucesso", contas)
+                new ApiResponse<>(true, "Contas listadas com sucesso", pagina.getItens(), pagina.getProximoCursor())
             );
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -99,7 +116,7 @@ public class ContaControllerAPI {
                             "saldo": 1000.50,
                             "titular": {
                               "nome": "João Silva",
-                              "cpf": "12345678901"
+                              "cpf": "123.456.789-09"
                             }
                           }
                         }
@@ -150,7 +167,7 @@ public class ContaControllerAPI {
                             "saldo": 0.0,
                             "titular": {
                               "nome": "João Silva",
-                              "cpf": "12345678901"
+                              "cpf": "123.456.789-09"
                             }
                           }
                         }
@@ -173,7 +190,7 @@ public class ContaControllerAPI {
                       "numero": 12345,
                       "titular": {
                         "nome": "João Silva",
-                        "cpf": "12345678901"
+                        "cpf": "123.456.789-09"
                       }
                     }
                     """))
@@ -210,7 +227,7 @@ public class ContaControllerAPI {
                             "saldo": 1000.50,
                             "titular": {
                               "nome": "João Silva Santos",
-                              "cpf": "12345678901"
+                              "cpf": "123.456.789-09"
                             }
                           }
                         }
@@ -233,7 +250,7 @@ public class ContaControllerAPI {
                 content = @Content(examples = @ExampleObject(value = """
                     {
                       "nome": "João Silva Santos",
-                      "cpf": "12345678901"
+                      "cpf": "123.456.789-09"
                     }
                     """))
             )
@@ -315,7 +332,7 @@ public class ContaControllerAPI {
                             "saldo": 1500.50,
                             "titular": {
                               "nome": "João Silva",
-                              "cpf": "12345678901"
+                              "cpf": "123.456.789-09"
                             }
                           }
                         }
@@ -346,7 +363,7 @@ public class ContaControllerAPI {
             Conta conta = contaService.depositar(numero, request.getValor());
             return ResponseEntity.ok(
                 new ApiResponse<>(true, 
-                    String.format("Depósito de R$ %.2f realizado com sucesso", request.getValor()), 
+                    String.format("Depósito de R$ %s realizado com sucesso", request.getValor()), 
                     conta)
             );
         } catch (IllegalArgumentException e) {
@@ -376,7 +393,7 @@ public class ContaControllerAPI {
                             "saldo": 800.50,
                             "titular": {
                               "nome": "João Silva",
-                              "cpf": "12345678901"
+                              "cpf": "123.456.789-09"
                             }
                           }
                         }
@@ -407,7 +424,7 @@ public class ContaControllerAPI {
             Conta conta = contaService.sacar(numero, request.getValor());
             return ResponseEntity.ok(
                 new ApiResponse<>(true, 
-                    String.format("Saque de R$ %.2f realizado com sucesso", request.getValor()), 
+                    String.format("Saque de R$ %s realizado com sucesso", request.getValor()), 
                     conta)
             );
         } catch (IllegalArgumentException e) {
@@ -452,7 +469,7 @@ public class ContaControllerAPI {
             @Parameter(description = "Número único da conta", example = "12345")
             @PathVariable Integer numero) {
         try {
-            BigDecimal saldo = contaService.consultarSaldo(numero);
+            Dinheiro saldo = contaService.consultarSaldo(numero);
             SaldoResponse response = new SaldoResponse(numero, saldo);
             return ResponseEntity.ok(
                 new ApiResponse<>(true, "Saldo consultado com sucesso", response)
@@ -492,16 +509,11 @@ public class ContaControllerAPI {
     @GetMapping("/estatisticas")
     public ResponseEntity<ApiResponse<EstatisticasResponse>> obterEstatisticas() {
         try {
-            List<Conta> todasContas = contaService.listarTodasContas();
-            Long totalContas = (long) todasContas.size();
-            Long contasComSaldo = contaService.contarContasComSaldo();
-            
-            BigDecimal saldoTotal = todasContas.stream()
-                .map(Conta::getSaldo)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+            // Mantidas em memória a cada commit, sem varrer a tabela
+            TotaisContas totais = estatisticasContas.obter();
             
             EstatisticasResponse stats = new EstatisticasResponse(
-                totalContas, contasComSaldo, saldoTotal
+                totais.getTotalContas(), totais.getContasComSaldo(), totais.getSaldoTotal()
             );
             
             return ResponseEntity.ok(
@@ -522,6 +534,7 @@ public class ContaControllerAPI {
         private boolean sucesso;
         private String mensagem;
         private T dados;
+        private Integer proximoCursor;
 
         public ApiResponse(boolean sucesso, String mensagem, T dados) {
             this.sucesso = sucesso;
@@ -529,10 +542,17 @@ public class ContaControllerAPI {
             this.dados = dados;
         }
 
+        public ApiResponse(boolean sucesso, String mensagem, T dados, Integer proximoCursor) {
+            this(sucesso, mensagem, dados);
+            this.proximoCursor = proximoCursor;
+        }
+
         // Getters
         public boolean isSucesso() { return sucesso; }
         public String getMensagem() { return mensagem; }
         public T getDados() { return dados; }
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        public Integer getProximoCursor() { return proximoCursor; }
     }
 
     /**
@@ -552,10 +572,10 @@ public class ContaControllerAPI {
      * Request para operações financeiras
      */
     public static class OperacaoRequest {
-        private BigDecimal valor;
+        private Dinheiro valor;
 
-        public BigDecimal getValor() { return valor; }
-        public void setValor(BigDecimal valor) { this.valor = valor; }
+        public Dinheiro getValor() { return valor; }
+        public void setValor(Dinheiro valor) { this.valor = valor; }
     }
 
     /**
@@ -563,15 +583,15 @@ public class ContaControllerAPI {
      */
     public static class SaldoResponse {
         private Integer numeroConta;
-        private BigDecimal saldo;
+        private Dinheiro saldo;
 
-        public SaldoResponse(Integer numeroConta, BigDecimal saldo) {
+        public SaldoResponse(Integer numeroConta, Dinheiro saldo) {
             this.numeroConta = numeroConta;
             this.saldo = saldo;
         }
 
         public Integer getNumeroConta() { return numeroConta; }
-        public BigDecimal getSaldo() { return saldo; }
+        public Dinheiro getSaldo() { return saldo; }
     }
 
     /**
@@ -580,9 +600,9 @@ public class ContaControllerAPI {
     public static class EstatisticasResponse {
         private Long totalContas;
         private Long contasComSaldo;
-        private BigDecimal saldoTotal;
+        private Dinheiro saldoTotal;
 
-        public EstatisticasResponse(Long totalContas, Long contasComSaldo, BigDecimal saldoTotal) {
+        public EstatisticasResponse(Long totalContas, Long contasComSaldo, Dinheiro saldoTotal) {
             this.totalContas = totalContas;
             this.contasComSaldo = contasComSaldo;
             this.saldoTotal = saldoTotal;
@@ -590,6 +610,6 @@ public class ContaControllerAPI {
 
         public Long getTotalContas() { return totalContas; }
         public Long getContasComSaldo() { return contasComSaldo; }
-        public BigDecimal getSaldoTotal() { return saldoTotal; }
+        public Dinheiro getSaldoTotal() { return saldoTotal; }
     }
 }
@@ -1,69 +1,146 @@
 package br.com.Igor.caixaeletronico.controller;
 
 import br.com.Igor.caixaeletronico.dto.*;
-import br.com.Igor.caixaeletronico.service.ContaServiceV2;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.repository.SaldoVersionado;
+import br.com.Igor.caixaeletronico.service.CadastroContasLote;
+import br.com.Igor.caixaeletronico.service.OperacoesContas;
+import br.com.Igor.caixaeletronico.service.ExportadorContas;
+import br.com.Igor.caixaeletronico.service.busca.IndiceNomes;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Controller moderno seguindo boas práticas REST
+ * 
+ * A conta e o saldo saem com ETag fraco = versão da conta (Conta.versao), que muda a cada
+ * alteração. Um GET com If-None-Match confere só a versão, pelo cache de saldos, e responde
+ * 304 sem ler a conta nem montar o corpo; o PUT do titular aceita If-Match contra atualizações
+ * perdidas. O ETag é fraco porque identifica a versão da conta, não os bytes: JSON, CBOR e Smile
+ * têm a mesma tag, e o timestamp do envelope muda o corpo a cada resposta.
+ * 
+ * Desvio deliberado da RFC 9110: o If-Match deveria usar comparação forte e nunca conferir com
+ * uma tag fraca, o que o tornaria inútil aqui. Ele confere pela versão, ignorando o W/, que é o
+ * que protege contra atualização perdida; a representação em si não é comparada.
  */
 @RestController
 @RequestMapping("/api/v3/contas")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = HttpHeaders.ETAG)
 @Tag(name = "Contas V3", description = "API moderna para gerenciamento de contas bancárias")
 public class ContaControllerV3 {
     
-    private final ContaServiceV2 contaService;
+    private final OperacoesContas contaService;
+    private final CadastroContasLote cadastroContasLote;
     
     @Autowired
-    public ContaControllerV3(ContaServiceV2 contaService) {
+    public ContaControllerV3(OperacoesContas contaService, CadastroContasLote cadastroContasLote) {
         this.contaService = contaService;
+        this.cadastroContasLote = cadastroContasLote;
     }
     
-    @Operation(summary = "Listar todas as contas", description = "Retorna lista de todas as contas cadastradas")
+    @Operation(summary = "Listar contas", description = "Retorna uma página de contas em ordem de número; use proximoCursor em 'after' para a página seguinte")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Lista de contas retornada com sucesso")
     })
     @GetMapping
-    public ResponseEntity<ApiResponseDTO<List<ContaResponseDTO>>> listarContas() {
-        List<ContaResponseDTO> contas = contaService.listarContas();
+    public ResponseEntity<ApiResponseDTO<List<ContaResponseDTO>>> listarContas(
+            @Parameter(description = "Cursor: número da última conta da página anterior")
+            @RequestParam(required = false) Integer after,
+            @Parameter(description = "Tamanho da página (máximo " + PaginaDTO.LIMITE_MAXIMO + ")")
+            @RequestParam(defaultValue = "" + PaginaDTO.LIMITE_PADRAO) int limit) {
+        PaginaDTO<ContaResponseDTO> pagina = contaService.listarContas(after, limit);
         return ResponseEntity.ok(
-            ApiResponseDTO.sucesso("Contas listadas com sucesso", contas)
+            ApiResponseDTO.sucessoPaginado("Contas listadas com sucesso", pagina)
         );
     }
     
-    @Operation(summary = "Buscar conta por número", description = "Retorna dados de uma conta específica")
+    @Operation(summary = "Buscar contas por nome", description = "Contas cujo nome do titular contém o texto, sem diferenciar acentos nem maiúsculas, em ordem de relevância; use proximoCursor em 'offset' para a página seguinte")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Busca realizada com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Texto de busca muito curto")
+    })
+    @GetMapping("/busca")
+    public ResponseEntity<ApiResponseDTO<List<ContaResponseDTO>>> buscarPorNome(
+            @Parameter(description = "Parte do nome do titular (mínimo " + IndiceNomes.TAMANHO_MINIMO_CONSULTA + " letras ou dígitos)", required = true)
+            @RequestParam String nome,
+            @Parameter(description = "Posição do primeiro resultado")
+            @RequestParam(defaultValue = "0") int offset,
+            @Parameter(description = "Tamanho da página (máximo " + PaginaDTO.LIMITE_MAXIMO + ")")
+            @RequestParam(defaultValue = "" + PaginaDTO.LIMITE_PADRAO) int limit) {
+        PaginaDTO<ContaResponseDTO> pagina = contaService.buscarPorNome(nome, offset, limit);
+        return ResponseEntity.ok(
+            ApiResponseDTO.sucessoPaginado("Busca realizada com sucesso", pagina)
+        );
+    }
+    
+    @Operation(summary = "Exportar todas as contas", description = "Transmite todas as contas em NDJSON (uma conta por linha) ou CSV, em ordem de número")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Exportação transmitida"),
+        @ApiResponse(responseCode = "400", description = "Formato inválido")
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportarContas(
+            @Parameter(description = "Formato da exportação: ndjson ou csv")
+            @RequestParam(defaultValue = "ndjson") String formato) {
+        
+        ExportadorContas.Formato formatoExportacao = ExportadorContas.Formato.of(formato);
+        StreamingResponseBody corpo = saida -> contaService.exportarContas(saida, formatoExportacao);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(formatoExportacao.getContentType() + ";charset=UTF-8"))
+            .body(corpo);
+    }
+    
+    @Operation(summary = "Buscar conta por número", description = "Retorna dados de uma conta específica, com a versão no ETag")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Conta encontrada"),
+        @ApiResponse(responseCode = "304", description = "Conta não alterada desde o ETag de If-None-Match"),
         @ApiResponse(responseCode = "404", description = "Conta não encontrada")
     })
     @GetMapping("/{numero}")
     public ResponseEntity<ApiResponseDTO<ContaResponseDTO>> buscarConta(
             @Parameter(description = "Número da conta", required = true)
-            @PathVariable Integer numero) {
+            @PathVariable Integer numero,
+            @Parameter(description = "ETag já conhecido da conta")
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            WebRequest webRequest) {
         
+        if (ifNoneMatch != null) {
+            Optional<Long> versao = contaService.versaoConta(numero);
+            if (versao.isPresent() && webRequest.checkNotModified(etag(versao.get()))) {
+                return null;
+            }
+        }
         ContaResponseDTO conta = contaService.buscarConta(numero);
-        return ResponseEntity.ok(
-            ApiResponseDTO.sucesso("Conta encontrada", conta)
-        );
+        return comVersao(ResponseEntity.ok(), conta.getVersao())
+            .body(ApiResponseDTO.sucesso("Conta encontrada", conta));
     }
     
     @Operation(summary = "Criar nova conta", description = "Cria uma nova conta bancária")
     @ApiResponses({
         @ApiResponse(responseCode = "201", description = "Conta criada com sucesso"),
-        @ApiResponse(responseCode = "409", description = "Conta já existe"),
+        @ApiResponse(responseCode = "409", description = "Conta ou CPF já cadastrado"),
         @ApiResponse(responseCode = "400", description = "Dados inválidos")
     })
     @PostMapping
@@ -76,22 +153,48 @@ public class ContaControllerV3 {
             .body(ApiResponseDTO.sucesso("Conta criada com sucesso", conta));
     }
     
-    @Operation(summary = "Atualizar titular", description = "Atualiza dados do titular da conta")
+    @Operation(
+        summary = "Criar contas em lote",
+        description = "Recebe um array JSON de contas, lido em streaming, e cria as válidas em lotes; "
+            + "cada item tem seu próprio resultado (status 201, 400 ou 409), na ordem recebida",
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true,
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                array = @ArraySchema(schema = @Schema(implementation = ContaRequestDTO.class))))
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Lote processado; ver o resultado de cada item"),
+        @ApiResponse(responseCode = "400", description = "Corpo não é um array JSON válido")
+    })
+    @PostMapping(value = "/lote", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponseDTO<ResultadoLoteDTO>> criarContasEmLote(
+            @Parameter(hidden = true) InputStream corpo) throws IOException {
+        
+        ResultadoLoteDTO resultado = cadastroContasLote.cadastrar(corpo);
+        return ResponseEntity.ok(
+            ApiResponseDTO.sucesso("Lote processado: " + resultado.getAceitos() + " contas criadas, "
+                + resultado.getRecusados() + " recusadas", resultado)
+        );
+    }
+    
+    @Operation(summary = "Atualizar titular", description = "Atualiza dados do titular da conta; com If-Match, só se a conta ainda estiver naquela versão")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Titular atualizado com sucesso"),
         @ApiResponse(responseCode = "404", description = "Conta não encontrada"),
-        @ApiResponse(responseCode = "400", description = "Dados inválidos")
+        @ApiResponse(responseCode = "400", description = "Dados inválidos"),
+        @ApiResponse(responseCode = "409", description = "Conta alterada durante a atualização"),
+        @ApiResponse(responseCode = "412", description = "Conta alterada desde o ETag de If-Match (comparado só pela versão, com ou sem W/, não pela comparação forte da RFC 9110)")
     })
     @PutMapping("/{numero}")
     public ResponseEntity<ApiResponseDTO<ContaResponseDTO>> atualizarTitular(
             @Parameter(description = "Número da conta", required = true)
             @PathVariable Integer numero,
+            @Parameter(description = "ETag da conta lida pelo cliente, como W/\"4\" ou \"4\". Ao contrário da comparação forte da RFC 9110, a tag fraca é aceita e só a versão da conta é conferida")
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody ContaRequestDTO requestDTO) {
         
-        ContaResponseDTO conta = contaService.atualizarTitular(numero, requestDTO);
-        return ResponseEntity.ok(
-            ApiResponseDTO.sucesso("Titular atualizado com sucesso", conta)
-        );
+        ContaResponseDTO conta = contaService.atualizarTitular(numero, requestDTO, versoesAceitas(ifMatch));
+        return comVersao(ResponseEntity.ok(), conta.getVersao())
+            .body(ApiResponseDTO.sucesso("Titular atualizado com sucesso", conta));
     }
     
     @Operation(summary = "Realizar depósito", description = "Deposita valor na conta")
@@ -130,20 +233,26 @@ public class ContaControllerV3 {
         );
     }
     
-    @Operation(summary = "Consultar saldo", description = "Consulta saldo atual da conta")
+    @Operation(summary = "Consultar saldo", description = "Consulta saldo atual da conta, com a versão da conta no ETag")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Saldo consultado com sucesso"),
+        @ApiResponse(responseCode = "304", description = "Conta não alterada desde o ETag de If-None-Match"),
         @ApiResponse(responseCode = "404", description = "Conta não encontrada")
     })
+    @Parameter(in = ParameterIn.HEADER, name = HttpHeaders.IF_NONE_MATCH, description = "ETag já conhecido da conta")
     @GetMapping("/{numero}/saldo")
-    public ResponseEntity<ApiResponseDTO<BigDecimal>> consultarSaldo(
+    public ResponseEntity<ApiResponseDTO<Dinheiro>> consultarSaldo(
             @Parameter(description = "Número da conta", required = true)
-            @PathVariable Integer numero) {
+            @PathVariable Integer numero,
+            WebRequest webRequest) {
         
-        BigDecimal saldo = contaService.consultarSaldo(numero);
-        return ResponseEntity.ok(
-            ApiResponseDTO.sucesso("Saldo consultado com sucesso", saldo)
-        );
+        // Saldo e versão vêm juntos do cache; com o ETag igual, nem o corpo é montado
+        SaldoVersionado saldo = contaService.consultarSaldoVersionado(numero);
+        if (saldo.getVersao() != null && webRequest.checkNotModified(etag(saldo.getVersao()))) {
+            return null;
+        }
+        return comVersao(ResponseEntity.ok(), saldo.getVersao())
+            .body(ApiResponseDTO.sucesso("Saldo consultado com sucesso", saldo.getSaldo()));
     }
     
     @Operation(summary = "Excluir conta", description = "Exclui uma conta do sistema")
@@ -161,4 +270,44 @@ public class ContaControllerV3 {
             ApiResponseDTO.sucesso("Conta excluída com sucesso", null)
         );
     }
+    
+    private static String etag(Long versao) {
+        return "W/\"" + versao + "\"";
+    }
+    
+    /**
+     * ETag da versão, quando conhecida; Vary porque o corpo muda com o Accept (JSON, CBOR, Smile)
+     */
+    private static ResponseEntity.BodyBuilder comVersao(ResponseEntity.BodyBuilder resposta, Long versao) {
+        if (versao != null) {
+            resposta.eTag(etag(versao)).varyBy(HttpHeaders.ACCEPT);
+        }
+        return resposta;
+    }
+    
+    /**
+     * Versões do If-Match: null sem o cabeçalho ou com "*" (basta a conta existir)
+     * Confere só a versão, com ou sem W/, já que a API só publica ETags fracos (comparação fraca, ver a classe); valores que não são
+     * versão nunca conferem, então um If-Match só com eles dá uma lista vazia e a atualização é recusada com 412
+     */
+    private static List<Long> versoesAceitas(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        List<Long> versoes = new ArrayList<>();
+        for (String etag : ifMatch.split(",")) {
+            etag = etag.trim();
+            if (etag.startsWith("W/")) {
+                etag = etag.substring(2);
+            }
+            if (etag.length() > 2 && etag.startsWith("\"") && etag.endsWith("\"")) {
+                try {
+                    versoes.add(Long.valueOf(etag.substring(1, etag.length() - 1)));
+                } catch (NumberFormatException e) {
+                    // Não é um ETag desta API
+                }
+            }
+        }
+        return versoes;
+    }
 }
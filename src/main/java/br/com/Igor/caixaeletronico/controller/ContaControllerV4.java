@@ -0,0 +1,238 @@
+package br.com.Igor.caixaeletronico.controller;
+
+import br.com.Igor.caixaeletronico.dto.ApiResponseDTO;
+import br.com.Igor.caixaeletronico.dto.ContaRequestDTO;
+import br.com.Igor.caixaeletronico.dto.OperacaoRequestDTO;
+import br.com.Igor.caixaeletronico.dto.PaginaDTO;
+import br.com.Igor.caixaeletronico.exception.ContaJaExisteException;
+import br.com.Igor.caixaeletronico.exception.ContaNaoEncontradaException;
+import br.com.Igor.caixaeletronico.exception.OperacaoInvalidaException;
+import br.com.Igor.caixaeletronico.service.ExportadorContas;
+import br.com.Igor.caixaeletronico.service.reativo.ContaServiceReativo;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
+import org.springframework.web.server.UnsupportedMediaTypeStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * API reativa v4: as mesmas rotas, DTOs e mensagens da ContaControllerV3, em /api/v4/contas
+ * 
+ * Endpoints funcionais do WebFlux, servidos pelo ServidorReativoV4 (porta própria, event loop
+ * do Reactor Netty) sobre o ContaServiceReativo. Os erros são convertidos aqui, com os mesmos
+ * status e mensagens do GlobalExceptionHandler.
+ */
+@Component
+@Profile("!memoria")
+@ConditionalOnProperty(name = "caixaeletronico.v4.habilitado", havingValue = "true", matchIfMissing = true)
+public class ContaControllerV4 {
+    
+    private static final Logger log = LoggerFactory.getLogger(ContaControllerV4.class);
+    
+    private final ContaServiceReativo contaService;
+    private final Validator validator;
+    
+    public ContaControllerV4(ContaServiceReativo contaService, Validator validator) {
+        this.contaService = contaService;
+        this.validator = validator;
+    }
+    
+    public RouterFunction<ServerResponse> rotas() {
+        return RouterFunctions.route()
+            .path("/api/v4/contas", rotas -> rotas
+                .GET("", this::listarContas)
+                .GET("/busca", this::buscarPorNome)
+                .GET("/export", this::exportarContas)
+                .GET("/{numero}", this::buscarConta)
+                .POST("", this::criarConta)
+                .POST("/lote", this::criarContasEmLote)
+                .PUT("/{numero}", this::atualizarTitular)
+                .POST("/{numero}/depositar", this::depositar)
+                .POST("/{numero}/sacar", this::sacar)
+                .GET("/{numero}/saldo", this::consultarSaldo)
+                .DELETE("/{numero}", this::excluirConta))
+            // Erros lançados ao montar a resposta também passam pelo tratamento
+            .filter((request, proximo) -> Mono.defer(() -> proximo.handle(request)).onErrorResume(this::responderErro))
+            .build();
+    }
+    
+    private Mono<ServerResponse> listarContas(ServerRequest request) {
+        Integer after = parametroInteiro(request, "after", null);
+        int limit = parametroInteiro(request, "limit", PaginaDTO.LIMITE_PADRAO);
+        return contaService.listarContas(after, limit)
+            .flatMap(pagina -> ok(ApiResponseDTO.sucessoPaginado("Contas listadas com sucesso", pagina)));
+    }
+    
+    private Mono<ServerResponse> buscarPorNome(ServerRequest request) {
+        String nome = request.queryParam("nome")
+            .orElseThrow(() -> new OperacaoInvalidaException("Parâmetro obrigatório ausente: nome"));
+        int offset = parametroInteiro(request, "offset", 0);
+        int limit = parametroInteiro(request, "limit", PaginaDTO.LIMITE_PADRAO);
+        return contaService.buscarPorNome(nome, offset, limit)
+            .flatMap(pagina -> ok(ApiResponseDTO.sucessoPaginado("Busca realizada com sucesso", pagina)));
+    }
+    
+    private Mono<ServerResponse> exportarContas(ServerRequest request) {
+        ExportadorContas.Formato formato = ExportadorContas.Formato.of(request.queryParam("formato").orElse("ndjson"));
+        return ServerResponse.ok()
+            .contentType(MediaType.parseMediaType(formato.getContentType() + ";charset=UTF-8"))
+            .body(BodyInserters.fromDataBuffers(contaService.exportarContas(formato)));
+    }
+    
+    private Mono<ServerResponse> buscarConta(ServerRequest request) {
+        return contaService.buscarConta(numero(request))
+            .flatMap(conta -> ok(ApiResponseDTO.sucesso("Conta encontrada", conta)));
+    }
+    
+    private Mono<ServerResponse> criarConta(ServerRequest request) {
+        return corpoValido(request, ContaRequestDTO.class)
+            .flatMap(contaService::criarConta)
+            .flatMap(conta -> ServerResponse.status(HttpStatus.CREATED)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ApiResponseDTO.sucesso("Conta criada com sucesso", conta)));
+    }
+    
+    private Mono<ServerResponse> criarContasEmLote(ServerRequest request) {
+        MediaType tipo = request.headers().contentType().orElse(MediaType.APPLICATION_OCTET_STREAM);
+        if (!MediaType.APPLICATION_JSON.includes(tipo)) {
+            return Mono.error(new UnsupportedMediaTypeStatusException(tipo, List.of(MediaType.APPLICATION_JSON)));
+        }
+        return contaService.cadastrarLote(request.bodyToFlux(DataBuffer.class))
+            .flatMap(resultado -> ok(ApiResponseDTO.sucesso("Lote processado: " + resultado.getAceitos()
+                + " contas criadas, " + resultado.getRecusados() + " recusadas", resultado)));
+    }
+    
+    private Mono<ServerResponse> atualizarTitular(ServerRequest request) {
+        Integer numero = numero(request);
+        return corpoValido(request, ContaRequestDTO.class)
+            .flatMap(requestDTO -> contaService.atualizarTitular(numero, requestDTO))
+            .flatMap(conta -> ok(ApiResponseDTO.sucesso("Titular atualizado com sucesso", conta)));
+    }
+    
+    private Mono<ServerResponse> depositar(ServerRequest request) {
+        Integer numero = numero(request);
+        return corpoValido(request, OperacaoRequestDTO.class)
+            .flatMap(operacao -> contaService.depositar(numero, operacao.getValor()))
+            .flatMap(conta -> ok(ApiResponseDTO.sucesso("Depósito realizado com sucesso", conta)));
+    }
+    
+    private Mono<ServerResponse> sacar(ServerRequest request) {
+        Integer numero = numero(request);
+        return corpoValido(request, OperacaoRequestDTO.class)
+            .flatMap(operacao -> contaService.sacar(numero, operacao.getValor()))
+            .flatMap(conta -> ok(ApiResponseDTO.sucesso("Saque realizado com sucesso", conta)));
+    }
+    
+    private Mono<ServerResponse> consultarSaldo(ServerRequest request) {
+        return contaService.consultarSaldo(numero(request))
+            .flatMap(saldo -> ok(ApiResponseDTO.sucesso("Saldo consultado com sucesso", saldo)));
+    }
+    
+    private Mono<ServerResponse> excluirConta(ServerRequest request) {
+        return contaService.excluirConta(numero(request))
+            .then(Mono.defer(() -> ok(ApiResponseDTO.sucesso("Conta excluída com sucesso", null))));
+    }
+    
+    private static Mono<ServerResponse> ok(Object corpo) {
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(corpo);
+    }
+    
+    /**
+     * Corpo convertido e validado como o @Valid @RequestBody da v3
+     */
+    private <T> Mono<T> corpoValido(ServerRequest request, Class<T> tipo) {
+        return request.bodyToMono(tipo)
+            .switchIfEmpty(Mono.error(() -> new ServerWebInputException("Corpo da requisição ausente")))
+            .doOnNext(corpo -> {
+                Set<ConstraintViolation<T>> violacoes = validator.validate(corpo);
+                if (!violacoes.isEmpty()) {
+                    throw new ConstraintViolationException(violacoes);
+                }
+            });
+    }
+    
+    private static Integer numero(ServerRequest request) {
+        String numero = request.pathVariable("numero");
+        try {
+            return Integer.valueOf(numero);
+        } catch (NumberFormatException e) {
+            throw new OperacaoInvalidaException("Número de conta inválido: " + numero);
+        }
+    }
+    
+    private static Integer parametroInteiro(ServerRequest request, String nome, Integer padrao) {
+        return request.queryParam(nome).map(valor -> {
+            try {
+                return Integer.valueOf(valor);
+            } catch (NumberFormatException e) {
+                throw new OperacaoInvalidaException("Parâmetro inválido: " + nome);
+            }
+        }).orElse(padrao);
+    }
+    
+    /**
+     * Mesmo mapeamento de exceções para status do GlobalExceptionHandler
+     */
+    private Mono<ServerResponse> responderErro(Throwable erro) {
+        if (erro instanceof ContaNaoEncontradaException) {
+            return erro(HttpStatus.NOT_FOUND, ApiResponseDTO.erro(erro.getMessage()));
+        }
+        if (erro instanceof OperacaoInvalidaException) {
+            return erro(HttpStatus.BAD_REQUEST, ApiResponseDTO.erro(erro.getMessage()));
+        }
+        if (erro instanceof ContaJaExisteException) {
+            return erro(HttpStatus.CONFLICT, ApiResponseDTO.erro(erro.getMessage()));
+        }
+        if (erro instanceof OptimisticLockingFailureException) {
+            return erro(HttpStatus.CONFLICT, ApiResponseDTO.erro("Conta alterada concorrentemente, tente novamente"));
+        }
+        if (erro instanceof DataIntegrityViolationException) {
+            return erro(HttpStatus.CONFLICT, ApiResponseDTO.erro("Número de conta ou CPF já cadastrado"));
+        }
+        if (erro instanceof ConstraintViolationException violacoes) {
+            Map<String, String> errors = new HashMap<>();
+            violacoes.getConstraintViolations().forEach(v -> errors.put(v.getPropertyPath().toString(), v.getMessage()));
+            return erro(HttpStatus.BAD_REQUEST, ApiResponseDTO.erro("Dados inválidos", errors));
+        }
+        if (erro instanceof ServerWebInputException) {
+            // JSON malformado ou valor monetário inválido
+            Throwable causa = NestedExceptionUtils.getMostSpecificCause(erro);
+            return erro(HttpStatus.BAD_REQUEST, ApiResponseDTO.erro(causa instanceof IllegalArgumentException
+                ? causa.getMessage()
+                : "Corpo da requisição inválido"));
+        }
+        if (erro instanceof ResponseStatusException status) {
+            return erro(status.getStatusCode(), ApiResponseDTO.erro(status.getReason()));
+        }
+        log.error("Erro na API v4", erro);
+        return erro(HttpStatus.INTERNAL_SERVER_ERROR, ApiResponseDTO.erro("Erro interno do servidor: " + erro.getMessage()));
+    }
+    
+    private static Mono<ServerResponse> erro(HttpStatusCode status, ApiResponseDTO<?> corpo) {
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(corpo);
+    }
+}
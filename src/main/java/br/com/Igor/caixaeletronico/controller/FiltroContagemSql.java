@@ -0,0 +1,107 @@
+package br.com.Igor.caixaeletronico.controller;
+
+import br.com.Igor.caixaeletronico.service.metricas.ContagemSql;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Cabeçalho de depuração X-Comandos-SQL: comandos SQL executados pela requisição (ContagemSql)
+ * 
+ * Ligado com caixaeletronico.sql.cabecalho=true. O valor é o total até o início do corpo da
+ * resposta, que é quando os cabeçalhos precisam sair; numa exportação em streaming, as consultas
+ * feitas durante a escrita (em outra thread) ficam de fora. O total final vai para o log em DEBUG.
+ * Fica por fora dos demais filtros, para contar também o que o FiltroIdempotencia consulta.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "caixaeletronico.sql.cabecalho", havingValue = "true")
+public class FiltroContagemSql extends OncePerRequestFilter {
+    
+    public static final String CABECALHO = "X-Comandos-SQL";
+    
+    private static final Logger log = LoggerFactory.getLogger(FiltroContagemSql.class);
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RespostaComContagem resposta = new RespostaComContagem(response, ContagemSql.total());
+        chain.doFilter(request, resposta);
+        resposta.anotar();
+        log.debug("{} {}: {} comandos SQL", request.getMethod(), request.getRequestURI(), resposta.executados());
+    }
+    
+    /**
+     * Acrescenta o cabeçalho no primeiro acesso ao corpo, antes de a resposta ser enviada
+     */
+    private static class RespostaComContagem extends HttpServletResponseWrapper {
+        
+        private final long inicio;
+        private boolean anotada;
+        
+        RespostaComContagem(HttpServletResponse response, long inicio) {
+            super(response);
+            this.inicio = inicio;
+        }
+        
+        long executados() {
+            return ContagemSql.total() - inicio;
+        }
+        
+        void anotar() {
+            if (!anotada && !isCommitted()) {
+                setHeader(CABECALHO, Long.toString(executados()));
+            }
+            anotada = true;
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            anotar();
+            return super.getOutputStream();
+        }
+        
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            anotar();
+            return super.getWriter();
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            anotar();
+            super.flushBuffer();
+        }
+        
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            anotar();
+            super.sendError(sc, msg);
+        }
+        
+        @Override
+        public void sendError(int sc) throws IOException {
+            anotar();
+            super.sendError(sc);
+        }
+        
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            anotar();
+            super.sendRedirect(location);
+        }
+    }
+}
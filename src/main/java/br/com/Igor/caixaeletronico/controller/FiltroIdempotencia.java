@@ -0,0 +1,211 @@
+package br.com.Igor.caixaeletronico.controller;
+
+import br.com.Igor.caixaeletronico.dto.ApiResponseDTO;
+import br.com.Igor.caixaeletronico.entity.RespostaIdempotente;
+import br.com.Igor.caixaeletronico.service.RegistroIdempotencia;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Idempotency-Key nas operações de escrita das APIs v2 e v3
+ * 
+ * A primeira resposta a uma chave é guardada (RegistroIdempotencia) e devolvida às novas tentativas
+ * com a mesma chave, com o cabeçalho Idempotent-Replayed, sem executar a operação outra vez.
+ * A mesma chave numa requisição diferente (método, caminho ou corpo) é recusada com 422.
+ * Sem o cabeçalho, a requisição segue normalmente.
+ * 
+ * O corpo das requisições com chave é lido inteiro para compor a impressão da requisição,
+ * inclusive nos endpoints de lote, que sem a chave são lidos em streaming.
+ */
+@Component
+public class FiltroIdempotencia extends OncePerRequestFilter {
+    
+    public static final String CABECALHO = "Idempotency-Key";
+    public static final String CABECALHO_REPETIDA = "Idempotent-Replayed";
+    public static final int TAMANHO_MAXIMO_CHAVE = 255;
+    
+    public static final Set<String> METODOS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    public static final List<String> CAMINHOS = List.of("/api/v2/contas", "/api/v3/contas", "/api/v3/operacoes");
+    
+    private final RegistroIdempotencia registro;
+    private final ObjectMapper objectMapper;
+    
+    public FiltroIdempotencia(RegistroIdempotencia registro, ObjectMapper objectMapper) {
+        this.registro = registro;
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (request.getHeader(CABECALHO) == null || !METODOS.contains(request.getMethod())) {
+            return true;
+        }
+        String caminho = request.getRequestURI().substring(request.getContextPath().length());
+        return CAMINHOS.stream().noneMatch(caminho::startsWith);
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String chave = request.getHeader(CABECALHO);
+        if (chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            responderErro(response, HttpStatus.BAD_REQUEST,
+                    CABECALHO + " deve ter de 1 a " + TAMANHO_MAXIMO_CHAVE + " caracteres");
+            return;
+        }
+        
+        CorpoLido requisicao = new CorpoLido(request, request.getInputStream().readAllBytes());
+        String impressao = impressao(requisicao);
+        
+        Optional<RespostaIdempotente> anterior;
+        try {
+            anterior = registro.executarUmaVez(chave, () -> executar(requisicao, response, chain, chave, impressao));
+        } catch (TimeoutException e) {
+            responderErro(response, HttpStatus.CONFLICT, "Requisição com a mesma " + CABECALHO + " ainda em processamento");
+            return;
+        } catch (IOException | ServletException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException(e);
+        }
+        
+        if (anterior.isPresent()) {
+            repetir(anterior.get(), impressao, response);
+        }
+    }
+    
+    /**
+     * Executa a requisição de fato e devolve a resposta para ser guardada
+     */
+    private RespostaIdempotente executar(CorpoLido requisicao, HttpServletResponse response, FilterChain chain,
+                                         String chave, String impressao) throws IOException, ServletException {
+        ContentCachingResponseWrapper resposta = new ContentCachingResponseWrapper(response);
+        chain.doFilter(requisicao, resposta);
+        
+        RespostaIdempotente registrada = new RespostaIdempotente(chave, impressao, resposta.getStatus(),
+                resposta.getContentType(), resposta.getContentAsByteArray(), registro.expiracao());
+        resposta.copyBodyToResponse();
+        return registrada;
+    }
+    
+    private void repetir(RespostaIdempotente anterior, String impressao, HttpServletResponse response) throws IOException {
+        if (!anterior.getImpressao().equals(impressao)) {
+            responderErro(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    CABECALHO + " já usada em outra requisição; use uma chave nova para cada operação");
+            return;
+        }
+        response.setStatus(anterior.getStatus());
+        if (anterior.getTipoConteudo() != null) {
+            response.setContentType(anterior.getTipoConteudo());
+        }
+        response.setHeader(CABECALHO_REPETIDA, "true");
+        response.setContentLength(anterior.getCorpo().length);
+        response.getOutputStream().write(anterior.getCorpo());
+    }
+    
+    private void responderErro(HttpServletResponse response, HttpStatus status, String mensagem) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), ApiResponseDTO.erro(mensagem));
+    }
+    
+    /**
+     * SHA-256 de método, caminho, query e corpo
+     */
+    private static String impressao(CorpoLido requisicao) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update((requisicao.getMethod() + ' ' + requisicao.getRequestURI() + '?'
+                    + requisicao.getQueryString() + '\n').getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(sha.digest(requisicao.corpo));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * Requisição com o corpo já lido, entregue de novo a quem for ler
+     */
+    private static class CorpoLido extends HttpServletRequestWrapper {
+        private final byte[] corpo;
+        
+        CorpoLido(HttpServletRequest request, byte[] corpo) {
+            super(request);
+            this.corpo = corpo;
+        }
+        
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(corpo);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+                
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+                
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+                
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+                
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+        
+        @Override
+        public BufferedReader getReader() {
+            String charset = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    charset != null ? Charset.forName(charset) : StandardCharsets.UTF_8));
+        }
+        
+        @Override
+        public int getContentLength() {
+            return corpo.length;
+        }
+        
+        @Override
+        public long getContentLengthLong() {
+            return corpo.length;
+        }
+    }
+}
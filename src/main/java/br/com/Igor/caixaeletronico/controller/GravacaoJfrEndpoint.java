@@ -0,0 +1,58 @@
+package br.com.Igor.caixaeletronico.controller;
+
+import br.com.Igor.caixaeletronico.service.diagnostico.GravacaoContinuaJfr;
+import org.springframework.boot.actuate.autoconfigure.web.server.ConditionalOnManagementPort;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+/**
+ * GET /actuator/jfr?minutos=N: arquivo .jfr com os últimos N minutos da gravação contínua
+ * (padrão 5, limitado à idade máxima da gravação), para abrir no JDK Mission Control ou no "jfr print".
+ * 
+ * O dump expõe o que a aplicação fez nos últimos minutos e não tem autenticação: só existe com a
+ * gravação ligada e com o actuator numa porta de gerenciamento própria (management.server.port,
+ * de preferência com management.server.address=127.0.0.1), nunca na porta pública da API,
+ * e ainda precisa estar em management.endpoints.web.exposure.include.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+@ConditionalOnProperty(name = "caixaeletronico.jfr.habilitado", havingValue = "true")
+@ConditionalOnManagementPort(ManagementPortType.DIFFERENT)
+public class GravacaoJfrEndpoint {
+    
+    private static final int MINUTOS_PADRAO = 5;
+    
+    private final GravacaoContinuaJfr gravacao;
+    
+    public GravacaoJfrEndpoint(GravacaoContinuaJfr gravacao) {
+        this.gravacao = gravacao;
+    }
+    
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> despejar(@Nullable Integer minutos) throws IOException {
+        if (minutos != null && minutos <= 0) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        Duration periodo = Duration.ofMinutes(minutos != null ? minutos : MINUTOS_PADRAO);
+        if (periodo.compareTo(gravacao.getIdadeMaxima()) > 0) {
+            periodo = gravacao.getIdadeMaxima();
+        }
+        Path arquivo = gravacao.despejar(periodo);
+        // O arquivo temporário some quando o conversor fecha o stream, depois de enviar a resposta
+        return new WebEndpointResponse<>(new InputStreamResource(
+            Files.newInputStream(arquivo, StandardOpenOption.DELETE_ON_CLOSE)));
+    }
+}
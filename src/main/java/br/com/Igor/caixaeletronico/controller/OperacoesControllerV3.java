@@ -0,0 +1,62 @@
+package br.com.Igor.caixaeletronico.controller;
+
+import br.com.Igor.caixaeletronico.dto.ApiResponseDTO;
+import br.com.Igor.caixaeletronico.dto.OperacaoLoteDTO;
+import br.com.Igor.caixaeletronico.dto.ResultadoLoteDTO;
+import br.com.Igor.caixaeletronico.service.MovimentacaoContasLote;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Operações que envolvem várias contas de uma vez
+ */
+@RestController
+@RequestMapping("/api/v3/operacoes")
+@CrossOrigin(origins = "*")
+@Tag(name = "Operações V3", description = "Depósitos e saques em lote")
+public class OperacoesControllerV3 {
+    
+    private final MovimentacaoContasLote movimentacaoContasLote;
+    
+    @Autowired
+    public OperacoesControllerV3(MovimentacaoContasLote movimentacaoContasLote) {
+        this.movimentacaoContasLote = movimentacaoContasLote;
+    }
+    
+    @Operation(
+        summary = "Depósitos e saques em lote",
+        description = "Recebe um array JSON de operações, lido em streaming, e aplica as válidas em lotes; "
+            + "as operações de cada conta seguem a ordem recebida. Cada item tem seu próprio resultado "
+            + "(status 200 com o saldo resultante, 400 ou 404), na ordem recebida",
+        requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true,
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                array = @ArraySchema(schema = @Schema(implementation = OperacaoLoteDTO.class))))
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Lote processado; ver o resultado de cada item"),
+        @ApiResponse(responseCode = "400", description = "Corpo não é um array JSON válido")
+    })
+    @PostMapping(value = "/lote", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponseDTO<ResultadoLoteDTO>> movimentarEmLote(
+            @Parameter(hidden = true) InputStream corpo) throws IOException {
+        
+        ResultadoLoteDTO resultado = movimentacaoContasLote.movimentar(corpo);
+        return ResponseEntity.ok(
+            ApiResponseDTO.sucesso("Lote processado: " + resultado.getAceitos() + " operações aplicadas, "
+                + resultado.getRecusados() + " recusadas", resultado)
+        );
+    }
+}
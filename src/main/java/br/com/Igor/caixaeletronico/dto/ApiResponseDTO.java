@@ -1,10 +1,20 @@
 package br.com.Igor.caixaeletronico.dto;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * DTO para resposta padronizada da API
+ * O timestamp vem do RelogioRespostas, com resolução de milissegundo.
  */
+@JsonSerialize(using = ApiResponseDTO.Serializador.class)
 public class ApiResponseDTO<T> {
     
     private boolean sucesso;
@@ -12,9 +22,12 @@ public class ApiResponseDTO<T> {
     private T dados;
     private LocalDateTime timestamp;
     
+    // Presente apenas em listagens paginadas que têm próxima página (o Serializador omite quando null)
+    private Integer proximoCursor;
+    
     // Construtores
     public ApiResponseDTO() {
-        this.timestamp = LocalDateTime.now();
+        this.timestamp = RelogioRespostas.agora();
     }
     
     public ApiResponseDTO(boolean sucesso, String mensagem, T dados) {
@@ -29,6 +42,12 @@ public class ApiResponseDTO<T> {
         return new ApiResponseDTO<>(true, mensagem, dados);
     }
     
+    public static <T> ApiResponseDTO<List<T>> sucessoPaginado(String mensagem, PaginaDTO<T> pagina) {
+        ApiResponseDTO<List<T>> resposta = new ApiResponseDTO<>(true, mensagem, pagina.getItens());
+        resposta.setProximoCursor(pagina.getProximoCursor());
+        return resposta;
+    }
+    
     public static <T> ApiResponseDTO<T> erro(String mensagem) {
         return new ApiResponseDTO<>(false, mensagem, null);
     }
@@ -69,4 +88,65 @@ public class ApiResponseDTO<T> {
     public void setTimestamp(LocalDateTime timestamp) {
         this.timestamp = timestamp;
     }
+    
+    public Integer getProximoCursor() {
+        return proximoCursor;
+    }
+    
+    public void setProximoCursor(Integer proximoCursor) {
+        this.proximoCursor = proximoCursor;
+    }
+    
+    /**
+     * Escreve o envelope como o serializador de beans do Jackson, sem reflexão
+     * Conta e listas de contas em "dados" vão direto para o ContaResponseDTO.Serializador, item a
+     * item no gerador da resposta; os demais tipos passam pelo Jackson.
+     */
+    static class Serializador extends JsonSerializer<ApiResponseDTO<?>> {
+        
+        private static final SerializedString SUCESSO = new SerializedString("sucesso");
+        private static final SerializedString MENSAGEM = new SerializedString("mensagem");
+        private static final SerializedString DADOS = new SerializedString("dados");
+        private static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+        private static final SerializedString PROXIMO_CURSOR = new SerializedString("proximoCursor");
+        
+        @Override
+        public void serialize(ApiResponseDTO<?> resposta, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject(resposta);
+            gen.writeFieldName(SUCESSO);
+            gen.writeBoolean(resposta.sucesso);
+            gen.writeFieldName(MENSAGEM);
+            gen.writeString(resposta.mensagem);
+            gen.writeFieldName(DADOS);
+            escreverDados(resposta.dados, gen, provider);
+            gen.writeFieldName(TIMESTAMP);
+            DataHoraJson.escreverTimestamp(resposta.timestamp, gen, provider);
+            // Omitido quando null, como faria @JsonInclude(NON_NULL), que o Serializador não consulta
+            if (resposta.proximoCursor != null) {
+                gen.writeFieldName(PROXIMO_CURSOR);
+                gen.writeNumber(resposta.proximoCursor);
+            }
+            gen.writeEndObject();
+        }
+        
+        private static void escreverDados(Object dados, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            if (dados instanceof ContaResponseDTO conta) {
+                ContaResponseDTO.Serializador.escrever(conta, gen, provider);
+            } else if (dados instanceof List<?> lista) {
+                gen.writeStartArray(lista, lista.size());
+                for (Object item : lista) {
+                    if (item instanceof ContaResponseDTO conta) {
+                        ContaResponseDTO.Serializador.escrever(conta, gen, provider);
+                    } else {
+                        provider.defaultSerializeValue(item, gen);
+                    }
+                }
+                gen.writeEndArray();
+            } else {
+                provider.defaultSerializeValue(dados, gen);
+            }
+        }
+    }
 }
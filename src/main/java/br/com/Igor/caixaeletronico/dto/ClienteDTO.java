@@ -1,7 +1,8 @@
 package br.com.Igor.caixaeletronico.dto;
 
+import br.com.Igor.caixaeletronico.entity.Cpf;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
 /**
@@ -13,14 +14,14 @@ public class ClienteDTO {
     @Size(min = 2, max = 100, message = "Nome deve ter entre 2 e 100 caracteres")
     private String nome;
     
-    @NotBlank(message = "CPF é obrigatório")
-    @Pattern(regexp = "\\d{3}\\.\\d{3}\\.\\d{3}-\\d{2}", message = "CPF deve estar no formato XXX.XXX.XXX-XX")
-    private String cpf;
+    /** Aceita XXX.XXX.XXX-XX ou só os 11 dígitos; sempre devolvido formatado */
+    @NotNull(message = "CPF é obrigatório")
+    private Cpf cpf;
     
     // Construtores
     public ClienteDTO() {}
     
-    public ClienteDTO(String nome, String cpf) {
+    public ClienteDTO(String nome, Cpf cpf) {
         this.nome = nome;
         this.cpf = cpf;
     }
@@ -34,11 +35,11 @@ public class ClienteDTO {
         this.nome = nome;
     }
     
-    public String getCpf() {
+    public Cpf getCpf() {
         return cpf;
     }
     
-    public void setCpf(String cpf) {
+    public void setCpf(Cpf cpf) {
         this.cpf = cpf;
     }
     
@@ -4,7 +4,7 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
-import java.math.BigDecimal;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
 
 /**
  * DTO para requisições de criação de conta
@@ -20,15 +20,15 @@ public class ContaRequestDTO {
     private ClienteDTO titular;
     
     @DecimalMin(value = "0.0", inclusive = true, message = "Saldo inicial não pode ser negativo")
-    private BigDecimal saldoInicial = BigDecimal.ZERO;
+    private Dinheiro saldoInicial = Dinheiro.ZERO;
     
     // Construtores
     public ContaRequestDTO() {}
     
-    public ContaRequestDTO(Integer numero, ClienteDTO titular, BigDecimal saldoInicial) {
+    public ContaRequestDTO(Integer numero, ClienteDTO titular, Dinheiro saldoInicial) {
         this.numero = numero;
         this.titular = titular;
-        this.saldoInicial = saldoInicial != null ? saldoInicial : BigDecimal.ZERO;
+        this.saldoInicial = saldoInicial != null ? saldoInicial : Dinheiro.ZERO;
     }
     
     // Getters e Setters
@@ -48,11 +48,11 @@ public class ContaRequestDTO {
         this.titular = titular;
     }
     
-    public BigDecimal getSaldoInicial() {
+    public Dinheiro getSaldoInicial() {
         return saldoInicial;
     }
     
-    public void setSaldoInicial(BigDecimal saldoInicial) {
+    public void setSaldoInicial(Dinheiro saldoInicial) {
         this.saldoInicial = saldoInicial;
     }
 }
@@ -1,22 +1,34 @@
 package br.com.Igor.caixaeletronico.dto;
 
-import java.math.BigDecimal;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
 import java.time.LocalDateTime;
 
 /**
  * DTO para resposta com dados da conta
  */
+@JsonSerialize(using = ContaResponseDTO.Serializador.class)
 public class ContaResponseDTO {
     
     private Integer numero;
     private ClienteDTO titular;
-    private BigDecimal saldo;
+    private Dinheiro saldo;
     private LocalDateTime dataCriacao;
+    // Versão da conta, que vai no cabeçalho ETag e não no corpo; null quando não se conhece
+    @JsonIgnore
+    private Long versao;
     
     // Construtores
     public ContaResponseDTO() {}
     
-    public ContaResponseDTO(Integer numero, ClienteDTO titular, BigDecimal saldo, LocalDateTime dataCriacao) {
+    public ContaResponseDTO(Integer numero, ClienteDTO titular, Dinheiro saldo, LocalDateTime dataCriacao) {
         this.numero = numero;
         this.titular = titular;
         this.saldo = saldo;
@@ -40,11 +52,11 @@ public class ContaResponseDTO {
         this.titular = titular;
     }
     
-    public BigDecimal getSaldo() {
+    public Dinheiro getSaldo() {
         return saldo;
     }
     
-    public void setSaldo(BigDecimal saldo) {
+    public void setSaldo(Dinheiro saldo) {
         this.saldo = saldo;
     }
     
@@ -55,4 +67,62 @@ public class ContaResponseDTO {
     public void setDataCriacao(LocalDateTime dataCriacao) {
         this.dataCriacao = dataCriacao;
     }
+    
+    public Long getVersao() {
+        return versao;
+    }
+    
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+    
+    /**
+     * Escreve os campos na ordem e no formato do serializador de beans do Jackson, sem reflexão
+     * Listagens chegam a milhares de contas por resposta; os nomes dos campos já vão codificados.
+     */
+    static class Serializador extends JsonSerializer<ContaResponseDTO> {
+        
+        private static final SerializedString NUMERO = new SerializedString("numero");
+        private static final SerializedString TITULAR = new SerializedString("titular");
+        private static final SerializedString NOME = new SerializedString("nome");
+        private static final SerializedString CPF = new SerializedString("cpf");
+        private static final SerializedString SALDO = new SerializedString("saldo");
+        private static final SerializedString DATA_CRIACAO = new SerializedString("dataCriacao");
+        
+        @Override
+        public void serialize(ContaResponseDTO conta, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            escrever(conta, gen, provider);
+        }
+        
+        static void escrever(ContaResponseDTO conta, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(conta);
+            gen.writeFieldName(NUMERO);
+            if (conta.numero == null) {
+                gen.writeNull();
+            } else {
+                gen.writeNumber(conta.numero);
+            }
+            gen.writeFieldName(TITULAR);
+            if (conta.titular == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartObject(conta.titular);
+                gen.writeFieldName(NOME);
+                gen.writeString(conta.titular.getNome());
+                gen.writeFieldName(CPF);
+                // Como Cpf.Serializador
+                gen.writeString(conta.titular.getCpf() != null ? conta.titular.getCpf().toString() : null);
+                gen.writeEndObject();
+            }
+            gen.writeFieldName(SALDO);
+            if (conta.saldo == null) {
+                gen.writeNull();
+            } else {
+                Dinheiro.Serializador.escrever(conta.saldo, gen);
+            }
+            gen.writeFieldName(DATA_CRIACAO);
+            DataHoraJson.escrever(conta.dataCriacao, gen, provider);
+            gen.writeEndObject();
+        }
+    }
 }
@@ -0,0 +1,99 @@
+package br.com.Igor.caixaeletronico.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Escrita de LocalDateTime nos serializadores das respostas, com o mesmo texto do jackson-datatype-jsr310
+ * 
+ * Com WRITE_DATES_AS_TIMESTAMPS desligado (padrão do Spring Boot) o texto é o ISO_LOCAL_DATE_TIME, montado
+ * direto num char[] em vez de passar pelo DateTimeFormatter: segundos sempre presentes e fração sem os
+ * zeros à direita. Para o timestamp do envelope, o último texto fica guardado junto com a instância que
+ * o gerou, e as respostas do mesmo milissegundo (RelogioRespostas) reaproveitam o texto. Com a opção
+ * ligada, ou anos fora de 0000 a 9999, a escrita é delegada ao Jackson.
+ */
+final class DataHoraJson {
+    
+    private static volatile Formatada ultima = new Formatada(null, null);
+    
+    private DataHoraJson() {
+    }
+    
+    static void escrever(LocalDateTime dataHora, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        escrever(dataHora, gen, provider, false);
+    }
+    
+    /**
+     * Timestamp das respostas, reaproveitando o texto da instância anterior
+     */
+    static void escreverTimestamp(LocalDateTime dataHora, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        escrever(dataHora, gen, provider, true);
+    }
+    
+    private static void escrever(LocalDateTime dataHora, JsonGenerator gen, SerializerProvider provider,
+                                 boolean reaproveitar) throws IOException {
+        if (dataHora == null) {
+            gen.writeNull();
+        } else if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            provider.defaultSerializeValue(dataHora, gen);
+        } else {
+            gen.writeString(reaproveitar ? textoReaproveitado(dataHora) : formatar(dataHora));
+        }
+    }
+    
+    private static String textoReaproveitado(LocalDateTime dataHora) {
+        Formatada formatada = ultima;
+        if (formatada.dataHora == dataHora) {
+            return formatada.texto;
+        }
+        String texto = formatar(dataHora);
+        ultima = new Formatada(dataHora, texto);
+        return texto;
+    }
+    
+    private static String formatar(LocalDateTime dataHora) {
+        int ano = dataHora.getYear();
+        if (ano < 0 || ano > 9999) {
+            return DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(dataHora);
+        }
+        char[] texto = new char[29];
+        digitos(texto, 0, ano, 4);
+        texto[4] = '-';
+        digitos(texto, 5, dataHora.getMonthValue(), 2);
+        texto[7] = '-';
+        digitos(texto, 8, dataHora.getDayOfMonth(), 2);
+        texto[10] = 'T';
+        digitos(texto, 11, dataHora.getHour(), 2);
+        texto[13] = ':';
+        digitos(texto, 14, dataHora.getMinute(), 2);
+        texto[16] = ':';
+        digitos(texto, 17, dataHora.getSecond(), 2);
+        int tamanho = 19;
+        int nano = dataHora.getNano();
+        if (nano > 0) {
+            texto[19] = '.';
+            digitos(texto, 20, nano, 9);
+            tamanho = 29;
+            while (texto[tamanho - 1] == '0') {
+                tamanho--;
+            }
+        }
+        return new String(texto, 0, tamanho);
+    }
+    
+    private static void digitos(char[] texto, int inicio, int valor, int quantidade) {
+        for (int i = inicio + quantidade - 1; i >= inicio; i--) {
+            texto[i] = (char) ('0' + valor % 10);
+            valor /= 10;
+        }
+    }
+    
+    private record Formatada(LocalDateTime dataHora, String texto) {
+    }
+}
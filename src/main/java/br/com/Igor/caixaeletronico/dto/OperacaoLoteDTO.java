@@ -0,0 +1,56 @@
+package br.com.Igor.caixaeletronico.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.entity.Movimentacao;
+
+/**
+ * DTO de uma operação (depósito/saque) de um lote de movimentações
+ */
+public class OperacaoLoteDTO {
+    
+    @NotNull(message = "Número da conta é obrigatório")
+    private Integer numero;
+    
+    @NotNull(message = "Tipo é obrigatório (DEPOSITO ou SAQUE)")
+    private Movimentacao.Tipo tipo;
+    
+    @NotNull(message = "Valor é obrigatório")
+    @DecimalMin(value = "0.01", message = "Valor deve ser maior que zero")
+    private Dinheiro valor;
+    
+    // Construtores
+    public OperacaoLoteDTO() {}
+    
+    public OperacaoLoteDTO(Integer numero, Movimentacao.Tipo tipo, Dinheiro valor) {
+        this.numero = numero;
+        this.tipo = tipo;
+        this.valor = valor;
+    }
+    
+    // Getters e Setters
+    public Integer getNumero() {
+        return numero;
+    }
+    
+    public void setNumero(Integer numero) {
+        this.numero = numero;
+    }
+    
+    public Movimentacao.Tipo getTipo() {
+        return tipo;
+    }
+    
+    public void setTipo(Movimentacao.Tipo tipo) {
+        this.tipo = tipo;
+    }
+    
+    public Dinheiro getValor() {
+        return valor;
+    }
+    
+    public void setValor(Dinheiro valor) {
+        this.valor = valor;
+    }
+}
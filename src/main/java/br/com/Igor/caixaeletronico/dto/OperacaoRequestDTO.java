@@ -2,7 +2,7 @@ package br.com.Igor.caixaeletronico.dto;
 
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
-import java.math.BigDecimal;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
 
 /**
  * DTO para operações bancárias (depósito/saque)
@@ -11,21 +11,21 @@ public class OperacaoRequestDTO {
     
     @NotNull(message = "Valor é obrigatório")
     @DecimalMin(value = "0.01", message = "Valor deve ser maior que zero")
-    private BigDecimal valor;
+    private Dinheiro valor;
     
     // Construtores
     public OperacaoRequestDTO() {}
     
-    public OperacaoRequestDTO(BigDecimal valor) {
+    public OperacaoRequestDTO(Dinheiro valor) {
         this.valor = valor;
     }
     
     // Getters e Setters
-    public BigDecimal getValor() {
+    public Dinheiro getValor() {
         return valor;
     }
     
-    public void setValor(BigDecimal valor) {
+    public void setValor(Dinheiro valor) {
         this.valor = valor;
     }
 }
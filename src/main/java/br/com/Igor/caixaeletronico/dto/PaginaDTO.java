@@ -0,0 +1,37 @@
+package br.com.Igor.caixaeletronico.dto;
+
+import java.util.List;
+
+/**
+ * Página de resultados com paginação por cursor (keyset)
+ * proximoCursor é o valor a ser enviado em "after" para buscar a página seguinte (null = última página)
+ */
+public class PaginaDTO<T> {
+    
+    public static final int LIMITE_PADRAO = 100;
+    public static final int LIMITE_MAXIMO = 1000;
+    
+    private final List<T> itens;
+    private final Integer proximoCursor;
+    
+    public PaginaDTO(List<T> itens, Integer proximoCursor) {
+        this.itens = itens;
+        this.proximoCursor = proximoCursor;
+    }
+    
+    /**
+     * Mantém o tamanho de página dentro de 1..LIMITE_MAXIMO
+     */
+    public static int limitar(int limite) {
+        return Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+    }
+    
+    // Getters
+    public List<T> getItens() {
+        return itens;
+    }
+    
+    public Integer getProximoCursor() {
+        return proximoCursor;
+    }
+}
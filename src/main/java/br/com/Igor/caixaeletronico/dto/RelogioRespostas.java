@@ -0,0 +1,37 @@
+package br.com.Igor.caixaeletronico.dto;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Relógio de resolução de milissegundo para o timestamp das respostas (ApiResponseDTO)
+ * 
+ * LocalDateTime.now() consulta o fuso e monta uma data nova a cada resposta; aqui a leitura é
+ * reaproveitada por todas as respostas do mesmo milissegundo, e a mesma instância permite ao
+ * DataHoraJson reaproveitar também o texto já formatado. Leituras de threads diferentes podem chegar
+ * fora de ordem por um milissegundo; só a mais recente fica guardada.
+ */
+final class RelogioRespostas {
+    
+    private static volatile Leitura ultima = new Leitura(Long.MIN_VALUE, null);
+    
+    private RelogioRespostas() {
+    }
+    
+    static LocalDateTime agora() {
+        long milissegundo = System.currentTimeMillis();
+        Leitura leitura = ultima;
+        if (leitura.milissegundo == milissegundo) {
+            return leitura.dataHora;
+        }
+        LocalDateTime dataHora = LocalDateTime.ofInstant(Instant.ofEpochMilli(milissegundo), ZoneId.systemDefault());
+        if (milissegundo > leitura.milissegundo) {
+            ultima = new Leitura(milissegundo, dataHora);
+        }
+        return dataHora;
+    }
+    
+    private record Leitura(long milissegundo, LocalDateTime dataHora) {
+    }
+}
@@ -0,0 +1,77 @@
+package br.com.Igor.caixaeletronico.dto;
+
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Resultado de um item de uma requisição em lote
+ * status segue o código HTTP que a requisição individual teria (201, 400, 409...)
+ */
+public class ResultadoItemLoteDTO {
+    
+    private final int indice;
+    private final Integer numero;
+    private final int status;
+    
+    // Motivo da recusa; ausente nos itens aceitos
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final String mensagem;
+    
+    // Saldo da conta logo após o item, nas movimentações aceitas
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final Dinheiro saldo;
+    
+    public ResultadoItemLoteDTO(int indice, Integer numero, int status, String mensagem, Dinheiro saldo) {
+        this.indice = indice;
+        this.numero = numero;
+        this.status = status;
+        this.mensagem = mensagem;
+        this.saldo = saldo;
+    }
+    
+    public static ResultadoItemLoteDTO aceito(int indice, Integer numero, int status) {
+        return new ResultadoItemLoteDTO(indice, numero, status, null, null);
+    }
+    
+    public static ResultadoItemLoteDTO movimentado(int indice, Integer numero, Dinheiro saldo) {
+        return new ResultadoItemLoteDTO(indice, numero, 200, null, saldo);
+    }
+    
+    public static ResultadoItemLoteDTO recusado(int indice, Integer numero, int status, String mensagem) {
+        return new ResultadoItemLoteDTO(indice, numero, status, mensagem, null);
+    }
+    
+    /**
+     * O mesmo resultado em outra posição (bloco → requisição inteira)
+     */
+    public ResultadoItemLoteDTO comIndice(int novoIndice) {
+        return new ResultadoItemLoteDTO(novoIndice, numero, status, mensagem, saldo);
+    }
+    
+    @JsonIgnore
+    public boolean isAceito() {
+        return status < 300;
+    }
+    
+    // Getters
+    public int getIndice() {
+        return indice;
+    }
+    
+    public Integer getNumero() {
+        return numero;
+    }
+    
+    public int getStatus() {
+        return status;
+    }
+    
+    public String getMensagem() {
+        return mensagem;
+    }
+    
+    public Dinheiro getSaldo() {
+        return saldo;
+    }
+}
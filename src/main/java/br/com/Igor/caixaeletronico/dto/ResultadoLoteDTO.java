@@ -0,0 +1,44 @@
+package br.com.Igor.caixaeletronico.dto;
+
+import java.util.List;
+
+/**
+ * Resumo de uma requisição em lote, com o resultado de cada item na ordem recebida
+ */
+public class ResultadoLoteDTO {
+    
+    private final int total;
+    private final int aceitos;
+    private final int recusados;
+    private final List<ResultadoItemLoteDTO> itens;
+    
+    public ResultadoLoteDTO(List<ResultadoItemLoteDTO> itens) {
+        int aceitos = 0;
+        for (ResultadoItemLoteDTO item : itens) {
+            if (item.isAceito()) {
+                aceitos++;
+            }
+        }
+        this.total = itens.size();
+        this.aceitos = aceitos;
+        this.recusados = itens.size() - aceitos;
+        this.itens = itens;
+    }
+    
+    // Getters
+    public int getTotal() {
+        return total;
+    }
+    
+    public int getAceitos() {
+        return aceitos;
+    }
+    
+    public int getRecusados() {
+        return recusados;
+    }
+    
+    public List<ResultadoItemLoteDTO> getItens() {
+        return itens;
+    }
+}
@@ -1,6 +1,6 @@
 package br.com.Igor.caixaeletronico.dto;
 
-import java.math.BigDecimal;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
 
 /**
  * DTO para resposta de consulta de saldo
@@ -8,12 +8,12 @@ import java.math.BigDecimal;
 public class SaldoResponseDTO {
     
     private Integer numero;
-    private BigDecimal saldo;
+    private Dinheiro saldo;
     
     // Construtores
     public SaldoResponseDTO() {}
     
-    public SaldoResponseDTO(Integer numero, BigDecimal saldo) {
+    public SaldoResponseDTO(Integer numero, Dinheiro saldo) {
         this.numero = numero;
         this.saldo = saldo;
     }
@@ -27,11 +27,11 @@ public class SaldoResponseDTO {
         this.numero = numero;
     }
     
-    public BigDecimal getSaldo() {
+    public Dinheiro getSaldo() {
         return saldo;
     }
     
-    public void setSaldo(BigDecimal saldo) {
+    public void setSaldo(Dinheiro saldo) {
         this.saldo = saldo;
     }
 }
@@ -2,7 +2,7 @@ package br.com.Igor.caixaeletronico.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.NotNull;
 
 @Embeddable // Permite ser incorporado em outras entidades
 public class Cliente {
@@ -11,15 +11,14 @@ public class Cliente {
     @Column(name = "titular_nome", nullable = false)
     private String nome;
     
-    @NotBlank(message = "CPF é obrigatório")
-    @Pattern(regexp = "\\d{3}\\.\\d{3}\\.\\d{3}-\\d{2}", message = "CPF deve estar no formato XXX.XXX.XXX-XX")
-    @Column(name = "titular_cpf", nullable = false, unique = true, length = 14)
-    private String cpf;
+    @NotNull(message = "CPF é obrigatório")
+    @Column(name = "titular_cpf", nullable = false, unique = true)
+    private Cpf cpf;
 
     // Construtor padrão necessário para JPA
     public Cliente() {}
 
-    public Cliente(String nome, String cpf) {
+    public Cliente(String nome, Cpf cpf) {
         this.nome = nome;
         this.cpf = cpf;
     }
@@ -33,11 +32,11 @@ public class Cliente {
         this.nome = nome;
     }
 
-    public String getCpf() {
+    public Cpf getCpf() {
         return cpf;
     }
 
-    public void setCpf(String cpf) {
+    public void setCpf(Cpf cpf) {
         this.cpf = cpf;
     }
 }
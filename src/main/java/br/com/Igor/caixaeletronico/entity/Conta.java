@@ -1,10 +1,10 @@
 package br.com.Igor.caixaeletronico.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity // Marca como entidade JPA
@@ -18,7 +18,7 @@ public class Conta {
     @NotNull(message = "Saldo não pode ser nulo")
     @DecimalMin(value = "0.0", inclusive = true, message = "Saldo não pode ser negativo")
     @Column(name = "saldo", precision = 10, scale = 2)
-    private BigDecimal saldo;
+    private Dinheiro saldo;
     
     @Valid // Valida o objeto Cliente
     @Embedded // Incorpora Cliente nesta entidade
@@ -26,10 +26,15 @@ public class Conta {
     
     @Column(name = "data_criacao")
     private LocalDateTime dataCriacao;
+    
+    @JsonIgnore // Controle interno de concorrência, não faz parte da resposta da API
+    @Version // Incrementado a cada alteração da conta (lock otimista)
+    @Column(name = "versao")
+    private Long versao;
 
     // Construtor padrão necessário para JPA
     public Conta() {
-        this.saldo = BigDecimal.ZERO;
+        this.saldo = Dinheiro.ZERO;
         this.dataCriacao = LocalDateTime.now();
     }
 
@@ -40,35 +45,35 @@ public class Conta {
     }
 
     // Operações bancárias
-    public void depositar(BigDecimal valor) {
-        if (valor.compareTo(BigDecimal.ZERO) > 0) {
-            this.saldo = this.saldo.add(valor);
+    public void depositar(Dinheiro valor) {
+        if (valor.isPositivo()) {
+            this.saldo = this.saldo.somar(valor);
         }
     }
     
     public void depositar(double valor) {
-        depositar(BigDecimal.valueOf(valor));
+        depositar(Dinheiro.de(valor));
     }
 
-    public boolean sacar(BigDecimal valor) {
-        if (valor.compareTo(BigDecimal.ZERO) > 0 && valor.compareTo(this.saldo) <= 0) {
-            this.saldo = this.saldo.subtract(valor);
+    public boolean sacar(Dinheiro valor) {
+        if (valor.isPositivo() && !this.saldo.menorQue(valor)) {
+            this.saldo = this.saldo.subtrair(valor);
             return true;
         }
         return false;
     }
     
     public boolean sacar(double valor) {
-        return sacar(BigDecimal.valueOf(valor));
+        return sacar(Dinheiro.de(valor));
     }
 
-    public BigDecimal consultarSaldo() {
+    public Dinheiro consultarSaldo() {
         return saldo;
     }
     
     // Método compatível com versão anterior
     public double consultarSaldo_OLD() {
-        return saldo.doubleValue();
+        return saldo.getCentavos() / 100.0;
     }
 
     // Getters e Setters
@@ -80,11 +85,11 @@ public class Conta {
         this.numero = numero;
     }
 
-    public BigDecimal getSaldo() {
+    public Dinheiro getSaldo() {
         return saldo;
     }
 
-    public void setSaldo(BigDecimal saldo) {
+    public void setSaldo(Dinheiro saldo) {
         this.saldo = saldo;
     }
 
@@ -103,6 +108,14 @@ public class Conta {
     public void setDataCriacao(LocalDateTime dataCriacao) {
         this.dataCriacao = dataCriacao;
     }
+    
+    public Long getVersao() {
+        return versao;
+    }
+    
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
 
     @Override
     public String toString() {
@@ -0,0 +1,173 @@
+package br.com.Igor.caixaeletronico.entity;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+
+/**
+ * CPF na forma canônica: os 11 dígitos como um número (123.456.789-09 → 12345678909)
+ * 
+ * Só existe com dígitos verificadores válidos. No JSON é o texto formatado (XXX.XXX.XXX-XX);
+ * na entrada também aceita os 11 dígitos sem pontuação. No banco é gravado como BIGINT
+ * pelo CpfConverter.
+ */
+@JsonSerialize(using = Cpf.Serializador.class)
+@JsonDeserialize(using = Cpf.Desserializador.class)
+public final class Cpf implements Comparable<Cpf> {
+    
+    /** Retorno de converter() para texto que não é um CPF válido */
+    public static final long INVALIDO = -1L;
+    
+    private static final long LIMITE = 100_000_000_000L;
+    
+    private final long numero;
+    
+    private Cpf(long numero) {
+        this.numero = numero;
+    }
+    
+    /**
+     * Converte texto formatado ou só dígitos, verificando os dígitos verificadores
+     */
+    public static Cpf de(String texto) {
+        long numero = texto != null ? converter(texto) : INVALIDO;
+        if (numero == INVALIDO) {
+            throw new IllegalArgumentException("CPF inválido: deve ter 11 dígitos válidos, no formato XXX.XXX.XXX-XX ou só números");
+        }
+        return new Cpf(numero);
+    }
+    
+    /**
+     * Reconstrói a partir da forma canônica já validada (coluna do banco, snapshot)
+     */
+    public static Cpf deNumero(long numero) {
+        if (numero < 0 || numero >= LIMITE) {
+            throw new IllegalArgumentException("CPF fora do intervalo: " + numero);
+        }
+        return new Cpf(numero);
+    }
+    
+    /**
+     * Lê o CPF numa só passada, sem alocar: aceita XXX.XXX.XXX-XX ou 11 dígitos.
+     * Retorna a forma canônica, ou INVALIDO se o formato ou os dígitos verificadores
+     * não conferirem. Sequências de um único dígito (111.111.111-11) são recusadas.
+     */
+    public static long converter(CharSequence texto) {
+        int tamanho = texto.length();
+        boolean formatado = tamanho == 14;
+        if (!formatado && tamanho != 11) {
+            return INVALIDO;
+        }
+        
+        long numero = 0;
+        int soma1 = 0;
+        int soma2 = 0;
+        int digitos = 0;
+        boolean repetido = true;
+        int primeiro = -1;
+        for (int i = 0; i < tamanho; i++) {
+            char c = texto.charAt(i);
+            if (formatado && (i == 3 || i == 7 || i == 11)) {
+                if (c != (i == 11 ? '-' : '.')) {
+                    return INVALIDO;
+                }
+                continue;
+            }
+            int d = c - '0';
+            if (d < 0 || d > 9) {
+                return INVALIDO;
+            }
+            if (primeiro < 0) {
+                primeiro = d;
+            } else if (d != primeiro) {
+                repetido = false;
+            }
+            
+            if (digitos < 9) {
+                soma1 += d * (10 - digitos);
+                soma2 += d * (11 - digitos);
+            } else if (digitos == 9) {
+                if (d != digitoVerificador(soma1)) {
+                    return INVALIDO;
+                }
+                soma2 += d * 2;
+            } else if (d != digitoVerificador(soma2)) {
+                return INVALIDO;
+            }
+            numero = numero * 10 + d;
+            digitos++;
+        }
+        return repetido ? INVALIDO : numero;
+    }
+    
+    private static int digitoVerificador(int soma) {
+        int resto = soma * 10 % 11;
+        return resto == 10 ? 0 : resto;
+    }
+    
+    public long getNumero() {
+        return numero;
+    }
+    
+    @Override
+    public int compareTo(Cpf outro) {
+        return Long.compare(numero, outro.numero);
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Cpf && ((Cpf) o).numero == numero);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Long.hashCode(numero);
+    }
+    
+    /**
+     * Texto formatado, ex.: 123.456.789-09
+     */
+    @Override
+    public String toString() {
+        char[] texto = new char[14];
+        long resto = numero;
+        for (int i = 13; i >= 0; i--) {
+            if (i == 3 || i == 7) {
+                texto[i] = '.';
+            } else if (i == 11) {
+                texto[i] = '-';
+            } else {
+                texto[i] = (char) ('0' + resto % 10);
+                resto /= 10;
+            }
+        }
+        return new String(texto);
+    }
+    
+    /**
+     * Escreve como texto formatado
+     */
+    static class Serializador extends JsonSerializer<Cpf> {
+        @Override
+        public void serialize(Cpf cpf, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeString(cpf.toString());
+        }
+    }
+    
+    /**
+     * Aceita texto formatado ou só dígitos
+     */
+    static class Desserializador extends JsonDeserializer<Cpf> {
+        @Override
+        public Cpf deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            return Cpf.de(p.getValueAsString());
+        }
+    }
+}
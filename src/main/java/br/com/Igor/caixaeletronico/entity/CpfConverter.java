@@ -0,0 +1,21 @@
+package br.com.Igor.caixaeletronico.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Grava o CPF na forma canônica numa coluna BIGINT
+ */
+@Converter(autoApply = true)
+public class CpfConverter implements AttributeConverter<Cpf, Long> {
+    
+    @Override
+    public Long convertToDatabaseColumn(Cpf cpf) {
+        return cpf != null ? cpf.getNumero() : null;
+    }
+    
+    @Override
+    public Cpf convertToEntityAttribute(Long coluna) {
+        return coluna != null ? Cpf.deNumero(coluna) : null;
+    }
+}
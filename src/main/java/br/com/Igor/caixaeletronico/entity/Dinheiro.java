@@ -0,0 +1,164 @@
+package br.com.Igor.caixaeletronico.entity;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Valor monetário em centavos (ponto fixo com duas casas decimais)
+ * 
+ * Imutável; as operações verificam estouro e lançam ArithmeticException.
+ * No JSON é um número decimal com duas casas (100.00), como o BigDecimal que substitui;
+ * no banco é gravado como DECIMAL pelo DinheiroConverter.
+ */
+@JsonSerialize(using = Dinheiro.Serializador.class)
+@JsonDeserialize(using = Dinheiro.Desserializador.class)
+public final class Dinheiro implements Comparable<Dinheiro> {
+    
+    public static final Dinheiro ZERO = new Dinheiro(0L);
+    
+    private final long centavos;
+    
+    private Dinheiro(long centavos) {
+        this.centavos = centavos;
+    }
+    
+    public static Dinheiro deCentavos(long centavos) {
+        return centavos == 0L ? ZERO : new Dinheiro(centavos);
+    }
+    
+    /**
+     * Converte um decimal com no máximo 2 casas; zeros à direita são aceitos (1.500)
+     */
+    public static Dinheiro de(BigDecimal valor) {
+        if (valor.stripTrailingZeros().scale() > 2) {
+            throw new IllegalArgumentException("Valor deve ter no máximo 2 casas decimais");
+        }
+        try {
+            return deCentavos(valor.movePointRight(2).longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Valor excede o limite permitido");
+        }
+    }
+    
+    /**
+     * Converte um double arredondando para o centavo mais próximo
+     */
+    public static Dinheiro de(double valor) {
+        double centavos = Math.rint(valor * 100);
+        if (Double.isNaN(centavos) || Math.abs(centavos) >= 0x1p63) {
+            throw new IllegalArgumentException("Valor inválido: " + valor);
+        }
+        return deCentavos((long) centavos);
+    }
+    
+    public long getCentavos() {
+        return centavos;
+    }
+    
+    public Dinheiro somar(Dinheiro outro) {
+        return deCentavos(Math.addExact(centavos, outro.centavos));
+    }
+    
+    public Dinheiro subtrair(Dinheiro outro) {
+        return deCentavos(Math.subtractExact(centavos, outro.centavos));
+    }
+    
+    public Dinheiro negar() {
+        return deCentavos(Math.negateExact(centavos));
+    }
+    
+    public boolean isPositivo() {
+        return centavos > 0;
+    }
+    
+    public boolean isZero() {
+        return centavos == 0;
+    }
+    
+    public boolean menorQue(Dinheiro outro) {
+        return centavos < outro.centavos;
+    }
+    
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+    
+    @Override
+    public int compareTo(Dinheiro outro) {
+        return Long.compare(centavos, outro.centavos);
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Dinheiro && ((Dinheiro) o).centavos == centavos);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centavos);
+    }
+    
+    /**
+     * Representação decimal com duas casas, ex.: 70.00, -0.50
+     */
+    @Override
+    public String toString() {
+        if (centavos == Long.MIN_VALUE) {
+            // Sem valor absoluto representável em long
+            return toBigDecimal().toPlainString();
+        }
+        
+        long absoluto = Math.abs(centavos);
+        int resto = (int) (absoluto % 100);
+        StringBuilder sb = new StringBuilder(24);
+        if (centavos < 0) {
+            sb.append('-');
+        }
+        sb.append(absoluto / 100).append('.');
+        if (resto < 10) {
+            sb.append('0');
+        }
+        return sb.append(resto).toString();
+    }
+    
+    /**
+     * Escreve como número JSON, sem aspas
+     * Nos formatos binários (CBOR, Smile), que não aceitam o número já formatado, vai como decimal com duas casas.
+     */
+    public static class Serializador extends JsonSerializer<Dinheiro> {
+        @Override
+        public void serialize(Dinheiro valor, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            escrever(valor, gen);
+        }
+        
+        public static void escrever(Dinheiro valor, JsonGenerator gen) throws IOException {
+            if (gen.canWriteFormattedNumbers()) {
+                gen.writeNumber(valor.toString());
+            } else {
+                gen.writeNumber(valor.toBigDecimal());
+            }
+        }
+    }
+    
+    /**
+     * Aceita número ou texto decimal, com no máximo duas casas
+     */
+    static class Desserializador extends JsonDeserializer<Dinheiro> {
+        @Override
+        public Dinheiro deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            BigDecimal valor = p.currentToken().isNumeric()
+                    ? p.getDecimalValue()
+                    : new BigDecimal(p.getValueAsString().trim());
+            return Dinheiro.de(valor);
+        }
+    }
+}
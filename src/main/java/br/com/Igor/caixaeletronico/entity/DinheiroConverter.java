@@ -0,0 +1,23 @@
+package br.com.Igor.caixaeletronico.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Grava Dinheiro na coluna DECIMAL com duas casas já existente
+ */
+@Converter(autoApply = true)
+public class DinheiroConverter implements AttributeConverter<Dinheiro, BigDecimal> {
+    
+    @Override
+    public BigDecimal convertToDatabaseColumn(Dinheiro valor) {
+        return valor != null ? valor.toBigDecimal() : null;
+    }
+    
+    @Override
+    public Dinheiro convertToEntityAttribute(BigDecimal coluna) {
+        return coluna != null ? Dinheiro.de(coluna) : null;
+    }
+}
@@ -0,0 +1,31 @@
+package br.com.Igor.caixaeletronico.entity;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.constraints.DecimalMin;
+
+import java.math.BigDecimal;
+
+/**
+ * Permite usar @DecimalMin em campos Dinheiro
+ * Registrado no Hibernate Validator via META-INF/services/jakarta.validation.ConstraintValidator
+ */
+public class DinheiroDecimalMinValidator implements ConstraintValidator<DecimalMin, Dinheiro> {
+    
+    private long minimoCentavos;
+    private boolean inclusivo;
+    
+    @Override
+    public void initialize(DecimalMin anotacao) {
+        this.minimoCentavos = new BigDecimal(anotacao.value()).movePointRight(2).longValueExact();
+        this.inclusivo = anotacao.inclusive();
+    }
+    
+    @Override
+    public boolean isValid(Dinheiro valor, ConstraintValidatorContext context) {
+        if (valor == null) {
+            return true;
+        }
+        return inclusivo ? valor.getCentavos() >= minimoCentavos : valor.getCentavos() > minimoCentavos;
+    }
+}
@@ -0,0 +1,76 @@
+package br.com.Igor.caixaeletronico.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Lançamento do extrato (ledger) - registro imutável de cada depósito e saque
+ * As linhas são inseridas em lote pelo GravadorMovimentacoes, nunca alteradas
+ */
+@Entity
+@Table(name = "movimentacoes", indexes = @Index(name = "idx_movimentacoes_conta", columnList = "numero_conta"))
+public class Movimentacao {
+    
+    public enum Tipo {
+        DEPOSITO,
+        SAQUE
+    }
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+    
+    // Sem chave estrangeira: o histórico permanece mesmo após a exclusão da conta
+    @Column(name = "numero_conta", nullable = false)
+    private Integer numeroConta;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false, length = 10)
+    private Tipo tipo;
+    
+    @Column(name = "valor", nullable = false, precision = 10, scale = 2)
+    private Dinheiro valor;
+    
+    @Column(name = "saldo_resultante", nullable = false, precision = 10, scale = 2)
+    private Dinheiro saldoResultante;
+    
+    @Column(name = "data_hora", nullable = false)
+    private LocalDateTime dataHora;
+    
+    // Construtor padrão necessário para JPA
+    public Movimentacao() {}
+    
+    public Movimentacao(Integer numeroConta, Tipo tipo, Dinheiro valor, Dinheiro saldoResultante) {
+        this.numeroConta = numeroConta;
+        this.tipo = tipo;
+        this.valor = valor;
+        this.saldoResultante = saldoResultante;
+        this.dataHora = LocalDateTime.now();
+    }
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public Integer getNumeroConta() {
+        return numeroConta;
+    }
+    
+    public Tipo getTipo() {
+        return tipo;
+    }
+    
+    public Dinheiro getValor() {
+        return valor;
+    }
+    
+    public Dinheiro getSaldoResultante() {
+        return saldoResultante;
+    }
+    
+    public LocalDateTime getDataHora() {
+        return dataHora;
+    }
+}
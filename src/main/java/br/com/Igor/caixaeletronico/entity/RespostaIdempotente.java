@@ -0,0 +1,89 @@
+package br.com.Igor.caixaeletronico.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+import java.time.LocalDateTime;
+
+/**
+ * Primeira resposta de uma requisição com Idempotency-Key, repetida nas novas tentativas
+ * impressao identifica a requisição original (método, caminho e hash do corpo): a mesma chave
+ * com outra requisição não é repetida
+ * 
+ * Sempre nova para o save(): a chave é atribuída, e sem isso cada gravação faria um SELECT antes do INSERT
+ */
+@Entity
+@Table(name = "respostas_idempotentes", indexes = @Index(name = "idx_respostas_idempotentes_expiracao", columnList = "expira_em"))
+public class RespostaIdempotente implements Persistable<String> {
+    
+    @Id
+    @Column(name = "chave", length = 255)
+    private String chave;
+    
+    @Column(name = "impressao", nullable = false, length = 64)
+    private String impressao;
+    
+    @Column(name = "status", nullable = false)
+    private int status;
+    
+    @Column(name = "tipo_conteudo", length = 100)
+    private String tipoConteudo;
+    
+    @Lob
+    @Column(name = "corpo", nullable = false)
+    private byte[] corpo;
+    
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+    
+    // Construtor padrão necessário para JPA
+    public RespostaIdempotente() {}
+    
+    public RespostaIdempotente(String chave, String impressao, int status, String tipoConteudo,
+                               byte[] corpo, LocalDateTime expiraEm) {
+        this.chave = chave;
+        this.impressao = impressao;
+        this.status = status;
+        this.tipoConteudo = tipoConteudo;
+        this.corpo = corpo;
+        this.expiraEm = expiraEm;
+    }
+    
+    public boolean expirada(LocalDateTime agora) {
+        return !expiraEm.isAfter(agora);
+    }
+    
+    @Override
+    public String getId() {
+        return chave;
+    }
+    
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+    
+    // Getters
+    public String getChave() {
+        return chave;
+    }
+    
+    public String getImpressao() {
+        return impressao;
+    }
+    
+    public int getStatus() {
+        return status;
+    }
+    
+    public String getTipoConteudo() {
+        return tipoConteudo;
+    }
+    
+    public byte[] getCorpo() {
+        return corpo;
+    }
+    
+    public LocalDateTime getExpiraEm() {
+        return expiraEm;
+    }
+}
@@ -0,0 +1,40 @@
+package br.com.Igor.caixaeletronico.event;
+
+import br.com.Igor.caixaeletronico.entity.Cpf;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+
+/**
+ * Publicado na criação de uma conta
+ * Os listeners recebem o evento somente após o commit da transação
+ */
+public class ContaCriadaEvent {
+    
+    private final Integer numero;
+    private final String titularNome;
+    private final Cpf titularCpf;
+    private final Dinheiro saldo;
+    
+    public ContaCriadaEvent(Integer numero, String titularNome, Cpf titularCpf, Dinheiro saldo) {
+        this.numero = numero;
+        this.titularNome = titularNome;
+        this.titularCpf = titularCpf;
+        this.saldo = saldo;
+    }
+    
+    // Getters
+    public Integer getNumero() {
+        return numero;
+    }
+    
+    public String getTitularNome() {
+        return titularNome;
+    }
+    
+    public Cpf getTitularCpf() {
+        return titularCpf;
+    }
+    
+    public Dinheiro getSaldo() {
+        return saldo;
+    }
+}
@@ -0,0 +1,37 @@
+package br.com.Igor.caixaeletronico.event;
+
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+
+/**
+ * Publicado em cada depósito ou saque; no lote de operações, uma vez por conta com a variação líquida
+ * variacao é positiva no depósito e negativa no saque; saldoAtual já inclui a variação
+ */
+public class SaldoAlteradoEvent {
+    
+    private final Integer numero;
+    private final Dinheiro variacao;
+    private final Dinheiro saldoAtual;
+    
+    public SaldoAlteradoEvent(Integer numero, Dinheiro variacao, Dinheiro saldoAtual) {
+        this.numero = numero;
+        this.variacao = variacao;
+        this.saldoAtual = saldoAtual;
+    }
+    
+    // Getters
+    public Integer getNumero() {
+        return numero;
+    }
+    
+    public Dinheiro getVariacao() {
+        return variacao;
+    }
+    
+    public Dinheiro getSaldoAtual() {
+        return saldoAtual;
+    }
+    
+    public Dinheiro getSaldoAnterior() {
+        return saldoAtual.subtrair(variacao);
+    }
+}
@@ -0,0 +1,46 @@
+package br.com.Igor.caixaeletronico.event;
+
+import br.com.Igor.caixaeletronico.entity.Cpf;
+
+/**
+ * Publicado na troca dos dados do titular de uma conta (com os dados anteriores)
+ * Os listeners recebem o evento somente após o commit da transação
+ */
+public class TitularAlteradoEvent {
+    
+    private final Integer numero;
+    private final String titularNomeAnterior;
+    private final Cpf titularCpfAnterior;
+    private final String titularNome;
+    private final Cpf titularCpf;
+    
+    public TitularAlteradoEvent(Integer numero, String titularNomeAnterior, Cpf titularCpfAnterior,
+                                String titularNome, Cpf titularCpf) {
+        this.numero = numero;
+        this.titularNomeAnterior = titularNomeAnterior;
+        this.titularCpfAnterior = titularCpfAnterior;
+        this.titularNome = titularNome;
+        this.titularCpf = titularCpf;
+    }
+    
+    // Getters
+    public Integer getNumero() {
+        return numero;
+    }
+    
+    public String getTitularNomeAnterior() {
+        return titularNomeAnterior;
+    }
+    
+    public Cpf getTitularCpfAnterior() {
+        return titularCpfAnterior;
+    }
+    
+    public String getTitularNome() {
+        return titularNome;
+    }
+    
+    public Cpf getTitularCpf() {
+        return titularCpf;
+    }
+}
@@ -1,10 +1,14 @@
 package br.com.Igor.caixaeletronico.exception;
 
 import br.com.Igor.caixaeletronico.dto.ApiResponseDTO;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -47,6 +51,40 @@ public class GlobalExceptionHandler {
                 .body(ApiResponseDTO.erro(ex.getMessage()));
     }
     
+    /**
+     * Trata conflito de concorrência que esgotou as novas tentativas
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiResponseDTO<Object>> handleConflitoConcorrencia(OptimisticLockingFailureException ex) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ApiResponseDTO.erro("Conta alterada concorrentemente, tente novamente"));
+    }
+    
+    /**
+     * Trata If-Match que não confere com a versão atual da conta
+     * A resposta leva o ETag atual, para o cliente reler a conta antes de tentar de novo
+     */
+    @ExceptionHandler(VersaoDivergenteException.class)
+    public ResponseEntity<ApiResponseDTO<Object>> handleVersaoDivergente(VersaoDivergenteException ex) {
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.status(HttpStatus.PRECONDITION_FAILED);
+        if (ex.getVersaoAtual() != null) {
+            resposta.eTag("W/\"" + ex.getVersaoAtual() + "\"");
+        }
+        return resposta.body(ApiResponseDTO.erro(ex.getMessage()));
+    }
+    
+    /**
+     * Trata violação de chave primária ou CPF único no INSERT/UPDATE
+     * (cadastro concorrente que passou pela verificação prévia)
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ApiResponseDTO<Object>> handleViolacaoIntegridade(DataIntegrityViolationException ex) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ApiResponseDTO.erro("Número de conta ou CPF já cadastrado"));
+    }
+    
     /**
      * Trata erros de validação
      */
@@ -65,6 +103,30 @@ public class GlobalExceptionHandler {
                 .body(ApiResponseDTO.erro("Dados inválidos", errors));
     }
     
+    /**
+     * Trata corpo de requisição ilegível (JSON malformado ou valor monetário inválido)
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ApiResponseDTO<Object>> handleCorpoInvalido(HttpMessageNotReadableException ex) {
+        Throwable causa = ex.getMostSpecificCause();
+        String mensagem = causa instanceof IllegalArgumentException
+                ? causa.getMessage()
+                : "Corpo da requisição inválido";
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.erro(mensagem));
+    }
+    
+    /**
+     * Trata parâmetro obrigatório ausente na URL
+     */
+    @ExceptionHandler(MissingServletRequestParameterException.class)
+    public ResponseEntity<ApiResponseDTO<Object>> handleParametroAusente(MissingServletRequestParameterException ex) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponseDTO.erro("Parâmetro obrigatório ausente: " + ex.getParameterName()));
+    }
+    
     /**
      * Trata exceções genéricas
      */
@@ -0,0 +1,21 @@
+package br.com.Igor.caixaeletronico.exception;
+
+/**
+ * Exceção lançada quando a versão atual da conta não é nenhuma das informadas no If-Match
+ */
+public class VersaoDivergenteException extends RuntimeException {
+    
+    private final Long versaoAtual;
+    
+    public VersaoDivergenteException(Integer numero, Long versaoAtual) {
+        super("Conta alterada desde a versão informada: " + numero);
+        this.versaoAtual = versaoAtual;
+    }
+    
+    /**
+     * Versão atual da conta; null quando o motor não versiona as contas
+     */
+    public Long getVersaoAtual() {
+        return versaoAtual;
+    }
+}
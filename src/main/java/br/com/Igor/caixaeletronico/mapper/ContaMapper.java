@@ -3,10 +3,15 @@ package br.com.Igor.caixaeletronico.mapper;
 import br.com.Igor.caixaeletronico.dto.ClienteDTO;
 import br.com.Igor.caixaeletronico.dto.ContaRequestDTO;
 import br.com.Igor.caixaeletronico.dto.ContaResponseDTO;
+import br.com.Igor.caixaeletronico.dto.PaginaDTO;
 import br.com.Igor.caixaeletronico.entity.Cliente;
 import br.com.Igor.caixaeletronico.entity.Conta;
+import br.com.Igor.caixaeletronico.repository.ContaResumo;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Mapper para conversão entre Entities e DTOs
  */
@@ -37,12 +42,43 @@ public class ContaMapper {
     public ContaResponseDTO toContaResponseDTO(Conta conta) {
         if (conta == null) return null;
         
-        return new ContaResponseDTO(
+        ContaResponseDTO dto = new ContaResponseDTO(
             conta.getNumero(),
             toClienteDTO(conta.getTitular()),
             conta.getSaldo(),
             conta.getDataCriacao()
         );
+        dto.setVersao(conta.getVersao());
+        return dto;
+    }
+    
+    /**
+     * Converte a projeção ContaResumo para ContaResponseDTO
+     */
+    public ContaResponseDTO toContaResponseDTO(ContaResumo resumo) {
+        if (resumo == null) return null;
+        
+        return new ContaResponseDTO(
+            resumo.getNumero(),
+            new ClienteDTO(resumo.getTitularNome(), resumo.getTitularCpf()),
+            resumo.getSaldo(),
+            resumo.getDataCriacao()
+        );
+    }
+    
+    /**
+     * Monta a página a partir de uma consulta feita com tamanho + 1 linhas:
+     * a linha excedente só indica que existe próxima página
+     */
+    public PaginaDTO<ContaResponseDTO> toPagina(List<ContaResumo> resumos, int tamanho) {
+        int quantidade = Math.min(resumos.size(), tamanho);
+        List<ContaResponseDTO> itens = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            itens.add(toContaResponseDTO(resumos.get(i)));
+        }
+        
+        Integer proximoCursor = resumos.size() > tamanho ? itens.get(quantidade - 1).getNumero() : null;
+        return new PaginaDTO<>(itens, proximoCursor);
     }
     
     /**
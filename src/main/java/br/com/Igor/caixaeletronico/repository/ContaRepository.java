@@ -1,14 +1,25 @@
 package br.com.Igor.caixaeletronico.repository;
 
 import br.com.Igor.caixaeletronico.entity.Conta;
+import br.com.Igor.caixaeletronico.entity.Cpf;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository para operações de banco de dados da entidade Conta
@@ -17,33 +28,71 @@ import java.util.Optional;
 @Repository
 public interface ContaRepository extends JpaRepository<Conta, Integer> {
     
+    /**
+     * Página de contas em ordem de número, a partir do cursor (keyset pagination)
+     * Usa o índice da chave primária em vez de OFFSET, então o custo não cresce com a página
+     */
+    @Query("SELECT new br.com.Igor.caixaeletronico.repository.ContaResumo(" +
+           "c.numero, c.titular.nome, c.titular.cpf, c.saldo, c.dataCriacao) " +
+           "FROM Conta c WHERE c.numero > :apos ORDER BY c.numero")
+    List<ContaResumo> listarResumosApos(@Param("apos") Integer apos, Pageable pagina);
+    
+    /**
+     * Resumos das contas informadas, em qualquer ordem (contas inexistentes são omitidas)
+     */
+    @Query("SELECT new br.com.Igor.caixaeletronico.repository.ContaResumo(" +
+           "c.numero, c.titular.nome, c.titular.cpf, c.saldo, c.dataCriacao) " +
+           "FROM Conta c WHERE c.numero IN :numeros")
+    List<ContaResumo> listarResumos(@Param("numeros") Collection<Integer> numeros);
+    
+    /**
+     * Todas as contas em ordem de número, lidas sob demanda por um cursor JDBC
+     * Deve ser consumido dentro de uma transação e fechado ao final (try-with-resources)
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new br.com.Igor.caixaeletronico.repository.ContaResumo(" +
+           "c.numero, c.titular.nome, c.titular.cpf, c.saldo, c.dataCriacao) " +
+           "FROM Conta c ORDER BY c.numero")
+    Stream<ContaResumo> streamResumos();
+    
+    /**
+     * Lê apenas o saldo e a versão da conta, sem carregar a entidade
+     */
+    @Query("SELECT new br.com.Igor.caixaeletronico.repository.SaldoVersionado(c.saldo, c.versao) " +
+           "FROM Conta c WHERE c.numero = :numero")
+    Optional<SaldoVersionado> buscarSaldo(@Param("numero") Integer numero);
+    
     /**
      * Busca conta pelo CPF do titular
-     * Método automático do Spring Data JPA baseado no nome
+     * Método automático do Spring Data JPA baseado no nome; compara a coluna numérica indexada
      */
-    Optional<Conta> findByTitularCpf(String cpf);
+    Optional<Conta> findByTitularCpf(Cpf cpf);
     
     /**
      * Busca contas por nome do titular (busca parcial, ignorando case)
+     * Varre a tabela inteira; a API v3 busca pelo índice de nomes (BuscaTitulares)
      */
     List<Conta> findByTitularNomeContainingIgnoreCase(String nome);
     
     /**
      * Busca contas com saldo maior que um valor específico
      */
-    List<Conta> findBySaldoGreaterThan(BigDecimal saldo);
+    List<Conta> findBySaldoGreaterThan(Dinheiro saldo);
     
     /**
      * Busca contas com saldo menor que um valor específico
      */
-    List<Conta> findBySaldoLessThan(BigDecimal saldo);
+    List<Conta> findBySaldoLessThan(Dinheiro saldo);
     
     /**
      * Query customizada usando JPQL para buscar contas por faixa de saldo
      */
     @Query("SELECT c FROM Conta c WHERE c.saldo BETWEEN :saldoMin AND :saldoMax")
-    List<Conta> findContasPorFaixaSaldo(@Param("saldoMin") BigDecimal saldoMin, 
-                                       @Param("saldoMax") BigDecimal saldoMax);
+    List<Conta> findContasPorFaixaSaldo(@Param("saldoMin") Dinheiro saldoMin, 
+                                       @Param("saldoMax") Dinheiro saldoMax);
     
     /**
      * Query nativa SQL para estatísticas
@@ -51,6 +100,15 @@ public interface ContaRepository extends JpaRepository<Conta, Integer> {
     @Query(value = "SELECT COUNT(*) FROM contas WHERE saldo > 0", nativeQuery = true)
     Long countContasComSaldo();
     
+    /**
+     * Agregado SQL de quantidade, contas com saldo e soma dos saldos (varre a tabela inteira)
+     * O saldo é convertido para BigDecimal porque o Hibernate não agrega atributos com AttributeConverter
+     */
+    @Query("SELECT new br.com.Igor.caixaeletronico.repository.TotaisContas(" +
+           "COUNT(c), SUM(CASE WHEN CAST(c.saldo AS BigDecimal) > 0 THEN 1L ELSE 0L END), " +
+           "SUM(CAST(c.saldo AS BigDecimal))) FROM Conta c")
+    TotaisContas calcularTotais();
+    
     /**
      * Verifica se existe conta com determinado número
      */
@@ -59,5 +117,75 @@ public interface ContaRepository extends JpaRepository<Conta, Integer> {
     /**
      * Verifica se existe conta com determinado CPF
      */
-    boolean existsByTitularCpf(String cpf);
+    boolean existsByTitularCpf(Cpf cpf);
+    
+    /**
+     * Quais dos números já têm conta (verificação de duplicidade de um lote numa só consulta)
+     */
+    @Query("SELECT c.numero FROM Conta c WHERE c.numero IN :numeros")
+    List<Integer> listarNumerosExistentes(@Param("numeros") Collection<Integer> numeros);
+    
+    /**
+     * Quais dos CPFs já têm conta (verificação de duplicidade de um lote numa só consulta)
+     */
+    @Query("SELECT c.titular.cpf FROM Conta c WHERE c.titular.cpf IN :cpfs")
+    List<Cpf> listarCpfsExistentes(@Param("cpfs") Collection<Cpf> cpfs);
+    
+    /**
+     * Debita o valor de forma atômica, apenas se houver saldo suficiente, e devolve a conta já alterada
+     * Vazio = conta inexistente ou saldo insuficiente. O UPDATE e a leitura são um comando só
+     * (FINAL TABLE do H2); a conta não pode estar no contexto de persistência, senão volta a instância antiga.
+     * SQL nativo: o Hibernate não resolve aritmética sobre atributos com AttributeConverter (Dinheiro)
+     */
+    @Query(value = "SELECT * FROM FINAL TABLE (UPDATE contas SET saldo = saldo - :valor, versao = versao + 1 "
+                 + "WHERE numero = :numero AND saldo >= :valor)",
+           nativeQuery = true)
+    Optional<Conta> debitarSeSaldoSuficiente(@Param("numero") Integer numero, @Param("valor") BigDecimal valor);
+    
+    /**
+     * Credita o valor de forma atômica e devolve a conta já alterada (vazio = conta inexistente)
+     * Mesmo cuidado de debitarSeSaldoSuficiente com o contexto de persistência
+     */
+    @Query(value = "SELECT * FROM FINAL TABLE (UPDATE contas SET saldo = saldo + :valor, versao = versao + 1 "
+                 + "WHERE numero = :numero)",
+           nativeQuery = true)
+    Optional<Conta> creditar(@Param("numero") Integer numero, @Param("valor") BigDecimal valor);
+    
+    /**
+     * Exclui a conta e devolve a linha excluída, num comando só (OLD TABLE do H2); vazio = conta inexistente
+     */
+    @Query(value = "SELECT * FROM OLD TABLE (DELETE FROM contas WHERE numero = :numero)", nativeQuery = true)
+    Optional<Conta> excluir(@Param("numero") Integer numero);
+    
+    /**
+     * Exclui a conta só se o saldo não for positivo e devolve a linha excluída
+     * Vazio = conta inexistente ou com saldo positivo
+     */
+    @Query(value = "SELECT * FROM OLD TABLE (DELETE FROM contas WHERE numero = :numero AND saldo <= 0)", nativeQuery = true)
+    Optional<Conta> excluirSemSaldo(@Param("numero") Integer numero);
+    
+    /**
+     * Grava o novo saldo somente se a versão lida ainda for a atual (compare-and-set)
+     * Retorna 0 quando outra transação alterou a conta nesse meio tempo
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Conta c SET c.saldo = :novoSaldo, c.versao = c.versao + 1 WHERE c.numero = :numero AND c.versao = :versao")
+    int atualizarSaldoSeVersao(@Param("numero") Integer numero, 
+                               @Param("novoSaldo") Dinheiro novoSaldo, 
+                               @Param("versao") Long versao);
+    
+    /**
+     * Busca a conta bloqueando a linha até o fim da transação (SELECT ... FOR UPDATE)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Conta c WHERE c.numero = :numero")
+    Optional<Conta> buscarParaAtualizacao(@Param("numero") Integer numero);
+    
+    /**
+     * Busca as contas bloqueando as linhas até o fim da transação, em ordem de número:
+     * transações que bloqueiam várias contas assim nunca esperam umas pelas outras em ciclo
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Conta c WHERE c.numero IN :numeros ORDER BY c.numero")
+    List<Conta> buscarParaAtualizacao(@Param("numeros") Collection<Integer> numeros);
 }
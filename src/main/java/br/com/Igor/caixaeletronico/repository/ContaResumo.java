@@ -0,0 +1,48 @@
+package br.com.Igor.caixaeletronico.repository;
+
+import br.com.Igor.caixaeletronico.entity.Cpf;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import java.time.LocalDateTime;
+
+/**
+ * Projeção somente leitura da conta para listagens
+ * Preenchida direto pela consulta (SELECT new ...), sem entidade gerenciada nem dirty checking
+ */
+public class ContaResumo {
+    
+    private final Integer numero;
+    private final String titularNome;
+    private final Cpf titularCpf;
+    private final Dinheiro saldo;
+    private final LocalDateTime dataCriacao;
+    
+    public ContaResumo(Integer numero, String titularNome, Cpf titularCpf, 
+                       Dinheiro saldo, LocalDateTime dataCriacao) {
+        this.numero = numero;
+        this.titularNome = titularNome;
+        this.titularCpf = titularCpf;
+        this.saldo = saldo;
+        this.dataCriacao = dataCriacao;
+    }
+    
+    // Getters
+    public Integer getNumero() {
+        return numero;
+    }
+    
+    public String getTitularNome() {
+        return titularNome;
+    }
+    
+    public Cpf getTitularCpf() {
+        return titularCpf;
+    }
+    
+    public Dinheiro getSaldo() {
+        return saldo;
+    }
+    
+    public LocalDateTime getDataCriacao() {
+        return dataCriacao;
+    }
+}
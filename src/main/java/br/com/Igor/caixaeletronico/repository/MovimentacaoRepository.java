@@ -0,0 +1,23 @@
+package br.com.Igor.caixaeletronico.repository;
+
+import br.com.Igor.caixaeletronico.entity.Movimentacao;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository de leitura do extrato
+ * A gravação é feita em lote pelo GravadorMovimentacoes, via JDBC
+ */
+@Repository
+public interface MovimentacaoRepository extends JpaRepository<Movimentacao, Long> {
+    
+    /**
+     * Números das contas com mais movimentações, da mais ativa para a menos ativa
+     */
+    @Query("SELECT m.numeroConta FROM Movimentacao m GROUP BY m.numeroConta ORDER BY COUNT(m) DESC")
+    List<Integer> findContasMaisMovimentadas(Pageable pagina);
+}
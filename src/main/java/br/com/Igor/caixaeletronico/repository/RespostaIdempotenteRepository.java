@@ -0,0 +1,30 @@
+package br.com.Igor.caixaeletronico.repository;
+
+import br.com.Igor.caixaeletronico.entity.RespostaIdempotente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Respostas guardadas pelo RegistroIdempotencia
+ */
+@Repository
+public interface RespostaIdempotenteRepository extends JpaRepository<RespostaIdempotente, String> {
+    
+    /**
+     * Chaves ainda válidas, para montar o filtro de chaves conhecidas
+     */
+    @Query("SELECT r.chave FROM RespostaIdempotente r WHERE r.expiraEm > :agora")
+    Stream<String> streamChavesValidas(@Param("agora") LocalDateTime agora);
+    
+    long countByExpiraEmAfter(LocalDateTime agora);
+    
+    @Modifying
+    @Query("DELETE FROM RespostaIdempotente r WHERE r.expiraEm <= :agora")
+    int excluirExpiradas(@Param("agora") LocalDateTime agora);
+}
@@ -0,0 +1,30 @@
+package br.com.Igor.caixaeletronico.repository;
+
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+
+/**
+ * Saldo da conta com a versão da linha (Conta.versao), lidos juntos numa só consulta
+ * A versão muda a cada alteração da conta; a API v3 a publica como ETag
+ */
+public class SaldoVersionado {
+    
+    private final Dinheiro saldo;
+    private final Long versao;
+    
+    public SaldoVersionado(Dinheiro saldo, Long versao) {
+        this.saldo = saldo;
+        this.versao = versao;
+    }
+    
+    // Getters
+    public Dinheiro getSaldo() {
+        return saldo;
+    }
+    
+    /**
+     * Versão da conta; null quando o motor não versiona as contas (profile "memoria")
+     */
+    public Long getVersao() {
+        return versao;
+    }
+}
@@ -0,0 +1,59 @@
+package br.com.Igor.caixaeletronico.repository;
+
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+
+import java.math.BigDecimal;
+
+/**
+ * Totais agregados das contas (quantidade, contas com saldo positivo e soma dos saldos)
+ */
+public class TotaisContas {
+    
+    private final long totalContas;
+    private final long contasComSaldo;
+    private final Dinheiro saldoTotal;
+    
+    /**
+     * Usado pelo agregado JPQL, em que a soma dos saldos chega como BigDecimal
+     */
+    public TotaisContas(Long totalContas, Long contasComSaldo, BigDecimal saldoTotal) {
+        this(totalContas, contasComSaldo, saldoTotal != null ? Dinheiro.de(saldoTotal) : null);
+    }
+    
+    public TotaisContas(Long totalContas, Long contasComSaldo, Dinheiro saldoTotal) {
+        this.totalContas = totalContas != null ? totalContas : 0L;
+        this.contasComSaldo = contasComSaldo != null ? contasComSaldo : 0L;
+        this.saldoTotal = saldoTotal != null ? saldoTotal : Dinheiro.ZERO;
+    }
+    
+    // Getters
+    public long getTotalContas() {
+        return totalContas;
+    }
+    
+    public long getContasComSaldo() {
+        return contasComSaldo;
+    }
+    
+    public Dinheiro getSaldoTotal() {
+        return saldoTotal;
+    }
+    
+    /**
+     * Compara os totais
+     */
+    public boolean mesmosValores(TotaisContas outros) {
+        return totalContas == outros.totalContas
+                && contasComSaldo == outros.contasComSaldo
+                && saldoTotal.equals(outros.saldoTotal);
+    }
+    
+    @Override
+    public String toString() {
+        return "TotaisContas{" +
+                "totalContas=" + totalContas +
+                ", contasComSaldo=" + contasComSaldo +
+                ", saldoTotal=" + saldoTotal +
+                '}';
+    }
+}
@@ -0,0 +1,229 @@
+package br.com.Igor.caixaeletronico.service;
+
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.event.ContaCriadaEvent;
+import br.com.Igor.caixaeletronico.event.ContaExcluidaEvent;
+import br.com.Igor.caixaeletronico.event.SaldoAlteradoEvent;
+import br.com.Igor.caixaeletronico.event.TitularAlteradoEvent;
+import br.com.Igor.caixaeletronico.repository.ContaRepository;
+import br.com.Igor.caixaeletronico.repository.MovimentacaoRepository;
+import br.com.Igor.caixaeletronico.repository.SaldoVersionado;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cache read-through dos saldos, com a versão da conta, limitado por tamanho e por tempo de vida
+ * 
+ * Toda alteração de saldo ou de titular e toda exclusão de conta marca a listra da conta como
+ * em escrita assim que o evento é publicado, ainda dentro da transação e com o lock da linha,
+ * e invalida a entrada; a marca só sai no afterCompletion, com uma nova invalidação. Enquanto
+ * a listra está marcada, as consultas vão ao banco e não gravam no cache: entre o commit e o
+ * afterCompletion ninguém recebe o saldo anterior. A carga lê o banco fora de qualquer lock
+ * do cache e só grava o valor se a listra não está em escrita e nenhuma invalidação dela
+ * aconteceu desde o início da leitura, então um saldo anterior ao commit não fica no cache.
+ * 
+ * A leitura não pode acontecer dentro do cálculo atômico do Caffeine: ela espera uma
+ * conexão do pool segurando o lock da chave, e as conexões estão com as transações que,
+ * após o commit, esperam esse mesmo lock para invalidar a chave.
+ * 
+ * Acertos, faltas, remoções e tamanho vão para o Micrometer (cache.gets, cache.evictions,
+ * cache.size, com a tag cache=saldos), registrados pelo Spring Boot como qualquer MeterBinder.
+ */
+@Component
+public class CacheSaldos implements MeterBinder {
+    
+    private static final Logger log = LoggerFactory.getLogger(CacheSaldos.class);
+    private static final int LISTRAS = 1024;
+    
+    private final ContaRepository contaRepository;
+    private final MovimentacaoRepository movimentacaoRepository;
+    private final int contasAquecimento;
+    private final Cache<Integer, SaldoVersionado> saldos;
+    // Contador de invalidações por listra de contas; uma carga só grava se o da sua listra não mudou
+    private final AtomicLongArray geracoes = new AtomicLongArray(LISTRAS);
+    // Transações com escrita ainda não concluída por listra; com alguma, o cache da listra não é usado
+    private final AtomicIntegerArray escritas = new AtomicIntegerArray(LISTRAS);
+    
+    public CacheSaldos(
+            ContaRepository contaRepository,
+            MovimentacaoRepository movimentacaoRepository,
+            @Value("${caixaeletronico.cache-saldos.tamanho-maximo:100000}") long tamanhoMaximo,
+            @Value("${caixaeletronico.cache-saldos.ttl-segundos:60}") long ttlSegundos,
+            @Value("${caixaeletronico.cache-saldos.aquecimento:1000}") int contasAquecimento) {
+        this.contaRepository = contaRepository;
+        this.movimentacaoRepository = movimentacaoRepository;
+        this.contasAquecimento = contasAquecimento;
+        this.saldos = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .recordStats()
+                .build();
+    }
+    
+    /**
+     * Saldo da conta, lido do banco apenas quando não está no cache
+     * Conta inexistente não é armazenada
+     */
+    public Optional<Dinheiro> consultar(Integer numero) {
+        return consultarVersionado(numero).map(SaldoVersionado::getSaldo);
+    }
+    
+    /**
+     * Saldo e versão da conta, lidos do banco apenas quando não estão no cache
+     * Como toda alteração da conta invalida a entrada, a versão em cache é a atual:
+     * basta para responder a um GET condicional sem carregar a entidade
+     */
+    public Optional<SaldoVersionado> consultarVersionado(Integer numero) {
+        int listra = listra(numero);
+        if (escritas.get(listra) == 0) {
+            SaldoVersionado emCache = saldos.getIfPresent(numero);
+            if (emCache != null) {
+                return Optional.of(emCache);
+            }
+        }
+        
+        long geracao = geracoes.get(listra);
+        Optional<SaldoVersionado> lido = contaRepository.buscarSaldo(numero);
+        lido.ifPresent(saldo -> saldos.asMap().compute(numero, (n, atual) -> atual == null
+                && escritas.get(listra) == 0 && geracoes.get(listra) == geracao ? saldo : atual));
+        return lido;
+    }
+    
+    /**
+     * Saldo da conta só se já estiver no cache, sem ler o banco
+     * Usado pela API v4, que lê o banco sem bloquear e não grava o valor lido no cache
+     */
+    public Optional<Dinheiro> emCache(Integer numero) {
+        if (escritas.get(listra(numero)) > 0) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(saldos.getIfPresent(numero)).map(SaldoVersionado::getSaldo);
+    }
+    
+    /**
+     * Marca a conta como em escrita, para quem altera o banco fora das transações do Spring (API v4):
+     * chamado antes da transação, com concluirEscrita() obrigatório depois dela, com ou sem commit
+     */
+    public void iniciarEscrita(Integer numero) {
+        escritas.incrementAndGet(listra(numero));
+        invalidar(numero);
+    }
+    
+    public void concluirEscrita(Integer numero) {
+        invalidar(numero);
+        escritas.decrementAndGet(listra(numero));
+    }
+    
+    /**
+     * Pré-carrega as contas mais movimentadas, antes de o servidor aceitar requisições
+     */
+    @PostConstruct
+    public void aquecer() {
+        if (contasAquecimento <= 0) {
+            return;
+        }
+        
+        List<Integer> maisAtivas = movimentacaoRepository.findContasMaisMovimentadas(
+                PageRequest.of(0, contasAquecimento));
+        contaRepository.findAllById(maisAtivas)
+                .forEach(conta -> saldos.put(conta.getNumero(), new SaldoVersionado(conta.getSaldo(), conta.getVersao())));
+        log.info("Cache de saldos aquecido com {} contas", saldos.estimatedSize());
+    }
+    
+    @EventListener
+    public void onSaldoAlterado(SaldoAlteradoEvent evento) {
+        escritaNaTransacao(evento.getNumero());
+    }
+    
+    @EventListener
+    public void onContaExcluida(ContaExcluidaEvent evento) {
+        escritaNaTransacao(evento.getNumero());
+    }
+    
+    /**
+     * O saldo não muda, mas a versão sim
+     */
+    @EventListener
+    public void onTitularAlterado(TitularAlteradoEvent evento) {
+        escritaNaTransacao(evento.getNumero());
+    }
+    
+    @EventListener
+    public void onContaCriada(ContaCriadaEvent evento) {
+        escritaNaTransacao(evento.getNumero());
+    }
+    
+    /**
+     * Os eventos são publicados dentro da transação que alterou a conta: a marca de escrita vale
+     * até o afterCompletion, para cobrir o intervalo entre o commit e a invalidação final
+     * Sem transação (API v4, que já commitou), resta invalidar
+     */
+    private void escritaNaTransacao(Integer numero) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidar(numero);
+            return;
+        }
+        
+        iniciarEscrita(numero);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                concluirEscrita(numero);
+            }
+        });
+    }
+    
+    /**
+     * A geração sobe antes da remoção: uma carga que leu o banco antes do commit
+     * ou encontra a geração nova e descarta o valor, ou grava antes e é removida aqui
+     */
+    private void invalidar(Integer numero) {
+        geracoes.incrementAndGet(listra(numero));
+        saldos.invalidate(numero);
+    }
+    
+    private static int listra(Integer numero) {
+        return Math.floorMod(numero.hashCode(), LISTRAS);
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, saldos, "saldos");
+    }
+    
+    /**
+     * Acertos, faltas e remoções acumulados desde a inicialização
+     */
+    public CacheStats estatisticas() {
+        return saldos.stats();
+    }
+    
+    @Scheduled(fixedDelayString = "${caixaeletronico.cache-saldos.log-estatisticas-ms:300000}",
+               initialDelayString = "${caixaeletronico.cache-saldos.log-estatisticas-ms:300000}")
+    public void registrarEstatisticas() {
+        CacheStats stats = saldos.stats();
+        log.info("Cache de saldos: entradas={} acertos={} faltas={} taxaAcerto={} remocoes={}",
+                saldos.estimatedSize(), stats.hitCount(), stats.missCount(),
+                String.format("%.3f", stats.hitRate()), stats.evictionCount());
+    }
+}
@@ -0,0 +1,80 @@
+package br.com.Igor.caixaeletronico.service;
+
+import br.com.Igor.caixaeletronico.dto.ContaRequestDTO;
+import br.com.Igor.caixaeletronico.dto.ResultadoItemLoteDTO;
+import br.com.Igor.caixaeletronico.dto.ResultadoLoteDTO;
+import br.com.Igor.caixaeletronico.exception.ContaJaExisteException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criação de contas em lote a partir de um array JSON lido em streaming
+ * 
+ * O array é consumido em blocos de tamanho-lote itens (LeitorLoteJson) e os itens válidos
+ * de cada bloco são criados numa transação, com os INSERTs em batch JDBC.
+ * Só um bloco fica em memória por vez; os blocos anteriores já estão commitados.
+ */
+@Service
+public class CadastroContasLote {
+    
+    private static final Logger log = LoggerFactory.getLogger(CadastroContasLote.class);
+    
+    private final OperacoesContas contaService;
+    private final LeitorLoteJson leitorLote;
+    private final int tamanhoLote;
+    
+    public CadastroContasLote(
+            OperacoesContas contaService,
+            LeitorLoteJson leitorLote,
+            @Value("${caixaeletronico.contas-lote.tamanho-lote:500}") int tamanhoLote) {
+        this.contaService = contaService;
+        this.leitorLote = leitorLote;
+        this.tamanhoLote = tamanhoLote;
+    }
+    
+    /**
+     * Cria as contas do array e retorna o resultado de cada item, na ordem recebida
+     * JSON malformado interrompe a leitura com OperacaoInvalidaException; os blocos já lidos
+     * até ali permanecem criados
+     */
+    public ResultadoLoteDTO cadastrar(InputStream corpo) throws IOException {
+        ResultadoLoteDTO resultado = new ResultadoLoteDTO(
+                leitorLote.ler(corpo, ContaRequestDTO.class, tamanhoLote, this::criar));
+        log.info("Lote de contas: {} criadas, {} recusadas", resultado.getAceitos(), resultado.getRecusados());
+        return resultado;
+    }
+    
+    /**
+     * Um cadastro concorrente pode passar na frente entre a verificação e o commit do bloco;
+     * aí o bloco inteiro é desfeito e refeito item a item, recusando só os conflitantes
+     */
+    private List<ResultadoItemLoteDTO> criar(List<ContaRequestDTO> validos) {
+        try {
+            return contaService.criarContas(validos);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Conflito no lote de {} contas, criando item a item", validos.size());
+        }
+        
+        List<ResultadoItemLoteDTO> resultados = new ArrayList<>(validos.size());
+        for (int i = 0; i < validos.size(); i++) {
+            Integer numero = validos.get(i).getNumero();
+            try {
+                contaService.criarConta(validos.get(i));
+                resultados.add(ResultadoItemLoteDTO.aceito(i, numero, 201));
+            } catch (ContaJaExisteException e) {
+                resultados.add(ResultadoItemLoteDTO.recusado(i, numero, 409, e.getMessage()));
+            } catch (DataIntegrityViolationException e) {
+                resultados.add(ResultadoItemLoteDTO.recusado(i, numero, 409, "Número de conta ou CPF já cadastrado"));
+            }
+        }
+        return resultados;
+    }
+}
@@ -1,43 +1,108 @@
 package br.com.Igor.caixaeletronico.service;
 
+import br.com.Igor.caixaeletronico.dto.ContaResponseDTO;
+import br.com.Igor.caixaeletronico.dto.PaginaDTO;
 import br.com.Igor.caixaeletronico.entity.Conta;
 import br.com.Igor.caixaeletronico.entity.Cliente;
+import br.com.Igor.caixaeletronico.entity.Cpf;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.entity.Movimentacao;
+import br.com.Igor.caixaeletronico.event.ContaCriadaEvent;
+import br.com.Igor.caixaeletronico.event.ContaExcluidaEvent;
+import br.com.Igor.caixaeletronico.event.SaldoAlteradoEvent;
+import br.com.Igor.caixaeletronico.event.TitularAlteradoEvent;
+import br.com.Igor.caixaeletronico.mapper.ContaMapper;
 import br.com.Igor.caixaeletronico.repository.ContaRepository;
+import br.com.Igor.caixaeletronico.repository.ContaResumo;
+import br.com.Igor.caixaeletronico.service.concorrencia.ControleConcorrencia;
+import br.com.Igor.caixaeletronico.service.concorrencia.ResultadoMovimentacao;
+import br.com.Igor.caixaeletronico.service.metricas.OperacaoMedida;
+import br.com.Igor.caixaeletronico.service.metricas.RecusasOperacoes;
+import br.com.Igor.caixaeletronico.service.metricas.RecusasOperacoes.Motivo;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Service contendo a lógica de negócio para operações bancárias
  * @Transactional garante que operações sejam executadas em transação
+ * 
+ * orcamentoSql: máximo de comandos SQL por chamada (ver @OperacaoMedida); depósito e saque
+ * dependem da estratégia de concorrência, e o orçamento cobre todas sem novas tentativas.
+ * Desligado no profile memoria, junto com a API v1 que o usa.
  */
 @Service
+@Profile("!memoria")
 @Transactional
 public class ContaService {
     
     @Autowired
     private ContaRepository contaRepository;
     
+    @Autowired
+    private ControleConcorrencia controleConcorrencia;
+    
+    @Autowired
+    private GravadorMovimentacoes gravadorMovimentacoes;
+    
+    @Autowired
+    private ContaMapper contaMapper;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private CacheSaldos cacheSaldos;
+    
+    @Autowired
+    private FiltroContasExistentes filtroContas;
+    
+    @Autowired
+    private RecusasOperacoes recusas;
+    
     /**
      * Cria uma nova conta
      */
+    @OperacaoMedida(value = "criar", orcamentoSql = 3)
     public Conta criarConta(Integer numero, Cliente titular) {
-        // Verifica se já existe conta com este número
-        if (contaRepository.existsByNumero(numero)) {
+        return criarConta(numero, titular, Dinheiro.ZERO);
+    }
+    
+    /**
+     * Cria uma nova conta já com o saldo inicial, num único INSERT
+     * O saldo inicial entra no extrato como depósito, como se fosse feito logo após a criação
+     */
+    @OperacaoMedida(value = "criar", orcamentoSql = 3)
+    public Conta criarConta(Integer numero, Cliente titular, Dinheiro saldoInicial) {
+        // Verifica se já existe conta com este número (só consulta o banco se o filtro não descartar)
+        if (filtroContas.numeroPodeExistir(numero) && contaRepository.existsByNumero(numero)) {
+            recusas.registrar(Motivo.CONTA_DUPLICADA);
             throw new IllegalArgumentException("Já existe uma conta com o número: " + numero);
         }
         
         // Verifica se já existe conta com este CPF
-        if (contaRepository.existsByTitularCpf(titular.getCpf())) {
+        if (filtroContas.cpfPodeExistir(titular.getCpf()) && contaRepository.existsByTitularCpf(titular.getCpf())) {
+            recusas.registrar(Motivo.CONTA_DUPLICADA);
             throw new IllegalArgumentException("Já existe uma conta para o CPF: " + titular.getCpf());
         }
         
-        Conta novaConta = new Conta(numero, titular);
-        return contaRepository.save(novaConta);
+        Conta conta = new Conta(numero, titular);
+        if (saldoInicial.isPositivo()) {
+            conta.depositar(saldoInicial);
+            gravadorMovimentacoes.registrar(
+                new Movimentacao(numero, Movimentacao.Tipo.DEPOSITO, saldoInicial, conta.getSaldo()));
+        }
+        Conta novaConta = contaRepository.save(conta);
+        eventPublisher.publishEvent(new ContaCriadaEvent(
+            numero, titular.getNome(), titular.getCpf(), novaConta.getSaldo()));
+        return novaConta;
     }
     
     /**
@@ -52,7 +117,7 @@ public class ContaService {
      * Busca conta por CPF do titular
      */
     @Transactional(readOnly = true)
-    public Optional<Conta> buscarContaPorCpf(String cpf) {
+    public Optional<Conta> buscarContaPorCpf(Cpf cpf) {
         return contaRepository.findByTitularCpf(cpf);
     }
     
@@ -64,6 +129,17 @@ public class ContaService {
         return contaRepository.findAll();
     }
     
+    /**
+     * Lista uma página de contas a partir do cursor (número da última conta da página anterior)
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<ContaResponseDTO> listarContas(Integer apos, int limite) {
+        int tamanho = PaginaDTO.limitar(limite);
+        List<ContaResumo> resumos = contaRepository.listarResumosApos(
+                apos != null ? apos : Integer.MIN_VALUE, PageRequest.of(0, tamanho + 1));
+        return contaMapper.toPagina(resumos, tamanho);
+    }
+    
     /**
      * Busca contas por nome do titular
      */
@@ -75,34 +151,33 @@ public class ContaService {
     /**
      * Realiza depósito em uma conta
      */
-    public Conta depositar(Integer numeroConta, BigDecimal valor) {
-        if (valor.compareTo(BigDecimal.ZERO) <= 0) {
+    @OperacaoMedida(value = "depositar", orcamentoSql = 2)
+    public Conta depositar(Integer numeroConta, Dinheiro valor) {
+        if (!valor.isPositivo()) {
             throw new IllegalArgumentException("Valor do depósito deve ser positivo");
         }
         
-        Conta conta = contaRepository.findById(numeroConta)
-                .orElseThrow(() -> new IllegalArgumentException("Conta não encontrada: " + numeroConta));
-        
-        conta.depositar(valor);
-        return contaRepository.save(conta);
+        Conta conta = contaMovimentada(numeroConta, controleConcorrencia.creditar(numeroConta, valor));
+        gravadorMovimentacoes.registrar(
+            new Movimentacao(numeroConta, Movimentacao.Tipo.DEPOSITO, valor, conta.getSaldo()));
+        eventPublisher.publishEvent(new SaldoAlteradoEvent(numeroConta, valor, conta.getSaldo()));
+        return conta;
     }
     
     /**
      * Realiza saque de uma conta
      */
-    public Conta sacar(Integer numeroConta, BigDecimal valor) {
-        if (valor.compareTo(BigDecimal.ZERO) <= 0) {
+    @OperacaoMedida(value = "sacar", orcamentoSql = 2)
+    public Conta sacar(Integer numeroConta, Dinheiro valor) {
+        if (!valor.isPositivo()) {
             throw new IllegalArgumentException("Valor do saque deve ser positivo");
         }
         
-        Conta conta = contaRepository.findById(numeroConta)
-                .orElseThrow(() -> new IllegalArgumentException("Conta não encontrada: " + numeroConta));
-        
-        if (!conta.sacar(valor)) {
-            throw new IllegalArgumentException("Saldo insuficiente para o saque");
-        }
-        
-        return contaRepository.save(conta);
+        Conta conta = contaMovimentada(numeroConta, controleConcorrencia.debitar(numeroConta, valor));
+        gravadorMovimentacoes.registrar(
+            new Movimentacao(numeroConta, Movimentacao.Tipo.SAQUE, valor, conta.getSaldo()));
+        eventPublisher.publishEvent(new SaldoAlteradoEvent(numeroConta, valor.negar(), conta.getSaldo()));
+        return conta;
     }
     
     /**
@@ -110,43 +185,48 @@ public class ContaService {
      */
     public Conta atualizarTitular(Integer numeroConta, Cliente novoTitular) {
         Conta conta = contaRepository.findById(numeroConta)
-                .orElseThrow(() -> new IllegalArgumentException("Conta não encontrada: " + numeroConta));
+                .orElseThrow(() -> contaNaoEncontrada(numeroConta));
+        Cliente titularAnterior = conta.getTitular();
         
         conta.setTitular(novoTitular);
-        return contaRepository.save(conta);
+        Conta contaAtualizada = contaRepository.save(conta);
+        eventPublisher.publishEvent(new TitularAlteradoEvent(numeroConta,
+            titularAnterior.getNome(), titularAnterior.getCpf(), novoTitular.getNome(), novoTitular.getCpf()));
+        return contaAtualizada;
     }
     
     /**
      * Remove uma conta
+     * Regra de negócio: só pode remover conta com saldo zero. A regra vai no próprio DELETE, que
+     * devolve a linha excluída; só a recusa consulta de novo, para dizer o motivo.
      */
+    @OperacaoMedida(value = "excluir", orcamentoSql = 2)
     public void removerConta(Integer numeroConta) {
-        Conta conta = contaRepository.findById(numeroConta)
-                .orElseThrow(() -> new IllegalArgumentException("Conta não encontrada: " + numeroConta));
-        
-        // Regra de negócio: só pode remover conta com saldo zero
-        if (conta.getSaldo().compareTo(BigDecimal.ZERO) > 0) {
-            throw new IllegalArgumentException("Não é possível remover conta com saldo positivo");
-        }
+        Conta conta = contaRepository.excluirSemSaldo(numeroConta)
+                .orElseThrow(() -> contaRepository.existsById(numeroConta)
+                        ? new IllegalArgumentException("Não é possível remover conta com saldo positivo")
+                        : contaNaoEncontrada(numeroConta));
         
-        contaRepository.delete(conta);
+        eventPublisher.publishEvent(new ContaExcluidaEvent(
+            numeroConta, conta.getTitular().getNome(), conta.getTitular().getCpf(), conta.getSaldo()));
     }
     
     /**
      * Consulta saldo de uma conta
+     * Sem transação própria: um acerto no cache não ocupa conexão do banco
      */
-    @Transactional(readOnly = true)
-    public BigDecimal consultarSaldo(Integer numeroConta) {
-        Conta conta = contaRepository.findById(numeroConta)
-                .orElseThrow(() -> new IllegalArgumentException("Conta não encontrada: " + numeroConta));
-        
-        return conta.getSaldo();
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @OperacaoMedida(value = "saldo", orcamentoSql = 1)
+    public Dinheiro consultarSaldo(Integer numeroConta) {
+        return cacheSaldos.consultar(numeroConta)
+                .orElseThrow(() -> contaNaoEncontrada(numeroConta));
     }
     
     /**
      * Busca contas por faixa de saldo
      */
     @Transactional(readOnly = true)
-    public List<Conta> buscarContasPorFaixaSaldo(BigDecimal saldoMin, BigDecimal saldoMax) {
+    public List<Conta> buscarContasPorFaixaSaldo(Dinheiro saldoMin, Dinheiro saldoMax) {
         return contaRepository.findContasPorFaixaSaldo(saldoMin, saldoMax);
     }
     
@@ -157,4 +237,24 @@ public class ContaService {
     public Long contarContasComSaldo() {
         return contaRepository.countContasComSaldo();
     }
+    
+    /**
+     * Converte o resultado da alteração de saldo nas exceções desta API
+     */
+    private Conta contaMovimentada(Integer numeroConta, ResultadoMovimentacao resultado) {
+        switch (resultado.getStatus()) {
+            case CONTA_NAO_ENCONTRADA:
+                throw contaNaoEncontrada(numeroConta);
+            case SALDO_INSUFICIENTE:
+                recusas.registrar(Motivo.SALDO_INSUFICIENTE);
+                throw new IllegalArgumentException("Saldo insuficiente para o saque");
+            default:
+                return resultado.getConta();
+        }
+    }
+    
+    private IllegalArgumentException contaNaoEncontrada(Integer numeroConta) {
+        recusas.registrar(Motivo.CONTA_NAO_ENCONTRADA);
+        return new IllegalArgumentException("Conta não encontrada: " + numeroConta);
+    }
 }
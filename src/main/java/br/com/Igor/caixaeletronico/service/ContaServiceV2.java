@@ -2,138 +2,420 @@ package br.com.Igor.caixaeletronico.service;
 
 import br.com.Igor.caixaeletronico.dto.ContaRequestDTO;
 import br.com.Igor.caixaeletronico.dto.ContaResponseDTO;
+import br.com.Igor.caixaeletronico.dto.OperacaoLoteDTO;
+import br.com.Igor.caixaeletronico.dto.PaginaDTO;
+import br.com.Igor.caixaeletronico.dto.ResultadoItemLoteDTO;
 import br.com.Igor.caixaeletronico.entity.Conta;
+import br.com.Igor.caixaeletronico.entity.Cpf;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.entity.Movimentacao;
+import br.com.Igor.caixaeletronico.event.ContaCriadaEvent;
+import br.com.Igor.caixaeletronico.event.ContaExcluidaEvent;
+import br.com.Igor.caixaeletronico.event.SaldoAlteradoEvent;
+import br.com.Igor.caixaeletronico.event.TitularAlteradoEvent;
 import br.com.Igor.caixaeletronico.exception.ContaJaExisteException;
 import br.com.Igor.caixaeletronico.exception.ContaNaoEncontradaException;
 import br.com.Igor.caixaeletronico.exception.OperacaoInvalidaException;
+import br.com.Igor.caixaeletronico.exception.VersaoDivergenteException;
 import br.com.Igor.caixaeletronico.mapper.ContaMapper;
 import br.com.Igor.caixaeletronico.repository.ContaRepository;
+import br.com.Igor.caixaeletronico.repository.ContaResumo;
+import br.com.Igor.caixaeletronico.repository.SaldoVersionado;
+import br.com.Igor.caixaeletronico.service.busca.BuscaTitulares;
+import br.com.Igor.caixaeletronico.service.concorrencia.ControleConcorrencia;
+import br.com.Igor.caixaeletronico.service.concorrencia.ResultadoMovimentacao;
+import br.com.Igor.caixaeletronico.service.metricas.OperacaoMedida;
+import br.com.Igor.caixaeletronico.service.metricas.RecusasOperacoes;
+import br.com.Igor.caixaeletronico.service.metricas.RecusasOperacoes.Motivo;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Service moderno para operações bancárias seguindo boas práticas
+ * Motor JPA da API v3; com o profile "memoria" é substituído por ContaServiceMemoria
+ * 
+ * orcamentoSql: máximo de comandos SQL por chamada, como em ContaService
  */
 @Service
+@Profile("!memoria")
 @Transactional
-public class ContaServiceV2 {
+public class ContaServiceV2 implements OperacoesContas {
     
     private final ContaRepository contaRepository;
     private final ContaMapper contaMapper;
+    private final ControleConcorrencia controleConcorrencia;
+    private final GravadorMovimentacoes gravadorMovimentacoes;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheSaldos cacheSaldos;
+    private final BuscaTitulares buscaTitulares;
+    private final FiltroContasExistentes filtroContas;
+    private final EntityManager entityManager;
+    private final RecusasOperacoes recusas;
+    private final ExportadorContas exportadorContas;
     
     @Autowired
-    public ContaServiceV2(ContaRepository contaRepository, ContaMapper contaMapper) {
+    public ContaServiceV2(ContaRepository contaRepository, ContaMapper contaMapper,
+                          ControleConcorrencia controleConcorrencia,
+                          GravadorMovimentacoes gravadorMovimentacoes,
+                          ApplicationEventPublisher eventPublisher,
+                          CacheSaldos cacheSaldos,
+                          BuscaTitulares buscaTitulares,
+                          FiltroContasExistentes filtroContas,
+                          EntityManager entityManager,
+                          RecusasOperacoes recusas,
+                          ExportadorContas exportadorContas) {
         this.contaRepository = contaRepository;
         this.contaMapper = contaMapper;
+        this.controleConcorrencia = controleConcorrencia;
+        this.gravadorMovimentacoes = gravadorMovimentacoes;
+        this.eventPublisher = eventPublisher;
+        this.cacheSaldos = cacheSaldos;
+        this.buscaTitulares = buscaTitulares;
+        this.filtroContas = filtroContas;
+        this.entityManager = entityManager;
+        this.recusas = recusas;
+        this.exportadorContas = exportadorContas;
     }
     
     /**
-     * Lista todas as contas
+     * Lista uma página de contas a partir do cursor (número da última conta da página anterior)
      */
     @Transactional(readOnly = true)
-    public List<ContaResponseDTO> listarContas() {
-        return contaRepository.findAll().stream()
-                .map(contaMapper::toContaResponseDTO)
-                .collect(Collectors.toList());
+    @Override
+    public PaginaDTO<ContaResponseDTO> listarContas(Integer apos, int limite) {
+        int tamanho = PaginaDTO.limitar(limite);
+        List<ContaResumo> resumos = contaRepository.listarResumosApos(
+                apos != null ? apos : Integer.MIN_VALUE, PageRequest.of(0, tamanho + 1));
+        return contaMapper.toPagina(resumos, tamanho);
     }
     
     /**
      * Busca conta por número
      */
     @Transactional(readOnly = true)
+    @Override
     public ContaResponseDTO buscarConta(Integer numero) {
         Conta conta = buscarContaEntity(numero);
         return contaMapper.toContaResponseDTO(conta);
     }
     
+    /**
+     * Versão da conta pelo cache de saldos: num acerto, nenhum comando SQL;
+     * numa falta, só o saldo e a versão, sem carregar a entidade
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @OperacaoMedida(value = "versao", orcamentoSql = 1)
+    @Override
+    public Optional<Long> versaoConta(Integer numero) {
+        return cacheSaldos.consultarVersionado(numero).map(SaldoVersionado::getVersao);
+    }
+    
+    /**
+     * Busca contas pelo nome do titular, usando o índice de nomes em vez de LIKE na tabela
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public PaginaDTO<ContaResponseDTO> buscarPorNome(String nome, int deslocamento, int limite) {
+        int tamanho = PaginaDTO.limitar(limite);
+        int inicio = Math.max(deslocamento, 0);
+        int[] numeros = buscaTitulares.buscar(nome, inicio, tamanho + 1);
+        int quantidade = Math.min(numeros.length, tamanho);
+        
+        Map<Integer, ContaResumo> resumos = new HashMap<>();
+        contaRepository.listarResumos(Arrays.stream(numeros, 0, quantidade).boxed().toList())
+                .forEach(resumo -> resumos.put(resumo.getNumero(), resumo));
+        
+        // Mantém a ordem de relevância do índice; conta excluída nesse meio tempo é omitida
+        List<ContaResponseDTO> itens = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            ContaResumo resumo = resumos.get(numeros[i]);
+            if (resumo != null) {
+                itens.add(contaMapper.toContaResponseDTO(resumo));
+            }
+        }
+        return new PaginaDTO<>(itens, numeros.length > tamanho ? inicio + tamanho : null);
+    }
+    
     /**
      * Cria nova conta
      */
+    @OperacaoMedida(value = "criar", orcamentoSql = 3)
+    @Override
     public ContaResponseDTO criarConta(ContaRequestDTO requestDTO) {
         // Verifica se conta já existe
-        if (contaRepository.existsById(requestDTO.getNumero())) {
+        if (filtroContas.numeroPodeExistir(requestDTO.getNumero())
+                && contaRepository.existsById(requestDTO.getNumero())) {
+            recusas.registrar(Motivo.CONTA_DUPLICADA);
             throw new ContaJaExisteException(requestDTO.getNumero());
         }
+        verificarCpfDisponivel(requestDTO.getTitular().getCpf(), null);
         
         // Converte DTO para Entity e salva
         Conta conta = contaMapper.toConta(requestDTO);
         Conta contaSalva = contaRepository.save(conta);
+        eventPublisher.publishEvent(new ContaCriadaEvent(contaSalva.getNumero(),
+            contaSalva.getTitular().getNome(), contaSalva.getTitular().getCpf(), contaSalva.getSaldo()));
         
         return contaMapper.toContaResponseDTO(contaSalva);
     }
     
+    /**
+     * Cria as contas do lote numa transação; os INSERTs saem em batches JDBC no commit
+     * (hibernate.jdbc.batch_size). A duplicidade é conferida com uma consulta por coluna
+     * para o lote inteiro, só com os números e CPFs que o filtro não descarta.
+     */
+    @Override
+    public List<ResultadoItemLoteDTO> criarContas(List<ContaRequestDTO> lote) {
+        List<Integer> numerosConsultar = new ArrayList<>();
+        List<Cpf> cpfsConsultar = new ArrayList<>();
+        for (ContaRequestDTO item : lote) {
+            if (filtroContas.numeroPodeExistir(item.getNumero())) {
+                numerosConsultar.add(item.getNumero());
+            }
+            if (filtroContas.cpfPodeExistir(item.getTitular().getCpf())) {
+                cpfsConsultar.add(item.getTitular().getCpf());
+            }
+        }
+        Set<Integer> numerosUsados = new HashSet<>(numerosConsultar.isEmpty()
+                ? List.of() : contaRepository.listarNumerosExistentes(numerosConsultar));
+        Set<Cpf> cpfsUsados = new HashSet<>(cpfsConsultar.isEmpty()
+                ? List.of() : contaRepository.listarCpfsExistentes(cpfsConsultar));
+        
+        List<ResultadoItemLoteDTO> resultados = new ArrayList<>(lote.size());
+        List<Conta> novas = new ArrayList<>(lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            ContaRequestDTO item = lote.get(i);
+            Integer numero = item.getNumero();
+            Cpf cpf = item.getTitular().getCpf();
+            if (numerosUsados.contains(numero)) {
+                resultados.add(ResultadoItemLoteDTO.recusado(i, numero, 409,
+                    new ContaJaExisteException(numero).getMessage()));
+            } else if (cpfsUsados.contains(cpf)) {
+                resultados.add(ResultadoItemLoteDTO.recusado(i, numero, 409,
+                    "Já existe uma conta para o CPF: " + cpf));
+            } else {
+                numerosUsados.add(numero);
+                cpfsUsados.add(cpf);
+                novas.add(contaMapper.toConta(item));
+                resultados.add(ResultadoItemLoteDTO.aceito(i, numero, 201));
+            }
+        }
+        
+        contaRepository.saveAll(novas);
+        for (Conta conta : novas) {
+            eventPublisher.publishEvent(new ContaCriadaEvent(conta.getNumero(),
+                conta.getTitular().getNome(), conta.getTitular().getCpf(), conta.getSaldo()));
+        }
+        
+        // Com open-in-view o contexto de persistência dura a requisição inteira: sem liberar as
+        // contas do lote, o flush de cada lote seguinte voltaria a conferir todas as anteriores
+        contaRepository.flush();
+        entityManager.clear();
+        return resultados;
+    }
+    
     /**
      * Atualiza dados do titular
      */
+    @Override
     public ContaResponseDTO atualizarTitular(Integer numero, ContaRequestDTO requestDTO) {
+        return atualizarTitular(numero, requestDTO, null);
+    }
+    
+    /**
+     * Atualiza dados do titular, conferindo antes a versão lida contra as do If-Match
+     * Uma alteração que chegue entre essa leitura e o UPDATE é barrada pelo @Version (409).
+     * O flush sai aqui, e não no commit, para a resposta levar a versão nova.
+     */
+    @Override
+    public ContaResponseDTO atualizarTitular(Integer numero, ContaRequestDTO requestDTO,
+                                             Collection<Long> versoesAceitas) {
         Conta conta = buscarContaEntity(numero);
+        if (versoesAceitas != null && !versoesAceitas.contains(conta.getVersao())) {
+            throw new VersaoDivergenteException(numero, conta.getVersao());
+        }
+        verificarCpfDisponivel(requestDTO.getTitular().getCpf(), conta);
+        String nomeAnterior = conta.getTitular().getNome();
+        Cpf cpfAnterior = conta.getTitular().getCpf();
         
         // Atualiza apenas os dados do titular
         conta.getTitular().setNome(requestDTO.getTitular().getNome());
         conta.getTitular().setCpf(requestDTO.getTitular().getCpf());
         
-        Conta contaAtualizada = contaRepository.save(conta);
+        Conta contaAtualizada = contaRepository.saveAndFlush(conta);
+        eventPublisher.publishEvent(new TitularAlteradoEvent(numero, nomeAnterior, cpfAnterior,
+            contaAtualizada.getTitular().getNome(), contaAtualizada.getTitular().getCpf()));
         return contaMapper.toContaResponseDTO(contaAtualizada);
     }
     
     /**
      * Realiza depósito
      */
-    public ContaResponseDTO depositar(Integer numero, BigDecimal valor) {
-        if (valor.compareTo(BigDecimal.ZERO) <= 0) {
+    @OperacaoMedida(value = "depositar", orcamentoSql = 2)
+    @Override
+    public ContaResponseDTO depositar(Integer numero, Dinheiro valor) {
+        if (!valor.isPositivo()) {
             throw new OperacaoInvalidaException("Valor do depósito deve ser positivo");
         }
         
-        Conta conta = buscarContaEntity(numero);
-        conta.depositar(valor);
+        Conta conta = contaMovimentada(numero, controleConcorrencia.creditar(numero, valor));
+        gravadorMovimentacoes.registrar(
+            new Movimentacao(numero, Movimentacao.Tipo.DEPOSITO, valor, conta.getSaldo()));
+        eventPublisher.publishEvent(new SaldoAlteradoEvent(numero, valor, conta.getSaldo()));
         
-        Conta contaAtualizada = contaRepository.save(conta);
-        return contaMapper.toContaResponseDTO(contaAtualizada);
+        return contaMapper.toContaResponseDTO(conta);
     }
     
     /**
      * Realiza saque
      */
-    public ContaResponseDTO sacar(Integer numero, BigDecimal valor) {
-        if (valor.compareTo(BigDecimal.ZERO) <= 0) {
+    @OperacaoMedida(value = "sacar", orcamentoSql = 2)
+    @Override
+    public ContaResponseDTO sacar(Integer numero, Dinheiro valor) {
+        if (!valor.isPositivo()) {
             throw new OperacaoInvalidaException("Valor do saque deve ser positivo");
         }
         
-        Conta conta = buscarContaEntity(numero);
+        Conta conta = contaMovimentada(numero, controleConcorrencia.debitar(numero, valor));
+        gravadorMovimentacoes.registrar(
+            new Movimentacao(numero, Movimentacao.Tipo.SAQUE, valor, conta.getSaldo()));
+        eventPublisher.publishEvent(new SaldoAlteradoEvent(numero, valor.negar(), conta.getSaldo()));
         
-        if (conta.getSaldo().compareTo(valor) < 0) {
-            throw new OperacaoInvalidaException("Saldo insuficiente");
+        return contaMapper.toContaResponseDTO(conta);
+    }
+    
+    /**
+     * Movimenta as contas do lote numa transação
+     * As contas envolvidas são bloqueadas com um único SELECT ... FOR UPDATE, em ordem de número,
+     * e as operações aplicadas na ordem do lote sobre as entidades; no flush sai um UPDATE por
+     * conta com o saldo final (em batch JDBC). O bloqueio e o incremento de versão mantêm o lote
+     * consistente com as operações individuais, qualquer que seja a estratégia de concorrência.
+     */
+    @Override
+    public List<ResultadoItemLoteDTO> movimentarContas(List<OperacaoLoteDTO> lote) {
+        Set<Integer> numeros = new TreeSet<>();
+        lote.forEach(operacao -> numeros.add(operacao.getNumero()));
+        Map<Integer, Conta> contas = new HashMap<>();
+        Map<Integer, Dinheiro> saldosIniciais = new HashMap<>();
+        for (Conta conta : contaRepository.buscarParaAtualizacao(numeros)) {
+            contas.put(conta.getNumero(), conta);
+            saldosIniciais.put(conta.getNumero(), conta.getSaldo());
         }
         
-        conta.sacar(valor);
+        List<ResultadoItemLoteDTO> resultados = new ArrayList<>(lote.size());
+        List<Movimentacao> movimentacoes = new ArrayList<>(lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            OperacaoLoteDTO operacao = lote.get(i);
+            Integer numero = operacao.getNumero();
+            Conta conta = contas.get(numero);
+            if (conta == null) {
+                resultados.add(ResultadoItemLoteDTO.recusado(i, numero, 404,
+                    new ContaNaoEncontradaException(numero).getMessage()));
+                continue;
+            }
+            
+            String recusa = aplicar(conta, operacao);
+            if (recusa != null) {
+                resultados.add(ResultadoItemLoteDTO.recusado(i, numero, 400, recusa));
+            } else {
+                movimentacoes.add(new Movimentacao(numero, operacao.getTipo(), operacao.getValor(), conta.getSaldo()));
+                resultados.add(ResultadoItemLoteDTO.movimentado(i, numero, conta.getSaldo()));
+            }
+        }
         
-        Conta contaAtualizada = contaRepository.save(conta);
-        return contaMapper.toContaResponseDTO(contaAtualizada);
+        gravadorMovimentacoes.registrarTodas(movimentacoes);
+        // Um evento por conta, com a variação líquida do lote
+        for (Conta conta : contas.values()) {
+            Dinheiro variacao = conta.getSaldo().subtrair(saldosIniciais.get(conta.getNumero()));
+            if (!variacao.isZero()) {
+                eventPublisher.publishEvent(new SaldoAlteradoEvent(conta.getNumero(), variacao, conta.getSaldo()));
+            }
+        }
+        
+        // Como em criarContas: libera as contas do lote do contexto de persistência da requisição
+        contaRepository.flush();
+        entityManager.clear();
+        return resultados;
+    }
+    
+    /**
+     * Aplica a operação na entidade; retorna o motivo da recusa, ou null se foi aplicada
+     */
+    private String aplicar(Conta conta, OperacaoLoteDTO operacao) {
+        if (operacao.getTipo() == Movimentacao.Tipo.SAQUE) {
+            return conta.sacar(operacao.getValor()) ? null : "Saldo insuficiente";
+        }
+        try {
+            conta.depositar(operacao.getValor());
+            return null;
+        } catch (ArithmeticException e) {
+            return "Valor excede o limite permitido";
+        }
     }
     
     /**
      * Consulta saldo
+     * Sem transação própria: um acerto no cache não ocupa conexão do banco
      */
-    @Transactional(readOnly = true)
-    public BigDecimal consultarSaldo(Integer numero) {
-        Conta conta = buscarContaEntity(numero);
-        return conta.getSaldo();
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @OperacaoMedida(value = "saldo", orcamentoSql = 1)
+    @Override
+    public Dinheiro consultarSaldo(Integer numero) {
+        return cacheSaldos.consultar(numero)
+                .orElseThrow(() -> contaNaoEncontrada(numero));
+    }
+    
+    /**
+     * Consulta saldo com a versão da conta, pelo mesmo cache
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @OperacaoMedida(value = "saldo", orcamentoSql = 1)
+    @Override
+    public SaldoVersionado consultarSaldoVersionado(Integer numero) {
+        return cacheSaldos.consultarVersionado(numero)
+                .orElseThrow(() -> contaNaoEncontrada(numero));
     }
     
     /**
      * Exclui conta
+     * Um único DELETE, que devolve a linha excluída para o evento
      */
+    @OperacaoMedida(value = "excluir", orcamentoSql = 1)
+    @Override
     public void excluirConta(Integer numero) {
-        if (!contaRepository.existsById(numero)) {
-            throw new ContaNaoEncontradaException(numero);
-        }
+        Conta conta = contaRepository.excluir(numero)
+                .orElseThrow(() -> contaNaoEncontrada(numero));
         
-        contaRepository.deleteById(numero);
+        eventPublisher.publishEvent(new ContaExcluidaEvent(numero,
+            conta.getTitular().getNome(), conta.getTitular().getCpf(), conta.getSaldo()));
+    }
+    
+    /**
+     * Lida do cursor do banco pelo ExportadorContas, numa transação só leitura
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportarContas(OutputStream saida, ExportadorContas.Formato formato) throws IOException {
+        return exportadorContas.exportar(saida, formato);
     }
     
     /**
@@ -141,6 +423,40 @@ public class ContaServiceV2 {
      */
     private Conta buscarContaEntity(Integer numero) {
         return contaRepository.findById(numero)
-                .orElseThrow(() -> new ContaNaoEncontradaException(numero));
+                .orElseThrow(() -> contaNaoEncontrada(numero));
+    }
+    
+    /**
+     * CPF é único entre as contas; a própria conta pode manter o seu
+     * Só consulta o banco quando o filtro não descarta o CPF
+     */
+    private void verificarCpfDisponivel(Cpf cpf, Conta contaAtual) {
+        if (contaAtual != null && cpf.equals(contaAtual.getTitular().getCpf())) {
+            return;
+        }
+        if (filtroContas.cpfPodeExistir(cpf) && contaRepository.existsByTitularCpf(cpf)) {
+            recusas.registrar(Motivo.CONTA_DUPLICADA);
+            throw new ContaJaExisteException("Já existe uma conta para o CPF: " + cpf);
+        }
+    }
+    
+    /**
+     * Converte o resultado da alteração de saldo nas exceções da API
+     */
+    private Conta contaMovimentada(Integer numero, ResultadoMovimentacao resultado) {
+        switch (resultado.getStatus()) {
+            case CONTA_NAO_ENCONTRADA:
+                throw contaNaoEncontrada(numero);
+            case SALDO_INSUFICIENTE:
+                recusas.registrar(Motivo.SALDO_INSUFICIENTE);
+                throw new OperacaoInvalidaException("Saldo insuficiente");
+            default:
+                return resultado.getConta();
+        }
+    }
+    
+    private ContaNaoEncontradaException contaNaoEncontrada(Integer numero) {
+        recusas.registrar(Motivo.CONTA_NAO_ENCONTRADA);
+        return new ContaNaoEncontradaException(numero);
     }
 }
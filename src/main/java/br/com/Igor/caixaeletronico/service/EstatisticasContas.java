@@ -0,0 +1,122 @@
+package br.com.Igor.caixaeletronico.service;
+
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.event.ContaCriadaEvent;
+import br.com.Igor.caixaeletronico.event.ContaExcluidaEvent;
+import br.com.Igor.caixaeletronico.event.SaldoAlteradoEvent;
+import br.com.Igor.caixaeletronico.repository.ContaRepository;
+import br.com.Igor.caixaeletronico.repository.TotaisContas;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estatísticas das contas mantidas em memória
+ * 
+ * Carregadas uma vez com um agregado SQL na inicialização e depois atualizadas
+ * a cada criação, exclusão, depósito e saque commitados, então a consulta é O(1).
+ * O saldo total é acumulado em centavos (long), o que mantém a soma exata
+ * sem a disputa de um BigDecimal compartilhado.
+ * Desligadas no profile memoria, em que as contas não estão no banco.
+ */
+@Component
+@Profile("!memoria")
+public class EstatisticasContas {
+    
+    private static final Logger log = LoggerFactory.getLogger(EstatisticasContas.class);
+    
+    private final ContaRepository contaRepository;
+    
+    private final LongAdder totalContas = new LongAdder();
+    private final LongAdder contasComSaldo = new LongAdder();
+    private final LongAdder saldoTotalCentavos = new LongAdder();
+    
+    public EstatisticasContas(ContaRepository contaRepository) {
+        this.contaRepository = contaRepository;
+    }
+    
+    /**
+     * Carga inicial, antes de o servidor começar a aceitar requisições
+     */
+    @PostConstruct
+    public void inicializar() {
+        TotaisContas totais = contaRepository.calcularTotais();
+        totalContas.add(totais.getTotalContas());
+        contasComSaldo.add(totais.getContasComSaldo());
+        saldoTotalCentavos.add(totais.getSaldoTotal().getCentavos());
+        log.info("Estatísticas de contas carregadas: {}", totais);
+    }
+    
+    /**
+     * Retrato atual das estatísticas
+     * Com escritas em andamento os três valores podem refletir instantes ligeiramente diferentes
+     */
+    public TotaisContas obter() {
+        return new TotaisContas(
+                totalContas.sum(),
+                contasComSaldo.sum(),
+                Dinheiro.deCentavos(saldoTotalCentavos.sum()));
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContaCriada(ContaCriadaEvent evento) {
+        totalContas.increment();
+        long saldo = evento.getSaldo().getCentavos();
+        if (saldo > 0) {
+            contasComSaldo.increment();
+        }
+        saldoTotalCentavos.add(saldo);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContaExcluida(ContaExcluidaEvent evento) {
+        totalContas.decrement();
+        long saldo = evento.getSaldo().getCentavos();
+        if (saldo > 0) {
+            contasComSaldo.decrement();
+        }
+        saldoTotalCentavos.add(-saldo);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaldoAlterado(SaldoAlteradoEvent evento) {
+        long atual = evento.getSaldoAtual().getCentavos();
+        long anterior = evento.getSaldoAnterior().getCentavos();
+        
+        saldoTotalCentavos.add(atual - anterior);
+        if (anterior <= 0 && atual > 0) {
+            contasComSaldo.increment();
+        } else if (anterior > 0 && atual <= 0) {
+            contasComSaldo.decrement();
+        }
+    }
+    
+    /**
+     * Confere periodicamente os valores em memória contra o agregado SQL
+     * Uma divergência só é reportada se persistir numa segunda leitura, para não
+     * acusar escritas que estavam sendo commitadas durante a comparação
+     */
+    @Scheduled(fixedDelayString = "${caixaeletronico.estatisticas.verificacao-ms:300000}",
+               initialDelayString = "${caixaeletronico.estatisticas.verificacao-ms:300000}")
+    public void verificarConsistencia() {
+        if (consistente()) {
+            return;
+        }
+        
+        TotaisContas banco = contaRepository.calcularTotais();
+        TotaisContas memoria = obter();
+        if (!banco.mesmosValores(memoria)) {
+            log.warn("Estatísticas em memória divergem do banco: memória={} banco={}", memoria, banco);
+        }
+    }
+    
+    private boolean consistente() {
+        return contaRepository.calcularTotais().mesmosValores(obter());
+    }
+}
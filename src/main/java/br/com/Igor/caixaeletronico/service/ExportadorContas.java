@@ -0,0 +1,155 @@
+package br.com.Igor.caixaeletronico.service;
+
+import br.com.Igor.caixaeletronico.exception.OperacaoInvalidaException;
+import br.com.Igor.caixaeletronico.mapper.ContaMapper;
+import br.com.Igor.caixaeletronico.repository.ContaRepository;
+import br.com.Igor.caixaeletronico.repository.ContaResumo;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Exportação completa das contas para conciliação
+ * 
+ * Cada linha é escrita na saída assim que é lida do cursor do banco, sem montar
+ * lista em memória; a consulta retorna projeções (não entidades gerenciadas),
+ * então o contexto de persistência não cresce durante a exportação. O cursor só é
+ * sob demanda com LAZY_QUERY_EXECUTION na URL do H2 (application.properties): sem ela, o
+ * banco monta o resultado ordenado inteiro no heap antes de entregar a primeira linha.
+ */
+@Service
+public class ExportadorContas {
+    
+    // A cada quantas linhas a saída é descarregada para o cliente
+    private static final int LINHAS_POR_FLUSH = 1000;
+    
+    private static final String CABECALHO_CSV = "numero,titular_nome,titular_cpf,saldo,data_criacao\n";
+    
+    public enum Formato {
+        NDJSON("application/x-ndjson"),
+        CSV("text/csv");
+        
+        private final String contentType;
+        
+        Formato(String contentType) {
+            this.contentType = contentType;
+        }
+        
+        public String getContentType() {
+            return contentType;
+        }
+        
+        public static Formato of(String formato) {
+            try {
+                return valueOf(formato.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new OperacaoInvalidaException("Formato de exportação inválido: " + formato);
+            }
+        }
+    }
+    
+    private final ContaRepository contaRepository;
+    private final ContaMapper contaMapper;
+    private final ObjectMapper objectMapper;
+    
+    public ExportadorContas(ContaRepository contaRepository, ContaMapper contaMapper, ObjectMapper objectMapper) {
+        this.contaRepository = contaRepository;
+        this.contaMapper = contaMapper;
+        this.objectMapper = objectMapper;
+    }
+    
+    /**
+     * Escreve todas as contas na saída e retorna a quantidade exportada
+     */
+    @Transactional(readOnly = true)
+    public long exportar(OutputStream saida, Formato formato) throws IOException {
+        try (Stream<ContaResumo> contas = contaRepository.streamResumos()) {
+            escreverCabecalho(saida, formato);
+            return escreverLinhas(contas.iterator(), saida, formato);
+        }
+    }
+    
+    /**
+     * Cabeçalho da exportação (só o CSV tem)
+     */
+    public void escreverCabecalho(OutputStream saida, Formato formato) throws IOException {
+        if (formato == Formato.CSV) {
+            saida.write(CABECALHO_CSV.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+    
+    /**
+     * Escreve as contas, uma por linha, e retorna a quantidade escrita
+     * A API v4 chama uma vez por bloco de contas recebido do banco, depois do cabeçalho
+     */
+    public long escreverLinhas(Iterator<ContaResumo> contas, OutputStream saida, Formato formato) throws IOException {
+        return formato == Formato.CSV ? escreverCsv(contas, saida) : escreverNdjson(contas, saida);
+    }
+    
+    /**
+     * Um objeto JSON por linha, no mesmo formato de ContaResponseDTO da API v3
+     */
+    private long escreverNdjson(Iterator<ContaResumo> contas, OutputStream saida) throws IOException {
+        long linhas = 0;
+        try (JsonGenerator gerador = objectMapper.createGenerator(saida)) {
+            gerador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Sem o separador padrão (espaço) entre valores raiz: cada linha termina com '\n'
+            gerador.setRootValueSeparator(null);
+            while (contas.hasNext()) {
+                gerador.writeObject(contaMapper.toContaResponseDTO(contas.next()));
+                gerador.writeRaw('\n');
+                if (++linhas % LINHAS_POR_FLUSH == 0) {
+                    gerador.flush();
+                }
+            }
+        }
+        return linhas;
+    }
+    
+    private long escreverCsv(Iterator<ContaResumo> contas, OutputStream saida) throws IOException {
+        long linhas = 0;
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        while (contas.hasNext()) {
+            ContaResumo conta = contas.next();
+            escritor.write(String.valueOf(conta.getNumero()));
+            escritor.write(',');
+            escritor.write(campoCsv(conta.getTitularNome()));
+            escritor.write(',');
+            escritor.write(conta.getTitularCpf().toString());
+            escritor.write(',');
+            escritor.write(conta.getSaldo().toString());
+            escritor.write(',');
+            escritor.write(String.valueOf(conta.getDataCriacao()));
+            escritor.write('\n');
+            if (++linhas % LINHAS_POR_FLUSH == 0) {
+                escritor.flush();
+            }
+        }
+        escritor.flush();
+        return linhas;
+    }
+    
+    /**
+     * Aplica aspas (RFC 4180) apenas quando o valor contém separador, aspas ou quebra de linha
+     */
+    private static String campoCsv(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
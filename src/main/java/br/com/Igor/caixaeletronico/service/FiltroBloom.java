@@ -0,0 +1,76 @@
+package br.com.Igor.caixaeletronico.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom sobre chaves long: "não contém" é definitivo, "pode conter" não
+ * 
+ * Cerca de 10 bits por chave e 7 funções de hash (~1% de falsos positivos na capacidade).
+ * Consulta e inclusão sem lock; não há remoção, então quem usa reconstrói o filtro
+ * quando ele passa da capacidade.
+ */
+class FiltroBloom {
+    
+    private static final int BITS_POR_CHAVE = 10;
+    private static final int FUNCOES = 7;
+    private static final long MAXIMO_BITS = 1L << 34;
+    
+    private final AtomicLongArray palavras;
+    private final long mascara;
+    private final long capacidade;
+    private final AtomicLong inclusoes = new AtomicLong();
+    
+    FiltroBloom(long capacidade) {
+        long bits = Math.min(MAXIMO_BITS, Long.highestOneBit(Math.max(64, capacidade * BITS_POR_CHAVE) - 1) << 1);
+        this.palavras = new AtomicLongArray((int) (bits >>> 6));
+        this.mascara = bits - 1;
+        this.capacidade = capacidade;
+    }
+    
+    void incluir(long chave) {
+        long h = misturar(chave);
+        long h1 = h;
+        long h2 = (h >>> 32) | 1;
+        for (int i = 0; i < FUNCOES; i++) {
+            long bit = (h1 + i * h2) & mascara;
+            int indice = (int) (bit >>> 6);
+            long marca = 1L << bit;
+            long atual = palavras.get(indice);
+            while ((atual & marca) == 0 && !palavras.compareAndSet(indice, atual, atual | marca)) {
+                atual = palavras.get(indice);
+            }
+        }
+        inclusoes.incrementAndGet();
+    }
+    
+    boolean podeConter(long chave) {
+        long h = misturar(chave);
+        long h1 = h;
+        long h2 = (h >>> 32) | 1;
+        for (int i = 0; i < FUNCOES; i++) {
+            long bit = (h1 + i * h2) & mascara;
+            if ((palavras.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Recebeu mais inclusões do que a capacidade para a qual foi dimensionado
+     */
+    boolean saturado() {
+        return inclusoes.get() > capacidade;
+    }
+    
+    /**
+     * Finalizador do SplitMix64: espalha chaves sequenciais (números de conta) por todos os bits
+     */
+    private static long misturar(long chave) {
+        long z = chave + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
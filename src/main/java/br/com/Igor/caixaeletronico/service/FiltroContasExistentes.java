@@ -0,0 +1,170 @@
+package br.com.Igor.caixaeletronico.service;
+
+import br.com.Igor.caixaeletronico.entity.Cpf;
+import br.com.Igor.caixaeletronico.event.ContaCriadaEvent;
+import br.com.Igor.caixaeletronico.event.ContaExcluidaEvent;
+import br.com.Igor.caixaeletronico.event.TitularAlteradoEvent;
+import br.com.Igor.caixaeletronico.repository.ContaRepository;
+import br.com.Igor.caixaeletronico.repository.ContaResumo;
+import jakarta.annotation.PostConstruct;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Números de conta e CPFs já cadastrados, para a criação de conta dispensar as consultas de duplicidade
+ * 
+ * Um filtro de Bloom responde sem lock à maioria dos casos "não existe"; o que passa por ele
+ * é conferido nos conjuntos exatos. Só "pode existir" leva à consulta no banco, e a constraint
+ * única da tabela continua sendo a palavra final: um cadastro concorrente ainda não refletido
+ * aqui é recusado no INSERT.
+ * 
+ * Carregado da tabela na inicialização e mantido pelos eventos de conta após o commit.
+ */
+@Component
+public class FiltroContasExistentes {
+    
+    private static final Logger log = LoggerFactory.getLogger(FiltroContasExistentes.class);
+    
+    private final ContaRepository contaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long capacidadeInicial;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap numeros = new RoaringBitmap();
+    private final Roaring64Bitmap cpfs = new Roaring64Bitmap();
+    private volatile FiltroBloom filtroNumeros;
+    private volatile FiltroBloom filtroCpfs;
+    
+    public FiltroContasExistentes(
+            ContaRepository contaRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${caixaeletronico.filtro-contas.capacidade-inicial:1000000}") long capacidadeInicial) {
+        this.contaRepository = contaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.capacidadeInicial = capacidadeInicial;
+        this.filtroNumeros = new FiltroBloom(capacidadeInicial);
+        this.filtroCpfs = new FiltroBloom(capacidadeInicial);
+    }
+    
+    /**
+     * Carga inicial, antes de o servidor aceitar requisições
+     */
+    @PostConstruct
+    public void carregar() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<ContaResumo> contas = contaRepository.streamResumos()) {
+                contas.forEach(conta -> adicionar(conta.getNumero(), conta.getTitularCpf()));
+            }
+        });
+        log.info("Filtro de contas existentes carregado com {} contas", numeros.getLongCardinality());
+    }
+    
+    /**
+     * false garante que não há conta com o número; true exige a consulta ao banco
+     */
+    public boolean numeroPodeExistir(int numero) {
+        if (!filtroNumeros.podeConter(numero)) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return numeros.contains(numero);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * false garante que não há conta com o CPF; true exige a consulta ao banco
+     */
+    public boolean cpfPodeExistir(Cpf cpf) {
+        long chave = cpf.getNumero();
+        if (!filtroCpfs.podeConter(chave)) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return cpfs.contains(chave);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContaCriada(ContaCriadaEvent evento) {
+        adicionar(evento.getNumero(), evento.getTitularCpf());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTitularAlterado(TitularAlteradoEvent evento) {
+        if (evento.getTitularCpf().equals(evento.getTitularCpfAnterior())) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            cpfs.removeLong(evento.getTitularCpfAnterior().getNumero());
+            incluirCpf(evento.getTitularCpf().getNumero());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContaExcluida(ContaExcluidaEvent evento) {
+        lock.writeLock().lock();
+        try {
+            numeros.remove(evento.getNumero());
+            cpfs.removeLong(evento.getTitularCpf().getNumero());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void adicionar(int numero, Cpf cpf) {
+        lock.writeLock().lock();
+        try {
+            numeros.add(numero);
+            filtroNumeros.incluir(numero);
+            if (filtroNumeros.saturado()) {
+                FiltroBloom novo = new FiltroBloom(novaCapacidade(numeros.getLongCardinality()));
+                numeros.forEach((int n) -> novo.incluir(n));
+                filtroNumeros = novo;
+            }
+            incluirCpf(cpf.getNumero());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Chamado com o lock de escrita
+     */
+    private void incluirCpf(long cpf) {
+        cpfs.addLong(cpf);
+        filtroCpfs.incluir(cpf);
+        if (filtroCpfs.saturado()) {
+            FiltroBloom novo = new FiltroBloom(novaCapacidade(cpfs.getLongCardinality()));
+            cpfs.forEach(novo::incluir);
+            filtroCpfs = novo;
+        }
+    }
+    
+    /**
+     * O filtro cheio é refeito com o dobro dos elementos atuais; inclusões de contas já
+     * excluídas também contam para a saturação, então a troca limpa os bits delas
+     */
+    private long novaCapacidade(long elementos) {
+        return Math.max(capacidadeInicial, elementos * 2);
+    }
+}
@@ -0,0 +1,364 @@
+package br.com.Igor.caixaeletronico.service;
+
+import br.com.Igor.caixaeletronico.entity.Movimentacao;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Gravação do extrato com group commit
+ * 
+ * As movimentações de requisições concorrentes entram numa fila única; uma thread
+ * dedicada esvazia a fila e grava cada lote com um único batch JDBC e um único commit.
+ * Enquanto um lote está sendo gravado, o próximo vai se formando, então o custo
+ * de commit é dividido entre todas as operações do lote.
+ * 
+ * A operação que gerou a movimentação só é concluída depois que o seu lote foi
+ * commitado: a espera acontece no beforeCommit da transação da operação, e uma
+ * falha na gravação do extrato desfaz a alteração de saldo.
+ * 
+ * Antes de enfileirar, o beforeCommit descarrega (flush) as escritas que o JPA ainda
+ * adiava: o INSERT da conta criada com saldo inicial, os UPDATEs das estratégias
+ * pessimista e lock-local. Se uma delas falhar (uma conta duplicada criada ao mesmo
+ * tempo, por exemplo), a transação é desfeita sem que a movimentação chegue ao extrato.
+ * Depois do flush só resta o próprio commit da transação.
+ * 
+ * O lote é commitado antes da transação da operação, então uma transação que não chega
+ * ao commit (espera pelo lote esgotada, falha no próprio commit) cancela as suas movimentações:
+ * as que ainda estão na fila são marcadas como abandonadas e a escritora as descarta; as que
+ * já foram gravadas são apagadas no afterCompletion, antes de a operação devolver o erro.
+ * Para o commit que falha também passar pelo afterCompletion como desfeito, a aplicação usa
+ * spring.transaction.rollback-on-commit-failure=true.
+ * 
+ * A thread escritora mantém uma conexão exclusiva, fora da disputa pelo pool:
+ * as transações que aguardam o lote já seguram as suas conexões, e se a escritora
+ * dependesse do mesmo pool todas poderiam ficar esperando umas pelas outras.
+ */
+@Component
+public class GravadorMovimentacoes {
+    
+    private static final Logger log = LoggerFactory.getLogger(GravadorMovimentacoes.class);
+    
+    private static final String INSERT_SQL =
+            "INSERT INTO movimentacoes (numero_conta, tipo, valor, saldo_resultante, data_hora) VALUES (?, ?, ?, ?, ?)";
+    private static final String DELETE_SQL = "DELETE FROM movimentacoes WHERE id = ?";
+    
+    private final DataSource dataSource;
+    private final EntityManager entityManager;
+    private final HibernateJpaDialect dialetoJpa = new HibernateJpaDialect();
+    private final int tamanhoLote;
+    private final long timeoutMs;
+    private final BlockingQueue<Pendente> fila = new LinkedBlockingQueue<>();
+    
+    private volatile boolean ativo;
+    private Thread escritor;
+    private Connection conexao;
+    
+    public GravadorMovimentacoes(
+            DataSourceProperties dataSourceProperties,
+            EntityManager entityManager,
+            @Value("${caixaeletronico.movimentacoes.tamanho-lote:256}") int tamanhoLote,
+            @Value("${caixaeletronico.movimentacoes.timeout-ms:5000}") long timeoutMs) {
+        // Conexão aberta direto pelo driver, com as mesmas configurações do pool, mas sem passar por ele
+        this.dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(SimpleDriverDataSource.class)
+                .build();
+        this.entityManager = entityManager;
+        this.tamanhoLote = tamanhoLote;
+        this.timeoutMs = timeoutMs;
+    }
+    
+    @PostConstruct
+    public void iniciar() {
+        ativo = true;
+        escritor = new Thread(this::executar, "gravador-movimentacoes");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+    
+    @PreDestroy
+    public void parar() throws InterruptedException {
+        ativo = false;
+        escritor.interrupt();
+        escritor.join(timeoutMs);
+    }
+    
+    /**
+     * Registra a movimentação como parte da transação corrente
+     * A gravação acontece em lote, imediatamente antes do commit da transação
+     */
+    public void registrar(Movimentacao movimentacao) {
+        registrarTodas(List.of(movimentacao));
+    }
+    
+    /**
+     * Como registrar(), para várias movimentações de uma vez: todas entram na fila juntas
+     * e a transação espera uma só vez, em vez de um lote de group commit por movimentação
+     */
+    public void registrarTodas(List<Movimentacao> movimentacoes) {
+        if (movimentacoes.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            aguardar(enfileirar(movimentacoes));
+            return;
+        }
+        
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private List<Pendente> pendentes = List.of();
+            
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                descarregarPendentes();
+                pendentes = enfileirar(movimentacoes);
+                aguardar(pendentes);
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    cancelar(pendentes);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Flush do EntityManager da transação, com a exceção traduzida como no commit
+     * (DataIntegrityViolationException para número de conta ou CPF duplicado)
+     */
+    private void descarregarPendentes() {
+        if (!entityManager.isJoinedToTransaction()) {
+            return;
+        }
+        try {
+            entityManager.flush();
+        } catch (RuntimeException e) {
+            DataAccessException traduzida = dialetoJpa.translateExceptionIfPossible(e);
+            throw traduzida != null ? traduzida : e;
+        }
+    }
+    
+    private List<Pendente> enfileirar(List<Movimentacao> movimentacoes) {
+        if (!ativo) {
+            throw new IllegalStateException("Gravador de movimentações encerrado");
+        }
+        
+        List<Pendente> pendentes = new ArrayList<>(movimentacoes.size());
+        for (Movimentacao movimentacao : movimentacoes) {
+            pendentes.add(new Pendente(movimentacao));
+        }
+        fila.addAll(pendentes);
+        return pendentes;
+    }
+    
+    /**
+     * Espera o commit do lote; esgotado o tempo, as movimentações ainda não gravadas são
+     * abandonadas para a escritora não gravá-las depois que a operação já falhou
+     */
+    private void aguardar(List<Pendente> pendentes) {
+        CompletableFuture<?>[] concluidas = new CompletableFuture<?>[pendentes.size()];
+        for (int i = 0; i < concluidas.length; i++) {
+            concluidas[i] = pendentes.get(i).concluida;
+        }
+        try {
+            CompletableFuture.allOf(concluidas).get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            pendentes.forEach(Pendente::abandonar);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando gravação do extrato", e);
+        } catch (TimeoutException e) {
+            pendentes.forEach(Pendente::abandonar);
+            throw new IllegalStateException("Falha ao gravar movimentação no extrato", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha ao gravar movimentação no extrato", e);
+        }
+    }
+    
+    /**
+     * Cancela as movimentações de uma transação desfeita: as que não chegaram à escritora
+     * são abandonadas; as que estão num lote em gravação têm o resultado aguardado, e as
+     * gravadas são apagadas, para o extrato continuar batendo com o saldo
+     */
+    private void cancelar(List<Pendente> pendentes) {
+        List<Long> gravadas = new ArrayList<>();
+        for (Pendente pendente : pendentes) {
+            if (pendente.abandonar()) {
+                continue;
+            }
+            try {
+                pendente.concluida.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                // Lote com falha não gravou nada; lote que não terminou é tratado abaixo
+            }
+            if (pendente.estado.get() == Estado.GRAVADA) {
+                gravadas.add(pendente.id);
+            } else if (pendente.estado.get() == Estado.EM_GRAVACAO && !pendente.concluida.isDone()) {
+                log.error("Movimentação da conta {} sem confirmação do lote após o rollback; pode ficar no extrato",
+                        pendente.movimentacao.getNumeroConta());
+            }
+        }
+        if (gravadas.isEmpty()) {
+            return;
+        }
+        
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(DELETE_SQL)) {
+            for (Long id : gravadas) {
+                ps.setLong(1, id);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        } catch (SQLException e) {
+            log.error("Falha ao apagar as movimentações {} de uma transação desfeita", gravadas, e);
+        }
+    }
+    
+    /**
+     * Laço da thread escritora: bloqueia até chegar a primeira movimentação e
+     * leva junto tudo o que já estiver na fila, até o tamanho máximo do lote
+     */
+    private void executar() {
+        List<Pendente> lote = new ArrayList<>(tamanhoLote);
+        while (ativo || !fila.isEmpty()) {
+            try {
+                Pendente primeira = fila.poll(100, TimeUnit.MILLISECONDS);
+                if (primeira == null) {
+                    continue;
+                }
+                lote.add(primeira);
+            } catch (InterruptedException e) {
+                // Encerramento: segue esvaziando a fila antes de sair
+                if (fila.isEmpty()) {
+                    break;
+                }
+            }
+            
+            fila.drainTo(lote, tamanhoLote - lote.size());
+            gravar(lote);
+            lote.clear();
+        }
+        fecharConexao();
+    }
+    
+    private void gravar(List<Pendente> lote) {
+        // Abandonadas pela operação (tempo esgotado, rollback) não entram no lote
+        lote.removeIf(pendente -> !pendente.estado.compareAndSet(Estado.NA_FILA, Estado.EM_GRAVACAO));
+        if (lote.isEmpty()) {
+            return;
+        }
+        
+        try {
+            Connection c = conexao();
+            try (PreparedStatement ps = c.prepareStatement(INSERT_SQL, new String[] {"id"})) {
+                for (Pendente pendente : lote) {
+                    Movimentacao m = pendente.movimentacao;
+                    ps.setInt(1, m.getNumeroConta());
+                    ps.setString(2, m.getTipo().name());
+                    ps.setBigDecimal(3, m.getValor().toBigDecimal());
+                    ps.setBigDecimal(4, m.getSaldoResultante().toBigDecimal());
+                    ps.setTimestamp(5, Timestamp.valueOf(m.getDataHora()));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet chaves = ps.getGeneratedKeys()) {
+                    for (Pendente pendente : lote) {
+                        chaves.next();
+                        pendente.id = chaves.getLong(1);
+                    }
+                }
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            }
+            lote.forEach(pendente -> {
+                pendente.estado.set(Estado.GRAVADA);
+                pendente.concluida.complete(null);
+            });
+        } catch (SQLException e) {
+            log.error("Falha ao gravar lote de {} movimentações", lote.size(), e);
+            // Descarta a conexão; o próximo lote abre outra
+            fecharConexao();
+            lote.forEach(pendente -> pendente.concluida.completeExceptionally(e));
+        }
+    }
+    
+    private Connection conexao() throws SQLException {
+        if (conexao == null) {
+            conexao = dataSource.getConnection();
+            conexao.setAutoCommit(false);
+        }
+        return conexao;
+    }
+    
+    private void fecharConexao() {
+        if (conexao == null) {
+            return;
+        }
+        try {
+            conexao.close();
+        } catch (SQLException e) {
+            log.warn("Falha ao fechar conexão do gravador de movimentações", e);
+        }
+        conexao = null;
+    }
+    
+    private enum Estado {
+        NA_FILA,
+        EM_GRAVACAO,
+        GRAVADA,
+        ABANDONADA
+    }
+    
+    /**
+     * Movimentação aguardando gravação, com o sinal de conclusão para quem a registrou
+     * A escritora só a grava se conseguir tirá-la de NA_FILA antes de quem a registrou abandoná-la
+     */
+    private static class Pendente {
+        private final Movimentacao movimentacao;
+        private final CompletableFuture<Void> concluida = new CompletableFuture<>();
+        private final AtomicReference<Estado> estado = new AtomicReference<>(Estado.NA_FILA);
+        // Id gerado, atribuído antes de o estado passar a GRAVADA
+        private volatile Long id;
+        
+        Pendente(Movimentacao movimentacao) {
+            this.movimentacao = movimentacao;
+        }
+        
+        /**
+         * true se a movimentação não vai ser gravada (abandonada agora ou antes)
+         */
+        boolean abandonar() {
+            return estado.compareAndSet(Estado.NA_FILA, Estado.ABANDONADA) || estado.get() == Estado.ABANDONADA;
+        }
+    }
+}
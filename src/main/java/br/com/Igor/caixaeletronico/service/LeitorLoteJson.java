@@ -0,0 +1,295 @@
+package br.com.Igor.caixaeletronico.service;
+
+import br.com.Igor.caixaeletronico.dto.ResultadoItemLoteDTO;
+import br.com.Igor.caixaeletronico.exception.OperacaoInvalidaException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.json.async.NonBlockingJsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Leitura em streaming do array JSON das requisições em lote (/contas/lote, /operacoes/lote)
+ * 
+ * O array é consumido em blocos: cada bloco é convertido e validado em paralelo, os itens
+ * inválidos já saem recusados com 400 e os válidos vão juntos para o processador.
+ * Só um bloco fica em memória por vez. A API v4 usa a variante não bloqueante (lerReativo).
+ */
+@Component
+public class LeitorLoteJson {
+    
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    
+    public LeitorLoteJson(ObjectMapper objectMapper, Validator validator) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+    
+    /**
+     * Lê o array em blocos de tamanhoBloco itens e retorna o resultado de cada item, na ordem recebida
+     * O processador recebe os itens válidos de um bloco e devolve um resultado por item, na mesma ordem.
+     * JSON malformado interrompe a leitura com OperacaoInvalidaException; os blocos já processados
+     * até ali permanecem.
+     */
+    public <T> List<ResultadoItemLoteDTO> ler(InputStream corpo, Class<T> tipo, int tamanhoBloco,
+            Function<List<T>, List<ResultadoItemLoteDTO>> processador) throws IOException {
+        List<ResultadoItemLoteDTO> resultados = new ArrayList<>();
+        List<JsonNode> bloco = new ArrayList<>(tamanhoBloco);
+        
+        try (JsonParser parser = objectMapper.getFactory().createParser(corpo)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new OperacaoInvalidaException("O corpo deve ser um array JSON");
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (parser.currentToken() == null) {
+                    throw new OperacaoInvalidaException("Array JSON incompleto");
+                }
+                bloco.add(parser.readValueAsTree());
+                if (bloco.size() == tamanhoBloco) {
+                    processar(bloco, tipo, processador, resultados);
+                    bloco.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new OperacaoInvalidaException("JSON inválido após " + (resultados.size() + bloco.size())
+                    + " itens (os " + resultados.size() + " primeiros já foram processados): "
+                    + e.getOriginalMessage());
+        }
+        processar(bloco, tipo, processador, resultados);
+        return resultados;
+    }
+    
+    private <T> void processar(List<JsonNode> bloco, Class<T> tipo,
+            Function<List<T>, List<ResultadoItemLoteDTO>> processador, List<ResultadoItemLoteDTO> resultados) {
+        if (bloco.isEmpty()) {
+            return;
+        }
+        BlocoConvertido<T> convertido = converter(bloco, resultados.size(), tipo);
+        resultados.addAll(convertido.combinar(
+                convertido.validos.isEmpty() ? List.of() : processador.apply(convertido.validos)));
+    }
+    
+    /**
+     * Versão não bloqueante de ler, para a API v4: o corpo chega em buffers e é analisado
+     * à medida que chega (parser não bloqueante do Jackson). Os blocos são processados um
+     * de cada vez; o próximo buffer só é pedido ao servidor quando há espaço no bloco, então
+     * um cliente mais rápido que o banco espera em vez de acumular o corpo em memória.
+     */
+    public <T> Mono<List<ResultadoItemLoteDTO>> lerReativo(Flux<DataBuffer> corpo, Class<T> tipo, int tamanhoBloco,
+            Function<List<T>, Mono<List<ResultadoItemLoteDTO>>> processador) {
+        return Mono.defer(() -> {
+            ArrayIncremental array = new ArrayIncremental();
+            List<ResultadoItemLoteDTO> resultados = new ArrayList<>();
+            
+            return corpo.concatMapIterable(buffer -> {
+                        try {
+                            return array.alimentar(buffer);
+                        } catch (IOException e) {
+                            throw Exceptions.propagate(e);
+                        }
+                    })
+                    .concatWith(Flux.defer(() -> {
+                        try {
+                            return Flux.fromIterable(array.terminar());
+                        } catch (IOException e) {
+                            return Flux.error(e);
+                        }
+                    }))
+                    .buffer(tamanhoBloco)
+                    // Sem prefetch além de um bloco; o erro de leitura espera o bloco em andamento terminar
+                    .concatMapDelayError(bloco -> {
+                        BlocoConvertido<T> convertido = converter(bloco, resultados.size(), tipo);
+                        Mono<List<ResultadoItemLoteDTO>> processados = convertido.validos.isEmpty()
+                                ? Mono.just(List.of())
+                                : processador.apply(convertido.validos);
+                        return processados.map(convertido::combinar);
+                    }, false, 1)
+                    .doOnNext(resultados::addAll)
+                    .then(Mono.fromSupplier(() -> resultados))
+                    .onErrorMap(JsonProcessingException.class, e -> new OperacaoInvalidaException(
+                            "JSON inválido após " + array.lidos + " itens (os " + resultados.size()
+                            + " primeiros já foram processados): " + e.getOriginalMessage()));
+        });
+    }
+    
+    /**
+     * Converte e valida o bloco em paralelo; cada posição recebe o item ou o motivo da recusa
+     * primeiro é a posição do bloco no array
+     */
+    private <T> BlocoConvertido<T> converter(List<JsonNode> bloco, int primeiro, Class<T> tipo) {
+        Object[] convertidos = IntStream.range(0, bloco.size())
+                .parallel()
+                .mapToObj(i -> converter(bloco.get(i), tipo))
+                .toArray();
+        
+        BlocoConvertido<T> convertido = new BlocoConvertido<>(primeiro, bloco.size());
+        for (int i = 0; i < convertidos.length; i++) {
+            if (tipo.isInstance(convertidos[i])) {
+                convertido.posicoes[convertido.validos.size()] = i;
+                convertido.validos.add(tipo.cast(convertidos[i]));
+            } else {
+                JsonNode numero = bloco.get(i).path("numero");
+                convertido.doBloco[i] = ResultadoItemLoteDTO.recusado(primeiro + i,
+                        numero.canConvertToInt() ? numero.intValue() : null, 400, (String) convertidos[i]);
+            }
+        }
+        return convertido;
+    }
+    
+    /**
+     * Itens válidos de um bloco e as recusas dos demais, à espera do resultado do processador
+     */
+    private static class BlocoConvertido<T> {
+        private final int primeiro;
+        private final List<T> validos;
+        private final int[] posicoes;
+        private final ResultadoItemLoteDTO[] doBloco;
+        
+        BlocoConvertido(int primeiro, int tamanho) {
+            this.primeiro = primeiro;
+            this.validos = new ArrayList<>(tamanho);
+            this.posicoes = new int[tamanho];
+            this.doBloco = new ResultadoItemLoteDTO[tamanho];
+        }
+        
+        /**
+         * Resultados do bloco na ordem recebida; processados tem um resultado por item válido
+         */
+        List<ResultadoItemLoteDTO> combinar(List<ResultadoItemLoteDTO> processados) {
+            for (int j = 0; j < processados.size(); j++) {
+                int i = posicoes[j];
+                doBloco[i] = processados.get(j).comIndice(primeiro + i);
+            }
+            return List.of(doBloco);
+        }
+    }
+    
+    /**
+     * Separa os itens do array a partir de pedaços do corpo, sem esperar o corpo inteiro
+     * Cada item é montado num TokenBuffer enquanto os seus tokens chegam.
+     */
+    private class ArrayIncremental {
+        private final NonBlockingJsonParser parser;
+        private TokenBuffer item;
+        private int profundidadeItem;
+        private boolean iniciado;
+        private boolean concluido;
+        private long lidos;
+        
+        ArrayIncremental() {
+            try {
+                parser = (NonBlockingJsonParser) objectMapper.getFactory().createNonBlockingByteArrayParser();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        List<JsonNode> alimentar(DataBuffer buffer) throws IOException {
+            try {
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                if (concluido) {
+                    return List.of();
+                }
+                parser.feedInput(bytes, 0, bytes.length);
+                return itensDisponiveis();
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+        
+        List<JsonNode> terminar() throws IOException {
+            if (concluido) {
+                return List.of();
+            }
+            parser.endOfInput();
+            List<JsonNode> ultimos = itensDisponiveis();
+            if (!concluido) {
+                throw new OperacaoInvalidaException(iniciado ? "Array JSON incompleto" : "O corpo deve ser um array JSON");
+            }
+            return ultimos;
+        }
+        
+        private List<JsonNode> itensDisponiveis() throws IOException {
+            List<JsonNode> itens = new ArrayList<>();
+            JsonToken token;
+            while (!concluido && (token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+                if (!iniciado) {
+                    if (token != JsonToken.START_ARRAY) {
+                        throw new OperacaoInvalidaException("O corpo deve ser um array JSON");
+                    }
+                    iniciado = true;
+                    continue;
+                }
+                if (item == null) {
+                    if (token == JsonToken.END_ARRAY) {
+                        concluido = true;
+                        break;
+                    }
+                    item = new TokenBuffer(parser);
+                    profundidadeItem = 0;
+                }
+                item.copyCurrentEvent(parser);
+                if (token.isStructStart()) {
+                    profundidadeItem++;
+                } else if (token.isStructEnd()) {
+                    profundidadeItem--;
+                }
+                if (profundidadeItem == 0) {
+                    try (JsonParser leitor = item.asParser(objectMapper)) {
+                        itens.add(objectMapper.readTree(leitor));
+                    }
+                    item = null;
+                    lidos++;
+                }
+            }
+            return itens;
+        }
+    }
+    
+    /**
+     * Item válido, ou a mensagem do problema encontrado
+     */
+    private Object converter(JsonNode no, Class<?> tipo) {
+        if (!no.isObject()) {
+            return no.isNull() ? "Item nulo" : "Item deve ser um objeto JSON";
+        }
+        Object item;
+        try {
+            item = objectMapper.treeToValue(no, tipo);
+        } catch (JsonProcessingException e) {
+            Throwable causa = e.getCause();
+            return causa instanceof IllegalArgumentException ? causa.getMessage() : "Item inválido: " + e.getOriginalMessage();
+        }
+        
+        Set<ConstraintViolation<Object>> violacoes = validator.validate(item);
+        if (violacoes.isEmpty()) {
+            return item;
+        }
+        return violacoes.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
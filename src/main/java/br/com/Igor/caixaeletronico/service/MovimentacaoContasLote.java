@@ -0,0 +1,50 @@
+package br.com.Igor.caixaeletronico.service;
+
+import br.com.Igor.caixaeletronico.dto.OperacaoLoteDTO;
+import br.com.Igor.caixaeletronico.dto.ResultadoLoteDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Depósitos e saques em lote a partir de um array JSON lido em streaming
+ * 
+ * O array é consumido em blocos de tamanho-lote operações (LeitorLoteJson); cada bloco é
+ * aplicado numa transação, com um UPDATE por conta. Os blocos seguem a ordem do array,
+ * então as operações de uma mesma conta são avaliadas na ordem recebida mesmo quando
+ * caem em blocos diferentes.
+ */
+@Service
+public class MovimentacaoContasLote {
+    
+    private static final Logger log = LoggerFactory.getLogger(MovimentacaoContasLote.class);
+    
+    private final OperacoesContas contaService;
+    private final LeitorLoteJson leitorLote;
+    private final int tamanhoLote;
+    
+    public MovimentacaoContasLote(
+            OperacoesContas contaService,
+            LeitorLoteJson leitorLote,
+            @Value("${caixaeletronico.operacoes-lote.tamanho-lote:1000}") int tamanhoLote) {
+        this.contaService = contaService;
+        this.leitorLote = leitorLote;
+        this.tamanhoLote = tamanhoLote;
+    }
+    
+    /**
+     * Aplica as operações do array e retorna o resultado de cada uma, na ordem recebida
+     * JSON malformado interrompe a leitura com OperacaoInvalidaException; os blocos já lidos
+     * até ali permanecem aplicados
+     */
+    public ResultadoLoteDTO movimentar(InputStream corpo) throws IOException {
+        ResultadoLoteDTO resultado = new ResultadoLoteDTO(
+                leitorLote.ler(corpo, OperacaoLoteDTO.class, tamanhoLote, contaService::movimentarContas));
+        log.info("Lote de operações: {} aplicadas, {} recusadas", resultado.getAceitos(), resultado.getRecusados());
+        return resultado;
+    }
+}
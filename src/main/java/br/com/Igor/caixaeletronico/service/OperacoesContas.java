@@ -0,0 +1,105 @@
+package br.com.Igor.caixaeletronico.service;
+
+import br.com.Igor.caixaeletronico.dto.ContaRequestDTO;
+import br.com.Igor.caixaeletronico.dto.ContaResponseDTO;
+import br.com.Igor.caixaeletronico.dto.OperacaoLoteDTO;
+import br.com.Igor.caixaeletronico.dto.PaginaDTO;
+import br.com.Igor.caixaeletronico.dto.ResultadoItemLoteDTO;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.exception.VersaoDivergenteException;
+import br.com.Igor.caixaeletronico.repository.SaldoVersionado;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Operações de conta usadas pela API v3
+ * 
+ * Implementações:
+ * - ContaServiceV2: JPA/H2 (padrão)
+ * - ContaServiceMemoria: contas em memória com snapshot em arquivo (profile "memoria")
+ * 
+ * Contrato de erros: ContaNaoEncontradaException, ContaJaExisteException (número ou CPF já cadastrado)
+ * e OperacaoInvalidaException (valor inválido, saldo insuficiente)
+ * 
+ * Versões (ETag da API v3): só ContaServiceV2 versiona as contas; os métodos padrão abaixo
+ * valem para motores sem versão, em que nenhum GET condicional dá 304 e todo If-Match falha.
+ */
+public interface OperacoesContas {
+    
+    PaginaDTO<ContaResponseDTO> listarContas(Integer apos, int limite);
+    
+    ContaResponseDTO buscarConta(Integer numero);
+    
+    /**
+     * Versão atual da conta, sem carregar a conta inteira; vazio se a conta não existe
+     * ou o motor não versiona as contas (o GET segue então pelo caminho normal)
+     */
+    default Optional<Long> versaoConta(Integer numero) {
+        return Optional.empty();
+    }
+    
+    /**
+     * Contas cujo nome do titular contém o texto (sem acentos nem caixa), em ordem de relevância
+     * proximoCursor da página é o deslocamento da página seguinte
+     */
+    PaginaDTO<ContaResponseDTO> buscarPorNome(String nome, int deslocamento, int limite);
+    
+    ContaResponseDTO criarConta(ContaRequestDTO requestDTO);
+    
+    /**
+     * Cria as contas de um lote já validado, de uma vez; o resultado segue a ordem do lote
+     * (indice = posição na lista). Número ou CPF já cadastrado, ou repetido no próprio lote,
+     * recusa só aquele item (409). Pode lançar DataIntegrityViolationException se outro cadastro
+     * concorrente passar na frente: nesse caso nenhuma conta do lote foi criada.
+     */
+    List<ResultadoItemLoteDTO> criarContas(List<ContaRequestDTO> lote);
+    
+    ContaResponseDTO atualizarTitular(Integer numero, ContaRequestDTO requestDTO);
+    
+    /**
+     * Atualiza o titular só se a versão atual da conta for uma das informadas (If-Match)
+     * versoesAceitas null = sem condição. Lança VersaoDivergenteException se não for;
+     * conta inexistente continua sendo ContaNaoEncontradaException.
+     */
+    default ContaResponseDTO atualizarTitular(Integer numero, ContaRequestDTO requestDTO,
+                                              Collection<Long> versoesAceitas) {
+        if (versoesAceitas != null) {
+            buscarConta(numero);
+            throw new VersaoDivergenteException(numero, null);
+        }
+        return atualizarTitular(numero, requestDTO);
+    }
+    
+    ContaResponseDTO depositar(Integer numero, Dinheiro valor);
+    
+    ContaResponseDTO sacar(Integer numero, Dinheiro valor);
+    
+    /**
+     * Aplica os depósitos e saques de um lote já validado; o resultado segue a ordem do lote.
+     * As operações de cada conta são avaliadas na ordem recebida, com a mesma regra da operação
+     * individual: saldo insuficiente ou valor acima do limite recusa só aquele item (400) e conta
+     * inexistente recusa com 404. O saldo final de cada conta é gravado de uma vez.
+     */
+    List<ResultadoItemLoteDTO> movimentarContas(List<OperacaoLoteDTO> lote);
+    
+    Dinheiro consultarSaldo(Integer numero);
+    
+    /**
+     * Saldo com a versão da conta (null quando o motor não versiona as contas)
+     */
+    default SaldoVersionado consultarSaldoVersionado(Integer numero) {
+        return new SaldoVersionado(consultarSaldo(numero), null);
+    }
+    
+    void excluirConta(Integer numero);
+    
+    /**
+     * Escreve todas as contas do motor, em ordem de número, no formato da exportação
+     * (linhas de ExportadorContas); retorna a quantidade exportada
+     */
+    long exportarContas(OutputStream saida, ExportadorContas.Formato formato) throws IOException;
+}
@@ -0,0 +1,244 @@
+package br.com.Igor.caixaeletronico.service;
+
+import br.com.Igor.caixaeletronico.entity.RespostaIdempotente;
+import br.com.Igor.caixaeletronico.repository.RespostaIdempotenteRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Respostas das requisições com Idempotency-Key, para as novas tentativas não repetirem a operação
+ * 
+ * A resposta fica num cache limitado (em bytes) e numa tabela, que sobrevive ao reinício e ao
+ * despejo do cache, até expirar. Um filtro de Bloom das chaves da tabela responde sem consulta
+ * ao banco à maioria das chaves novas, que são o caminho comum.
+ * 
+ * Requisições concorrentes com a mesma chave são executadas uma única vez (single-flight):
+ * as demais esperam a primeira terminar e recebem a mesma resposta.
+ */
+@Component
+public class RegistroIdempotencia {
+    
+    private static final Logger log = LoggerFactory.getLogger(RegistroIdempotencia.class);
+    
+    private final RespostaIdempotenteRepository repository;
+    private final TransactionTemplate transacaoLeitura;
+    private final TransactionTemplate transacaoGravacao;
+    private final Duration validade;
+    private final long esperaMs;
+    private final long capacidadeFiltro;
+    private final Cache<String, RespostaIdempotente> respostas;
+    private final ConcurrentHashMap<String, CompletableFuture<RespostaIdempotente>> emAndamento = new ConcurrentHashMap<>();
+    
+    // Inclusões no filtro usam o lock de leitura; a reconstrução usa o de escrita para não perder nenhuma
+    private final ReentrantReadWriteLock lockFiltro = new ReentrantReadWriteLock();
+    private volatile FiltroBloom chavesGravadas;
+    
+    public RegistroIdempotencia(
+            RespostaIdempotenteRepository repository,
+            PlatformTransactionManager transactionManager,
+            @Value("${caixaeletronico.idempotencia.validade-horas:24}") long validadeHoras,
+            @Value("${caixaeletronico.idempotencia.cache-bytes:67108864}") long cacheBytes,
+            @Value("${caixaeletronico.idempotencia.capacidade-filtro:1000000}") long capacidadeFiltro,
+            @Value("${caixaeletronico.idempotencia.espera-ms:30000}") long esperaMs) {
+        this.repository = repository;
+        this.transacaoLeitura = new TransactionTemplate(transactionManager);
+        this.transacaoLeitura.setReadOnly(true);
+        // Gravação independente da transação da operação, que já foi concluída
+        this.transacaoGravacao = new TransactionTemplate(transactionManager);
+        this.transacaoGravacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.validade = Duration.ofHours(validadeHoras);
+        this.esperaMs = esperaMs;
+        this.capacidadeFiltro = capacidadeFiltro;
+        this.chavesGravadas = new FiltroBloom(capacidadeFiltro);
+        this.respostas = Caffeine.newBuilder()
+                .maximumWeight(cacheBytes)
+                .weigher((String chave, RespostaIdempotente r) -> chave.length() * 2 + r.getCorpo().length + 128)
+                .expireAfterWrite(validade)
+                .build();
+    }
+    
+    /**
+     * Requisição executada quando a chave ainda não tem resposta
+     */
+    @FunctionalInterface
+    public interface Requisicao {
+        RespostaIdempotente executar() throws Exception;
+    }
+    
+    @PostConstruct
+    public void carregar() {
+        reconstruirFiltro();
+        log.info("Registro de idempotência carregado");
+    }
+    
+    /**
+     * Executa a requisição uma única vez por chave
+     * Retorna vazio quando foi executada nesta chamada (a resposta já foi enviada por quem executou);
+     * senão, a resposta a repetir: a já registrada ou a de uma execução concorrente com a mesma chave.
+     * TimeoutException se a execução concorrente não terminar dentro de espera-ms.
+     */
+    public Optional<RespostaIdempotente> executarUmaVez(String chave, Requisicao requisicao) throws Exception {
+        Optional<RespostaIdempotente> registrada = buscar(chave);
+        if (registrada.isPresent()) {
+            return registrada;
+        }
+        
+        CompletableFuture<RespostaIdempotente> execucao = new CompletableFuture<>();
+        CompletableFuture<RespostaIdempotente> concorrente = emAndamento.putIfAbsent(chave, execucao);
+        if (concorrente != null) {
+            return Optional.of(aguardar(concorrente));
+        }
+        
+        try {
+            // A execução anterior pode ter terminado entre a busca e o putIfAbsent
+            registrada = buscar(chave);
+            if (registrada.isPresent()) {
+                execucao.complete(registrada.get());
+                return registrada;
+            }
+            
+            RespostaIdempotente resposta = requisicao.executar();
+            // Erro do servidor não é guardado: a nova tentativa executa de novo
+            if (resposta.getStatus() < 500) {
+                guardar(resposta);
+            }
+            execucao.complete(resposta);
+            return Optional.empty();
+        } catch (Exception | Error e) {
+            execucao.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(chave, execucao);
+        }
+    }
+    
+    /**
+     * Validade de uma resposta guardada agora
+     */
+    public LocalDateTime expiracao() {
+        return LocalDateTime.now().plus(validade);
+    }
+    
+    /**
+     * Resposta ainda válida para a chave: do cache; ou da tabela, se o filtro não descartar a chave
+     */
+    Optional<RespostaIdempotente> buscar(String chave) {
+        LocalDateTime agora = LocalDateTime.now();
+        RespostaIdempotente resposta = respostas.getIfPresent(chave);
+        if (resposta == null) {
+            if (!chavesGravadas.podeConter(chaveFiltro(chave))) {
+                return Optional.empty();
+            }
+            resposta = transacaoLeitura.execute(status -> repository.findById(chave).orElse(null));
+            if (resposta == null) {
+                return Optional.empty();
+            }
+            respostas.put(chave, resposta);
+        }
+        return resposta.expirada(agora) ? Optional.empty() : Optional.of(resposta);
+    }
+    
+    private void guardar(RespostaIdempotente resposta) {
+        respostas.put(resposta.getChave(), resposta);
+        lockFiltro.readLock().lock();
+        try {
+            chavesGravadas.incluir(chaveFiltro(resposta.getChave()));
+        } finally {
+            lockFiltro.readLock().unlock();
+        }
+        
+        try {
+            transacaoGravacao.executeWithoutResult(status -> repository.save(resposta));
+        } catch (DataIntegrityViolationException e) {
+            // Linha expirada da mesma chave que a limpeza ainda não removeu
+            try {
+                transacaoGravacao.executeWithoutResult(status -> {
+                    repository.excluirExpiradas(LocalDateTime.now());
+                    repository.save(resposta);
+                });
+            } catch (RuntimeException falha) {
+                log.error("Resposta idempotente da chave {} mantida só no cache", resposta.getChave(), falha);
+            }
+        } catch (RuntimeException e) {
+            // A operação já foi feita: a resposta segue para o cliente e fica ao menos no cache
+            log.error("Resposta idempotente da chave {} mantida só no cache", resposta.getChave(), e);
+        }
+        
+        if (chavesGravadas.saturado()) {
+            reconstruirFiltro();
+        }
+    }
+    
+    private RespostaIdempotente aguardar(CompletableFuture<RespostaIdempotente> execucao) throws Exception {
+        try {
+            return execucao.get(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // A execução concorrente falhou antes de produzir resposta: esta tentativa falha igual
+            throw e.getCause() instanceof Exception causa ? causa : e;
+        }
+    }
+    
+    /**
+     * Remove as respostas expiradas da tabela e refaz o filtro sem as chaves delas
+     */
+    @Scheduled(fixedDelayString = "${caixaeletronico.idempotencia.limpeza-ms:600000}",
+               initialDelayString = "${caixaeletronico.idempotencia.limpeza-ms:600000}")
+    public void limparExpiradas() {
+        Integer removidas = transacaoGravacao.execute(status -> repository.excluirExpiradas(LocalDateTime.now()));
+        if (removidas != null && removidas > 0) {
+            log.info("Removidas {} respostas idempotentes expiradas", removidas);
+            reconstruirFiltro();
+        }
+    }
+    
+    /**
+     * Dimensionado para o dobro das chaves válidas, no mínimo capacidade-filtro
+     */
+    private void reconstruirFiltro() {
+        lockFiltro.writeLock().lock();
+        try {
+            transacaoLeitura.executeWithoutResult(status -> {
+                LocalDateTime agora = LocalDateTime.now();
+                FiltroBloom novo = new FiltroBloom(Math.max(capacidadeFiltro, repository.countByExpiraEmAfter(agora) * 2));
+                try (Stream<String> chaves = repository.streamChavesValidas(agora)) {
+                    chaves.forEach(chave -> novo.incluir(chaveFiltro(chave)));
+                }
+                chavesGravadas = novo;
+            });
+        } finally {
+            lockFiltro.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Hash de 64 bits do texto; o FiltroBloom espalha os bits antes de usar
+     */
+    private static long chaveFiltro(String chave) {
+        long h = 1125899906842597L;
+        for (int i = 0; i < chave.length(); i++) {
+            h = 31 * h + chave.charAt(i);
+        }
+        return h;
+    }
+}
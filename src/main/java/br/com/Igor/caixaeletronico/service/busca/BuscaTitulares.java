@@ -0,0 +1,76 @@
+package br.com.Igor.caixaeletronico.service.busca;
+
+import br.com.Igor.caixaeletronico.event.ContaCriadaEvent;
+import br.com.Igor.caixaeletronico.event.ContaExcluidaEvent;
+import br.com.Igor.caixaeletronico.event.TitularAlteradoEvent;
+import br.com.Igor.caixaeletronico.repository.ContaRepository;
+import br.com.Igor.caixaeletronico.repository.ContaResumo;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+/**
+ * Índice de nomes dos titulares das contas JPA
+ * 
+ * Construído a partir da tabela na inicialização e mantido pelos eventos de conta
+ * após o commit, então uma conta criada já aparece na busca quando a criação responde.
+ * O motor em memória (profile "memoria") mantém o próprio índice.
+ */
+@Component
+@Profile("!memoria")
+public class BuscaTitulares {
+    
+    private static final Logger log = LoggerFactory.getLogger(BuscaTitulares.class);
+    
+    private final ContaRepository contaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final IndiceNomes indice = new IndiceNomes();
+    
+    public BuscaTitulares(ContaRepository contaRepository, PlatformTransactionManager transactionManager) {
+        this.contaRepository = contaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+    
+    /**
+     * Indexa as contas existentes, antes de o servidor aceitar requisições
+     */
+    @PostConstruct
+    public void construir() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<ContaResumo> contas = contaRepository.streamResumos()) {
+                contas.forEach(conta -> indice.adicionar(conta.getNumero(), conta.getTitularNome()));
+            }
+        });
+        log.info("Índice de nomes construído com {} contas", indice.tamanho());
+    }
+    
+    /**
+     * Números das contas cujo nome do titular contém a consulta, em ordem de relevância
+     */
+    public int[] buscar(String nome, int deslocamento, int quantidade) {
+        return indice.buscar(nome, deslocamento, quantidade);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContaCriada(ContaCriadaEvent evento) {
+        indice.adicionar(evento.getNumero(), evento.getTitularNome());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTitularAlterado(TitularAlteradoEvent evento) {
+        indice.adicionar(evento.getNumero(), evento.getTitularNome());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContaExcluida(ContaExcluidaEvent evento) {
+        indice.remover(evento.getNumero());
+    }
+}
@@ -0,0 +1,407 @@
+package br.com.Igor.caixaeletronico.service.busca;
+
+import br.com.Igor.caixaeletronico.exception.OperacaoInvalidaException;
+import org.roaringbitmap.Container;
+import org.roaringbitmap.ContainerPointer;
+import org.roaringbitmap.PeekableCharIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Índice invertido de trigramas sobre o nome do titular
+ *
+ * Os nomes são normalizados (minúsculas, sem acentos, só letras e dígitos separados por um espaço),
+ * então "Conceição" e "conceicao" são equivalentes. Cada termo do nome (trigramas, início de cada
+ * palavra e pares de palavras consecutivas) tem o conjunto, em bitmap compactado, dos números de
+ * conta que o contêm; a busca intersecta os conjuntos dos termos da consulta e confirma cada
+ * candidato no nome normalizado. O resultado equivale a um LIKE '%nome%' sem acentos nem caixa,
+ * sem varrer todas as contas.
+ *
+ * Ordem de relevância: nome que começa com a consulta, palavra que começa com a consulta,
+ * ocorrência no meio de palavra; no empate, número da conta. O início do nome e o início de
+ * palavra têm termos próprios ("^jo", " jo"), então cada faixa é percorrida separadamente,
+ * já em ordem de número, e a busca para assim que a página está completa: o custo depende do
+ * deslocamento e do tamanho da página, não da quantidade de nomes encontrados.
+ *
+ * Seguro para uso concorrente: buscas compartilham o lock de leitura, alterações usam o de escrita.
+ */
+public class IndiceNomes {
+
+    public static final int TAMANHO_MINIMO_CONSULTA = 3;
+
+    private static final int INICIO_NOME = 1;
+    private static final int INICIO_PALAVRA = 2;
+    private static final int MEIO_PALAVRA = 3;
+
+    // Alfabeto dos trigramas: espaço, a-z, 0-9 e o marcador de início do nome
+    private static final char MARCA_INICIO = '^';
+    private static final int SIMBOLOS = 38;
+    private static final int TRIGRAMAS = SIMBOLOS * SIMBOLOS * SIMBOLOS;
+
+    // Pares (palavra inteira ou marcador de início + início da palavra seguinte), espalhados por hash
+    // depois dos trigramas; colisões só deixam o filtro menos seletivo
+    private static final int PARES = 1 << 18;
+    private static final int PREFIXO_PAR = 3;
+    private static final String INICIO_DO_NOME = String.valueOf(MARCA_INICIO);
+    private static final String INICIO_DE_PALAVRA = " ";
+
+    // Caractere base de cada código até o fim do Latim Estendido-B; IGNORAR para marcas combinantes
+    private static final char IGNORAR = '\0';
+    private static final char[] BASE = new char[0x0250];
+
+    static {
+        for (char c = 0; c < BASE.length; c++) {
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                BASE[c] = IGNORAR;
+                continue;
+            }
+            char base = Character.toLowerCase(Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD).charAt(0));
+            BASE[c] = (base >= 'a' && base <= 'z') || (base >= '0' && base <= '9') ? base : ' ';
+        }
+    }
+
+    private static final RoaringBitmap VAZIO = new RoaringBitmap();
+
+    // Abaixo disso por janela, conferir o nome de cada candidato sai mais barato que outra interseção
+    private static final int CANDIDATOS_SEM_FILTRO = 32;
+
+    private final StampedLock lock = new StampedLock();
+    private final RoaringBitmap[] postagens = new RoaringBitmap[TRIGRAMAS + PARES];
+    private final Map<Integer, String> nomes = new HashMap<>();
+
+    /**
+     * Forma normalizada usada no índice e na consulta
+     * Caracteres fora do alfabeto latino viram separadores
+     */
+    public static String normalizar(String nome) {
+        StringBuilder normalizado = new StringBuilder(nome.length());
+        boolean separador = true;
+        for (int i = 0; i < nome.length(); i++) {
+            char c = nome.charAt(i);
+            char base = c < BASE.length ? BASE[c]
+                    : Character.getType(c) == Character.NON_SPACING_MARK ? IGNORAR : ' ';
+            if (base == IGNORAR) {
+                continue;
+            }
+            if (base == ' ') {
+                separador = true;
+                continue;
+            }
+            if (separador && normalizado.length() > 0) {
+                normalizado.append(' ');
+            }
+            normalizado.append(base);
+            separador = false;
+        }
+        return normalizado.toString();
+    }
+
+    /**
+     * Indexa (ou reindexa) o nome da conta
+     */
+    public void adicionar(int numero, String nome) {
+        String normalizado = normalizar(nome);
+        long stamp = lock.writeLock();
+        try {
+            String anterior = nomes.put(numero, normalizado);
+            if (anterior != null) {
+                if (anterior.equals(normalizado)) {
+                    return;
+                }
+                for (int termo : termosDoNome(anterior)) {
+                    postagens[termo].remove(numero);
+                }
+            }
+            for (int termo : termosDoNome(normalizado)) {
+                if (postagens[termo] == null) {
+                    postagens[termo] = new RoaringBitmap();
+                }
+                postagens[termo].add(numero);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Retira a conta do índice; conta não indexada é ignorada
+     */
+    public void remover(int numero) {
+        long stamp = lock.writeLock();
+        try {
+            String anterior = nomes.remove(numero);
+            if (anterior == null) {
+                return;
+            }
+            for (int termo : termosDoNome(anterior)) {
+                postagens[termo].remove(numero);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int tamanho() {
+        long stamp = lock.readLock();
+        try {
+            return nomes.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Números das contas cujo nome contém a consulta, em ordem de relevância,
+     * a partir da posição deslocamento e com no máximo quantidade itens
+     */
+    public int[] buscar(String consulta, int deslocamento, int quantidade) {
+        String normalizada = normalizar(consulta);
+        if (normalizada.length() < TAMANHO_MINIMO_CONSULTA) {
+            throw new OperacaoInvalidaException(
+                "Informe ao menos " + TAMANHO_MINIMO_CONSULTA + " letras ou dígitos do nome");
+        }
+        Coleta coleta = new Coleta(normalizada, deslocamento, quantidade);
+
+        long stamp = lock.readLock();
+        try {
+            coletar(conjuntosEmOrdem(normalizada, MARCA_INICIO), INICIO_NOME, coleta);
+            coletar(conjuntosEmOrdem(normalizada, ' '), INICIO_PALAVRA, coleta);
+            coletar(conjuntosEmOrdem(normalizada, IGNORAR), MEIO_PALAVRA, coleta);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        return Arrays.copyOf(coleta.numeros, coleta.encontrados);
+    }
+
+    /**
+     * Percorre em ordem de número as contas presentes em todos os conjuntos dos termos
+     * e aceita as que estão na faixa de relevância, até a coleta estar completa
+     * 
+     * A interseção é feita por janela de 2^16 números (um container de cada bitmap), só nas
+     * janelas em que o menor conjunto tem contas, e para assim que a página está completa.
+     * Os termos são só um filtro: a confirmação no nome normalizado decide o resultado.
+     */
+    private void coletar(List<RoaringBitmap> conjuntos, int relevancia, Coleta coleta) {
+        if (coleta.completa()) {
+            return;
+        }
+
+        ContainerPointer[] ponteiros = new ContainerPointer[conjuntos.size()];
+        for (int i = 0; i < ponteiros.length; i++) {
+            ponteiros[i] = conjuntos.get(i).getContainerPointer();
+        }
+
+        ContainerPointer menor = ponteiros[0];
+        janelas:
+        for (; menor.getContainer() != null && !coleta.completa(); menor.advance()) {
+            char janela = menor.key();
+            Container candidatos = menor.getContainer();
+            for (int i = 1; i < ponteiros.length && candidatos.getCardinality() > CANDIDATOS_SEM_FILTRO; i++) {
+                ContainerPointer outro = ponteiros[i];
+                while (outro.getContainer() != null && outro.key() < janela) {
+                    outro.advance();
+                }
+                if (outro.getContainer() == null) {
+                    return;
+                }
+                if (outro.key() != janela) {
+                    continue janelas;
+                }
+                candidatos = candidatos.and(outro.getContainer());
+                if (candidatos.isEmpty()) {
+                    continue janelas;
+                }
+            }
+
+            PeekableCharIterator baixos = candidatos.getCharIterator();
+            while (!coleta.completa() && baixos.hasNext()) {
+                int numero = janela << 16 | baixos.next();
+                if (relevancia(nomes.get(numero), coleta.consulta) == relevancia) {
+                    coleta.aceitar(numero);
+                }
+            }
+        }
+    }
+
+    /**
+     * Conjuntos dos termos da consulta na ordem de interseção, com os termos de início
+     * (marcador do nome ou espaço antes da consulta) quando a faixa exige
+     * 
+     * Primeiro os termos seletivos: os pares (início e palavras) e o menor trigrama de cada palavra
+     * (palavras diferentes são pouco correlacionadas, então o resultado parcial encolhe logo);
+     * depois os demais trigramas. Cada grupo vai do menor conjunto para o maior.
+     */
+    private List<RoaringBitmap> conjuntosEmOrdem(String consulta, char inicio) {
+        List<RoaringBitmap> seletivos = new ArrayList<>();
+        List<RoaringBitmap> demais = new ArrayList<>();
+
+        // Par só vale com a primeira palavra inteira e alinhada ao início de uma palavra do nome:
+        // no meio de palavra, a primeira palavra da consulta pode ser o fim de uma palavra do nome
+        String[] palavras = consulta.split(" ");
+        if (inicio != IGNORAR && (palavras.length > 1 || palavras[0].length() >= PREFIXO_PAR)) {
+            seletivos.add(conjunto(par(inicio == MARCA_INICIO ? INICIO_DO_NOME : INICIO_DE_PALAVRA, palavras[0])));
+        }
+        for (int i = inicio == IGNORAR ? 1 : 0; i + 1 < palavras.length; i++) {
+            String seguinte = palavras[i + 1];
+            if (i + 2 < palavras.length || seguinte.length() >= PREFIXO_PAR) {
+                seletivos.add(conjunto(par(palavras[i], seguinte)));
+            }
+        }
+
+        String texto = inicio == IGNORAR ? consulta : inicio + consulta;
+        RoaringBitmap menorDaPalavra = null;
+        for (int i = 0; i + 2 < texto.length(); i++) {
+            RoaringBitmap atual = conjunto(trigrama(texto.charAt(i), texto.charAt(i + 1), texto.charAt(i + 2)));
+            if (menorDaPalavra == null || atual.getCardinality() < menorDaPalavra.getCardinality()) {
+                if (menorDaPalavra != null) {
+                    demais.add(menorDaPalavra);
+                }
+                menorDaPalavra = atual;
+            } else {
+                demais.add(atual);
+            }
+            // Trigrama com espaço no meio fecha a palavra
+            if (texto.charAt(i + 1) == ' ') {
+                seletivos.add(menorDaPalavra);
+                menorDaPalavra = null;
+            }
+        }
+        if (menorDaPalavra != null) {
+            seletivos.add(menorDaPalavra);
+        }
+
+        seletivos.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+        demais.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+        seletivos.addAll(demais);
+        return seletivos;
+    }
+
+    private RoaringBitmap conjunto(int termo) {
+        RoaringBitmap conjunto = postagens[termo];
+        return conjunto != null ? conjunto : VAZIO;
+    }
+
+    /**
+     * Faixa de relevância em que o nome contém a consulta, ou -1 se não contém
+     * Cada conta aparece só na melhor faixa
+     */
+    private static int relevancia(String nome, String consulta) {
+        int posicao = nome.indexOf(consulta);
+        if (posicao < 0) {
+            return -1;
+        }
+        if (posicao == 0) {
+            return INICIO_NOME;
+        }
+        for (; posicao > 0; posicao = nome.indexOf(consulta, posicao + 1)) {
+            if (nome.charAt(posicao - 1) == ' ') {
+                return INICIO_PALAVRA;
+            }
+        }
+        return MEIO_PALAVRA;
+    }
+
+    /**
+     * Termos do nome indexado: trigramas (com o marcador de início e um espaço no fim),
+     * início de cada palavra (marcador ou espaço + início da palavra) e pares de palavras consecutivas
+     */
+    private static int[] termosDoNome(String normalizado) {
+        int[] trigramas = trigramas(MARCA_INICIO + normalizado + ' ');
+        String[] palavras = normalizado.split(" ");
+        int[] termos = Arrays.copyOf(trigramas, trigramas.length + 2 * palavras.length - 1);
+        int t = trigramas.length;
+        for (int i = 0; i < palavras.length; i++) {
+            termos[t++] = par(i == 0 ? INICIO_DO_NOME : INICIO_DE_PALAVRA, palavras[i]);
+            if (i + 1 < palavras.length) {
+                termos[t++] = par(palavras[i], palavras[i + 1]);
+            }
+        }
+        return termos;
+    }
+
+    /**
+     * Termo do par: a palavra inteira (ou o marcador de início) seguida do início da palavra seguinte,
+     * com até PREFIXO_PAR letras
+     */
+    private static int par(String palavra, String seguinte) {
+        int hash = palavra.hashCode() * 31 + ' ';
+        for (int i = 0; i < Math.min(PREFIXO_PAR, seguinte.length()); i++) {
+            hash = hash * 31 + seguinte.charAt(i);
+        }
+        hash ^= hash >>> 16;
+        return TRIGRAMAS + (hash & (PARES - 1));
+    }
+
+    /**
+     * Códigos distintos dos trigramas do texto, em ordem crescente
+     */
+    private static int[] trigramas(String texto) {
+        int quantidade = Math.max(texto.length() - 2, 0);
+        int[] codigos = new int[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            codigos[i] = trigrama(texto.charAt(i), texto.charAt(i + 1), texto.charAt(i + 2));
+        }
+        Arrays.sort(codigos);
+        int distintos = 0;
+        for (int i = 0; i < quantidade; i++) {
+            if (distintos == 0 || codigos[distintos - 1] != codigos[i]) {
+                codigos[distintos++] = codigos[i];
+            }
+        }
+        return Arrays.copyOf(codigos, distintos);
+    }
+
+    private static int trigrama(char a, char b, char c) {
+        return (simbolo(a) * SIMBOLOS + simbolo(b)) * SIMBOLOS + simbolo(c);
+    }
+
+    private static int simbolo(char c) {
+        if (c == ' ') {
+            return 0;
+        }
+        if (c == MARCA_INICIO) {
+            return SIMBOLOS - 1;
+        }
+        return c <= '9' ? c - '0' + 27 : c - 'a' + 1;
+    }
+
+    /**
+     * Estado de uma busca: posições ainda a pular e números já coletados
+     */
+    private static final class Coleta {
+
+        final String consulta;
+        final int[] numeros;
+        int pular;
+        int encontrados;
+
+        Coleta(String consulta, int deslocamento, int quantidade) {
+            this.consulta = consulta;
+            this.numeros = new int[Math.max(quantidade, 0)];
+            this.pular = Math.max(deslocamento, 0);
+        }
+
+        boolean completa() {
+            return encontrados == numeros.length;
+        }
+
+        /**
+         * Registra o número, ou o pula enquanto o deslocamento não foi atingido
+         */
+        void aceitar(int numero) {
+            if (pular > 0) {
+                pular--;
+            } else {
+                numeros[encontrados++] = numero;
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package br.com.Igor.caixaeletronico.service.concorrencia;
+
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+
+/**
+ * Estratégia de controle de concorrência para alterações de saldo
+ * 
+ * A implementação ativa é escolhida pela propriedade
+ * caixaeletronico.concorrencia.estrategia (atomico, otimista, pessimista ou lock-local)
+ * 
+ * Deve ser chamada dentro de uma transação: o resultado só é definitivo após o commit
+ */
+public interface ControleConcorrencia {
+    
+    /**
+     * Credita o valor na conta
+     */
+    ResultadoMovimentacao creditar(Integer numero, Dinheiro valor);
+    
+    /**
+     * Debita o valor da conta, desde que haja saldo suficiente
+     */
+    ResultadoMovimentacao debitar(Integer numero, Dinheiro valor);
+}
@@ -0,0 +1,56 @@
+package br.com.Igor.caixaeletronico.service.concorrencia;
+
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.repository.ContaRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Estratégia padrão: um único UPDATE condicional por operação
+ * O próprio banco serializa as alterações na linha da conta
+ * 
+ * O UPDATE devolve a conta alterada (FINAL TABLE), sem releitura: um comando SQL por operação
+ * aceita; o saque recusado faz um segundo, para distinguir conta inexistente de saldo insuficiente.
+ */
+@Component
+@ConditionalOnProperty(name = "caixaeletronico.concorrencia.estrategia", havingValue = "atomico", matchIfMissing = true)
+public class ControleConcorrenciaAtomico implements ControleConcorrencia {
+    
+    private final ContaRepository contaRepository;
+    private final EntityManager entityManager;
+    
+    public ControleConcorrenciaAtomico(ContaRepository contaRepository, EntityManager entityManager) {
+        this.contaRepository = contaRepository;
+        this.entityManager = entityManager;
+    }
+    
+    @Override
+    public ResultadoMovimentacao creditar(Integer numero, Dinheiro valor) {
+        liberarContexto();
+        return contaRepository.creditar(numero, valor.toBigDecimal())
+                .map(ResultadoMovimentacao::sucesso)
+                .orElseGet(ResultadoMovimentacao::contaNaoEncontrada);
+    }
+    
+    @Override
+    public ResultadoMovimentacao debitar(Integer numero, Dinheiro valor) {
+        liberarContexto();
+        return contaRepository.debitarSeSaldoSuficiente(numero, valor.toBigDecimal())
+                .map(ResultadoMovimentacao::sucesso)
+                // Só no caminho de falha é preciso distinguir conta inexistente de saldo insuficiente
+                .orElseGet(() -> contaRepository.existsById(numero)
+                        ? ResultadoMovimentacao.saldoInsuficiente()
+                        : ResultadoMovimentacao.contaNaoEncontrada());
+    }
+    
+    /**
+     * Grava o que estiver pendente e esvazia o contexto de persistência antes do UPDATE, como fazia o
+     * @Modifying(flushAutomatically, clearAutomatically): uma instância da conta já carregada seria
+     * devolvida pelo Hibernate no lugar da linha alterada
+     */
+    private void liberarContexto() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,94 @@
+package br.com.Igor.caixaeletronico.service.concorrencia;
+
+import br.com.Igor.caixaeletronico.entity.Conta;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.repository.ContaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lock em memória, particionado (striped) pelo número da conta
+ * 
+ * O lock é adquirido antes da leitura e liberado somente após o fim da transação,
+ * para que nenhuma outra operação na mesma conta leia o saldo antes do commit.
+ * Só garante exclusão mútua com uma única instância da aplicação acessando o banco.
+ */
+@Component
+@ConditionalOnProperty(name = "caixaeletronico.concorrencia.estrategia", havingValue = "lock-local")
+public class ControleConcorrenciaLockLocal implements ControleConcorrencia {
+    
+    private final ContaRepository contaRepository;
+    private final ReentrantLock[] listras;
+    private final int mascara;
+    
+    public ControleConcorrenciaLockLocal(
+            ContaRepository contaRepository,
+            @Value("${caixaeletronico.concorrencia.lock-local.listras:1024}") int quantidadeListras) {
+        this.contaRepository = contaRepository;
+        
+        // Arredonda para potência de 2 para indexar com máscara de bits
+        int tamanho = Integer.highestOneBit(Math.max(1, quantidadeListras - 1)) << 1;
+        this.listras = new ReentrantLock[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            listras[i] = new ReentrantLock();
+        }
+        this.mascara = tamanho - 1;
+    }
+    
+    @Override
+    public ResultadoMovimentacao creditar(Integer numero, Dinheiro valor) {
+        bloquearAteFimDaTransacao(numero);
+        
+        Optional<Conta> conta = contaRepository.findById(numero);
+        if (conta.isEmpty()) {
+            return ResultadoMovimentacao.contaNaoEncontrada();
+        }
+        
+        conta.get().depositar(valor);
+        return ResultadoMovimentacao.sucesso(contaRepository.save(conta.get()));
+    }
+    
+    @Override
+    public ResultadoMovimentacao debitar(Integer numero, Dinheiro valor) {
+        bloquearAteFimDaTransacao(numero);
+        
+        Optional<Conta> conta = contaRepository.findById(numero);
+        if (conta.isEmpty()) {
+            return ResultadoMovimentacao.contaNaoEncontrada();
+        }
+        
+        if (!conta.get().sacar(valor)) {
+            return ResultadoMovimentacao.saldoInsuficiente();
+        }
+        return ResultadoMovimentacao.sucesso(contaRepository.save(conta.get()));
+    }
+    
+    private void bloquearAteFimDaTransacao(Integer numero) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Lock local exige uma transação ativa");
+        }
+        
+        ReentrantLock lock = listras[espalhar(numero) & mascara];
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+    
+    /**
+     * Espalha os bits do número para que contas sequenciais não caiam sempre nas mesmas listras vizinhas
+     */
+    private static int espalhar(Integer numero) {
+        int h = numero.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,93 @@
+package br.com.Igor.caixaeletronico.service.concorrencia;
+
+import br.com.Igor.caixaeletronico.entity.Conta;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.repository.ContaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Lock otimista: lê a conta, calcula o novo saldo e grava com compare-and-set na versão
+ * Em caso de conflito tenta novamente, com backoff exponencial e jitter, até o limite configurado
+ */
+@Component
+@ConditionalOnProperty(name = "caixaeletronico.concorrencia.estrategia", havingValue = "otimista")
+public class ControleConcorrenciaOtimista implements ControleConcorrencia {
+    
+    private final ContaRepository contaRepository;
+    private final int maxTentativas;
+    private final long backoffBaseMs;
+    private final long backoffMaximoMs;
+    
+    public ControleConcorrenciaOtimista(
+            ContaRepository contaRepository,
+            @Value("${caixaeletronico.concorrencia.otimista.max-tentativas:5}") int maxTentativas,
+            @Value("${caixaeletronico.concorrencia.otimista.backoff-base-ms:1}") long backoffBaseMs,
+            @Value("${caixaeletronico.concorrencia.otimista.backoff-maximo-ms:50}") long backoffMaximoMs) {
+        this.contaRepository = contaRepository;
+        this.maxTentativas = maxTentativas;
+        this.backoffBaseMs = backoffBaseMs;
+        this.backoffMaximoMs = backoffMaximoMs;
+    }
+    
+    @Override
+    public ResultadoMovimentacao creditar(Integer numero, Dinheiro valor) {
+        return alterarSaldo(numero, valor, false);
+    }
+    
+    @Override
+    public ResultadoMovimentacao debitar(Integer numero, Dinheiro valor) {
+        return alterarSaldo(numero, valor, true);
+    }
+    
+    private ResultadoMovimentacao alterarSaldo(Integer numero, Dinheiro valor, boolean debito) {
+        for (int tentativa = 0; tentativa < maxTentativas; tentativa++) {
+            // O UPDATE anterior limpa o contexto de persistência, então cada tentativa relê do banco
+            Optional<Conta> lida = contaRepository.findById(numero);
+            if (lida.isEmpty()) {
+                return ResultadoMovimentacao.contaNaoEncontrada();
+            }
+            
+            Conta conta = lida.get();
+            if (debito && conta.getSaldo().menorQue(valor)) {
+                return ResultadoMovimentacao.saldoInsuficiente();
+            }
+            
+            Dinheiro novoSaldo = debito ? conta.getSaldo().subtrair(valor) : conta.getSaldo().somar(valor);
+            if (contaRepository.atualizarSaldoSeVersao(numero, novoSaldo, conta.getVersao()) == 1) {
+                // A linha ficou exatamente como a lida, com o novo saldo e a versão seguinte: sem releitura
+                conta.setSaldo(novoSaldo);
+                conta.setVersao(conta.getVersao() + 1);
+                return ResultadoMovimentacao.sucesso(conta);
+            }
+            
+            aguardarBackoff(tentativa);
+        }
+        
+        throw new OptimisticLockingFailureException(
+                "Conta " + numero + " alterada concorrentemente; tente novamente");
+    }
+    
+    /**
+     * Espera aleatória entre 0 e base * 2^tentativa (limitada ao máximo), evitando que
+     * as transações em conflito tentem de novo todas no mesmo instante
+     */
+    private void aguardarBackoff(int tentativa) {
+        long limite = Math.min(backoffMaximoMs, backoffBaseMs << Math.min(tentativa, 20));
+        if (limite <= 0) {
+            return;
+        }
+        
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(limite + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OptimisticLockingFailureException("Operação interrompida durante nova tentativa", e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package br.com.Igor.caixaeletronico.service.concorrencia;
+
+import br.com.Igor.caixaeletronico.entity.Conta;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.repository.ContaRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Lock pessimista: SELECT ... FOR UPDATE mantém a linha bloqueada até o commit
+ */
+@Component
+@ConditionalOnProperty(name = "caixaeletronico.concorrencia.estrategia", havingValue = "pessimista")
+public class ControleConcorrenciaPessimista implements ControleConcorrencia {
+    
+    private final ContaRepository contaRepository;
+    
+    public ControleConcorrenciaPessimista(ContaRepository contaRepository) {
+        this.contaRepository = contaRepository;
+    }
+    
+    @Override
+    public ResultadoMovimentacao creditar(Integer numero, Dinheiro valor) {
+        Optional<Conta> conta = contaRepository.buscarParaAtualizacao(numero);
+        if (conta.isEmpty()) {
+            return ResultadoMovimentacao.contaNaoEncontrada();
+        }
+        
+        conta.get().depositar(valor);
+        return ResultadoMovimentacao.sucesso(contaRepository.save(conta.get()));
+    }
+    
+    @Override
+    public ResultadoMovimentacao debitar(Integer numero, Dinheiro valor) {
+        Optional<Conta> conta = contaRepository.buscarParaAtualizacao(numero);
+        if (conta.isEmpty()) {
+            return ResultadoMovimentacao.contaNaoEncontrada();
+        }
+        
+        if (!conta.get().sacar(valor)) {
+            return ResultadoMovimentacao.saldoInsuficiente();
+        }
+        return ResultadoMovimentacao.sucesso(contaRepository.save(conta.get()));
+    }
+}
@@ -0,0 +1,47 @@
+package br.com.Igor.caixaeletronico.service.concorrencia;
+
+import br.com.Igor.caixaeletronico.entity.Conta;
+
+/**
+ * Resultado de uma alteração de saldo
+ * Cada service converte o status para as suas próprias exceções
+ */
+public class ResultadoMovimentacao {
+    
+    public enum Status {
+        SUCESSO,
+        CONTA_NAO_ENCONTRADA,
+        SALDO_INSUFICIENTE
+    }
+    
+    private final Status status;
+    private final Conta conta;
+    
+    private ResultadoMovimentacao(Status status, Conta conta) {
+        this.status = status;
+        this.conta = conta;
+    }
+    
+    public static ResultadoMovimentacao sucesso(Conta conta) {
+        return new ResultadoMovimentacao(Status.SUCESSO, conta);
+    }
+    
+    public static ResultadoMovimentacao contaNaoEncontrada() {
+        return new ResultadoMovimentacao(Status.CONTA_NAO_ENCONTRADA, null);
+    }
+    
+    public static ResultadoMovimentacao saldoInsuficiente() {
+        return new ResultadoMovimentacao(Status.SALDO_INSUFICIENTE, null);
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    /**
+     * Conta já atualizada (apenas quando status = SUCESSO)
+     */
+    public Conta getConta() {
+        return conta;
+    }
+}
@@ -0,0 +1,39 @@
+package br.com.Igor.caixaeletronico.service.diagnostico;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.Optional;
+
+/**
+ * Chamada de um método de repositório do Spring Data (consulta, comando ou save)
+ * Emitido por EventosRepositorio; sem transação em volta, inclui a transação do próprio repositório.
+ */
+@Name("br.com.Igor.caixaeletronico.ChamadaRepositorio")
+@Label("Chamada de repositório")
+public class ChamadaRepositorioEvento extends EventoConta {
+    
+    static final String VAZIO = "vazio";
+    
+    @Label("Repositório")
+    String repositorio;
+    
+    void concluir(String repositorio, String metodo, Object[] argumentos, Object retorno, Throwable erro) {
+        this.repositorio = repositorio;
+        this.operacao = metodo;
+        this.numeroConta = argumentos.length > 0 && argumentos[0] instanceof Integer numero ? numero : 0;
+        this.resultado = erro != null ? resultado(erro) : resultadoRetorno(retorno);
+    }
+    
+    /**
+     * "vazio" quando a consulta não achou nada ou o comando não alterou linhas (débito recusado, por exemplo)
+     */
+    private static String resultadoRetorno(Object retorno) {
+        if (retorno instanceof Optional<?> opcional && opcional.isEmpty()
+                || Boolean.FALSE.equals(retorno)
+                || retorno instanceof Integer linhas && linhas == 0) {
+            return VAZIO;
+        }
+        return SUCESSO;
+    }
+}
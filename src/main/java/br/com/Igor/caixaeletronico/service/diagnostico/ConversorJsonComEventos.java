@@ -0,0 +1,91 @@
+package br.com.Igor.caixaeletronico.service.diagnostico;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Conversor JSON das APIs MVC que emite um SerializacaoRespostaEvento por corpo escrito
+ * Os bytes só são contados com o evento habilitado numa gravação; sem gravação, a escrita é a do conversor padrão.
+ */
+public class ConversorJsonComEventos extends MappingJackson2HttpMessageConverter {
+    
+    public ConversorJsonComEventos(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+    
+    @Override
+    protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        SerializacaoRespostaEvento evento = new SerializacaoRespostaEvento();
+        if (!evento.isEnabled()) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        MensagemContada mensagem = new MensagemContada(outputMessage);
+        Throwable erro = null;
+        evento.begin();
+        try {
+            super.writeInternal(object, type, mensagem);
+        } catch (IOException | RuntimeException e) {
+            erro = e;
+            throw e;
+        } finally {
+            if (evento.shouldCommit()) {
+                evento.concluir(object, mensagem.bytes(), erro);
+                evento.commit();
+            }
+        }
+    }
+    
+    /**
+     * Mensagem de saída que conta os bytes escritos no corpo
+     */
+    private static class MensagemContada implements HttpOutputMessage {
+        
+        private final HttpOutputMessage mensagem;
+        private long bytes;
+        private OutputStream corpo;
+        
+        MensagemContada(HttpOutputMessage mensagem) {
+            this.mensagem = mensagem;
+        }
+        
+        long bytes() {
+            return bytes;
+        }
+        
+        @Override
+        public HttpHeaders getHeaders() {
+            return mensagem.getHeaders();
+        }
+        
+        @Override
+        public OutputStream getBody() throws IOException {
+            if (corpo == null) {
+                corpo = new FilterOutputStream(mensagem.getBody()) {
+                    @Override
+                    public void write(int b) throws IOException {
+                        out.write(b);
+                        bytes++;
+                    }
+                    
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        out.write(b, off, len);
+                        bytes += len;
+                    }
+                };
+            }
+            return corpo;
+        }
+    }
+}
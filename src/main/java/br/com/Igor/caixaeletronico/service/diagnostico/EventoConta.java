@@ -0,0 +1,52 @@
+package br.com.Igor.caixaeletronico.service.diagnostico;
+
+import br.com.Igor.caixaeletronico.exception.ContaJaExisteException;
+import br.com.Igor.caixaeletronico.exception.ContaNaoEncontradaException;
+import br.com.Igor.caixaeletronico.exception.OperacaoInvalidaException;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base dos eventos do Flight Recorder (JFR) da aplicação: conta, operação e resultado
+ * 
+ * Os eventos seguem o padrão do JFR: begin() antes, shouldCommit() e commit() depois, e os campos
+ * preenchidos só se o evento for gravado. Sem gravação ativa, shouldCommit() é falso e o custo
+ * fica no objeto do evento, que o JIT costuma eliminar. Sem pilha de chamadas, que é o que mais
+ * custa num evento gravado; o contexto vem dos campos e da thread.
+ */
+@Category("Caixa Eletrônico")
+@StackTrace(false)
+abstract class EventoConta extends Event {
+    
+    static final String SUCESSO = "sucesso";
+    static final String RECUSADA = "recusada";
+    static final String ERRO = "erro";
+    
+    @Label("Conta")
+    @Description("Número da conta; 0 quando a chamada não é de uma conta só")
+    int numeroConta;
+    
+    @Label("Operação")
+    String operacao;
+    
+    @Label("Resultado")
+    @Description("sucesso, recusada (regra de negócio), vazio (nada encontrado ou alterado) ou erro")
+    String resultado;
+    
+    /**
+     * Resultado de uma chamada que terminou com a exceção: recusas de negócio separadas das falhas
+     * O ContaService (v1) recusa com IllegalArgumentException; os demais, com as exceções da aplicação.
+     */
+    static String resultado(Throwable erro) {
+        if (erro instanceof ContaNaoEncontradaException
+                || erro instanceof ContaJaExisteException
+                || erro instanceof OperacaoInvalidaException
+                || erro instanceof IllegalArgumentException) {
+            return RECUSADA;
+        }
+        return ERRO;
+    }
+}
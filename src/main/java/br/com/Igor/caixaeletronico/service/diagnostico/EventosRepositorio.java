@@ -0,0 +1,37 @@
+package br.com.Igor.caixaeletronico.service.diagnostico;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Emite um ChamadaRepositorioEvento por chamada de método de um repositório do Spring Data
+ * Instalado no proxy de cada repositório (DiagnosticoConfig), por fora dos advices do próprio Spring Data.
+ */
+public class EventosRepositorio implements MethodInterceptor {
+    
+    private final String repositorio;
+    
+    public EventosRepositorio(Class<?> repositorio) {
+        this.repositorio = repositorio.getSimpleName();
+    }
+    
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        ChamadaRepositorioEvento evento = new ChamadaRepositorioEvento();
+        evento.begin();
+        Object retorno = null;
+        Throwable erro = null;
+        try {
+            retorno = invocation.proceed();
+            return retorno;
+        } catch (Throwable e) {
+            erro = e;
+            throw e;
+        } finally {
+            if (evento.shouldCommit()) {
+                evento.concluir(repositorio, invocation.getMethod().getName(), invocation.getArguments(), retorno, erro);
+                evento.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package br.com.Igor.caixaeletronico.service.diagnostico;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Emite um FlushJpaEvento por flush das sessões do Hibernate
+ * Registrado em hibernate.session.events.auto: o Hibernate cria uma instância por sessão,
+ * então o evento em andamento pode ficar num campo.
+ */
+public class EventosSessaoHibernate implements SessionEventListener {
+    
+    private transient FlushJpaEvento flush;
+    
+    @Override
+    public void flushStart() {
+        iniciar();
+    }
+    
+    @Override
+    public void flushEnd(int entidades, int colecoes) {
+        concluir(false, entidades, colecoes);
+    }
+    
+    @Override
+    public void partialFlushStart() {
+        iniciar();
+    }
+    
+    @Override
+    public void partialFlushEnd(int entidades, int colecoes) {
+        concluir(true, entidades, colecoes);
+    }
+    
+    private void iniciar() {
+        flush = new FlushJpaEvento();
+        flush.begin();
+    }
+    
+    private void concluir(boolean parcial, int entidades, int colecoes) {
+        FlushJpaEvento evento = flush;
+        flush = null;
+        if (evento != null && evento.shouldCommit()) {
+            evento.parcial = parcial;
+            evento.entidades = entidades;
+            evento.colecoes = colecoes;
+            evento.commit();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package br.com.Igor.caixaeletronico.service.diagnostico;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flush de uma sessão do Hibernate: a verificação de entidades alteradas e os comandos que ela gera
+ * Emitido por EventosSessaoHibernate; o flush do commit cai dentro do evento da operação.
+ */
+@Name("br.com.Igor.caixaeletronico.FlushJpa")
+@Label("Flush do JPA")
+@Category("Caixa Eletrônico")
+@StackTrace(false)
+public class FlushJpaEvento extends Event {
+    
+    @Label("Parcial")
+    boolean parcial;
+    
+    @Label("Entidades")
+    int entidades;
+    
+    @Label("Coleções")
+    int colecoes;
+}
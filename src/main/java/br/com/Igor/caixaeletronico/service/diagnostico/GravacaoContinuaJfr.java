@@ -0,0 +1,91 @@
+package br.com.Igor.caixaeletronico.service.diagnostico;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Gravação contínua do Flight Recorder, ligada com caixaeletronico.jfr.habilitado=true
+ * 
+ * Usa a configuração "default" do JDK (feita para ficar abaixo de 1% de custo) mais os eventos da
+ * aplicação, habilitados por padrão. A gravação vai para o disco em blocos (o repositório do JFR, no
+ * diretório temporário) e o JFR descarta os mais antigos além da idade e do tamanho máximos, então
+ * o que sobra é sempre a janela mais recente. despejar() copia parte dessa janela para um arquivo.
+ */
+@Component
+@ConditionalOnProperty(name = "caixaeletronico.jfr.habilitado", havingValue = "true")
+public class GravacaoContinuaJfr {
+    
+    private static final Logger log = LoggerFactory.getLogger(GravacaoContinuaJfr.class);
+    
+    private final String configuracao;
+    private final Duration idadeMaxima;
+    private final long tamanhoMaximo;
+    
+    private Recording gravacao;
+    
+    public GravacaoContinuaJfr(
+            @Value("${caixaeletronico.jfr.configuracao:default}") String configuracao,
+            @Value("${caixaeletronico.jfr.idade-maxima-minutos:30}") long idadeMaximaMinutos,
+            @Value("${caixaeletronico.jfr.tamanho-maximo-mb:250}") long tamanhoMaximoMb) {
+        this.configuracao = configuracao;
+        this.idadeMaxima = Duration.ofMinutes(idadeMaximaMinutos);
+        this.tamanhoMaximo = tamanhoMaximoMb * 1024 * 1024;
+    }
+    
+    @PostConstruct
+    public void iniciar() throws IOException, ParseException {
+        gravacao = new Recording(Configuration.getConfiguration(configuracao));
+        gravacao.setName("caixaeletronico");
+        gravacao.setToDisk(true);
+        gravacao.setMaxAge(idadeMaxima);
+        gravacao.setMaxSize(tamanhoMaximo);
+        gravacao.start();
+        log.info("Gravação contínua do JFR iniciada (configuração {}, últimos {} min, até {} MB)",
+            configuracao, idadeMaxima.toMinutes(), tamanhoMaximo / (1024 * 1024));
+    }
+    
+    @PreDestroy
+    public void encerrar() {
+        gravacao.close();
+    }
+    
+    public Duration getIdadeMaxima() {
+        return idadeMaxima;
+    }
+    
+    /**
+     * Grava num arquivo temporário os eventos do último período (a janela é a dos blocos em disco,
+     * então pode vir um pouco mais que o pedido). Quem chama apaga o arquivo.
+     * A cópia parada fecha o bloco em andamento, para os eventos dos últimos segundos entrarem.
+     */
+    public synchronized Path despejar(Duration periodo) throws IOException {
+        Instant fim = Instant.now();
+        Path arquivo = Files.createTempFile("caixaeletronico-", ".jfr");
+        try (Recording copia = gravacao.copy(true);
+             InputStream dados = copia.getStream(fim.minus(periodo), fim)) {
+            if (dados != null) {
+                Files.copy(dados, arquivo, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(arquivo);
+            throw e;
+        }
+        return arquivo;
+    }
+}
@@ -0,0 +1,44 @@
+package br.com.Igor.caixaeletronico.service.diagnostico;
+
+import br.com.Igor.caixaeletronico.dto.ContaRequestDTO;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Chamada de uma operação @OperacaoMedida dos serviços de contas, incluindo o commit da transação
+ * Emitido por MedicaoOperacoes; as chamadas de repositório e os flushes do JPA da mesma thread
+ * dentro do intervalo do evento mostram para onde foi o tempo.
+ */
+@Name("br.com.Igor.caixaeletronico.OperacaoConta")
+@Label("Operação de conta")
+public class OperacaoContaEvento extends EventoConta {
+    
+    @Label("Serviço")
+    String servico;
+    
+    /**
+     * Preenche os campos de uma chamada que terminou; erro é null se ela retornou normalmente
+     */
+    public void concluir(String servico, String operacao, Object[] argumentos, Throwable erro) {
+        this.servico = servico;
+        this.operacao = operacao;
+        this.numeroConta = numeroConta(argumentos);
+        this.resultado = erro == null ? SUCESSO : resultado(erro);
+    }
+    
+    /**
+     * O número da conta é o primeiro argumento das operações, ou vem no DTO da criação
+     */
+    private static int numeroConta(Object[] argumentos) {
+        if (argumentos.length == 0) {
+            return 0;
+        }
+        if (argumentos[0] instanceof Integer numero) {
+            return numero;
+        }
+        if (argumentos[0] instanceof ContaRequestDTO request && request.getNumero() != null) {
+            return request.getNumero();
+        }
+        return 0;
+    }
+}
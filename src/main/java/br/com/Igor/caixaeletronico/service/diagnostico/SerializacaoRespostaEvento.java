@@ -0,0 +1,74 @@
+package br.com.Igor.caixaeletronico.service.diagnostico;
+
+import br.com.Igor.caixaeletronico.dto.ApiResponseDTO;
+import br.com.Igor.caixaeletronico.dto.ContaResponseDTO;
+import br.com.Igor.caixaeletronico.entity.Conta;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Serialização em JSON do corpo de uma resposta das APIs MVC (v1 a v3), normalmente um ApiResponseDTO
+ * A operação é o método do controller; a conta vem da variável {numero} do caminho ou da conta respondida.
+ */
+@Name("br.com.Igor.caixaeletronico.SerializacaoResposta")
+@Label("Serialização de resposta")
+public class SerializacaoRespostaEvento extends EventoConta {
+    
+    @Label("Tipo")
+    String tipo;
+    
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+    
+    public void concluir(Object corpo, long bytes, Throwable erro) {
+        this.tipo = corpo.getClass().getSimpleName();
+        this.bytes = bytes;
+        RequestAttributes requisicao = RequestContextHolder.getRequestAttributes();
+        this.operacao = operacao(requisicao);
+        this.numeroConta = numeroConta(requisicao, corpo);
+        if (erro != null) {
+            this.resultado = ERRO;
+        } else if (corpo instanceof ApiResponseDTO<?> resposta) {
+            this.resultado = resposta.isSucesso() ? SUCESSO : RECUSADA;
+        } else {
+            this.resultado = SUCESSO;
+        }
+    }
+    
+    private static String operacao(RequestAttributes requisicao) {
+        if (requisicao != null && requisicao.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST) instanceof HandlerMethod metodo) {
+            return metodo.getMethod().getName();
+        }
+        return null;
+    }
+    
+    private static int numeroConta(RequestAttributes requisicao, Object corpo) {
+        if (requisicao != null && requisicao.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST) instanceof Map<?, ?> variaveis
+                && variaveis.get("numero") instanceof String numero) {
+            try {
+                return Integer.parseInt(numero);
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        if (corpo instanceof ApiResponseDTO<?> resposta && resposta.getDados() instanceof ContaResponseDTO conta
+                && conta.getNumero() != null) {
+            return conta.getNumero();
+        }
+        // A v1 responde com a própria entidade
+        if (corpo instanceof Conta conta && conta.getNumero() != null) {
+            return conta.getNumero();
+        }
+        return 0;
+    }
+}
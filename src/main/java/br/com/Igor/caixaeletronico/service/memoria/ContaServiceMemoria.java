@@ -0,0 +1,542 @@
+package br.com.Igor.caixaeletronico.service.memoria;
+
+import br.com.Igor.caixaeletronico.dto.ClienteDTO;
+import br.com.Igor.caixaeletronico.dto.ContaRequestDTO;
+import br.com.Igor.caixaeletronico.dto.ContaResponseDTO;
+import br.com.Igor.caixaeletronico.dto.OperacaoLoteDTO;
+import br.com.Igor.caixaeletronico.dto.PaginaDTO;
+import br.com.Igor.caixaeletronico.dto.ResultadoItemLoteDTO;
+import br.com.Igor.caixaeletronico.entity.Cpf;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.entity.Movimentacao;
+import br.com.Igor.caixaeletronico.exception.ContaJaExisteException;
+import br.com.Igor.caixaeletronico.exception.ContaNaoEncontradaException;
+import br.com.Igor.caixaeletronico.exception.OperacaoInvalidaException;
+import br.com.Igor.caixaeletronico.mapper.ContaMapper;
+import br.com.Igor.caixaeletronico.repository.ContaResumo;
+import br.com.Igor.caixaeletronico.service.ExportadorContas;
+import br.com.Igor.caixaeletronico.service.OperacoesContas;
+import br.com.Igor.caixaeletronico.service.busca.IndiceNomes;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Motor de contas em memória, ativado pelo profile "memoria"
+ * 
+ * Depósitos, saques e consultas rodam sob o lock de leitura (compartilhado) e alteram
+ * o saldo em centavos por CAS; criação, exclusão e troca de titular usam o lock de escrita.
+ * O estado é gravado periodicamente num snapshot e recarregado na inicialização:
+ * o que foi alterado depois do último snapshot se perde numa parada abrupta.
+ * 
+ * Não grava extrato nem publica eventos de conta, que pertencem ao armazenamento JPA.
+ * A busca por nome usa um índice próprio, atualizado junto com a tabela e reconstruído do snapshot.
+ * 
+ * Com este motor, a API v3 (contas, operações em lote e exportação) é a única sobre as contas:
+ * as APIs v1, v2 e v4 e as estatísticas usam o armazenamento JPA e ficam desligadas no profile,
+ * para não haver dois conjuntos de contas divergindo no mesmo serviço.
+ */
+@Service
+@Profile("memoria")
+public class ContaServiceMemoria implements OperacoesContas {
+    
+    private static final Logger log = LoggerFactory.getLogger(ContaServiceMemoria.class);
+    
+    private static final int MAGICO = 0x43584131; // "CXA1"
+    private static final int VERSAO = 2; // 1: CPF como texto formatado
+    // Contas copiadas por vez sob o lock de leitura na exportação
+    private static final int PAGINA_EXPORTACAO = 1000;
+    
+    private final ContaMapper contaMapper;
+    private final ExportadorContas exportadorContas;
+    private final Path arquivoSnapshot;
+    
+    private final StampedLock lock = new StampedLock();
+    private final TabelaContas tabela;
+    private final Map<Long, Integer> contasPorCpf = new HashMap<>();
+    private final IndiceNomes indiceNomes = new IndiceNomes();
+    
+    private final AtomicLong alteracoes = new AtomicLong();
+    private long alteracoesNoSnapshot;
+    
+    @Autowired
+    public ContaServiceMemoria(ContaMapper contaMapper,
+                               ExportadorContas exportadorContas,
+                               @Value("${caixaeletronico.memoria.capacidade-inicial:1024}") int capacidadeInicial,
+                               @Value("${caixaeletronico.memoria.snapshot.arquivo:caixaeletronico-contas.snapshot}") String arquivoSnapshot) {
+        this.contaMapper = contaMapper;
+        this.exportadorContas = exportadorContas;
+        this.tabela = new TabelaContas(capacidadeInicial);
+        this.arquivoSnapshot = Paths.get(arquivoSnapshot);
+    }
+    
+    @Override
+    public PaginaDTO<ContaResponseDTO> listarContas(Integer apos, int limite) {
+        int tamanho = PaginaDTO.limitar(limite);
+        return contaMapper.toPagina(resumosApos(apos != null ? apos : Integer.MIN_VALUE, tamanho + 1), tamanho);
+    }
+    
+    /**
+     * As contas vêm da tabela em páginas: cada página é copiada sob o lock de leitura e escrita
+     * fora dele, então um cliente lento não segura criações e exclusões durante a exportação
+     */
+    @Override
+    public long exportarContas(OutputStream saida, ExportadorContas.Formato formato) throws IOException {
+        exportadorContas.escreverCabecalho(saida, formato);
+        long exportadas = 0;
+        int apos = Integer.MIN_VALUE;
+        List<ContaResumo> pagina;
+        do {
+            pagina = resumosApos(apos, PAGINA_EXPORTACAO);
+            exportadas += exportadorContas.escreverLinhas(pagina.iterator(), saida, formato);
+            if (!pagina.isEmpty()) {
+                apos = pagina.get(pagina.size() - 1).getNumero();
+            }
+        } while (pagina.size() == PAGINA_EXPORTACAO);
+        return exportadas;
+    }
+    
+    /**
+     * Até limite contas com número maior que apos, em ordem de número
+     */
+    private List<ContaResumo> resumosApos(int apos, int limite) {
+        List<ContaResumo> resumos = new ArrayList<>(limite);
+        long stamp = lock.readLock();
+        try {
+            int inicio = tabela.inicioApos(apos);
+            int fim = Math.min(tabela.tamanho(), inicio + limite);
+            for (int i = inicio; i < fim; i++) {
+                int p = tabela.posicao(tabela.numeroOrdenado(i));
+                resumos.add(new ContaResumo(tabela.numero(p), tabela.nome(p), Cpf.deNumero(tabela.cpf(p)),
+                        emReais(tabela.saldo(p)), tabela.dataCriacao(p)));
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        return resumos;
+    }
+    
+    @Override
+    public ContaResponseDTO buscarConta(Integer numero) {
+        long stamp = lock.readLock();
+        try {
+            int p = posicaoExistente(numero);
+            return paraDTO(p, tabela.saldo(p));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    @Override
+    public PaginaDTO<ContaResponseDTO> buscarPorNome(String nome, int deslocamento, int limite) {
+        int tamanho = PaginaDTO.limitar(limite);
+        int inicio = Math.max(deslocamento, 0);
+        int[] numeros = indiceNomes.buscar(nome, inicio, tamanho + 1);
+        int quantidade = Math.min(numeros.length, tamanho);
+        List<ContaResponseDTO> itens = new ArrayList<>(quantidade);
+        
+        long stamp = lock.readLock();
+        try {
+            for (int i = 0; i < quantidade; i++) {
+                int p = tabela.posicao(numeros[i]);
+                if (p >= 0) {
+                    itens.add(paraDTO(p, tabela.saldo(p)));
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        
+        return new PaginaDTO<>(itens, numeros.length > tamanho ? inicio + tamanho : null);
+    }
+    
+    @Override
+    public ContaResponseDTO criarConta(ContaRequestDTO requestDTO) {
+        long stamp = lock.writeLock();
+        try {
+            int p = inserir(requestDTO);
+            return paraDTO(p, tabela.saldo(p));
+        } finally {
+            tabela.ordenarPendentes();
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    /**
+     * O lote inteiro sob um único lock de escrita, com a ordem dos números refeita uma vez no fim
+     */
+    @Override
+    public List<ResultadoItemLoteDTO> criarContas(List<ContaRequestDTO> lote) {
+        List<ResultadoItemLoteDTO> resultados = new ArrayList<>(lote.size());
+        long stamp = lock.writeLock();
+        try {
+            for (int i = 0; i < lote.size(); i++) {
+                Integer numero = lote.get(i).getNumero();
+                try {
+                    inserir(lote.get(i));
+                    resultados.add(ResultadoItemLoteDTO.aceito(i, numero, 201));
+                } catch (ContaJaExisteException e) {
+                    resultados.add(ResultadoItemLoteDTO.recusado(i, numero, 409, e.getMessage()));
+                }
+            }
+        } finally {
+            tabela.ordenarPendentes();
+            lock.unlockWrite(stamp);
+        }
+        return resultados;
+    }
+    
+    @Override
+    public ContaResponseDTO atualizarTitular(Integer numero, ContaRequestDTO requestDTO) {
+        String nome = requestDTO.getTitular().getNome();
+        long cpf = requestDTO.getTitular().getCpf().getNumero();
+        
+        long stamp = lock.writeLock();
+        try {
+            int p = posicaoExistente(numero);
+            Integer donoCpf = contasPorCpf.get(cpf);
+            if (donoCpf != null && !donoCpf.equals(numero)) {
+                throw new ContaJaExisteException("Já existe uma conta para o CPF: " + requestDTO.getTitular().getCpf());
+            }
+            
+            contasPorCpf.remove(tabela.cpf(p));
+            contasPorCpf.put(cpf, numero);
+            tabela.alterarTitular(p, nome, cpf);
+            indiceNomes.adicionar(numero, nome);
+            alteracoes.incrementAndGet();
+            return paraDTO(p, tabela.saldo(p));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    @Override
+    public ContaResponseDTO depositar(Integer numero, Dinheiro valor) {
+        if (!valor.isPositivo()) {
+            throw new OperacaoInvalidaException("Valor do depósito deve ser positivo");
+        }
+        long centavos = valor.getCentavos();
+        
+        long stamp = lock.readLock();
+        try {
+            int p = posicaoExistente(numero);
+            long atual;
+            long novo;
+            do {
+                atual = tabela.saldo(p);
+                novo = somar(atual, centavos);
+            } while (!tabela.compararEAtualizarSaldo(p, atual, novo));
+            
+            alteracoes.incrementAndGet();
+            return paraDTO(p, novo);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    @Override
+    public ContaResponseDTO sacar(Integer numero, Dinheiro valor) {
+        if (!valor.isPositivo()) {
+            throw new OperacaoInvalidaException("Valor do saque deve ser positivo");
+        }
+        long centavos = valor.getCentavos();
+        
+        long stamp = lock.readLock();
+        try {
+            int p = posicaoExistente(numero);
+            long atual;
+            long novo;
+            do {
+                atual = tabela.saldo(p);
+                if (atual < centavos) {
+                    throw new OperacaoInvalidaException("Saldo insuficiente");
+                }
+                novo = atual - centavos;
+            } while (!tabela.compararEAtualizarSaldo(p, atual, novo));
+            
+            alteracoes.incrementAndGet();
+            return paraDTO(p, novo);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * As operações de cada conta são simuladas sobre o saldo lido e o saldo final gravado
+     * com um único compare-and-set; se outra operação mudar o saldo no meio, a conta é
+     * simulada de novo a partir do saldo novo
+     */
+    @Override
+    public List<ResultadoItemLoteDTO> movimentarContas(List<OperacaoLoteDTO> lote) {
+        Map<Integer, List<Integer>> operacoesPorConta = new LinkedHashMap<>();
+        for (int i = 0; i < lote.size(); i++) {
+            operacoesPorConta.computeIfAbsent(lote.get(i).getNumero(), n -> new ArrayList<>()).add(i);
+        }
+        ResultadoItemLoteDTO[] resultados = new ResultadoItemLoteDTO[lote.size()];
+        
+        long stamp = lock.readLock();
+        try {
+            for (Map.Entry<Integer, List<Integer>> conta : operacoesPorConta.entrySet()) {
+                Integer numero = conta.getKey();
+                List<Integer> indices = conta.getValue();
+                int p = tabela.posicao(numero);
+                if (p < 0) {
+                    String mensagem = new ContaNaoEncontradaException(numero).getMessage();
+                    indices.forEach(i -> resultados[i] = ResultadoItemLoteDTO.recusado(i, numero, 404, mensagem));
+                    continue;
+                }
+                
+                long atual;
+                long novo;
+                do {
+                    atual = tabela.saldo(p);
+                    novo = simular(lote, indices, atual, resultados);
+                } while (novo != atual && !tabela.compararEAtualizarSaldo(p, atual, novo));
+                
+                if (novo != atual) {
+                    alteracoes.incrementAndGet();
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        return List.of(resultados);
+    }
+    
+    /**
+     * Aplica em ordem as operações de uma conta a partir do saldo, preenchendo os resultados;
+     * retorna o saldo final
+     */
+    private long simular(List<OperacaoLoteDTO> lote, List<Integer> indices, long saldo, ResultadoItemLoteDTO[] resultados) {
+        for (int i : indices) {
+            OperacaoLoteDTO operacao = lote.get(i);
+            long centavos = operacao.getValor().getCentavos();
+            String recusa = null;
+            if (operacao.getTipo() == Movimentacao.Tipo.SAQUE) {
+                if (saldo < centavos) {
+                    recusa = "Saldo insuficiente";
+                } else {
+                    saldo -= centavos;
+                }
+            } else if (saldo > Long.MAX_VALUE - centavos) {
+                recusa = "Valor excede o limite permitido";
+            } else {
+                saldo += centavos;
+            }
+            resultados[i] = recusa != null
+                    ? ResultadoItemLoteDTO.recusado(i, operacao.getNumero(), 400, recusa)
+                    : ResultadoItemLoteDTO.movimentado(i, operacao.getNumero(), emReais(saldo));
+        }
+        return saldo;
+    }
+    
+    @Override
+    public Dinheiro consultarSaldo(Integer numero) {
+        long stamp = lock.readLock();
+        try {
+            return emReais(tabela.saldo(posicaoExistente(numero)));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    @Override
+    public void excluirConta(Integer numero) {
+        long stamp = lock.writeLock();
+        try {
+            int p = posicaoExistente(numero);
+            contasPorCpf.remove(tabela.cpf(p));
+            tabela.remover(numero);
+            indiceNomes.remover(numero);
+            alteracoes.incrementAndGet();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+    
+    /**
+     * Reconstrói as contas a partir do último snapshot, se existir
+     * O snapshot já vem em ordem de número; a ordem é conferida uma vez, depois de todas as contas
+     */
+    @PostConstruct
+    public void carregarSnapshot() throws IOException {
+        if (!Files.exists(arquivoSnapshot)) {
+            log.info("Motor em memória iniciado sem snapshot ({})", arquivoSnapshot.toAbsolutePath());
+            return;
+        }
+        
+        try (DataInputStream entrada = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(arquivoSnapshot)))) {
+            int versao = entrada.readInt() == MAGICO ? entrada.readInt() : -1;
+            if (versao != 1 && versao != VERSAO) {
+                throw new IOException("Formato de snapshot desconhecido: " + arquivoSnapshot);
+            }
+            
+            int quantidade = entrada.readInt();
+            for (int i = 0; i < quantidade; i++) {
+                int numero = entrada.readInt();
+                String nome = entrada.readUTF();
+                long cpf = versao == 1 ? digitosCpf(entrada.readUTF()) : entrada.readLong();
+                long saldo = entrada.readLong();
+                LocalDateTime dataCriacao = LocalDateTime.ofEpochSecond(
+                        entrada.readLong(), entrada.readInt(), ZoneOffset.UTC);
+                tabela.inserirSemOrdenar(numero, nome, cpf, saldo, dataCriacao);
+                contasPorCpf.put(cpf, numero);
+                indiceNomes.adicionar(numero, nome);
+            }
+        } finally {
+            tabela.ordenarPendentes();
+        }
+        log.info("Motor em memória carregou {} contas de {}", tabela.tamanho(), arquivoSnapshot.toAbsolutePath());
+    }
+    
+    /**
+     * Grava o snapshot se houve alteração desde o último
+     * O conteúdo é serializado sob o lock de leitura e escrito no disco fora dele;
+     * o arquivo é trocado atomicamente, então um snapshot parcial nunca substitui o anterior
+     */
+    @Scheduled(fixedDelayString = "${caixaeletronico.memoria.snapshot.intervalo-ms:10000}")
+    public synchronized void gravarSnapshot() {
+        long alteracoesAtuais = alteracoes.get();
+        if (alteracoesAtuais == alteracoesNoSnapshot) {
+            return;
+        }
+        
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        int quantidade;
+        long stamp = lock.readLock();
+        try (DataOutputStream saida = new DataOutputStream(buffer)) {
+            quantidade = tabela.tamanho();
+            saida.writeInt(MAGICO);
+            saida.writeInt(VERSAO);
+            saida.writeInt(quantidade);
+            for (int i = 0; i < quantidade; i++) {
+                int p = tabela.posicao(tabela.numeroOrdenado(i));
+                LocalDateTime dataCriacao = tabela.dataCriacao(p);
+                saida.writeInt(tabela.numero(p));
+                saida.writeUTF(tabela.nome(p));
+                saida.writeLong(tabela.cpf(p));
+                saida.writeLong(tabela.saldo(p));
+                saida.writeLong(dataCriacao.toEpochSecond(ZoneOffset.UTC));
+                saida.writeInt(dataCriacao.getNano());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        
+        try {
+            Path temporario = arquivoSnapshot.resolveSibling(arquivoSnapshot.getFileName() + ".tmp");
+            Files.write(temporario, buffer.toByteArray());
+            Files.move(temporario, arquivoSnapshot,
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            alteracoesNoSnapshot = alteracoesAtuais;
+            log.debug("Snapshot gravado com {} contas", quantidade);
+        } catch (IOException e) {
+            log.error("Falha ao gravar snapshot em {}", arquivoSnapshot.toAbsolutePath(), e);
+        }
+    }
+    
+    @PreDestroy
+    public void encerrar() {
+        gravarSnapshot();
+    }
+    
+    /**
+     * Insere a conta e retorna sua posição; chamado com o lock de escrita,
+     * que só é liberado depois de tabela.ordenarPendentes()
+     */
+    private int inserir(ContaRequestDTO requestDTO) {
+        Integer numero = requestDTO.getNumero();
+        String nome = requestDTO.getTitular().getNome();
+        long cpf = requestDTO.getTitular().getCpf().getNumero();
+        long saldoInicial = requestDTO.getSaldoInicial() != null && requestDTO.getSaldoInicial().isPositivo()
+                ? requestDTO.getSaldoInicial().getCentavos()
+                : 0L;
+        
+        if (tabela.posicao(numero) >= 0) {
+            throw new ContaJaExisteException(numero);
+        }
+        if (contasPorCpf.containsKey(cpf)) {
+            throw new ContaJaExisteException("Já existe uma conta para o CPF: " + requestDTO.getTitular().getCpf());
+        }
+        
+        int p = tabela.inserirSemOrdenar(numero, nome, cpf, saldoInicial, LocalDateTime.now());
+        contasPorCpf.put(cpf, numero);
+        indiceNomes.adicionar(numero, nome);
+        alteracoes.incrementAndGet();
+        return p;
+    }
+    
+    private int posicaoExistente(Integer numero) {
+        int p = tabela.posicao(numero);
+        if (p < 0) {
+            throw new ContaNaoEncontradaException(numero);
+        }
+        return p;
+    }
+    
+    private ContaResponseDTO paraDTO(int posicao, long saldoCentavos) {
+        return new ContaResponseDTO(
+            tabela.numero(posicao),
+            new ClienteDTO(tabela.nome(posicao), Cpf.deNumero(tabela.cpf(posicao))),
+            emReais(saldoCentavos),
+            tabela.dataCriacao(posicao)
+        );
+    }
+    
+    private long somar(long saldo, long centavos) {
+        try {
+            return Math.addExact(saldo, centavos);
+        } catch (ArithmeticException e) {
+            throw new OperacaoInvalidaException("Valor excede o limite permitido");
+        }
+    }
+    
+    private static Dinheiro emReais(long centavos) {
+        return Dinheiro.deCentavos(centavos);
+    }
+    
+    /**
+     * CPF gravado como texto (XXX.XXX.XXX-XX) pelo snapshot versão 1, já aceito naquela época;
+     * os dígitos verificadores não são conferidos de novo para não descartar contas existentes
+     */
+    private static long digitosCpf(String texto) {
+        long numero = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c >= '0' && c <= '9') {
+                numero = numero * 10 + (c - '0');
+            }
+        }
+        return numero;
+    }
+}
@@ -0,0 +1,278 @@
+package br.com.Igor.caixaeletronico.service.memoria;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tabela hash de endereçamento aberto (sondagem linear) indexada pelo número da conta,
+ * com os dados em arrays paralelos ao array de chaves
+ * 
+ * Saldos em centavos num AtomicLongArray, alterados por CAS. As demais operações
+ * não são thread-safe: o chamador garante exclusão nas alterações estruturais
+ * (inserir, remover, alterarTitular) e que nenhuma leitura ocorra ao mesmo tempo.
+ * 
+ * Também mantém os números em ordem crescente, para a listagem paginada por cursor.
+ * Cada inserção isolada desloca a cauda desse array (O(n)); as cargas em massa (lote, snapshot)
+ * usam inserirSemOrdenar e uma única intercalação no fim, em ordenarPendentes.
+ */
+class TabelaContas {
+    
+    /** Marca de posição livre; números de conta são sempre positivos */
+    static final int VAZIO = 0;
+    
+    private static final int FATOR_HASH = 0x9E3779B9;
+    
+    private int[] chaves;
+    private String[] nomes;
+    private long[] cpfs;
+    private LocalDateTime[] datasCriacao;
+    private AtomicLongArray saldos;
+    private int mascara;
+    private int deslocamento;
+    private int tamanho;
+    
+    private int[] ordenados;
+    // Números acrescentados por inserirSemOrdenar no fim de ordenados, ainda fora da ordem
+    private int pendentes;
+    
+    TabelaContas(int capacidadeInicial) {
+        alocar(Integer.highestOneBit(Math.max(16, capacidadeInicial) - 1) << 1);
+        this.ordenados = new int[16];
+    }
+    
+    /**
+     * Posição da conta na tabela, ou -1 se não existir
+     * Número não positivo nunca existe: 0 é a marca de posição livre
+     */
+    int posicao(int numero) {
+        if (numero <= 0) {
+            return -1;
+        }
+        int i = indiceIdeal(numero);
+        while (true) {
+            int chave = chaves[i];
+            if (chave == numero) {
+                return i;
+            }
+            if (chave == VAZIO) {
+                return -1;
+            }
+            i = (i + 1) & mascara;
+        }
+    }
+    
+    /**
+     * Insere uma conta que ainda não existe e retorna sua posição
+     */
+    int inserir(int numero, String nome, long cpf, long saldoCentavos, LocalDateTime dataCriacao) {
+        int i = inserirSemOrdenar(numero, nome, cpf, saldoCentavos, dataCriacao);
+        ordenarPendentes();
+        return i;
+    }
+    
+    /**
+     * Como inserir, mas só acrescenta o número ao fim da ordem crescente; a listagem, a remoção
+     * e o cursor só voltam a valer depois de ordenarPendentes, chamado antes de liberar o lock
+     */
+    int inserirSemOrdenar(int numero, String nome, long cpf, long saldoCentavos, LocalDateTime dataCriacao) {
+        if (numero <= 0) {
+            throw new IllegalArgumentException("Número de conta deve ser positivo: " + numero);
+        }
+        if ((tamanho + 1) * 2 > chaves.length) {
+            redimensionar(chaves.length * 2);
+        }
+        
+        int i = posicaoLivre(numero);
+        chaves[i] = numero;
+        nomes[i] = nome;
+        cpfs[i] = cpf;
+        datasCriacao[i] = dataCriacao;
+        saldos.set(i, saldoCentavos);
+        tamanho++;
+        
+        if (tamanho > ordenados.length) {
+            ordenados = Arrays.copyOf(ordenados, ordenados.length * 2);
+        }
+        ordenados[tamanho - 1] = numero;
+        pendentes++;
+        return i;
+    }
+    
+    /**
+     * Põe os números pendentes na ordem crescente. Um só é levado à sua posição deslocando
+     * a cauda; vários são ordenados entre si e intercalados com os demais de trás para frente,
+     * O(n + k log k) para k pendentes, em vez de k deslocamentos de O(n)
+     */
+    void ordenarPendentes() {
+        if (pendentes == 0) {
+            return;
+        }
+        int ordenadosAntes = tamanho - pendentes;
+        pendentes = 0;
+        if (ordenadosAntes == tamanho - 1) {
+            inserirOrdenado(ordenados[ordenadosAntes], ordenadosAntes);
+            return;
+        }
+        
+        int[] novos = Arrays.copyOfRange(ordenados, ordenadosAntes, tamanho);
+        Arrays.sort(novos);
+        int i = ordenadosAntes - 1;
+        int j = novos.length - 1;
+        int destino = tamanho - 1;
+        while (j >= 0) {
+            ordenados[destino--] = i >= 0 && ordenados[i] > novos[j] ? ordenados[i--] : novos[j--];
+        }
+    }
+    
+    /**
+     * Remove a conta; as chaves seguintes do mesmo agrupamento são deslocadas para trás,
+     * então a tabela não precisa de marcas de remoção
+     */
+    void remover(int numero) {
+        int livre = posicao(numero);
+        if (livre < 0) {
+            return;
+        }
+        
+        int j = livre;
+        while (true) {
+            j = (j + 1) & mascara;
+            int chave = chaves[j];
+            if (chave == VAZIO) {
+                break;
+            }
+            // Só desloca se a posição livre estiver entre a posição ideal da chave e a atual
+            int ideal = indiceIdeal(chave);
+            if (((j - ideal) & mascara) >= ((j - livre) & mascara)) {
+                mover(j, livre);
+                livre = j;
+            }
+        }
+        
+        chaves[livre] = VAZIO;
+        nomes[livre] = null;
+        cpfs[livre] = 0L;
+        datasCriacao[livre] = null;
+        saldos.set(livre, 0L);
+        tamanho--;
+        
+        removerOrdenado(numero);
+    }
+    
+    void alterarTitular(int posicao, String nome, long cpf) {
+        nomes[posicao] = nome;
+        cpfs[posicao] = cpf;
+    }
+    
+    int numero(int posicao) {
+        return chaves[posicao];
+    }
+    
+    String nome(int posicao) {
+        return nomes[posicao];
+    }
+    
+    /**
+     * CPF na forma canônica (Cpf.getNumero)
+     */
+    long cpf(int posicao) {
+        return cpfs[posicao];
+    }
+    
+    LocalDateTime dataCriacao(int posicao) {
+        return datasCriacao[posicao];
+    }
+    
+    long saldo(int posicao) {
+        return saldos.get(posicao);
+    }
+    
+    boolean compararEAtualizarSaldo(int posicao, long esperado, long novo) {
+        return saldos.compareAndSet(posicao, esperado, novo);
+    }
+    
+    int tamanho() {
+        return tamanho;
+    }
+    
+    /**
+     * Índice em ordem crescente do primeiro número maior que o cursor
+     */
+    int inicioApos(int apos) {
+        int r = Arrays.binarySearch(ordenados, 0, tamanho, apos);
+        return r >= 0 ? r + 1 : -(r + 1);
+    }
+    
+    /**
+     * Número na posição indicada da ordem crescente
+     */
+    int numeroOrdenado(int indice) {
+        return ordenados[indice];
+    }
+    
+    private int indiceIdeal(int numero) {
+        return (numero * FATOR_HASH) >>> deslocamento;
+    }
+    
+    private int posicaoLivre(int numero) {
+        int i = indiceIdeal(numero);
+        while (chaves[i] != VAZIO) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+    
+    private void mover(int origem, int destino) {
+        chaves[destino] = chaves[origem];
+        nomes[destino] = nomes[origem];
+        cpfs[destino] = cpfs[origem];
+        datasCriacao[destino] = datasCriacao[origem];
+        saldos.set(destino, saldos.get(origem));
+    }
+    
+    private void alocar(int capacidade) {
+        chaves = new int[capacidade];
+        nomes = new String[capacidade];
+        cpfs = new long[capacidade];
+        datasCriacao = new LocalDateTime[capacidade];
+        saldos = new AtomicLongArray(capacidade);
+        mascara = capacidade - 1;
+        deslocamento = 32 - Integer.numberOfTrailingZeros(capacidade);
+    }
+    
+    private void redimensionar(int capacidade) {
+        int[] chavesAntigas = chaves;
+        String[] nomesAntigos = nomes;
+        long[] cpfsAntigos = cpfs;
+        LocalDateTime[] datasAntigas = datasCriacao;
+        AtomicLongArray saldosAntigos = saldos;
+        
+        alocar(capacidade);
+        for (int i = 0; i < chavesAntigas.length; i++) {
+            if (chavesAntigas[i] != VAZIO) {
+                int j = posicaoLivre(chavesAntigas[i]);
+                chaves[j] = chavesAntigas[i];
+                nomes[j] = nomesAntigos[i];
+                cpfs[j] = cpfsAntigos[i];
+                datasCriacao[j] = datasAntigas[i];
+                saldos.set(j, saldosAntigos.get(i));
+            }
+        }
+    }
+    
+    /**
+     * Leva o número, acrescentado logo depois dos quantidade primeiros, para a sua posição
+     */
+    private void inserirOrdenado(int numero, int quantidade) {
+        int i = -(Arrays.binarySearch(ordenados, 0, quantidade, numero) + 1);
+        System.arraycopy(ordenados, i, ordenados, i + 1, quantidade - i);
+        ordenados[i] = numero;
+    }
+    
+    private void removerOrdenado(int numero) {
+        int quantidade = tamanho + 1;
+        int i = Arrays.binarySearch(ordenados, 0, quantidade, numero);
+        System.arraycopy(ordenados, i + 1, ordenados, i, quantidade - i - 1);
+    }
+}
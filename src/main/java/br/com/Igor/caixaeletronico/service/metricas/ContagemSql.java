@@ -0,0 +1,43 @@
+package br.com.Igor.caixaeletronico.service.metricas;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Contagem dos comandos SQL executados pela thread atual: cada execute/executeBatch no JDBC é uma ida ao banco
+ * 
+ * Alimentada pelo DataSource (ContagemSqlDataSource). O total da thread só cresce; quem mede uma
+ * requisição ou um método guarda o total do início e subtrai no fim, o que permite medições aninhadas.
+ * O que roda em outras threads (gravação em lote do extrato, exportação assíncrona) não entra na conta.
+ */
+public final class ContagemSql {
+    
+    private static final ThreadLocal<long[]> EXECUTADOS = ThreadLocal.withInitial(() -> new long[1]);
+    
+    private ContagemSql() {
+    }
+    
+    public static void registrar() {
+        EXECUTADOS.get()[0]++;
+    }
+    
+    /**
+     * Comandos executados pela thread atual desde que foi criada
+     */
+    public static long total() {
+        return EXECUTADOS.get()[0];
+    }
+    
+    /**
+     * Executa a ação na thread atual e falha com AssertionError se ela executar mais de "maximo" comandos SQL
+     * Para testes e verificações de orçamento: a transação da ação tem de rodar na mesma thread.
+     */
+    public static <T> T verificarMaximo(int maximo, Callable<T> acao) throws Exception {
+        long inicio = total();
+        T resultado = acao.call();
+        long executados = total() - inicio;
+        if (executados > maximo) {
+            throw new AssertionError("Esperados no máximo " + maximo + " comandos SQL, executados " + executados);
+        }
+        return resultado;
+    }
+}
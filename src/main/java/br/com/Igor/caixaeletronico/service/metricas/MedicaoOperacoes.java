@@ -0,0 +1,139 @@
+package br.com.Igor.caixaeletronico.service.metricas;
+
+import br.com.Igor.caixaeletronico.service.diagnostico.OperacaoContaEvento;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Mede os métodos anotados com @OperacaoMedida no timer caixaeletronico.operacoes
+ * (tags servico, operacao e resultado), com histograma publicado para os percentis no Prometheus
+ * 
+ * Os timers são registrados na primeira chamada de cada método e guardados por Method: no
+ * caminho quente sobram a busca no mapa, dois System.nanoTime() e o registro no histograma,
+ * sem montar tags nem procurar o medidor no registry a cada chamada (como faria o @Timed).
+ * O registry é obtido só na primeira medição, porque o advisor é criado antes dos demais beans.
+ * 
+ * Soma também os comandos SQL das chamadas (ContagemSql) no contador caixaeletronico.operacoes.sql
+ * (a média por chamada é ele dividido pela contagem do timer; um histograma aqui custaria o dobro) e,
+ * se o método declara orcamentoSql, conta cada chamada que passar do orçamento. O primeiro excesso de
+ * cada método vai para o log em WARN e os seguintes em DEBUG: novas tentativas da estratégia otimista
+ * sob disputa passam do orçamento legitimamente e inundariam o log.
+ * 
+ * Cada chamada emite ainda um OperacaoContaEvento para o Flight Recorder, gravado só se houver gravação.
+ */
+public class MedicaoOperacoes implements MethodInterceptor {
+    
+    private static final Logger log = LoggerFactory.getLogger(MedicaoOperacoes.class);
+    
+    private static final String NOME = "caixaeletronico.operacoes";
+    
+    private static final Duration MENOR_ESPERADO = Duration.ofNanos(50_000);
+    private static final Duration MAIOR_ESPERADO = Duration.ofSeconds(30);
+    
+    private final ObjectProvider<MeterRegistry> registry;
+    private final ConcurrentHashMap<Method, Medicao> medicoes = new ConcurrentHashMap<>();
+    
+    public MedicaoOperacoes(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+    
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Medicao medicao = medicoes.get(invocation.getMethod());
+        if (medicao == null) {
+            medicao = medicoes.computeIfAbsent(invocation.getMethod(),
+                metodo -> criarMedicao(metodo, invocation.getThis()));
+        }
+        
+        OperacaoContaEvento evento = new OperacaoContaEvento();
+        Throwable erro = null;
+        long comandosInicio = ContagemSql.total();
+        evento.begin();
+        long inicio = System.nanoTime();
+        try {
+            Object retorno = invocation.proceed();
+            medicao.sucesso.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            return retorno;
+        } catch (Throwable e) {
+            medicao.falha.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            erro = e;
+            throw e;
+        } finally {
+            medicao.registrarComandos(ContagemSql.total() - comandosInicio);
+            if (evento.shouldCommit()) {
+                evento.concluir(medicao.servico, medicao.operacao, invocation.getArguments(), erro);
+                evento.commit();
+            }
+        }
+    }
+    
+    private Medicao criarMedicao(Method metodo, Object alvo) {
+        Class<?> classe = alvo != null ? ClassUtils.getUserClass(alvo) : metodo.getDeclaringClass();
+        OperacaoMedida anotacao = AnnotatedElementUtils.findMergedAnnotation(
+            AopUtils.getMostSpecificMethod(metodo, classe), OperacaoMedida.class);
+        String operacao = anotacao != null ? anotacao.value() : metodo.getName();
+        int orcamento = anotacao != null ? anotacao.orcamentoSql() : -1;
+        String servico = classe.getSimpleName();
+        MeterRegistry meterRegistry = registry.getObject();
+        return new Medicao(servico, operacao, servico + "." + metodo.getName(), orcamento, new AtomicBoolean(),
+            timer(meterRegistry, servico, operacao, "sucesso"),
+            timer(meterRegistry, servico, operacao, "falha"),
+            Counter.builder(NOME + ".sql")
+                .description("Comandos SQL executados pelas chamadas")
+                .baseUnit("comandos")
+                .tag("servico", servico)
+                .tag("operacao", operacao)
+                .register(meterRegistry),
+            Counter.builder(NOME + ".sql.orcamento.excedido")
+                .description("Chamadas que executaram mais comandos SQL que o orçamento do método")
+                .tag("servico", servico)
+                .tag("operacao", operacao)
+                .register(meterRegistry));
+    }
+    
+    private static Timer timer(MeterRegistry registry, String servico, String operacao, String resultado) {
+        return Timer.builder(NOME)
+            .description("Duração das operações dos serviços de contas, incluindo o commit")
+            .tag("servico", servico)
+            .tag("operacao", operacao)
+            .tag("resultado", resultado)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(MENOR_ESPERADO)
+            .maximumExpectedValue(MAIOR_ESPERADO)
+            .register(registry);
+    }
+    
+    private record Medicao(String servico, String operacao, String metodo, int orcamento, AtomicBoolean avisado, Timer sucesso, Timer falha,
+                           Counter comandos, Counter excedido) {
+        
+        void registrarComandos(long executados) {
+            if (executados > 0) {
+                comandos.increment(executados);
+            }
+            if (orcamento >= 0 && executados > orcamento) {
+                excedido.increment();
+                if (!avisado.get() && avisado.compareAndSet(false, true)) {
+                    log.warn("{} executou {} comandos SQL; orçamento: {} (os próximos excessos só em DEBUG)",
+                        metodo, executados, orcamento);
+                } else {
+                    log.debug("{} executou {} comandos SQL; orçamento: {}", metodo, executados, orcamento);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package br.com.Igor.caixaeletronico.service.metricas;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca um método de serviço cuja duração é medida no timer caixaeletronico.operacoes
+ * 
+ * O valor é a tag "operacao" (criar, depositar, sacar, saldo, excluir); a medição é feita
+ * por MedicaoOperacoes, por fora da transação, então inclui o commit.
+ * 
+ * orcamentoSql é o máximo de comandos SQL que uma chamada deve executar na thread que a atende
+ * (ContagemSql); a chamada que passar dele é contada em caixaeletronico.operacoes.sql.orcamento.excedido.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface OperacaoMedida {
+    
+    String value();
+    
+    /**
+     * Máximo de comandos SQL por chamada; negativo para não verificar
+     */
+    int orcamentoSql() default -1;
+}
@@ -0,0 +1,45 @@
+package br.com.Igor.caixaeletronico.service.metricas;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Contadores das recusas de negócio dos serviços de contas (caixaeletronico.operacoes.recusadas, tag motivo)
+ * 
+ * Registrados na inicialização, para aparecerem zerados no Prometheus antes da primeira recusa.
+ * Erros de validação da entrada (valor não positivo, campos inválidos) não entram aqui.
+ */
+@Component
+public class RecusasOperacoes {
+    
+    public enum Motivo {
+        SALDO_INSUFICIENTE("saldo_insuficiente"),
+        CONTA_NAO_ENCONTRADA("conta_nao_encontrada"),
+        CONTA_DUPLICADA("conta_duplicada");
+        
+        private final String tag;
+        
+        Motivo(String tag) {
+            this.tag = tag;
+        }
+    }
+    
+    private final Map<Motivo, Counter> contadores = new EnumMap<>(Motivo.class);
+    
+    public RecusasOperacoes(MeterRegistry registry) {
+        for (Motivo motivo : Motivo.values()) {
+            contadores.put(motivo, Counter.builder("caixaeletronico.operacoes.recusadas")
+                .description("Operações recusadas por regra de negócio")
+                .tag("motivo", motivo.tag)
+                .register(registry));
+        }
+    }
+    
+    public void registrar(Motivo motivo) {
+        contadores.get(motivo).increment();
+    }
+}
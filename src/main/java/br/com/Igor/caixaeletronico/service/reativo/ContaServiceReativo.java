@@ -0,0 +1,565 @@
+package br.com.Igor.caixaeletronico.service.reativo;
+
+import br.com.Igor.caixaeletronico.dto.ContaRequestDTO;
+import br.com.Igor.caixaeletronico.dto.ContaResponseDTO;
+import br.com.Igor.caixaeletronico.dto.PaginaDTO;
+import br.com.Igor.caixaeletronico.dto.ResultadoItemLoteDTO;
+import br.com.Igor.caixaeletronico.dto.ResultadoLoteDTO;
+import br.com.Igor.caixaeletronico.entity.Conta;
+import br.com.Igor.caixaeletronico.entity.Cpf;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.entity.Movimentacao;
+import br.com.Igor.caixaeletronico.event.ContaCriadaEvent;
+import br.com.Igor.caixaeletronico.event.ContaExcluidaEvent;
+import br.com.Igor.caixaeletronico.event.SaldoAlteradoEvent;
+import br.com.Igor.caixaeletronico.event.TitularAlteradoEvent;
+import br.com.Igor.caixaeletronico.exception.ContaJaExisteException;
+import br.com.Igor.caixaeletronico.exception.ContaNaoEncontradaException;
+import br.com.Igor.caixaeletronico.exception.OperacaoInvalidaException;
+import br.com.Igor.caixaeletronico.mapper.ContaMapper;
+import br.com.Igor.caixaeletronico.repository.ContaResumo;
+import br.com.Igor.caixaeletronico.service.CacheSaldos;
+import br.com.Igor.caixaeletronico.service.ExportadorContas;
+import br.com.Igor.caixaeletronico.service.FiltroContasExistentes;
+import br.com.Igor.caixaeletronico.service.LeitorLoteJson;
+import br.com.Igor.caixaeletronico.service.busca.BuscaTitulares;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Motor da API reativa v4: as operações de ContaServiceV2 sobre R2DBC, sem bloquear a thread
+ * 
+ * Cada escrita é uma transação R2DBC, e os eventos de domínio são publicados depois do commit,
+ * como no JPA: o cache de saldos, as estatísticas, o filtro de contas e o índice de nomes
+ * continuam compartilhados com as APIs v1-v3.
+ * Depósitos e saques usam sempre o UPDATE condicional da estratégia atomico, que incrementa a
+ * versão e por isso convive com qualquer estratégia configurada para a v3. A movimentação do
+ * extrato é gravada na própria transação, sem o group commit do GravadorMovimentacoes, para a
+ * transação não esperar o lote com a linha da conta bloqueada.
+ * 
+ * O pool R2DBC não é registrado como bean: um ConnectionFactory no contexto faria a configuração
+ * automática desistir do DataSource do JPA.
+ */
+@Service
+@Profile("!memoria")
+@ConditionalOnProperty(name = "caixaeletronico.v4.habilitado", havingValue = "true", matchIfMissing = true)
+public class ContaServiceReativo {
+    
+    private static final Logger log = LoggerFactory.getLogger(ContaServiceReativo.class);
+    
+    // Contas por buffer na exportação: cada buffer é uma escrita no socket
+    private static final int LINHAS_POR_BUFFER = 1000;
+    
+    private static final String COLUNAS_RESUMO = "numero, titular_nome, titular_cpf, saldo, data_criacao";
+    
+    private final ContaMapper contaMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheSaldos cacheSaldos;
+    private final BuscaTitulares buscaTitulares;
+    private final FiltroContasExistentes filtroContas;
+    private final ExportadorContas exportadorContas;
+    private final LeitorLoteJson leitorLote;
+    private final int tamanhoLote;
+    private final ConnectionPool pool;
+    private final DatabaseClient banco;
+    private final TransactionalOperator transacional;
+    
+    public ContaServiceReativo(
+            ContaMapper contaMapper,
+            ApplicationEventPublisher eventPublisher,
+            CacheSaldos cacheSaldos,
+            BuscaTitulares buscaTitulares,
+            FiltroContasExistentes filtroContas,
+            ExportadorContas exportadorContas,
+            LeitorLoteJson leitorLote,
+            @Value("${caixaeletronico.contas-lote.tamanho-lote:500}") int tamanhoLote,
+            @Value("${caixaeletronico.v4.r2dbc.url:r2dbc:h2:mem:///caixadb}") String url,
+            @Value("${spring.datasource.username}") String usuario,
+            @Value("${spring.datasource.password}") String senha,
+            @Value("${caixaeletronico.v4.r2dbc.conexoes:8}") int conexoes,
+            @Value("${caixaeletronico.v4.r2dbc.timeout-ms:30000}") long timeoutMs) {
+        this.contaMapper = contaMapper;
+        this.eventPublisher = eventPublisher;
+        this.cacheSaldos = cacheSaldos;
+        this.buscaTitulares = buscaTitulares;
+        this.filtroContas = filtroContas;
+        this.exportadorContas = exportadorContas;
+        this.leitorLote = leitorLote;
+        this.tamanhoLote = tamanhoLote;
+        ConnectionFactoryOptions opcoes = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, usuario)
+                .option(ConnectionFactoryOptions.PASSWORD, senha)
+                .build();
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(opcoes))
+                .name("r2dbc-v4")
+                .initialSize(Math.min(2, conexoes))
+                .maxSize(conexoes)
+                .maxAcquireTime(Duration.ofMillis(timeoutMs))
+                .build());
+        this.banco = DatabaseClient.create(pool);
+        this.transacional = TransactionalOperator.create(new R2dbcTransactionManager(pool));
+    }
+    
+    @PreDestroy
+    public void fechar() {
+        pool.dispose();
+    }
+    
+    /**
+     * Lista uma página de contas a partir do cursor (número da última conta da página anterior)
+     */
+    public Mono<PaginaDTO<ContaResponseDTO>> listarContas(Integer apos, int limite) {
+        int tamanho = PaginaDTO.limitar(limite);
+        return banco.sql("SELECT " + COLUNAS_RESUMO + " FROM contas WHERE numero > :apos ORDER BY numero LIMIT :limite")
+                .bind("apos", apos != null ? apos : Integer.MIN_VALUE)
+                .bind("limite", tamanho + 1)
+                .map(ContaServiceReativo::resumo)
+                .all()
+                .collectList()
+                .map(resumos -> contaMapper.toPagina(resumos, tamanho));
+    }
+    
+    /**
+     * Busca conta por número
+     */
+    public Mono<ContaResponseDTO> buscarConta(Integer numero) {
+        return buscarResumo(numero).map(contaMapper::toContaResponseDTO);
+    }
+    
+    /**
+     * Busca contas pelo nome do titular no índice de nomes, na ordem de relevância do índice
+     */
+    public Mono<PaginaDTO<ContaResponseDTO>> buscarPorNome(String nome, int deslocamento, int limite) {
+        return Mono.defer(() -> {
+            int tamanho = PaginaDTO.limitar(limite);
+            int inicio = Math.max(deslocamento, 0);
+            int[] numeros = buscaTitulares.buscar(nome, inicio, tamanho + 1);
+            int quantidade = Math.min(numeros.length, tamanho);
+            Integer proximoCursor = numeros.length > tamanho ? inicio + tamanho : null;
+            if (quantidade == 0) {
+                return Mono.just(new PaginaDTO<>(List.<ContaResponseDTO>of(), proximoCursor));
+            }
+            
+            return banco.sql("SELECT " + COLUNAS_RESUMO + " FROM contas WHERE numero IN (:numeros)")
+                    .bind("numeros", Arrays.stream(numeros, 0, quantidade).boxed().toList())
+                    .map(ContaServiceReativo::resumo)
+                    .all()
+                    .collectMap(ContaResumo::getNumero)
+                    .map(resumos -> {
+                        // Conta excluída nesse meio tempo é omitida
+                        List<ContaResponseDTO> itens = new ArrayList<>(quantidade);
+                        for (int i = 0; i < quantidade; i++) {
+                            ContaResumo resumo = resumos.get(numeros[i]);
+                            if (resumo != null) {
+                                itens.add(contaMapper.toContaResponseDTO(resumo));
+                            }
+                        }
+                        return new PaginaDTO<>(itens, proximoCursor);
+                    });
+        });
+    }
+    
+    /**
+     * Todas as contas em ordem de número, no formato do ExportadorContas, em buffers de
+     * LINHAS_POR_BUFFER contas. As linhas só são lidas do banco conforme o cliente consome
+     * os buffers já enviados (backpressure do socket até o resultado da consulta).
+     */
+    public Flux<DataBuffer> exportarContas(ExportadorContas.Formato formato) {
+        Flux<DataBuffer> linhas = banco.sql("SELECT " + COLUNAS_RESUMO + " FROM contas ORDER BY numero")
+                .filter(statement -> statement.fetchSize(LINHAS_POR_BUFFER))
+                .map(ContaServiceReativo::resumo)
+                .all()
+                .buffer(LINHAS_POR_BUFFER)
+                .handle((bloco, saida) -> {
+                    try {
+                        ByteArrayOutputStream bytes = new ByteArrayOutputStream(bloco.size() * 128);
+                        exportadorContas.escreverLinhas(bloco.iterator(), bytes, formato);
+                        saida.next(DefaultDataBufferFactory.sharedInstance.wrap(bytes.toByteArray()));
+                    } catch (IOException e) {
+                        saida.error(e);
+                    }
+                });
+        return Mono.fromCallable(() -> {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            exportadorContas.escreverCabecalho(bytes, formato);
+            return bytes.toByteArray();
+        }).filter(cabecalho -> cabecalho.length > 0)
+          .<DataBuffer>map(DefaultDataBufferFactory.sharedInstance::wrap)
+          .concatWith(linhas);
+    }
+    
+    /**
+     * Cria nova conta
+     */
+    public Mono<ContaResponseDTO> criarConta(ContaRequestDTO requestDTO) {
+        return Mono.defer(() -> {
+            Conta conta = contaMapper.toConta(requestDTO);
+            return verificarNumeroDisponivel(conta.getNumero())
+                    .then(verificarCpfDisponivel(conta.getTitular().getCpf(), null))
+                    .then(inserir(List.of(conta)))
+                    .as(transacional::transactional)
+                    .then(Mono.fromSupplier(() -> {
+                        publicarCriacao(conta);
+                        return contaMapper.toContaResponseDTO(conta);
+                    }));
+        });
+    }
+    
+    /**
+     * Cria as contas de um array JSON recebido em streaming, como CadastroContasLote: blocos de
+     * tamanho-lote itens, cada bloco numa transação. O corpo só é lido conforme os blocos são gravados.
+     */
+    public Mono<ResultadoLoteDTO> cadastrarLote(Flux<DataBuffer> corpo) {
+        return leitorLote.lerReativo(corpo, ContaRequestDTO.class, tamanhoLote, this::criarBloco)
+                .map(ResultadoLoteDTO::new)
+                .doOnNext(resultado -> log.info("Lote de contas (v4): {} criadas, {} recusadas",
+                        resultado.getAceitos(), resultado.getRecusados()));
+    }
+    
+    /**
+     * Um cadastro concorrente pode passar na frente entre a verificação e o commit do bloco;
+     * aí o bloco inteiro é desfeito e refeito item a item, recusando só os conflitantes
+     */
+    private Mono<List<ResultadoItemLoteDTO>> criarBloco(List<ContaRequestDTO> validos) {
+        return criarContas(validos).onErrorResume(DataIntegrityViolationException.class, conflito -> {
+            log.debug("Conflito no lote de {} contas, criando item a item", validos.size());
+            return Flux.range(0, validos.size())
+                    .concatMap(i -> {
+                        Integer numero = validos.get(i).getNumero();
+                        return criarConta(validos.get(i))
+                                .map(conta -> ResultadoItemLoteDTO.aceito(i, numero, 201))
+                                .onErrorResume(ContaJaExisteException.class,
+                                        e -> Mono.just(ResultadoItemLoteDTO.recusado(i, numero, 409, e.getMessage())))
+                                .onErrorResume(DataIntegrityViolationException.class,
+                                        e -> Mono.just(ResultadoItemLoteDTO.recusado(i, numero, 409,
+                                                "Número de conta ou CPF já cadastrado")));
+                    })
+                    .collectList();
+        });
+    }
+    
+    /**
+     * Cria as contas do bloco numa transação, com um único INSERT em batch
+     * A duplicidade é conferida com uma consulta por coluna para o bloco inteiro, só com os
+     * números e CPFs que o filtro não descarta
+     */
+    private Mono<List<ResultadoItemLoteDTO>> criarContas(List<ContaRequestDTO> lote) {
+        List<Integer> numerosConsultar = new ArrayList<>();
+        List<Long> cpfsConsultar = new ArrayList<>();
+        for (ContaRequestDTO item : lote) {
+            if (filtroContas.numeroPodeExistir(item.getNumero())) {
+                numerosConsultar.add(item.getNumero());
+            }
+            if (filtroContas.cpfPodeExistir(item.getTitular().getCpf())) {
+                cpfsConsultar.add(item.getTitular().getCpf().getNumero());
+            }
+        }
+        Mono<Set<Integer>> numerosUsados = numerosConsultar.isEmpty() ? Mono.just(new HashSet<>())
+                : banco.sql("SELECT numero FROM contas WHERE numero IN (:numeros)")
+                        .bind("numeros", numerosConsultar)
+                        .map(linha -> linha.get("numero", Integer.class))
+                        .all()
+                        .collect(HashSet::new, Set::add);
+        Mono<Set<Cpf>> cpfsUsados = cpfsConsultar.isEmpty() ? Mono.just(new HashSet<>())
+                : banco.sql("SELECT titular_cpf FROM contas WHERE titular_cpf IN (:cpfs)")
+                        .bind("cpfs", cpfsConsultar)
+                        .map(linha -> Cpf.deNumero(linha.get("titular_cpf", Long.class)))
+                        .all()
+                        .collect(HashSet::new, Set::add);
+        
+        List<Conta> novas = new ArrayList<>(lote.size());
+        return Mono.zip(numerosUsados, cpfsUsados)
+                .flatMap(usados -> {
+                    List<ResultadoItemLoteDTO> resultados = new ArrayList<>(lote.size());
+                    for (int i = 0; i < lote.size(); i++) {
+                        ContaRequestDTO item = lote.get(i);
+                        Integer numero = item.getNumero();
+                        Cpf cpf = item.getTitular().getCpf();
+                        if (usados.getT1().contains(numero)) {
+                            resultados.add(ResultadoItemLoteDTO.recusado(i, numero, 409,
+                                new ContaJaExisteException(numero).getMessage()));
+                        } else if (usados.getT2().contains(cpf)) {
+                            resultados.add(ResultadoItemLoteDTO.recusado(i, numero, 409,
+                                "Já existe uma conta para o CPF: " + cpf));
+                        } else {
+                            usados.getT1().add(numero);
+                            usados.getT2().add(cpf);
+                            novas.add(contaMapper.toConta(item));
+                            resultados.add(ResultadoItemLoteDTO.aceito(i, numero, 201));
+                        }
+                    }
+                    return inserir(novas).thenReturn(resultados);
+                })
+                .as(transacional::transactional)
+                .doOnNext(resultados -> novas.forEach(this::publicarCriacao));
+    }
+    
+    /**
+     * Atualiza dados do titular
+     * A versão lida é conferida no UPDATE, como o @Version do JPA: alteração concorrente vira 409
+     */
+    public Mono<ContaResponseDTO> atualizarTitular(Integer numero, ContaRequestDTO requestDTO) {
+        String nome = requestDTO.getTitular().getNome();
+        Cpf cpf = requestDTO.getTitular().getCpf();
+        return buscarComVersao(numero)
+                .flatMap(atual -> verificarCpfDisponivel(cpf, atual.resumo.getTitularCpf())
+                        .then(banco.sql("UPDATE contas SET titular_nome = :nome, titular_cpf = :cpf, versao = versao + 1 "
+                                        + "WHERE numero = :numero AND versao = :versao")
+                                .bind("nome", nome)
+                                .bind("cpf", cpf.getNumero())
+                                .bind("numero", numero)
+                                .bind("versao", atual.versao)
+                                .fetch()
+                                .rowsUpdated())
+                        .flatMap(linhas -> linhas == 0 ? Mono.error(conflito(numero)) : Mono.just(atual.resumo)))
+                .as(transacional::transactional)
+                .map(anterior -> {
+                    eventPublisher.publishEvent(new TitularAlteradoEvent(numero,
+                        anterior.getTitularNome(), anterior.getTitularCpf(), nome, cpf));
+                    return contaMapper.toContaResponseDTO(new ContaResumo(numero, nome, cpf,
+                        anterior.getSaldo(), anterior.getDataCriacao()));
+                })
+                .as(mono -> emEscrita(numero, mono));
+    }
+    
+    /**
+     * Realiza depósito
+     */
+    public Mono<ContaResponseDTO> depositar(Integer numero, Dinheiro valor) {
+        if (!valor.isPositivo()) {
+            return Mono.error(new OperacaoInvalidaException("Valor do depósito deve ser positivo"));
+        }
+        return banco.sql("UPDATE contas SET saldo = saldo + :valor, versao = versao + 1 WHERE numero = :numero")
+                .bind("valor", valor.toBigDecimal())
+                .bind("numero", numero)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(linhas -> linhas == 0 ? Mono.error(new ContaNaoEncontradaException(numero)) : buscarResumo(numero))
+                .flatMap(conta -> registrarMovimentacao(numero, Movimentacao.Tipo.DEPOSITO, valor, conta.getSaldo())
+                        .thenReturn(conta))
+                .as(transacional::transactional)
+                .map(conta -> {
+                    eventPublisher.publishEvent(new SaldoAlteradoEvent(numero, valor, conta.getSaldo()));
+                    return contaMapper.toContaResponseDTO(conta);
+                })
+                .as(mono -> emEscrita(numero, mono));
+    }
+    
+    /**
+     * Realiza saque
+     */
+    public Mono<ContaResponseDTO> sacar(Integer numero, Dinheiro valor) {
+        if (!valor.isPositivo()) {
+            return Mono.error(new OperacaoInvalidaException("Valor do saque deve ser positivo"));
+        }
+        return banco.sql("UPDATE contas SET saldo = saldo - :valor, versao = versao + 1 WHERE numero = :numero AND saldo >= :valor")
+                .bind("valor", valor.toBigDecimal())
+                .bind("numero", numero)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(linhas -> linhas > 0 ? buscarResumo(numero)
+                        // Só no caminho de falha é preciso distinguir conta inexistente de saldo insuficiente
+                        : existe(numero).flatMap(existe -> Mono.error(existe
+                                ? new OperacaoInvalidaException("Saldo insuficiente")
+                                : new ContaNaoEncontradaException(numero))))
+                .flatMap(conta -> registrarMovimentacao(numero, Movimentacao.Tipo.SAQUE, valor, conta.getSaldo())
+                        .thenReturn(conta))
+                .as(transacional::transactional)
+                .map(conta -> {
+                    eventPublisher.publishEvent(new SaldoAlteradoEvent(numero, valor.negar(), conta.getSaldo()));
+                    return contaMapper.toContaResponseDTO(conta);
+                })
+                .as(mono -> emEscrita(numero, mono));
+    }
+    
+    /**
+     * Consulta saldo: do cache de saldos quando presente, senão do banco
+     */
+    public Mono<Dinheiro> consultarSaldo(Integer numero) {
+        return Mono.justOrEmpty(cacheSaldos.emCache(numero))
+                .switchIfEmpty(Mono.defer(() -> banco.sql("SELECT saldo FROM contas WHERE numero = :numero")
+                        .bind("numero", numero)
+                        .map(linha -> Dinheiro.de(linha.get("saldo", BigDecimal.class)))
+                        .one()))
+                .switchIfEmpty(Mono.error(() -> new ContaNaoEncontradaException(numero)));
+    }
+    
+    /**
+     * Exclui conta, conferindo a versão lida como o @Version do JPA
+     */
+    public Mono<Void> excluirConta(Integer numero) {
+        return buscarComVersao(numero)
+                .flatMap(atual -> banco.sql("DELETE FROM contas WHERE numero = :numero AND versao = :versao")
+                        .bind("numero", numero)
+                        .bind("versao", atual.versao)
+                        .fetch()
+                        .rowsUpdated()
+                        .flatMap(linhas -> linhas == 0 ? Mono.error(conflito(numero)) : Mono.just(atual.resumo)))
+                .as(transacional::transactional)
+                .doOnNext(conta -> eventPublisher.publishEvent(new ContaExcluidaEvent(numero,
+                        conta.getTitularNome(), conta.getTitularCpf(), conta.getSaldo())))
+                .then()
+                .as(mono -> emEscrita(numero, mono));
+    }
+    
+    /**
+     * A conta fica marcada como em escrita no cache de saldos da assinatura até o fim da operação,
+     * com ou sem commit: entre o commit e a invalidação o cache não devolve o saldo anterior
+     */
+    private <T> Mono<T> emEscrita(Integer numero, Mono<T> operacao) {
+        return operacao
+                .doFirst(() -> cacheSaldos.iniciarEscrita(numero))
+                .doFinally(sinal -> cacheSaldos.concluirEscrita(numero));
+    }
+    
+    private Mono<ContaResumo> buscarResumo(Integer numero) {
+        return banco.sql("SELECT " + COLUNAS_RESUMO + " FROM contas WHERE numero = :numero")
+                .bind("numero", numero)
+                .map(ContaServiceReativo::resumo)
+                .one()
+                .switchIfEmpty(Mono.error(() -> new ContaNaoEncontradaException(numero)));
+    }
+    
+    private Mono<ContaLida> buscarComVersao(Integer numero) {
+        return banco.sql("SELECT " + COLUNAS_RESUMO + ", versao FROM contas WHERE numero = :numero")
+                .bind("numero", numero)
+                .map(linha -> new ContaLida(resumo(linha), linha.get("versao", Long.class)))
+                .one()
+                .switchIfEmpty(Mono.error(() -> new ContaNaoEncontradaException(numero)));
+    }
+    
+    private Mono<Boolean> existe(Integer numero) {
+        return banco.sql("SELECT 1 FROM contas WHERE numero = :numero")
+                .bind("numero", numero)
+                .map(linha -> Boolean.TRUE)
+                .first()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+    
+    /**
+     * Só consulta o banco quando o filtro não descarta o número
+     */
+    private Mono<Void> verificarNumeroDisponivel(Integer numero) {
+        if (!filtroContas.numeroPodeExistir(numero)) {
+            return Mono.empty();
+        }
+        return existe(numero)
+                .flatMap(existe -> existe ? Mono.error(new ContaJaExisteException(numero)) : Mono.empty());
+    }
+    
+    /**
+     * CPF é único entre as contas; a própria conta pode manter o seu (cpfAtual)
+     * Só consulta o banco quando o filtro não descarta o CPF
+     */
+    private Mono<Void> verificarCpfDisponivel(Cpf cpf, Cpf cpfAtual) {
+        if (cpf.equals(cpfAtual) || !filtroContas.cpfPodeExistir(cpf)) {
+            return Mono.empty();
+        }
+        return banco.sql("SELECT 1 FROM contas WHERE titular_cpf = :cpf")
+                .bind("cpf", cpf.getNumero())
+                .map(linha -> Boolean.TRUE)
+                .first()
+                .flatMap(existe -> Mono.error(new ContaJaExisteException("Já existe uma conta para o CPF: " + cpf)));
+    }
+    
+    /**
+     * INSERT das contas num único statement em batch, na conexão da transação corrente
+     */
+    private Mono<Void> inserir(List<Conta> contas) {
+        if (contas.isEmpty()) {
+            return Mono.empty();
+        }
+        return banco.inConnectionMany(conexao -> {
+            Statement insert = conexao.createStatement("INSERT INTO contas (numero, saldo, titular_nome, titular_cpf, "
+                    + "data_criacao, versao) VALUES ($1, $2, $3, $4, $5, 0)");
+            for (int i = 0; i < contas.size(); i++) {
+                if (i > 0) {
+                    insert.add();
+                }
+                Conta conta = contas.get(i);
+                insert.bind(0, conta.getNumero())
+                      .bind(1, conta.getSaldo().toBigDecimal())
+                      .bind(2, conta.getTitular().getNome())
+                      .bind(3, conta.getTitular().getCpf().getNumero())
+                      .bind(4, conta.getDataCriacao());
+            }
+            return Flux.from(insert.execute()).flatMap(Result::getRowsUpdated);
+        }).then();
+    }
+    
+    private Mono<Void> registrarMovimentacao(Integer numero, Movimentacao.Tipo tipo, Dinheiro valor, Dinheiro saldo) {
+        Movimentacao movimentacao = new Movimentacao(numero, tipo, valor, saldo);
+        return banco.sql("INSERT INTO movimentacoes (numero_conta, tipo, valor, saldo_resultante, data_hora) "
+                        + "VALUES (:numero, :tipo, :valor, :saldo, :dataHora)")
+                .bind("numero", movimentacao.getNumeroConta())
+                .bind("tipo", movimentacao.getTipo().name())
+                .bind("valor", movimentacao.getValor().toBigDecimal())
+                .bind("saldo", movimentacao.getSaldoResultante().toBigDecimal())
+                .bind("dataHora", movimentacao.getDataHora())
+                .then();
+    }
+    
+    private void publicarCriacao(Conta conta) {
+        eventPublisher.publishEvent(new ContaCriadaEvent(conta.getNumero(),
+            conta.getTitular().getNome(), conta.getTitular().getCpf(), conta.getSaldo()));
+    }
+    
+    private static OptimisticLockingFailureException conflito(Integer numero) {
+        return new OptimisticLockingFailureException("Conta " + numero + " alterada concorrentemente");
+    }
+    
+    private static ContaResumo resumo(Readable linha) {
+        return new ContaResumo(
+            linha.get("numero", Integer.class),
+            linha.get("titular_nome", String.class),
+            Cpf.deNumero(linha.get("titular_cpf", Long.class)),
+            Dinheiro.de(linha.get("saldo", BigDecimal.class)),
+            linha.get("data_criacao", LocalDateTime.class));
+    }
+    
+    /**
+     * Conta lida com a versão, para conferir no UPDATE/DELETE
+     */
+    private static class ContaLida {
+        private final ContaResumo resumo;
+        private final Long versao;
+        
+        ContaLida(ContaResumo resumo, Long versao) {
+            this.resumo = resumo;
+            this.versao = versao;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package br.com.Igor.caixaeletronico;
+
+import br.com.Igor.caixaeletronico.entity.Cliente;
+import br.com.Igor.caixaeletronico.entity.Cpf;
+
+/**
+ * Dados de exemplo dos testes, com CPFs válidos gerados a partir do número da conta
+ */
+public final class Amostras {
+    
+    private Amostras() {}
+    
+    public static Cliente titular(int numero) {
+        return new Cliente("Titular Teste " + numero, cpf(numero));
+    }
+    
+    /**
+     * CPF com os nove primeiros dígitos derivados do número e os verificadores calculados
+     */
+    public static Cpf cpf(int numero) {
+        long base = 100_000_000L + Math.floorMod(numero, 800_000_000);
+        int[] digitos = new int[11];
+        for (int i = 8; i >= 0; i--) {
+            digitos[i] = (int) (base % 10);
+            base /= 10;
+        }
+        digitos[9] = verificador(digitos, 9);
+        digitos[10] = verificador(digitos, 10);
+        
+        long cpf = 0;
+        for (int digito : digitos) {
+            cpf = cpf * 10 + digito;
+        }
+        return Cpf.deNumero(cpf);
+    }
+    
+    private static int verificador(int[] digitos, int quantidade) {
+        int soma = 0;
+        for (int i = 0; i < quantidade; i++) {
+            soma += digitos[i] * (quantidade + 1 - i);
+        }
+        int resto = soma % 11;
+        return resto < 2 ? 0 : 11 - resto;
+    }
+}
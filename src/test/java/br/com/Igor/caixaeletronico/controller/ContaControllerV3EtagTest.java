@@ -0,0 +1,92 @@
+package br.com.Igor.caixaeletronico.controller;
+
+import br.com.Igor.caixaeletronico.Amostras;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETag da API v3: fraco, o mesmo para JSON, CBOR e Smile, e conferido com ou sem W/ no If-Match
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("teste")
+class ContaControllerV3EtagTest {
+    
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Test
+    void etagFracoIgualEmTodosOsFormatos() throws Exception {
+        int numero = 950_001;
+        criar(numero);
+        String caminho = "/api/v3/contas/" + numero + "/saldo";
+        
+        String json = mockMvc.perform(get(caminho).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(json).matches("W/\"\\d+\"");
+        mockMvc.perform(get(caminho).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, json));
+        mockMvc.perform(get(caminho).accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, json));
+        
+        // Uma tag lida em JSON vale para um GET condicional em outro formato
+        mockMvc.perform(get(caminho).accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, json))
+                .andExpect(status().isNotModified());
+    }
+    
+    @Test
+    void ifMatchAceitaVersaoComOuSemW() throws Exception {
+        int numero = 950_002;
+        criar(numero);
+        String lida = mockMvc.perform(get("/api/v3/contas/" + numero))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        
+        String nova = mockMvc.perform(put("/api/v3/contas/" + numero).header(HttpHeaders.IF_MATCH, lida)
+                        .contentType(MediaType.APPLICATION_JSON).content(conta(numero, "Titular Renomeado")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(nova).matches("W/\"\\d+\"").isNotEqualTo(lida);
+        
+        // A versão antiga, agora sem W/, não confere mais: 412 com o ETag atual
+        String forteAntiga = lida.substring(2);
+        mockMvc.perform(put("/api/v3/contas/" + numero).header(HttpHeaders.IF_MATCH, forteAntiga)
+                        .contentType(MediaType.APPLICATION_JSON).content(conta(numero, "Outro Titular")))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().string(HttpHeaders.ETAG, nova));
+        
+        // A versão atual sem W/ confere
+        mockMvc.perform(put("/api/v3/contas/" + numero).header(HttpHeaders.IF_MATCH, nova.substring(2))
+                        .contentType(MediaType.APPLICATION_JSON).content(conta(numero, "Outro Titular")))
+                .andExpect(status().isOk());
+    }
+    
+    private void criar(int numero) throws Exception {
+        mockMvc.perform(post("/api/v3/contas").contentType(MediaType.APPLICATION_JSON)
+                        .content(conta(numero, Amostras.titular(numero).getNome())))
+                .andExpect(status().isCreated());
+    }
+    
+    private static String conta(int numero, String nome) {
+        return "{\"numero\":" + numero + ",\"titular\":{\"nome\":\"" + nome
+                + "\",\"cpf\":\"" + Amostras.cpf(numero) + "\"}}";
+    }
+}
@@ -0,0 +1,48 @@
+package br.com.Igor.caixaeletronico.controller;
+
+import br.com.Igor.caixaeletronico.CaixaEletronicoApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * O dump do JFR nunca fica na porta pública: com a gravação ligada, o endpoint só existe
+ * quando o actuator tem uma porta de gerenciamento própria
+ */
+class GravacaoJfrEndpointTest {
+    
+    @Test
+    void semPortaDeGerenciamentoNaoHaEndpoint() {
+        try (ConfigurableApplicationContext contexto = iniciar("--caixaeletronico.jfr.habilitado=true")) {
+            assertThat(contexto.getBeanNamesForType(GravacaoJfrEndpoint.class)).isEmpty();
+        }
+    }
+    
+    @Test
+    void comPortaDeGerenciamentoPropriaHaEndpoint() {
+        try (ConfigurableApplicationContext contexto = iniciar("--caixaeletronico.jfr.habilitado=true",
+                "--management.server.port=0")) {
+            assertThat(contexto.getBeanNamesForType(GravacaoJfrEndpoint.class)).hasSize(1);
+        }
+    }
+    
+    @Test
+    void gravacaoDesligadaNaoTemEndpoint() {
+        try (ConfigurableApplicationContext contexto = iniciar("--management.server.port=0")) {
+            assertThat(contexto.getBeanNamesForType(GravacaoJfrEndpoint.class)).isEmpty();
+        }
+    }
+    
+    /** A condição de porta de gerenciamento só vale num contexto web; portas aleatórias para não colidir */
+    private static ConfigurableApplicationContext iniciar(String... argumentos) {
+        return new SpringApplicationBuilder(CaixaEletronicoApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .profiles("teste")
+                .run(Stream.concat(Stream.of("--server.port=0"), Stream.of(argumentos)).toArray(String[]::new));
+    }
+}
@@ -0,0 +1,95 @@
+package br.com.Igor.caixaeletronico.controller;
+
+import br.com.Igor.caixaeletronico.Amostras;
+import br.com.Igor.caixaeletronico.service.metricas.ContagemSql;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Orçamento de comandos SQL dos endpoints principais das APIs v1 a v3, com a estratégia padrão
+ * (atomico): os mesmos limites de @OperacaoMedida(orcamentoSql) e da tabela do README, agora
+ * conferidos por requisição inteira (filtros, controller, serviço e commit) com ContagemSql.verificarMaximo.
+ * O MockMvc atende na thread do teste, então a contagem por thread pega a requisição toda.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("teste")
+class OrcamentoSqlTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Test
+    void apiV1() throws Exception {
+        int numero = 940_001;
+        verificar(3, post("/api/contas").contentType(MediaType.APPLICATION_JSON)
+                .content(conta(numero, "1000.00")), status().isCreated());
+        verificar(1, get("/api/contas/" + numero), status().isOk());
+        verificar(2, put("/api/contas/" + numero + "/depositar").contentType(MediaType.APPLICATION_JSON)
+                .content(valor("10.00")), status().isOk());
+        verificar(2, put("/api/contas/" + numero + "/sacar").contentType(MediaType.APPLICATION_JSON)
+                .content(valor("1010.00")), status().isOk());
+        verificar(1, get("/api/contas/" + numero + "/saldo"), status().isOk());
+        verificar(2, delete("/api/contas/" + numero), status().isOk());
+    }
+    
+    @Test
+    void apiV2() throws Exception {
+        int numero = 940_002;
+        verificar(3, post("/api/v2/contas").contentType(MediaType.APPLICATION_JSON)
+                .content(conta(numero, null)), status().isCreated());
+        verificar(1, get("/api/v2/contas/" + numero), status().isOk());
+        verificar(2, post("/api/v2/contas/" + numero + "/depositar").contentType(MediaType.APPLICATION_JSON)
+                .content(valor("10.00")), status().isOk());
+        verificar(2, post("/api/v2/contas/" + numero + "/sacar").contentType(MediaType.APPLICATION_JSON)
+                .content(valor("10.00")), status().isOk());
+        verificar(1, get("/api/v2/contas/" + numero + "/saldo"), status().isOk());
+        verificar(2, delete("/api/v2/contas/" + numero), status().isOk());
+    }
+    
+    @Test
+    void apiV3() throws Exception {
+        int numero = 940_003;
+        verificar(3, post("/api/v3/contas").contentType(MediaType.APPLICATION_JSON)
+                .content(conta(numero, "1000.00")), status().isCreated());
+        verificar(1, get("/api/v3/contas/" + numero), status().isOk());
+        verificar(2, post("/api/v3/contas/" + numero + "/depositar").contentType(MediaType.APPLICATION_JSON)
+                .content(valor("10.00")), status().isOk());
+        verificar(2, post("/api/v3/contas/" + numero + "/sacar").contentType(MediaType.APPLICATION_JSON)
+                .content(valor("1010.00")), status().isOk());
+        // Saque recusado: o UPDATE condicional não altera nada e uma leitura distingue a causa
+        verificar(2, post("/api/v3/contas/" + numero + "/sacar").contentType(MediaType.APPLICATION_JSON)
+                .content(valor("10.00")), status().isBadRequest());
+        verificar(1, get("/api/v3/contas/" + numero + "/saldo"), status().isOk());
+        // Segunda consulta vem do cache de saldos
+        verificar(0, get("/api/v3/contas/" + numero + "/saldo"), status().isOk());
+        verificar(1, delete("/api/v3/contas/" + numero), status().is2xxSuccessful());
+    }
+    
+    private void verificar(int maximo, RequestBuilder requisicao, ResultMatcher esperado) throws Exception {
+        ContagemSql.verificarMaximo(maximo, () -> mockMvc.perform(requisicao).andExpect(esperado));
+    }
+    
+    private static String conta(int numero, String saldoInicial) {
+        return "{\"numero\":" + numero + ",\"titular\":{\"nome\":\"" + Amostras.titular(numero).getNome()
+                + "\",\"cpf\":\"" + Amostras.cpf(numero) + "\"}"
+                + (saldoInicial != null ? ",\"saldoInicial\":" + saldoInicial : "") + "}";
+    }
+    
+    private static String valor(String valor) {
+        return "{\"valor\":" + valor + "}";
+    }
+}
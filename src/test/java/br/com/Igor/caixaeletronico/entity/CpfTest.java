@@ -0,0 +1,115 @@
+package br.com.Igor.caixaeletronico.entity;
+
+import br.com.Igor.caixaeletronico.Amostras;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CpfTest {
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @Test
+    void formatadoESoDigitosTemAMesmaFormaCanonica() {
+        Cpf formatado = Cpf.de("529.982.247-25");
+        Cpf digitos = Cpf.de("52998224725");
+        
+        assertThat(formatado).isEqualTo(digitos).hasSameHashCodeAs(digitos);
+        assertThat(formatado.getNumero()).isEqualTo(52_998_224_725L);
+        assertThat(digitos).hasToString("529.982.247-25");
+        assertThat(Cpf.deNumero(52_998_224_725L)).isEqualTo(formatado);
+    }
+    
+    @Test
+    void zerosAEsquerdaSaoPreservadosNoTexto() {
+        Cpf cpf = Cpf.de("012.345.678-90");
+        
+        assertThat(cpf.getNumero()).isEqualTo(1_234_567_890L);
+        assertThat(cpf).hasToString("012.345.678-90");
+        assertThat(Cpf.de("01234567890")).isEqualTo(cpf);
+        assertThat(cpf).isLessThan(Cpf.de("529.982.247-25"));
+    }
+    
+    @Test
+    void digitosVerificadoresErradosSaoRecusados() {
+        assertThat(Cpf.converter("529.982.247-24")).isEqualTo(Cpf.INVALIDO);
+        assertThat(Cpf.converter("529.982.247-35")).isEqualTo(Cpf.INVALIDO);
+        assertThat(Cpf.converter("52998224726")).isEqualTo(Cpf.INVALIDO);
+        // Dígitos trocados de posição mudam a soma ponderada
+        assertThat(Cpf.converter("259.982.247-25")).isEqualTo(Cpf.INVALIDO);
+        
+        assertThatThrownBy(() -> Cpf.de("529.982.247-24")).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("CPF inválido");
+    }
+    
+    @Test
+    void formatoESequenciasRepetidasSaoRecusados() {
+        for (String texto : new String[] {
+            "", "5299822472", "529982247250", "529-982-247.25", "529.982.247.25", "529 982 247 25",
+            "5299822472a", "529.982.24725", "111.111.111-11", "00000000000", "99999999999"
+        }) {
+            assertThat(Cpf.converter(texto)).as(texto).isEqualTo(Cpf.INVALIDO);
+        }
+        assertThatThrownBy(() -> Cpf.de(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Cpf.deNumero(-1L)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Cpf.deNumero(100_000_000_000L)).isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    /**
+     * A leitura em uma passada aceita exatamente os textos que a regra dos verificadores aceita,
+     * com ou sem formatação
+     */
+    @Test
+    void equivaleARegraDosDigitosVerificadores() {
+        Random aleatorio = new Random(3);
+        int validos = 0;
+        for (int i = 0; i < 20_000; i++) {
+            // Metade com verificadores corretos, metade com verificadores sorteados
+            Cpf amostra = Amostras.cpf(aleatorio.nextInt(800_000_000));
+            String digitos = amostra.toString().replaceAll("\\D", "");
+            if (i % 2 == 1) {
+                digitos = digitos.substring(0, 9) + aleatorio.nextInt(10) + aleatorio.nextInt(10);
+            }
+            String formatado = digitos.substring(0, 3) + '.' + digitos.substring(3, 6) + '.'
+                    + digitos.substring(6, 9) + '-' + digitos.substring(9);
+            long esperado = regraDosVerificadores(digitos) ? Long.parseLong(digitos) : Cpf.INVALIDO;
+            
+            assertThat(Cpf.converter(digitos)).as(digitos).isEqualTo(esperado);
+            assertThat(Cpf.converter(formatado)).as(formatado).isEqualTo(esperado);
+            if (esperado != Cpf.INVALIDO) {
+                assertThat(Cpf.deNumero(esperado)).hasToString(formatado);
+                validos++;
+            }
+        }
+        assertThat(validos).isGreaterThan(10_000);
+    }
+    
+    @Test
+    void jsonComoTextoFormatado() throws Exception {
+        assertThat(objectMapper.writeValueAsString(Cpf.de("52998224725"))).isEqualTo("\"529.982.247-25\"");
+        assertThat(objectMapper.readValue("\"52998224725\"", Cpf.class)).isEqualTo(Cpf.de("529.982.247-25"));
+        assertThatThrownBy(() -> objectMapper.readValue("\"529.982.247-26\"", Cpf.class))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    private static boolean regraDosVerificadores(String digitos) {
+        if (digitos.chars().distinct().count() == 1) {
+            return false;
+        }
+        for (int quantidade = 9; quantidade <= 10; quantidade++) {
+            int soma = 0;
+            for (int i = 0; i < quantidade; i++) {
+                soma += (digitos.charAt(i) - '0') * (quantidade + 1 - i);
+            }
+            int verificador = soma * 10 % 11 % 10;
+            if (digitos.charAt(quantidade) - '0' != verificador) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
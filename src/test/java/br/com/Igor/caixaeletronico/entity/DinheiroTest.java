@@ -0,0 +1,91 @@
+package br.com.Igor.caixaeletronico.entity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DinheiroTest {
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @Test
+    void somaESubtraiEmCentavos() {
+        Dinheiro saldo = Dinheiro.deCentavos(10_050L);
+        
+        assertThat(saldo.somar(Dinheiro.deCentavos(1L))).isEqualTo(Dinheiro.deCentavos(10_051L));
+        assertThat(saldo.subtrair(Dinheiro.deCentavos(10_100L))).isEqualTo(Dinheiro.deCentavos(-50L));
+        assertThat(saldo.negar()).isEqualTo(Dinheiro.deCentavos(-10_050L));
+        assertThat(saldo.subtrair(saldo)).isSameAs(Dinheiro.ZERO);
+        
+        // 0.10 + 0.20 é exato, ao contrário do double
+        assertThat(Dinheiro.de(0.10).somar(Dinheiro.de(0.20))).isEqualTo(Dinheiro.de(new BigDecimal("0.30")));
+    }
+    
+    @Test
+    void estouroLancaArithmeticException() {
+        Dinheiro maximo = Dinheiro.deCentavos(Long.MAX_VALUE);
+        Dinheiro minimo = Dinheiro.deCentavos(Long.MIN_VALUE);
+        
+        assertThatThrownBy(() -> maximo.somar(Dinheiro.deCentavos(1L))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> minimo.subtrair(Dinheiro.deCentavos(1L))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(minimo::negar).isInstanceOf(ArithmeticException.class);
+        assertThat(maximo.subtrair(Dinheiro.deCentavos(1L)).getCentavos()).isEqualTo(Long.MAX_VALUE - 1);
+    }
+    
+    @Test
+    void comparaPeloValor() {
+        Dinheiro um = Dinheiro.deCentavos(100L);
+        
+        assertThat(um.menorQue(Dinheiro.deCentavos(101L))).isTrue();
+        assertThat(um.menorQue(um)).isFalse();
+        assertThat(um).isEqualByComparingTo(Dinheiro.de(1.0)).hasSameHashCodeAs(Dinheiro.deCentavos(100L));
+        assertThat(um.isPositivo()).isTrue();
+        assertThat(um.negar().isPositivo()).isFalse();
+        assertThat(Dinheiro.deCentavos(0L).isZero()).isTrue();
+    }
+    
+    @Test
+    void decimalAceitaNoMaximoDuasCasas() {
+        assertThat(Dinheiro.de(new BigDecimal("1.500")).getCentavos()).isEqualTo(150L);
+        assertThat(Dinheiro.de(new BigDecimal("12")).getCentavos()).isEqualTo(1_200L);
+        assertThat(Dinheiro.de(new BigDecimal("-0.05")).getCentavos()).isEqualTo(-5L);
+        
+        assertThatThrownBy(() -> Dinheiro.de(new BigDecimal("1.005"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Dinheiro.de(new BigDecimal("1e20"))).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("limite");
+    }
+    
+    @Test
+    void doubleArredondaParaOCentavoMaisProximo() {
+        assertThat(Dinheiro.de(19.999).getCentavos()).isEqualTo(2_000L);
+        assertThat(Dinheiro.de(0.1 * 3).getCentavos()).isEqualTo(30L);
+        assertThat(Dinheiro.de(-2.5).getCentavos()).isEqualTo(-250L);
+        
+        assertThatThrownBy(() -> Dinheiro.de(Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Dinheiro.de(1e18)).isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    void textoTemSempreDuasCasas() {
+        assertThat(Dinheiro.deCentavos(7_000L)).hasToString("70.00");
+        assertThat(Dinheiro.deCentavos(-50L)).hasToString("-0.50");
+        assertThat(Dinheiro.deCentavos(5L)).hasToString("0.05");
+        assertThat(Dinheiro.deCentavos(Long.MIN_VALUE)).hasToString("-92233720368547758.08");
+        assertThat(Dinheiro.deCentavos(Long.MIN_VALUE).toBigDecimal())
+                .isEqualTo(new BigDecimal("-92233720368547758.08"));
+    }
+    
+    @Test
+    void jsonComoNumeroComDuasCasas() throws Exception {
+        assertThat(objectMapper.writeValueAsString(Dinheiro.deCentavos(10_000L))).isEqualTo("100.00");
+        assertThat(objectMapper.readValue("100.5", Dinheiro.class)).isEqualTo(Dinheiro.deCentavos(10_050L));
+        assertThat(objectMapper.readValue("\" 3.10 \"", Dinheiro.class)).isEqualTo(Dinheiro.deCentavos(310L));
+        
+        assertThatThrownBy(() -> objectMapper.readValue("0.001", Dinheiro.class))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("2 casas");
+    }
+}
@@ -0,0 +1,106 @@
+package br.com.Igor.caixaeletronico.service;
+
+import br.com.Igor.caixaeletronico.Amostras;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cache de saldos: nenhuma consulta recebe o saldo anterior depois do commit de uma alteração,
+ * e as estatísticas vão para o Micrometer (cache.gets com a tag result)
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("teste")
+class CacheSaldosTest {
+    
+    @Autowired
+    private CacheSaldos cacheSaldos;
+    
+    @Autowired
+    private ContaService contaService;
+    
+    @Autowired
+    private MeterRegistry registry;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Test
+    void acertosEFaltasVaoParaOMicrometer() {
+        contaService.criarConta(930_001, Amostras.titular(930_001), Dinheiro.deCentavos(10_000L));
+        double acertos = consultas("hit");
+        double faltas = consultas("miss");
+        
+        // Primeira consulta lê o banco, a segunda vem do cache
+        assertThat(cacheSaldos.consultar(930_001)).contains(Dinheiro.deCentavos(10_000L));
+        assertThat(cacheSaldos.consultar(930_001)).contains(Dinheiro.deCentavos(10_000L));
+        
+        assertThat(consultas("miss") - faltas).isEqualTo(1.0);
+        assertThat(consultas("hit") - acertos).isEqualTo(1.0);
+        assertThat(registry.get("cache.size").tag("cache", "saldos").gauge().value()).isPositive();
+    }
+    
+    /**
+     * Consulta feita por outra requisição logo depois do commit, antes de qualquer callback
+     * de pós-commit da transação que depositou (inclusive os listeners de evento)
+     */
+    @Test
+    void consultaEntreOCommitEOsCallbacksNaoVeSaldoAnterior() {
+        int numero = 930_002;
+        contaService.criarConta(numero, Amostras.titular(numero), Dinheiro.deCentavos(10_000L));
+        assertThat(cacheSaldos.consultar(numero)).contains(Dinheiro.deCentavos(10_000L));
+        
+        AtomicReference<Optional<Dinheiro>> lidoAposCommit = new AtomicReference<>();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // Registrada antes do depósito: o afterCommit dela roda antes dos registrados por ele
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lidoAposCommit.set(CompletableFuture.supplyAsync(() -> cacheSaldos.consultar(numero))
+                            .orTimeout(30, TimeUnit.SECONDS)
+                            .join());
+                }
+            });
+            contaService.depositar(numero, Dinheiro.deCentavos(5_000L));
+        });
+        
+        assertThat(lidoAposCommit.get()).contains(Dinheiro.deCentavos(15_000L));
+        assertThat(cacheSaldos.consultar(numero)).contains(Dinheiro.deCentavos(15_000L));
+    }
+    
+    @Test
+    void cacheVoltaASerUsadoDepoisDeUmRollback() {
+        int numero = 930_003;
+        contaService.criarConta(numero, Amostras.titular(numero), Dinheiro.deCentavos(10_000L));
+        assertThat(cacheSaldos.consultar(numero)).contains(Dinheiro.deCentavos(10_000L));
+        
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            contaService.depositar(numero, Dinheiro.deCentavos(5_000L));
+            status.setRollbackOnly();
+        });
+        
+        // Primeira consulta recarrega o saldo desfeito, a segunda já vem do cache
+        double acertos = consultas("hit");
+        assertThat(cacheSaldos.consultar(numero)).contains(Dinheiro.deCentavos(10_000L));
+        assertThat(cacheSaldos.consultar(numero)).contains(Dinheiro.deCentavos(10_000L));
+        assertThat(consultas("hit") - acertos).isEqualTo(1.0);
+    }
+    
+    private double consultas(String resultado) {
+        return registry.get("cache.gets").tag("cache", "saldos").tag("result", resultado).functionCounter().count();
+    }
+}
@@ -0,0 +1,211 @@
+package br.com.Igor.caixaeletronico.service;
+
+import br.com.Igor.caixaeletronico.Amostras;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.exception.OperacaoInvalidaException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Depósitos e saques concorrentes na mesma conta, pelas APIs v1 (ContaService) e v3 (ContaServiceV2),
+ * com a estratégia padrão (UPDATE condicional): o saldo final tem de ser o inicial mais os depósitos
+ * menos os saques aceitos, sem atualização perdida e sem saldo negativo.
+ * 
+ * O caminho antigo (ler o saldo, calcular em Java e gravar) perde atualizações com a mesma disputa;
+ * leituraModificacaoGravacaoPerdeAtualizacao reproduz a intercalação de forma determinística.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("teste")
+class ContaServiceConcorrenciaTest {
+    
+    private static final int THREADS = 16;
+    private static final int OPERACOES_POR_THREAD = 250;
+    private static final long SALDO_INICIAL = 50_000L;
+    
+    @Autowired
+    private ContaService contaService;
+    
+    @Autowired
+    private ContaServiceV2 contaServiceV2;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Test
+    void depositosESaquesConcorrentesNaoPerdemAtualizacoes() throws Exception {
+        int numero = 910_001;
+        contaService.criarConta(numero, Amostras.titular(numero), Dinheiro.deCentavos(SALDO_INICIAL));
+        
+        LongAdder creditado = new LongAdder();
+        LongAdder debitado = new LongAdder();
+        LongAdder recusados = new LongAdder();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CyclicBarrier largada = new CyclicBarrier(THREADS);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            boolean v1 = t % 2 == 0;
+            tarefas.add(executor.submit(() -> {
+                largada.await();
+                ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERACOES_POR_THREAD; i++) {
+                    Dinheiro valor = Dinheiro.deCentavos(1 + aleatorio.nextLong(10_000));
+                    if (aleatorio.nextBoolean()) {
+                        if (v1) {
+                            contaService.depositar(numero, valor);
+                        } else {
+                            contaServiceV2.depositar(numero, valor);
+                        }
+                        creditado.add(valor.getCentavos());
+                    } else {
+                        try {
+                            if (v1) {
+                                contaService.sacar(numero, valor);
+                            } else {
+                                contaServiceV2.sacar(numero, valor);
+                            }
+                            debitado.add(valor.getCentavos());
+                        } catch (IllegalArgumentException | OperacaoInvalidaException e) {
+                            // Saldo insuficiente: nada mudou
+                            recusados.increment();
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        
+        long esperado = SALDO_INICIAL + creditado.sum() - debitado.sum();
+        assertThat(saldoNoBanco(numero)).isEqualTo(esperado);
+        assertThat(esperado).isNotNegative();
+        assertThat(contaServiceV2.consultarSaldo(numero).getCentavos()).isEqualTo(esperado);
+        // O extrato tem uma linha por operação aceita, mais o depósito do saldo inicial
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movimentacoes WHERE numero_conta = ?",
+                Long.class, numero))
+                .isEqualTo(1L + THREADS * OPERACOES_POR_THREAD - recusados.sum());
+    }
+    
+    @Test
+    void saquesConcorrentesNuncaDeixamSaldoNegativo() throws Exception {
+        int numero = 910_002;
+        contaService.criarConta(numero, Amostras.titular(numero), Dinheiro.deCentavos(10_000L));
+        
+        // 64 saques de 5,00 sobre 100,00: exatamente 20 podem ser aceitos
+        LongAdder aceitos = new LongAdder();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            tarefas.add(executor.submit(() -> {
+                try {
+                    contaServiceV2.sacar(numero, Dinheiro.deCentavos(500L));
+                    aceitos.increment();
+                } catch (OperacaoInvalidaException e) {
+                    // Saldo insuficiente
+                }
+                return null;
+            }));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        
+        assertThat(aceitos.sum()).isEqualTo(20);
+        assertThat(saldoNoBanco(numero)).isZero();
+    }
+    
+    /**
+     * O caminho antigo: duas transações leem o mesmo saldo antes de qualquer uma gravar,
+     * e a segunda grava o saldo que calculou sobre a leitura já desatualizada
+     */
+    @Test
+    void leituraModificacaoGravacaoPerdeAtualizacao() throws Exception {
+        int numero = 910_003;
+        contaService.criarConta(numero, Amostras.titular(numero), Dinheiro.deCentavos(SALDO_INICIAL));
+        
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        CyclicBarrier ambasLeram = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            tarefas.add(executor.submit(() -> transacao.execute(status -> {
+                BigDecimal lido = jdbcTemplate.queryForObject(
+                    "SELECT saldo FROM contas WHERE numero = ?", BigDecimal.class, numero);
+                aguardar(ambasLeram);
+                jdbcTemplate.update("UPDATE contas SET saldo = ? WHERE numero = ?",
+                    lido.add(new BigDecimal("100.00")), numero);
+                return null;
+            })));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        
+        // Dois depósitos de 100,00 aceitos, um só creditado
+        assertThat(saldoNoBanco(numero)).isEqualTo(SALDO_INICIAL + 10_000L);
+    }
+    
+    /**
+     * A mesma intercalação pelo serviço: as duas transações começam juntas e ambas as
+     * operações valem, porque o UPDATE condicional calcula o saldo na própria linha
+     */
+    @Test
+    void depositosSimultaneosPeloServicoSomamAmbos() throws Exception {
+        int numero = 910_004;
+        contaService.criarConta(numero, Amostras.titular(numero), Dinheiro.deCentavos(SALDO_INICIAL));
+        
+        CyclicBarrier largada = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            tarefas.add(executor.submit(() -> {
+                aguardar(largada);
+                return contaServiceV2.depositar(numero, Dinheiro.deCentavos(10_000L));
+            }));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        
+        assertThat(saldoNoBanco(numero)).isEqualTo(SALDO_INICIAL + 20_000L);
+    }
+    
+    private long saldoNoBanco(int numero) {
+        return jdbcTemplate.queryForObject("SELECT saldo FROM contas WHERE numero = ?", BigDecimal.class, numero)
+                .movePointRight(2).longValueExact();
+    }
+    
+    private static void aguardar(CyclicBarrier barreira) {
+        try {
+            barreira.await(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
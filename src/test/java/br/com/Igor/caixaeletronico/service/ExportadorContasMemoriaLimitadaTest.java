@@ -0,0 +1,97 @@
+package br.com.Igor.caixaeletronico.service;
+
+import br.com.Igor.caixaeletronico.service.ExportadorContas.Formato;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exportação de 300 mil contas com o heap limitado (-Xmx256m, execução memoria-limitada
+ * do surefire no pom.xml), no banco em memória da configuração padrão: a primeira linha tem de
+ * sair sem o H2 montar o resultado inteiro no heap, o que depende de LAZY_QUERY_EXECUTION na URL.
+ * Sem ela, o resultado ordenado retém cerca de 40 bytes por conta antes da primeira linha.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "caixaeletronico.filtro-contas.capacidade-inicial=1000",
+    "caixaeletronico.cache-saldos.tamanho-maximo=1000",
+    "caixaeletronico.idempotencia.cache-bytes=1048576",
+    "caixaeletronico.idempotencia.capacidade-filtro=1000"
+})
+@ActiveProfiles("teste")
+class ExportadorContasMemoriaLimitadaTest {
+    
+    private static final int CONTAS = 300_000;
+    
+    // Retido na primeira linha; sem execução preguiçosa, cerca de 12 MB com estas contas
+    private static final long MAXIMO_RETIDO = 6L * 1024 * 1024;
+    
+    @Autowired
+    private ExportadorContas exportador;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void exportaSemMontarOResultadoEmMemoria() throws Exception {
+        // Direto na tabela: o filtro, o índice de nomes e o cache não precisam conhecer estas contas
+        jdbcTemplate.update("INSERT INTO contas (numero, saldo, data_criacao, versao, titular_nome, titular_cpf) "
+                + "SELECT X, 100.00, CURRENT_TIMESTAMP, 0, CONCAT('Titular ', X), 10000000000 + X "
+                + "FROM SYSTEM_RANGE(1, ?)", CONTAS);
+        
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        long antes = heapAposGc(memoria);
+        MedidorSaida saida = new MedidorSaida(memoria);
+        
+        long exportadas = exportador.exportar(saida, Formato.CSV);
+        
+        assertThat(exportadas).isEqualTo(CONTAS);
+        assertThat(saida.linhas).isEqualTo(CONTAS + 1L);
+        assertThat(saida.heapNaPrimeiraEscrita - antes).isLessThan(MAXIMO_RETIDO);
+    }
+    
+    private static long heapAposGc(MemoryMXBean memoria) {
+        System.gc();
+        return memoria.getHeapMemoryUsage().getUsed();
+    }
+    
+    /**
+     * Descarta a saída contando as linhas; na primeira escrita depois do cabeçalho,
+     * que já traz linhas lidas do cursor, mede o heap retido
+     */
+    private static class MedidorSaida extends OutputStream {
+        
+        private final MemoryMXBean memoria;
+        private long linhas;
+        private int escritas;
+        private long heapNaPrimeiraEscrita;
+        
+        MedidorSaida(MemoryMXBean memoria) {
+            this.memoria = memoria;
+        }
+        
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                linhas++;
+            }
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (++escritas == 2) {
+                heapNaPrimeiraEscrita = heapAposGc(memoria);
+            }
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package br.com.Igor.caixaeletronico.service;
+
+import br.com.Igor.caixaeletronico.Amostras;
+import br.com.Igor.caixaeletronico.dto.ClienteDTO;
+import br.com.Igor.caixaeletronico.dto.ContaRequestDTO;
+import br.com.Igor.caixaeletronico.entity.Cliente;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.repository.ContaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * O filtro só pode errar para o lado de "pode existir": toda conta commitada, por qualquer
+ * caminho de criação e depois das trocas do filtro de Bloom, tem número e CPF reconhecidos
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "caixaeletronico.filtro-contas.capacidade-inicial=64")
+@ActiveProfiles("teste")
+class FiltroContasExistentesTest {
+    
+    @Autowired
+    private FiltroContasExistentes filtroContas;
+    
+    @Autowired
+    private ContaService contaService;
+    
+    @Autowired
+    private ContaServiceV2 contaServiceV2;
+    
+    @Autowired
+    private ContaRepository contaRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Test
+    void contasCriadasPorTodosOsCaminhosSaoReconhecidas() {
+        List<Integer> numeros = new ArrayList<>();
+        for (int numero = 940_000; numero < 940_050; numero++) {
+            contaService.criarConta(numero, Amostras.titular(numero), Dinheiro.deCentavos(100L));
+            numeros.add(numero);
+        }
+        for (int numero = 940_050; numero < 940_100; numero++) {
+            contaServiceV2.criarConta(requisicao(numero));
+            numeros.add(numero);
+        }
+        // Lote acima da capacidade inicial: o filtro de Bloom é trocado várias vezes no meio
+        List<ContaRequestDTO> lote = new ArrayList<>();
+        for (int numero = 940_100; numero < 940_400; numero++) {
+            lote.add(requisicao(numero));
+            numeros.add(numero);
+        }
+        contaServiceV2.criarContas(lote);
+        
+        assertReconhecidas(filtroContas, numeros);
+        
+        // A carga inicial, de outra instância, reconhece as mesmas contas
+        FiltroContasExistentes recarregado = new FiltroContasExistentes(contaRepository, transactionManager, 64);
+        recarregado.carregar();
+        assertReconhecidas(recarregado, numeros);
+    }
+    
+    @Test
+    void trocaDeTitularEExclusaoAtualizamOsConjuntosExatos() {
+        int numero = 940_500;
+        contaServiceV2.criarConta(requisicao(numero));
+        Cliente novoTitular = Amostras.titular(numero + 1);
+        contaServiceV2.atualizarTitular(numero, new ContaRequestDTO(numero,
+                new ClienteDTO(novoTitular.getNome(), novoTitular.getCpf()), Dinheiro.ZERO));
+        
+        assertThat(filtroContas.cpfPodeExistir(novoTitular.getCpf())).isTrue();
+        assertThat(filtroContas.cpfPodeExistir(Amostras.cpf(numero))).isFalse();
+        
+        contaServiceV2.excluirConta(numero);
+        assertThat(filtroContas.numeroPodeExistir(numero)).isFalse();
+        assertThat(filtroContas.cpfPodeExistir(novoTitular.getCpf())).isFalse();
+        
+        // Número e CPF liberados voltam a ser reconhecidos quando reutilizados
+        contaService.criarConta(numero, novoTitular, Dinheiro.ZERO);
+        assertThat(filtroContas.numeroPodeExistir(numero)).isTrue();
+        assertThat(filtroContas.cpfPodeExistir(novoTitular.getCpf())).isTrue();
+    }
+    
+    private static void assertReconhecidas(FiltroContasExistentes filtro, List<Integer> numeros) {
+        for (int numero : numeros) {
+            assertThat(filtro.numeroPodeExistir(numero)).as("número %d", numero).isTrue();
+            assertThat(filtro.cpfPodeExistir(Amostras.cpf(numero))).as("CPF da conta %d", numero).isTrue();
+        }
+    }
+    
+    private static ContaRequestDTO requisicao(int numero) {
+        Cliente titular = Amostras.titular(numero);
+        return new ContaRequestDTO(numero, new ClienteDTO(titular.getNome(), titular.getCpf()), Dinheiro.deCentavos(100L));
+    }
+}
@@ -0,0 +1,201 @@
+package br.com.Igor.caixaeletronico.service;
+
+import br.com.Igor.caixaeletronico.Amostras;
+import br.com.Igor.caixaeletronico.entity.Cliente;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import org.h2.api.Trigger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * O extrato só guarda movimentações de transações commitadas: uma criação que falha no INSERT,
+ * uma operação que desiste de esperar o lote e um commit que falha depois do lote gravado
+ * não podem deixar linhas no extrato
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "caixaeletronico.movimentacoes.timeout-ms=2000")
+@ActiveProfiles("teste")
+class GravadorMovimentacoesTest {
+    
+    @Autowired
+    private ContaService contaService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Test
+    void criacaoConcorrenteDuplicadaNaoDeixaMovimentacaoNoExtrato() {
+        // Outro cadastro com o mesmo CPF commitado entre a verificação e o INSERT:
+        // gravado por fora do serviço, o filtro de CPFs não o conhece e a verificação passa
+        Cliente titular = Amostras.titular(920_001);
+        jdbcTemplate.update("INSERT INTO contas (numero, saldo, data_criacao, versao, titular_nome, titular_cpf) "
+                + "VALUES (?, 0, CURRENT_TIMESTAMP, 0, ?, ?)", 920_000, titular.getNome(), titular.getCpf().getNumero());
+        
+        assertThatThrownBy(() -> contaService.criarConta(920_001, titular, Dinheiro.deCentavos(10_000L)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM contas WHERE numero = ?", Long.class, 920_001))
+                .isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movimentacoes WHERE numero_conta = ?",
+                Long.class, 920_001))
+                .isZero();
+    }
+    
+    @Test
+    void criacaoComSaldoInicialGravaODeposito() {
+        contaService.criarConta(920_002, Amostras.titular(920_002), Dinheiro.deCentavos(10_000L));
+        
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movimentacoes WHERE numero_conta = ?",
+                Long.class, 920_002))
+                .isEqualTo(1L);
+    }
+    
+    @Test
+    void commitQueFalhaDepoisDoLoteApagaAMovimentacaoGravada() {
+        int numero = 920_003;
+        contaService.criarConta(numero, Amostras.titular(numero), Dinheiro.deCentavos(10_000L));
+        
+        // O lote do depósito é commitado no beforeCommit; a falha vem depois, ainda antes do commit da conta
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        assertThatThrownBy(() -> transacao.executeWithoutResult(status -> {
+            contaService.depositar(numero, Dinheiro.deCentavos(5_000L));
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    throw new IllegalStateException("Falha simulada no commit");
+                }
+            });
+        })).hasMessage("Falha simulada no commit");
+        
+        assertThat(saldoNoBanco(numero)).isEqualTo(10_000L);
+        assertThat(movimentacoes(numero)).isEqualTo(1L);
+    }
+    
+    @Test
+    void operacaoQueDesisteDeEsperarOLoteNaoDeixaMovimentacao() throws Exception {
+        int bloqueada = 920_004;
+        int naFila = 920_005;
+        int seguinte = 920_006;
+        for (int numero : new int[] {bloqueada, naFila, seguinte}) {
+            contaService.criarConta(numero, Amostras.titular(numero), Dinheiro.deCentavos(10_000L));
+        }
+        
+        BloqueioExtrato.bloquear(bloqueada);
+        jdbcTemplate.execute("CREATE TRIGGER bloqueio_extrato BEFORE INSERT ON movimentacoes FOR EACH ROW CALL '"
+                + BloqueioExtrato.class.getName() + "'");
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        CountDownLatch naFilaDesistiu = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // A escritora fica presa no INSERT desta movimentação, com o lote já tirado da fila
+            Future<?> primeira = executor.submit(() -> transacao.executeWithoutResult(status -> {
+                contaService.depositar(bloqueada, Dinheiro.deCentavos(5_000L));
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void beforeCompletion() {
+                        // A espera pelo lote já esgotou e vem o rollback: a escritora só termina o lote
+                        // enquanto o rollback aguarda o resultado, e depois que a segunda operação desistiu
+                        aguardar(naFilaDesistiu);
+                        BloqueioExtrato.liberada.countDown();
+                    }
+                });
+            }));
+            assertThat(BloqueioExtrato.entrou.await(30, TimeUnit.SECONDS)).isTrue();
+            
+            // Esta fica na fila atrás do lote preso, esgota a espera e é abandonada
+            assertThatThrownBy(() -> contaService.depositar(naFila, Dinheiro.deCentavos(5_000L)))
+                    .isInstanceOf(IllegalStateException.class);
+            naFilaDesistiu.countDown();
+            
+            // A primeira foi gravada pela escritora e apagada no rollback
+            assertThatThrownBy(() -> primeira.get(30, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        } finally {
+            naFilaDesistiu.countDown();
+            BloqueioExtrato.liberada.countDown();
+            executor.shutdown();
+            jdbcTemplate.execute("DROP TRIGGER bloqueio_extrato");
+        }
+        
+        // A escritora segue gravando os lotes seguintes normalmente
+        contaService.depositar(seguinte, Dinheiro.deCentavos(5_000L));
+        
+        assertThat(saldoNoBanco(bloqueada)).isEqualTo(10_000L);
+        assertThat(saldoNoBanco(naFila)).isEqualTo(10_000L);
+        assertThat(movimentacoes(bloqueada)).isEqualTo(1L);
+        assertThat(movimentacoes(naFila)).isEqualTo(1L);
+        assertThat(movimentacoes(seguinte)).isEqualTo(2L);
+    }
+    
+    private long saldoNoBanco(int numero) {
+        return jdbcTemplate.queryForObject("SELECT saldo FROM contas WHERE numero = ?", BigDecimal.class, numero)
+                .movePointRight(2).longValueExact();
+    }
+    
+    private static void aguardar(CountDownLatch sinal) {
+        try {
+            sinal.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private long movimentacoes(int numero) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movimentacoes WHERE numero_conta = ?",
+                Long.class, numero);
+    }
+    
+    /**
+     * Trigger do H2 que segura a thread escritora no INSERT da primeira movimentação da conta alvo
+     */
+    public static class BloqueioExtrato implements Trigger {
+        
+        static volatile Integer alvo;
+        static CountDownLatch entrou;
+        static CountDownLatch liberada;
+        
+        static void bloquear(int numero) {
+            entrou = new CountDownLatch(1);
+            liberada = new CountDownLatch(1);
+            alvo = numero;
+        }
+        
+        @Override
+        public void fire(Connection conn, Object[] oldRow, Object[] newRow) {
+            for (Object valor : newRow) {
+                if (alvo != null && alvo.equals(valor)) {
+                    alvo = null;
+                    entrou.countDown();
+                    try {
+                        liberada.await(30, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
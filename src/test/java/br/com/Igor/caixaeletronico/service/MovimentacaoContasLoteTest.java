@@ -0,0 +1,75 @@
+package br.com.Igor.caixaeletronico.service;
+
+import br.com.Igor.caixaeletronico.Amostras;
+import br.com.Igor.caixaeletronico.dto.ResultadoItemLoteDTO;
+import br.com.Igor.caixaeletronico.dto.ResultadoLoteDTO;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lote misto de depósitos e saques no motor JPA, com blocos de duas operações: uma operação
+ * recusada no meio não desfaz as anteriores nem impede as seguintes, que partem do saldo certo
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "caixaeletronico.operacoes-lote.tamanho-lote=2")
+@ActiveProfiles("teste")
+class MovimentacaoContasLoteTest {
+    
+    @Autowired
+    private MovimentacaoContasLote movimentacaoContasLote;
+    
+    @Autowired
+    private ContaService contaService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void operacaoRecusadaNoMeioMantemAsDemais() throws Exception {
+        int conta = 950_001;
+        int outra = 950_002;
+        contaService.criarConta(conta, Amostras.titular(conta), Dinheiro.deCentavos(10_000L));
+        contaService.criarConta(outra, Amostras.titular(outra), Dinheiro.deCentavos(1_000L));
+        
+        ResultadoLoteDTO resultado = movimentacaoContasLote.movimentar(corpo("""
+            [
+              {"numero": 950001, "tipo": "DEPOSITO", "valor": 50.00},
+              {"numero": 950001, "tipo": "SAQUE", "valor": 120.00},
+              {"numero": 950001, "tipo": "SAQUE", "valor": 40.00},
+              {"numero": 950002, "tipo": "SAQUE", "valor": 5.00},
+              {"numero": 950999, "tipo": "DEPOSITO", "valor": 1.00},
+              {"numero": 950001, "tipo": "DEPOSITO", "valor": 10.00},
+              {"numero": 950001, "tipo": "SAQUE", "valor": 40.00}
+            ]
+            """));
+        
+        assertThat(resultado.getAceitos()).isEqualTo(5);
+        assertThat(resultado.getRecusados()).isEqualTo(2);
+        assertThat(resultado.getItens()).extracting(ResultadoItemLoteDTO::getStatus)
+                .containsExactly(200, 200, 400, 200, 404, 200, 200);
+        assertThat(resultado.getItens()).extracting(ResultadoItemLoteDTO::getSaldo).containsExactly(
+                Dinheiro.deCentavos(15_000L), Dinheiro.deCentavos(3_000L), null,
+                Dinheiro.deCentavos(500L), null, Dinheiro.deCentavos(4_000L), Dinheiro.ZERO);
+        assertThat(resultado.getItens().get(2).getMensagem()).contains("Saldo insuficiente");
+        
+        assertThat(contaService.consultarSaldo(conta)).isEqualTo(Dinheiro.ZERO);
+        assertThat(contaService.consultarSaldo(outra)).isEqualTo(Dinheiro.deCentavos(500L));
+        // Extrato: o depósito inicial e só as quatro operações aplicadas na conta
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT tipo FROM movimentacoes WHERE numero_conta = ? ORDER BY id", String.class, conta))
+                .containsExactly("DEPOSITO", "DEPOSITO", "SAQUE", "DEPOSITO", "SAQUE");
+    }
+    
+    private static ByteArrayInputStream corpo(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,85 @@
+package br.com.Igor.caixaeletronico.service;
+
+import br.com.Igor.caixaeletronico.entity.RespostaIdempotente;
+import br.com.Igor.caixaeletronico.repository.RespostaIdempotenteRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Gravação das respostas idempotentes: RespostaIdempotente é sempre nova para o save(), que faz
+ * INSERT e não merge, então uma linha expirada da mesma chave ainda não removida pela limpeza
+ * dá violação de chave primária, e o registro a remove antes de gravar de novo
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("teste")
+class RegistroIdempotenciaTest {
+    
+    @Autowired
+    private RegistroIdempotencia registro;
+    
+    @Autowired
+    private RespostaIdempotenteRepository repository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Test
+    void saveDeChaveExistenteEhInsert() {
+        String chave = "registro-teste-existente";
+        inserirExpirada(chave);
+        
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        assertThatThrownBy(() -> transacao.executeWithoutResult(status -> repository.save(resposta(chave, "nova"))))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(impressao(chave)).isEqualTo("expirada");
+    }
+    
+    @Test
+    void chaveComLinhaExpiradaGravaDeNovo() throws Exception {
+        String chave = "registro-teste-reaproveitada";
+        inserirExpirada(chave);
+        
+        Optional<RespostaIdempotente> repetida = registro.executarUmaVez(chave, () -> resposta(chave, "nova"));
+        
+        assertThat(repetida).isEmpty();
+        assertThat(impressao(chave)).isEqualTo("nova");
+        assertThat(jdbcTemplate.queryForObject("SELECT expira_em FROM respostas_idempotentes WHERE chave = ?",
+                Timestamp.class, chave).toLocalDateTime()).isAfter(LocalDateTime.now());
+        // Nova tentativa com a mesma chave recebe a resposta gravada
+        assertThat(registro.executarUmaVez(chave, () -> resposta(chave, "outra")))
+                .get().extracting(RespostaIdempotente::getImpressao).isEqualTo("nova");
+    }
+    
+    private void inserirExpirada(String chave) {
+        jdbcTemplate.update("INSERT INTO respostas_idempotentes (chave, impressao, status, tipo_conteudo, corpo, expira_em) "
+                + "VALUES (?, 'expirada', 200, 'application/json', ?, ?)",
+                chave, "{}".getBytes(StandardCharsets.UTF_8), Timestamp.valueOf(LocalDateTime.now().minusHours(1)));
+    }
+    
+    private String impressao(String chave) {
+        return jdbcTemplate.queryForObject("SELECT impressao FROM respostas_idempotentes WHERE chave = ?",
+                String.class, chave);
+    }
+    
+    private RespostaIdempotente resposta(String chave, String impressao) {
+        return new RespostaIdempotente(chave, impressao, 200, "application/json",
+                "{\"sucesso\":true}".getBytes(StandardCharsets.UTF_8), registro.expiracao());
+    }
+}
@@ -0,0 +1,136 @@
+package br.com.Igor.caixaeletronico.service.busca;
+
+import br.com.Igor.caixaeletronico.exception.OperacaoInvalidaException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IndiceNomesTest {
+    
+    private static final String[] PALAVRAS = {
+        "ana", "joana", "silva", "silveira", "souza", "maria", "mariana", "joao", "jose", "lima",
+        "carvalho", "conceição", "santos", "santana", "luiz", "luiza", "oliveira", "ana paula"
+    };
+    
+    @Test
+    void normalizaAcentosCaixaESeparadores() {
+        assertThat(IndiceNomes.normalizar("  Maria da CONCEIÇÃO--Sá  ")).isEqualTo("maria da conceicao sa");
+        assertThat(IndiceNomes.normalizar("Joãó d'Ávila 2º")).isEqualTo("joao d avila 2");
+        assertThat(IndiceNomes.normalizar("Ωμέγα")).isEmpty();
+    }
+    
+    @Test
+    void ordenaPorInicioDoNomeDepoisInicioDePalavraDepoisMeio() {
+        IndiceNomes indice = new IndiceNomes();
+        indice.adicionar(5, "Mariana Souza");
+        indice.adicionar(1, "Ana Mariana");
+        indice.adicionar(3, "Rosemariana Lima");
+        indice.adicionar(2, "Mariana Alves");
+        indice.adicionar(4, "Pedro Silva");
+        
+        assertThat(indice.buscar("mariana", 0, 10)).containsExactly(2, 5, 1, 3);
+        assertThat(indice.buscar("MARIANA", 0, 10)).containsExactly(2, 5, 1, 3);
+        assertThat(indice.buscar("ana mar", 0, 10)).containsExactly(1);
+        assertThat(indice.buscar("xyz", 0, 10)).isEmpty();
+    }
+    
+    @Test
+    void paginaPeloDeslocamentoAtravessandoAsFaixas() {
+        IndiceNomes indice = new IndiceNomes();
+        indice.adicionar(10, "Silva Souza");
+        indice.adicionar(20, "Silva Lima");
+        indice.adicionar(30, "Ana Silva");
+        indice.adicionar(40, "Joana Silveira");
+        indice.adicionar(50, "Rosilva Costa");
+        
+        assertThat(indice.buscar("silv", 0, 2)).containsExactly(10, 20);
+        assertThat(indice.buscar("silv", 2, 2)).containsExactly(30, 40);
+        assertThat(indice.buscar("silv", 4, 2)).containsExactly(50);
+        assertThat(indice.buscar("silv", 5, 2)).isEmpty();
+        assertThat(indice.buscar("silv", 0, 0)).isEmpty();
+    }
+    
+    @Test
+    void reindexacaoERemocaoTiramOsTermosAntigos() {
+        IndiceNomes indice = new IndiceNomes();
+        indice.adicionar(1, "Carlos Pereira");
+        indice.adicionar(1, "Carla Pereira");
+        indice.adicionar(2, "Carlos Mendes");
+        
+        assertThat(indice.buscar("carlos", 0, 10)).containsExactly(2);
+        assertThat(indice.buscar("carla", 0, 10)).containsExactly(1);
+        assertThat(indice.tamanho()).isEqualTo(2);
+        
+        indice.remover(2);
+        indice.remover(99);
+        assertThat(indice.buscar("carlos", 0, 10)).isEmpty();
+        assertThat(indice.buscar("pereira", 0, 10)).containsExactly(1);
+        assertThat(indice.tamanho()).isEqualTo(1);
+    }
+    
+    @Test
+    void consultaCurtaERecusada() {
+        IndiceNomes indice = new IndiceNomes();
+        
+        assertThatThrownBy(() -> indice.buscar("jo", 0, 10)).isInstanceOf(OperacaoInvalidaException.class);
+        assertThatThrownBy(() -> indice.buscar(" .jo- ", 0, 10)).isInstanceOf(OperacaoInvalidaException.class);
+    }
+    
+    /**
+     * Com números espalhados por várias janelas do bitmap, o resultado e as páginas
+     * coincidem com uma varredura de todos os nomes
+     */
+    @Test
+    void equivaleAVarreduraComPaginas() {
+        IndiceNomes indice = new IndiceNomes();
+        Map<Integer, String> nomes = new HashMap<>();
+        Random aleatorio = new Random(11);
+        for (int i = 0; i < 3_000; i++) {
+            int numero = aleatorio.nextInt(1 << 20);
+            String nome = PALAVRAS[aleatorio.nextInt(PALAVRAS.length)] + " "
+                    + PALAVRAS[aleatorio.nextInt(PALAVRAS.length)] + " "
+                    + PALAVRAS[aleatorio.nextInt(PALAVRAS.length)];
+            indice.adicionar(numero, nome);
+            nomes.put(numero, IndiceNomes.normalizar(nome));
+        }
+        
+        for (String consulta : List.of("ana", "silv", "lima car", "conceicao", "a luiz", "iza oli", "jose")) {
+            List<Integer> esperados = varredura(nomes, consulta);
+            List<Integer> paginados = new ArrayList<>();
+            for (int deslocamento = 0; ; deslocamento += 37) {
+                int[] pagina = indice.buscar(consulta, deslocamento, 37);
+                for (int numero : pagina) {
+                    paginados.add(numero);
+                }
+                if (pagina.length < 37) {
+                    break;
+                }
+            }
+            assertThat(paginados).as(consulta).isEqualTo(esperados);
+        }
+    }
+    
+    private static List<Integer> varredura(Map<Integer, String> nomes, String consulta) {
+        return nomes.entrySet().stream()
+                .filter(e -> e.getValue().contains(consulta))
+                .sorted(Comparator.<Map.Entry<Integer, String>>comparingInt(e -> faixa(e.getValue(), consulta))
+                        .thenComparing(Map.Entry::getKey))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+    
+    private static int faixa(String nome, String consulta) {
+        if (nome.startsWith(consulta)) {
+            return 0;
+        }
+        return nome.contains(" " + consulta) ? 1 : 2;
+    }
+}
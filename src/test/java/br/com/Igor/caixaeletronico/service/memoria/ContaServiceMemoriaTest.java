@@ -0,0 +1,212 @@
+package br.com.Igor.caixaeletronico.service.memoria;
+
+import br.com.Igor.caixaeletronico.Amostras;
+import br.com.Igor.caixaeletronico.dto.ClienteDTO;
+import br.com.Igor.caixaeletronico.dto.ContaRequestDTO;
+import br.com.Igor.caixaeletronico.dto.ContaResponseDTO;
+import br.com.Igor.caixaeletronico.dto.PaginaDTO;
+import br.com.Igor.caixaeletronico.dto.ResultadoItemLoteDTO;
+import br.com.Igor.caixaeletronico.dto.ResultadoLoteDTO;
+import br.com.Igor.caixaeletronico.entity.Cliente;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.exception.ContaJaExisteException;
+import br.com.Igor.caixaeletronico.exception.ContaNaoEncontradaException;
+import br.com.Igor.caixaeletronico.exception.OperacaoInvalidaException;
+import br.com.Igor.caixaeletronico.mapper.ContaMapper;
+import br.com.Igor.caixaeletronico.service.ExportadorContas;
+import br.com.Igor.caixaeletronico.service.LeitorLoteJson;
+import br.com.Igor.caixaeletronico.service.MovimentacaoContasLote;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContaServiceMemoriaTest {
+    
+    @TempDir
+    Path diretorio;
+    
+    @Test
+    void contaZeroNaoExiste() throws Exception {
+        ContaServiceMemoria servico = novoServico();
+        servico.criarConta(requisicao(1));
+        servico.criarConta(requisicao(2));
+        
+        assertThatThrownBy(() -> servico.buscarConta(0)).isInstanceOf(ContaNaoEncontradaException.class);
+        assertThatThrownBy(() -> servico.consultarSaldo(0)).isInstanceOf(ContaNaoEncontradaException.class);
+        assertThatThrownBy(() -> servico.depositar(0, Dinheiro.deCentavos(100L)))
+                .isInstanceOf(ContaNaoEncontradaException.class);
+        assertThatThrownBy(() -> servico.excluirConta(0)).isInstanceOf(ContaNaoEncontradaException.class);
+        
+        assertThat(numeros(servico)).containsExactly(1, 2);
+        servico.excluirConta(1);
+        assertThat(numeros(servico)).containsExactly(2);
+    }
+    
+    @Test
+    void contaInexistenteERecusadaEmTodasAsOperacoes() throws Exception {
+        ContaServiceMemoria servico = novoServico();
+        servico.criarConta(requisicao(1));
+        
+        assertThatThrownBy(() -> servico.buscarConta(2)).isInstanceOf(ContaNaoEncontradaException.class);
+        assertThatThrownBy(() -> servico.consultarSaldo(2)).isInstanceOf(ContaNaoEncontradaException.class);
+        assertThatThrownBy(() -> servico.depositar(2, Dinheiro.deCentavos(100L)))
+                .isInstanceOf(ContaNaoEncontradaException.class);
+        assertThatThrownBy(() -> servico.sacar(2, Dinheiro.deCentavos(100L)))
+                .isInstanceOf(ContaNaoEncontradaException.class);
+        assertThatThrownBy(() -> servico.atualizarTitular(2, requisicao(2)))
+                .isInstanceOf(ContaNaoEncontradaException.class);
+        assertThatThrownBy(() -> servico.excluirConta(2)).isInstanceOf(ContaNaoEncontradaException.class);
+        
+        servico.excluirConta(1);
+        assertThatThrownBy(() -> servico.buscarConta(1)).isInstanceOf(ContaNaoEncontradaException.class);
+        assertThatThrownBy(() -> servico.sacar(1, Dinheiro.deCentavos(100L)))
+                .isInstanceOf(ContaNaoEncontradaException.class);
+    }
+    
+    @Test
+    void saqueMaiorQueOSaldoERecusadoSemAlterarOSaldo() throws Exception {
+        ContaServiceMemoria servico = novoServico();
+        servico.criarConta(requisicao(1));
+        
+        assertThatThrownBy(() -> servico.sacar(1, Dinheiro.deCentavos(10_001L)))
+                .isInstanceOf(OperacaoInvalidaException.class)
+                .hasMessageContaining("Saldo insuficiente");
+        assertThat(servico.consultarSaldo(1)).isEqualTo(Dinheiro.deCentavos(10_000L));
+        
+        assertThat(servico.sacar(1, Dinheiro.deCentavos(10_000L)).getSaldo()).isEqualTo(Dinheiro.ZERO);
+        assertThatThrownBy(() -> servico.sacar(1, Dinheiro.deCentavos(1L)))
+                .isInstanceOf(OperacaoInvalidaException.class);
+        assertThat(servico.consultarSaldo(1)).isEqualTo(Dinheiro.ZERO);
+    }
+    
+    @Test
+    void cpfOuNumeroRepetidoERecusado() throws Exception {
+        ContaServiceMemoria servico = novoServico();
+        servico.criarConta(requisicao(1));
+        servico.criarConta(requisicao(2));
+        
+        ContaRequestDTO mesmoCpf = new ContaRequestDTO(3, new ClienteDTO("Outro Titular", Amostras.cpf(1)),
+                Dinheiro.deCentavos(100L));
+        assertThatThrownBy(() -> servico.criarConta(mesmoCpf)).isInstanceOf(ContaJaExisteException.class);
+        assertThatThrownBy(() -> servico.criarConta(requisicao(1))).isInstanceOf(ContaJaExisteException.class);
+        assertThatThrownBy(() -> servico.atualizarTitular(2, requisicao(1)))
+                .isInstanceOf(ContaJaExisteException.class);
+        
+        assertThat(numeros(servico)).containsExactly(1, 2);
+        assertThat(servico.buscarConta(2).getTitular().getCpf()).isEqualTo(Amostras.cpf(2));
+        
+        // Depois da exclusão o CPF fica livre para outra conta
+        servico.excluirConta(1);
+        assertThat(servico.criarConta(mesmoCpf).getNumero()).isEqualTo(3);
+    }
+    
+    @Test
+    void exportacaoPercorreTodasAsContasEmOrdem() throws Exception {
+        ContaServiceMemoria servico = novoServico();
+        List<ContaRequestDTO> lote = new ArrayList<>();
+        for (int numero = 2_500; numero >= 1; numero--) {
+            lote.add(requisicao(numero));
+        }
+        servico.criarContas(lote);
+        
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        assertThat(servico.exportarContas(saida, ExportadorContas.Formato.CSV)).isEqualTo(2_500);
+        
+        String[] linhas = saida.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(linhas).hasSize(2_501);
+        assertThat(linhas[0]).startsWith("numero,");
+        assertThat(linhas[1]).startsWith("1,Titular Teste 1," + Amostras.cpf(1) + ",100.00,");
+        assertThat(linhas[2_500]).startsWith("2500,");
+    }
+    
+    /**
+     * Mesmo lote do MovimentacaoContasLoteTest (motor JPA), com blocos de duas operações
+     */
+    @Test
+    void loteDeOperacoesComRecusaNoMeioMantemAsDemais() throws Exception {
+        ContaServiceMemoria servico = novoServico();
+        servico.criarConta(requisicao(950_001));
+        servico.criarConta(new ContaRequestDTO(950_002, requisicao(950_002).getTitular(), Dinheiro.deCentavos(1_000L)));
+        ObjectMapper objectMapper = new ObjectMapper();
+        MovimentacaoContasLote movimentacaoContasLote = new MovimentacaoContasLote(servico,
+                new LeitorLoteJson(objectMapper, Validation.buildDefaultValidatorFactory().getValidator()), 2);
+        
+        ResultadoLoteDTO resultado = movimentacaoContasLote.movimentar(new ByteArrayInputStream("""
+            [
+              {"numero": 950001, "tipo": "DEPOSITO", "valor": 50.00},
+              {"numero": 950001, "tipo": "SAQUE", "valor": 120.00},
+              {"numero": 950001, "tipo": "SAQUE", "valor": 40.00},
+              {"numero": 950002, "tipo": "SAQUE", "valor": 5.00},
+              {"numero": 950999, "tipo": "DEPOSITO", "valor": 1.00},
+              {"numero": 950001, "tipo": "DEPOSITO", "valor": 10.00},
+              {"numero": 950001, "tipo": "SAQUE", "valor": 40.00}
+            ]
+            """.getBytes(StandardCharsets.UTF_8)));
+        
+        assertThat(resultado.getAceitos()).isEqualTo(5);
+        assertThat(resultado.getItens()).extracting(ResultadoItemLoteDTO::getStatus)
+                .containsExactly(200, 200, 400, 200, 404, 200, 200);
+        assertThat(resultado.getItens()).extracting(ResultadoItemLoteDTO::getSaldo).containsExactly(
+                Dinheiro.deCentavos(15_000L), Dinheiro.deCentavos(3_000L), null,
+                Dinheiro.deCentavos(500L), null, Dinheiro.deCentavos(4_000L), Dinheiro.ZERO);
+        assertThat(resultado.getItens().get(2).getMensagem()).contains("Saldo insuficiente");
+        assertThat(servico.consultarSaldo(950_001)).isEqualTo(Dinheiro.ZERO);
+        assertThat(servico.consultarSaldo(950_002)).isEqualTo(Dinheiro.deCentavos(500L));
+    }
+    
+    @Test
+    void loteESnapshotMantemAOrdemDaListagem() throws Exception {
+        ContaServiceMemoria servico = novoServico();
+        Random aleatorio = new Random(7);
+        List<ContaRequestDTO> lote = new ArrayList<>();
+        aleatorio.ints(1, 1_000_000).distinct().limit(2_000).forEach(numero -> lote.add(requisicao(numero)));
+        servico.criarContas(lote);
+        servico.criarConta(requisicao(500_000_001));
+        
+        List<Integer> esperados = lote.stream().map(ContaRequestDTO::getNumero).sorted().toList();
+        List<Integer> listados = numeros(servico);
+        assertThat(listados).hasSize(2_001);
+        assertThat(listados.subList(0, 2_000)).isEqualTo(esperados);
+        
+        servico.gravarSnapshot();
+        ContaServiceMemoria recarregado = novoServico();
+        assertThat(numeros(recarregado)).isEqualTo(listados);
+        assertThat(recarregado.consultarSaldo(esperados.get(0))).isEqualTo(Dinheiro.deCentavos(10_000L));
+    }
+    
+    private ContaServiceMemoria novoServico() throws Exception {
+        ContaServiceMemoria servico = new ContaServiceMemoria(new ContaMapper(),
+                new ExportadorContas(null, new ContaMapper(), new ObjectMapper()), 16,
+                diretorio.resolve("contas.snapshot").toString());
+        servico.carregarSnapshot();
+        return servico;
+    }
+    
+    private static ContaRequestDTO requisicao(int numero) {
+        Cliente titular = Amostras.titular(numero);
+        return new ContaRequestDTO(numero, new ClienteDTO(titular.getNome(), titular.getCpf()), Dinheiro.deCentavos(10_000L));
+    }
+    
+    private static List<Integer> numeros(ContaServiceMemoria servico) {
+        List<Integer> numeros = new ArrayList<>();
+        Integer apos = null;
+        do {
+            PaginaDTO<ContaResponseDTO> pagina = servico.listarContas(apos, 1000);
+            pagina.getItens().stream().map(ContaResponseDTO::getNumero).forEach(numeros::add);
+            apos = pagina.getProximoCursor();
+        } while (apos != null);
+        return numeros;
+    }
+}
@@ -0,0 +1,69 @@
+package br.com.Igor.caixaeletronico.service.memoria;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TabelaContasTest {
+    
+    private static final LocalDateTime CRIACAO = LocalDateTime.of(2024, 1, 15, 10, 30);
+    
+    @Test
+    void numeroNaoPositivoNuncaEncontraPosicaoLivre() {
+        TabelaContas tabela = new TabelaContas(16);
+        tabela.inserir(7, "Titular 7", 10000000007L, 100L, CRIACAO);
+        
+        assertThat(tabela.posicao(0)).isEqualTo(-1);
+        assertThat(tabela.posicao(-7)).isEqualTo(-1);
+        
+        // Antes, remover(0) achava uma posição livre e decrementava o tamanho
+        tabela.remover(0);
+        assertThat(tabela.tamanho()).isEqualTo(1);
+        assertThat(tabela.numeroOrdenado(0)).isEqualTo(7);
+        assertThat(tabela.posicao(7)).isNotNegative();
+    }
+    
+    @Test
+    void inserirNumeroNaoPositivoFalha() {
+        TabelaContas tabela = new TabelaContas(16);
+        
+        assertThatThrownBy(() -> tabela.inserir(0, "Titular", 10000000000L, 0L, CRIACAO))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(tabela.tamanho()).isZero();
+    }
+    
+    @Test
+    void cargaEmMassaMantemAOrdemCrescente() {
+        TabelaContas tabela = new TabelaContas(16);
+        Random aleatorio = new Random(42);
+        int[] numeros = aleatorio.ints(1, Integer.MAX_VALUE).distinct().limit(20_000).toArray();
+        
+        // Uma parte inserida uma a uma, o resto em massa com uma única intercalação
+        for (int i = 0; i < 5_000; i++) {
+            tabela.inserir(numeros[i], "Titular " + i, 10000000000L + i, i, CRIACAO);
+        }
+        for (int i = 5_000; i < numeros.length; i++) {
+            tabela.inserirSemOrdenar(numeros[i], "Titular " + i, 10000000000L + i, i, CRIACAO);
+        }
+        tabela.ordenarPendentes();
+        
+        int[] esperados = numeros.clone();
+        Arrays.sort(esperados);
+        assertThat(tabela.tamanho()).isEqualTo(numeros.length);
+        for (int i = 0; i < esperados.length; i++) {
+            assertThat(tabela.numeroOrdenado(i)).isEqualTo(esperados[i]);
+        }
+        
+        // Remoções depois da carga continuam encontrando os números na ordem
+        tabela.remover(esperados[0]);
+        tabela.remover(esperados[esperados.length - 1]);
+        assertThat(tabela.tamanho()).isEqualTo(numeros.length - 2);
+        assertThat(tabela.numeroOrdenado(0)).isEqualTo(esperados[1]);
+        assertThat(tabela.inicioApos(esperados[1])).isEqualTo(1);
+    }
+}
@@ -0,0 +1,189 @@
+package br.com.Igor.caixaeletronico.service.reativo;
+
+import br.com.Igor.caixaeletronico.Amostras;
+import br.com.Igor.caixaeletronico.dto.ClienteDTO;
+import br.com.Igor.caixaeletronico.dto.ContaRequestDTO;
+import br.com.Igor.caixaeletronico.dto.ContaResponseDTO;
+import br.com.Igor.caixaeletronico.dto.ResultadoItemLoteDTO;
+import br.com.Igor.caixaeletronico.dto.ResultadoLoteDTO;
+import br.com.Igor.caixaeletronico.entity.Cliente;
+import br.com.Igor.caixaeletronico.entity.Dinheiro;
+import br.com.Igor.caixaeletronico.exception.ContaJaExisteException;
+import br.com.Igor.caixaeletronico.exception.ContaNaoEncontradaException;
+import br.com.Igor.caixaeletronico.exception.OperacaoInvalidaException;
+import br.com.Igor.caixaeletronico.service.CacheSaldos;
+import br.com.Igor.caixaeletronico.service.ContaServiceV2;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Motor R2DBC da v4 contra o mesmo banco do JPA: as escritas aparecem para o motor JPA,
+ * gravam o extrato na mesma transação e invalidam o cache de saldos
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"caixaeletronico.v4.habilitado=true", "caixaeletronico.v4.porta=0",
+            "caixaeletronico.contas-lote.tamanho-lote=2"})
+@ActiveProfiles("teste")
+class ContaServiceReativoTest {
+    
+    @Autowired
+    private ContaServiceReativo contaServiceReativo;
+    
+    @Autowired
+    private ContaServiceV2 contaServiceV2;
+    
+    @Autowired
+    private CacheSaldos cacheSaldos;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void criaMovimentaEExcluiVisivelAoMotorJpa() {
+        int numero = 960_001;
+        ContaResponseDTO criada = contaServiceReativo.criarConta(requisicao(numero, 10_000L)).block();
+        assertThat(criada.getNumero()).isEqualTo(numero);
+        assertThat(criada.getSaldo()).isEqualTo(Dinheiro.deCentavos(10_000L));
+        assertThat(contaServiceV2.buscarConta(numero).getTitular().getCpf()).isEqualTo(Amostras.cpf(numero));
+        
+        assertThat(contaServiceReativo.depositar(numero, Dinheiro.deCentavos(2_550L)).block().getSaldo())
+                .isEqualTo(Dinheiro.deCentavos(12_550L));
+        assertThat(contaServiceReativo.sacar(numero, Dinheiro.deCentavos(550L)).block().getSaldo())
+                .isEqualTo(Dinheiro.deCentavos(12_000L));
+        
+        assertThat(contaServiceV2.buscarConta(numero).getSaldo()).isEqualTo(Dinheiro.deCentavos(12_000L));
+        assertThat(contaServiceReativo.consultarSaldo(numero).block()).isEqualTo(Dinheiro.deCentavos(12_000L));
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT tipo FROM movimentacoes WHERE numero_conta = ? ORDER BY id", String.class, numero))
+                .containsExactly("DEPOSITO", "SAQUE");
+        
+        contaServiceReativo.excluirConta(numero).block();
+        assertThatThrownBy(() -> contaServiceV2.buscarConta(numero)).isInstanceOf(ContaNaoEncontradaException.class);
+        assertThatThrownBy(() -> contaServiceReativo.consultarSaldo(numero).block())
+                .isInstanceOf(ContaNaoEncontradaException.class);
+    }
+    
+    @Test
+    void saqueRecusadoNaoAlteraSaldoNemExtrato() {
+        int numero = 960_010;
+        contaServiceReativo.criarConta(requisicao(numero, 1_000L)).block();
+        
+        assertThatThrownBy(() -> contaServiceReativo.sacar(numero, Dinheiro.deCentavos(1_001L)).block())
+                .isInstanceOf(OperacaoInvalidaException.class)
+                .hasMessageContaining("Saldo insuficiente");
+        assertThatThrownBy(() -> contaServiceReativo.depositar(numero, Dinheiro.ZERO).block())
+                .isInstanceOf(OperacaoInvalidaException.class);
+        
+        assertThat(contaServiceReativo.consultarSaldo(numero).block()).isEqualTo(Dinheiro.deCentavos(1_000L));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM movimentacoes WHERE numero_conta = ?", Integer.class, numero)).isZero();
+    }
+    
+    @Test
+    void contaInexistenteEDuplicadaSaoRecusadas() {
+        int numero = 960_020;
+        contaServiceReativo.criarConta(requisicao(numero, 0L)).block();
+        
+        assertThatThrownBy(() -> contaServiceReativo.buscarConta(960_029).block())
+                .isInstanceOf(ContaNaoEncontradaException.class);
+        assertThatThrownBy(() -> contaServiceReativo.depositar(960_029, Dinheiro.deCentavos(100L)).block())
+                .isInstanceOf(ContaNaoEncontradaException.class);
+        assertThatThrownBy(() -> contaServiceReativo.sacar(960_029, Dinheiro.deCentavos(100L)).block())
+                .isInstanceOf(ContaNaoEncontradaException.class);
+        assertThatThrownBy(() -> contaServiceReativo.excluirConta(960_029).block())
+                .isInstanceOf(ContaNaoEncontradaException.class);
+        
+        // Mesmo número com outro CPF, e outro número com o mesmo CPF
+        assertThatThrownBy(() -> contaServiceReativo.criarConta(requisicao(numero, Amostras.titular(960_021), 0L)).block())
+                .isInstanceOf(ContaJaExisteException.class);
+        assertThatThrownBy(() -> contaServiceReativo.criarConta(requisicao(960_022, Amostras.titular(numero), 0L)).block())
+                .isInstanceOf(ContaJaExisteException.class);
+        assertThatThrownBy(() -> contaServiceReativo.atualizarTitular(960_029, requisicao(960_029, 0L)).block())
+                .isInstanceOf(ContaNaoEncontradaException.class);
+    }
+    
+    @Test
+    void escritaInvalidaOSaldoEmCache() {
+        int numero = 960_030;
+        contaServiceReativo.criarConta(requisicao(numero, 5_000L)).block();
+        // Saldo carregado no cache pelo caminho JPA antes da escrita reativa
+        assertThat(cacheSaldos.consultar(numero)).contains(Dinheiro.deCentavos(5_000L));
+        
+        contaServiceReativo.depositar(numero, Dinheiro.deCentavos(1_000L)).block();
+        assertThat(contaServiceReativo.consultarSaldo(numero).block()).isEqualTo(Dinheiro.deCentavos(6_000L));
+        assertThat(cacheSaldos.consultar(numero)).contains(Dinheiro.deCentavos(6_000L));
+        
+        contaServiceReativo.sacar(numero, Dinheiro.deCentavos(6_000L)).block();
+        assertThat(cacheSaldos.consultar(numero)).contains(Dinheiro.ZERO);
+    }
+    
+    @Test
+    void atualizacaoDeTitularTrocaOCpfReservado() {
+        int numero = 960_040;
+        contaServiceReativo.criarConta(requisicao(numero, 0L)).block();
+        Cliente novoTitular = Amostras.titular(960_041);
+        
+        ContaResponseDTO atualizada = contaServiceReativo.atualizarTitular(numero,
+                requisicao(numero, novoTitular, 0L)).block();
+        assertThat(atualizada.getTitular().getNome()).isEqualTo(novoTitular.getNome());
+        assertThat(contaServiceV2.buscarConta(numero).getTitular().getCpf()).isEqualTo(novoTitular.getCpf());
+        
+        // O CPF antigo fica livre para outra conta; o novo, não
+        contaServiceReativo.criarConta(requisicao(960_042, Amostras.titular(numero), 0L)).block();
+        assertThatThrownBy(() -> contaServiceReativo.criarConta(requisicao(960_043, novoTitular, 0L)).block())
+                .isInstanceOf(ContaJaExisteException.class);
+    }
+    
+    /**
+     * Blocos de duas contas, com o corpo quebrado no meio de um item: as duplicadas são
+     * recusadas com 409 e as demais criadas
+     */
+    @Test
+    void loteEmStreamingRecusaSoAsDuplicadas() {
+        contaServiceReativo.criarConta(requisicao(960_050, 0L)).block();
+        String json = "[" + item(960_051) + "," + item(960_050) + "," + item(960_052) + ","
+                + item(960_051) + "," + item(960_053) + "]";
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        int meio = bytes.length / 2;
+        Flux<DataBuffer> corpo = Flux.just(
+                DefaultDataBufferFactory.sharedInstance.wrap(Arrays.copyOfRange(bytes, 0, meio)),
+                DefaultDataBufferFactory.sharedInstance.wrap(Arrays.copyOfRange(bytes, meio, bytes.length)));
+        
+        ResultadoLoteDTO resultado = contaServiceReativo.cadastrarLote(corpo).block();
+        
+        assertThat(resultado.getAceitos()).isEqualTo(3);
+        assertThat(resultado.getRecusados()).isEqualTo(2);
+        assertThat(resultado.getItens()).extracting(ResultadoItemLoteDTO::getStatus)
+                .containsExactly(201, 409, 201, 409, 201);
+        for (int numero : new int[] {960_051, 960_052, 960_053}) {
+            assertThat(contaServiceV2.buscarConta(numero).getSaldo()).isEqualTo(Dinheiro.deCentavos(100L));
+        }
+    }
+    
+    private static String item(int numero) {
+        Cliente titular = Amostras.titular(numero);
+        return "{\"numero\": " + numero + ", \"titular\": {\"nome\": \"" + titular.getNome() + "\", \"cpf\": \""
+                + titular.getCpf() + "\"}, \"saldoInicial\": 1.00}";
+    }
+    
+    private static ContaRequestDTO requisicao(int numero, long centavos) {
+        return requisicao(numero, Amostras.titular(numero), centavos);
+    }
+    
+    private static ContaRequestDTO requisicao(int numero, Cliente titular, long centavos) {
+        return new ContaRequestDTO(numero, new ClienteDTO(titular.getNome(), titular.getCpf()),
+                Dinheiro.deCentavos(centavos));
+    }
+}